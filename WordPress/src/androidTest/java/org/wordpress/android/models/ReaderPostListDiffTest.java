@@ -0,0 +1,130 @@
+package org.wordpress.android.models;
+
+import android.test.InstrumentationTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReaderPostListDiffTest extends InstrumentationTestCase {
+
+    private static ReaderPost makePost(long postId) {
+        ReaderPost post = new ReaderPost();
+        post.blogId = 1;
+        post.postId = postId;
+        post.setPseudoId("pseudo-" + postId);
+        post.setTitle("post " + postId);
+        return post;
+    }
+
+    private static ReaderPostList makeList(long... postIds) {
+        ReaderPostList posts = new ReaderPostList();
+        for (long postId : postIds) {
+            posts.add(makePost(postId));
+        }
+        return posts;
+    }
+
+    /*
+     * applies the diff's updates to a list of the old post ids, counting moves & changes
+     */
+    private static class ListCallback implements ReaderPostListDiff.Callback {
+        final List<Long> postIds = new ArrayList<Long>();
+        int numMoves;
+        int numChanged;
+
+        ListCallback(ReaderPostList posts) {
+            for (ReaderPost post : posts) {
+                postIds.add(post.postId);
+            }
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                postIds.add(position + i, -1L);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                postIds.remove(position);
+            }
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            postIds.add(toPosition, postIds.remove(fromPosition));
+            numMoves++;
+        }
+
+        @Override
+        public void onChanged(int position, int count) {
+            numChanged += count;
+        }
+    }
+
+    private static ListCallback applyDiff(ReaderPostList oldPosts, ReaderPostList newPosts) {
+        ListCallback callback = new ListCallback(oldPosts);
+        ReaderPostListDiff.compute(oldPosts, newPosts).dispatchUpdates(callback);
+
+        // existing posts must end up in their new positions, with inserts everywhere else
+        assertEquals(newPosts.size(), callback.postIds.size());
+        for (int i = 0; i < newPosts.size(); i++) {
+            long postId = newPosts.get(i).postId;
+            if (oldPosts.indexOfPost(newPosts.get(i)) > -1) {
+                assertEquals(postId, (long) callback.postIds.get(i));
+            } else {
+                assertEquals(-1L, (long) callback.postIds.get(i));
+            }
+        }
+        return callback;
+    }
+
+    public void testSameListHasNoChanges() {
+        ReaderPostList posts = makeList(1, 2, 3);
+        assertFalse(ReaderPostListDiff.compute(posts, makeList(1, 2, 3)).hasChanges());
+    }
+
+    public void testNewPostsInsertedAtTop() {
+        ListCallback callback = applyDiff(makeList(3, 4, 5), makeList(1, 2, 3, 4, 5));
+        assertEquals(0, callback.numMoves);
+        assertEquals(0, callback.numChanged);
+    }
+
+    public void testRemovedPosts() {
+        ListCallback callback = applyDiff(makeList(1, 2, 3, 4, 5), makeList(1, 3, 5));
+        assertEquals(0, callback.numMoves);
+    }
+
+    public void testMovesAreMinimal() {
+        // moving the last post to the top should be a single move, not four
+        ListCallback callback = applyDiff(makeList(1, 2, 3, 4, 5), makeList(5, 1, 2, 3, 4));
+        assertEquals(1, callback.numMoves);
+    }
+
+    public void testReversedList() {
+        ReaderPostList oldPosts = new ReaderPostList();
+        ReaderPostList newPosts = new ReaderPostList();
+        for (int i = 0; i < 50; i++) {
+            oldPosts.add(makePost(i));
+            newPosts.add(0, makePost(i));
+        }
+        ListCallback callback = applyDiff(oldPosts, newPosts);
+        assertEquals(49, callback.numMoves);
+    }
+
+    public void testMixedUpdates() {
+        applyDiff(makeList(1, 2, 3, 4, 5, 6), makeList(7, 4, 1, 8, 6, 2));
+        applyDiff(makeList(1, 2, 3), makeList());
+        applyDiff(makeList(), makeList(1, 2, 3));
+    }
+
+    public void testChangedPost() {
+        ReaderPostList oldPosts = makeList(1, 2, 3);
+        ReaderPostList newPosts = makeList(1, 2, 3);
+        newPosts.get(1).numLikes = 10;
+        ListCallback callback = applyDiff(oldPosts, newPosts);
+        assertEquals(1, callback.numChanged);
+    }
+}
@@ -10,8 +10,19 @@ import org.wordpress.android.TestUtils;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.WordPressDB;
 import org.wordpress.android.models.CategoryNode;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 public class WordPressDB_Test extends InstrumentationTestCase {
+    private static final int BENCHMARK_ACCOUNTS = 1000;
+    private static final int BENCHMARK_ITERATIONS = 20;
+
     protected Context testContext;
     protected Context targetContext;
 
@@ -21,4 +32,98 @@ public class WordPressDB_Test extends InstrumentationTestCase {
         targetContext = new RenamingDelegatingContext(getInstrumentation().getTargetContext(), "test_");
         testContext = getInstrumentation().getContext();
     }
+
+    /*
+     * adds the passed number of accounts in random order - every tenth is hidden, every
+     * twentieth has no name, and names differ in case so the sort has to ignore it
+     */
+    private WordPressDB createDbWithAccounts(int numAccounts) {
+        TestUtils.dropDB(targetContext);
+        WordPressDB wpDb = new WordPressDB(targetContext);
+        WordPress.wpDB = wpDb;
+
+        List<Integer> order = new ArrayList<Integer>(numAccounts);
+        for (int i = 0; i < numAccounts; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(42));
+
+        SQLiteDatabase db = wpDb.getDatabase();
+        db.beginTransaction();
+        try {
+            for (int i : order) {
+                Blog blog = new Blog(String.format("https://site%04d.example.com/xmlrpc.php", i), "user", "password");
+                blog.setBlogName(i % 20 == 5 ? "" : (i % 2 == 0 ? "blog " : "Blog ") + String.format("%04d", i));
+                blog.setRemoteBlogId(i + 1);
+                blog.setDotcomFlag(i % 3 == 0);
+                blog.setHidden(i % 10 == 0);
+                assertTrue(wpDb.addBlog(blog));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return wpDb;
+    }
+
+    public void testAccountSummariesMatchAccountMaps() {
+        WordPressDB wpDb = createDbWithAccounts(100);
+
+        List<Map<String, Object>> maps = wpDb.getVisibleAccounts();
+        List<AccountSummary> summaries = wpDb.getVisibleAccountSummaries();
+        assertEquals(maps.size(), summaries.size());
+        for (int i = 0; i < maps.size(); i++) {
+            assertEquals(maps.get(i).get("id"), summaries.get(i).getLocalId());
+            assertEquals(maps.get(i).get("blogId"), summaries.get(i).getRemoteBlogId());
+        }
+
+        List<Map<String, Object>> dotComMaps = wpDb.getVisibleDotComAccounts();
+        List<AccountSummary> dotComSummaries = wpDb.getVisibleDotComAccountSummaries();
+        assertEquals(dotComMaps.size(), dotComSummaries.size());
+        for (int i = 0; i < dotComMaps.size(); i++) {
+            assertEquals(dotComMaps.get(i).get("id"), dotComSummaries.get(i).getLocalId());
+        }
+    }
+
+    public void testAccountSummariesClearedOnChange() {
+        WordPressDB wpDb = createDbWithAccounts(10);
+
+        List<AccountSummary> summaries = wpDb.getVisibleAccountSummaries();
+        assertSame(summaries, wpDb.getVisibleAccountSummaries());
+
+        wpDb.deleteAccount(targetContext, summaries.get(0).getLocalId());
+        assertEquals(summaries.size() - 1, wpDb.getVisibleAccountSummaries().size());
+    }
+
+    public void testAccountSummaryBenchmark() {
+        WordPressDB wpDb = createDbWithAccounts(BENCHMARK_ACCOUNTS);
+
+        // warm up both queries before timing them
+        wpDb.getVisibleAccounts();
+        wpDb.getAccountSummariesBy("isHidden = 0");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            wpDb.getVisibleAccounts();
+        }
+        long mapNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            wpDb.getAccountSummariesBy("isHidden = 0");
+        }
+        long summaryNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            wpDb.getVisibleAccountSummaries();
+        }
+        long cachedNanos = System.nanoTime() - start;
+
+        AppLog.i(T.TESTS, String.format("visible accounts benchmark, %d accounts x %d: maps %d ms, summaries %d ms, cached %d ms",
+                BENCHMARK_ACCOUNTS, BENCHMARK_ITERATIONS, mapNanos / 1000000, summaryNanos / 1000000,
+                cachedNanos / 1000000));
+
+        assertEquals(wpDb.getVisibleAccounts().size(), wpDb.getVisibleAccountSummaries().size());
+    }
 }
@@ -0,0 +1,88 @@
+package org.wordpress.android.ui;
+
+import android.app.Activity;
+import android.app.Instrumentation;
+import android.content.Intent;
+
+import org.wordpress.android.DefaultMocksInstrumentationTestCase;
+import org.wordpress.android.ui.reader.ReaderPostListActivity;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Launches the app's entry activities repeatedly and logs how long each took to be shown, as
+ * percentiles - compare the TESTS log output before and after a change to catch startup
+ * regressions. The app's process is already running when these run, so the first launch is the
+ * coldest we can measure here (its classes aren't loaded and its caches are empty) and the rest
+ * are warm starts.
+ */
+public class StartupBenchmarkTest extends DefaultMocksInstrumentationTestCase {
+    private static final int NUM_LAUNCHES = 20;
+    private static final long LAUNCH_TIMEOUT_MS = 10000;
+
+    public void testLaunchActivityStartup() {
+        benchmarkLaunches(WPLaunchActivity.class);
+    }
+
+    public void testReaderStartup() {
+        benchmarkLaunches(ReaderPostListActivity.class);
+    }
+
+    private void benchmarkLaunches(Class<? extends Activity> activityClass) {
+        long[] launchMs = new long[NUM_LAUNCHES];
+        for (int i = 0; i < NUM_LAUNCHES; i++) {
+            launchMs[i] = launch(activityClass);
+        }
+
+        long firstMs = launchMs[0];
+        long[] warmMs = Arrays.copyOfRange(launchMs, 1, launchMs.length);
+        Arrays.sort(warmMs);
+        AppLog.i(T.TESTS, String.format(Locale.US,
+                "%s startup benchmark, %d launches: first %d ms, warm p50 %d ms, p90 %d ms, p99 %d ms, max %d ms",
+                activityClass.getSimpleName(), NUM_LAUNCHES, firstMs, percentile(warmMs, 50),
+                percentile(warmMs, 90), percentile(warmMs, 99), warmMs[warmMs.length - 1]));
+    }
+
+    /*
+     * launches the activity and returns the time until whichever activity it leads to has been
+     * drawn and the main thread is idle - WPLaunchActivity starts the last used activity and
+     * finishes straight away, so we wait for the activity after it
+     */
+    private long launch(Class<? extends Activity> activityClass) {
+        Instrumentation instrumentation = getInstrumentation();
+        Instrumentation.ActivityMonitor monitor = instrumentation.addMonitor((String) null, null, false);
+
+        Intent intent = new Intent(Intent.ACTION_MAIN);
+        intent.setClassName(instrumentation.getTargetContext(), activityClass.getName());
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+
+        long start = System.nanoTime();
+        instrumentation.getTargetContext().startActivity(intent);
+        Activity activity = monitor.waitForActivityWithTimeout(LAUNCH_TIMEOUT_MS);
+        assertNotNull("timed out launching " + activityClass.getSimpleName(), activity);
+        if (activity.isFinishing()) {
+            Activity next = monitor.waitForActivityWithTimeout(LAUNCH_TIMEOUT_MS);
+            if (next != null) {
+                activity = next;
+            }
+        }
+        instrumentation.waitForIdleSync();
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+
+        instrumentation.removeMonitor(monitor);
+        activity.finish();
+        instrumentation.waitForIdleSync();
+        return elapsedMs;
+    }
+
+    /*
+     * nearest-rank percentile of the passed sorted values
+     */
+    private static long percentile(long[] sortedValues, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.length);
+        return sortedValues[Math.max(0, Math.min(sortedValues.length - 1, rank - 1))];
+    }
+}
@@ -0,0 +1,217 @@
+package org.wordpress.android.util;
+
+import android.test.InstrumentationTestCase;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+public class JSONUtilTest extends InstrumentationTestCase {
+    private static final String NOTES_FIXTURE = "rest-v1-notifications-num_note_items=20.json";
+    private static final int BENCHMARK_ITERATIONS = 200;
+
+    // queries run against each note in the fixture - a mix of hits, misses and type mismatches
+    private static final String[] NOTE_QUERIES = {
+            "id",
+            "type",
+            "timestamp",
+            "subject.text",
+            "subject.icon",
+            "body.header",
+            "body.items[0].icon",
+            "body.items[last].html",
+            "body.items[first].header_text",
+            "body.items[-1].icon_width",
+            "body.actions[0].type",
+            "body.actions[last].params.rest_path",
+            "meta.ids.site",
+            "meta.ids.comment",
+            "meta.links.home",
+            "meta.has_replied",
+            "missing.key",
+            "body.items[99].icon",
+    };
+
+    private JSONArray mNotes;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mNotes = new JSONObject(readAsset(NOTES_FIXTURE)).getJSONArray("notes");
+    }
+
+    private String readAsset(String filename) throws IOException {
+        InputStream is = getInstrumentation().getContext().getAssets().open(filename);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+        StringBuilder sb = new StringBuilder();
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            sb.append(line).append('\n');
+        }
+        reader.close();
+        return sb.toString();
+    }
+
+    public void testCompiledQueriesMatchUncompiled() throws JSONException {
+        Object[] defaults = {"", 0, new JSONObject(), new JSONArray(), Boolean.FALSE};
+        for (int i = 0; i < mNotes.length(); i++) {
+            JSONObject note = mNotes.getJSONObject(i);
+            for (String query : NOTE_QUERIES) {
+                for (Object defaultObject : defaults) {
+                    assertEquals(query, uncompiledQuery(note, query, defaultObject),
+                            JSONUtil.queryJSON(note, query, defaultObject));
+                }
+            }
+
+            JSONArray items = JSONUtil.queryJSON(note, "body.items", new JSONArray());
+            for (String query : new String[]{"[0].icon", "[last].header_text", "items[0].html", "[0]", "[5].icon"}) {
+                assertEquals(query, uncompiledQuery(items, query, ""), JSONUtil.queryJSON(items, query, ""));
+            }
+        }
+    }
+
+    public void testCompiledQueryBenchmark() throws JSONException {
+        int noteCount = mNotes.length();
+        JSONObject[] notes = new JSONObject[noteCount];
+        for (int i = 0; i < noteCount; i++) {
+            notes[i] = mNotes.getJSONObject(i);
+        }
+
+        // warm up both implementations (and the query cache) before timing them
+        runUncompiled(notes, 10);
+        runCompiled(notes, 10);
+
+        long start = System.nanoTime();
+        int uncompiledHits = runUncompiled(notes, BENCHMARK_ITERATIONS);
+        long uncompiledNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int compiledHits = runCompiled(notes, BENCHMARK_ITERATIONS);
+        long compiledNanos = System.nanoTime() - start;
+
+        int queryCount = BENCHMARK_ITERATIONS * noteCount * NOTE_QUERIES.length;
+        AppLog.i(T.TESTS, String.format("queryJSON benchmark, %d queries: uncompiled %d ms, compiled %d ms",
+                queryCount, uncompiledNanos / 1000000, compiledNanos / 1000000));
+
+        assertEquals(uncompiledHits, compiledHits);
+    }
+
+    private static int runUncompiled(JSONObject[] notes, int iterations) {
+        int hits = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (JSONObject note : notes) {
+                for (String query : NOTE_QUERIES) {
+                    if (uncompiledQuery(note, query, "") != "") {
+                        hits++;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static int runCompiled(JSONObject[] notes, int iterations) {
+        int hits = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (JSONObject note : notes) {
+                for (String query : NOTE_QUERIES) {
+                    if (JSONUtil.queryJSON(note, query, "") != "") {
+                        hits++;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+    /*
+     * the implementation of JSONUtil.queryJSON() before queries were compiled, kept as the
+     * reference for the results and the timings above
+     */
+    @SuppressWarnings("unchecked")
+    private static <U> U uncompiledQuery(JSONObject source, String query, U defaultObject) {
+        int nextSeperator = query.indexOf(".");
+        int nextIndexStart = query.indexOf("[");
+        if (nextSeperator == -1 && nextIndexStart == -1) {
+            try {
+                if (!source.has(query)) {
+                    return defaultObject;
+                }
+                Object result = source.get(query);
+                if (result.getClass().isAssignableFrom(defaultObject.getClass())) {
+                    return (U) result;
+                }
+                return defaultObject;
+            } catch (JSONException e) {
+                return defaultObject;
+            }
+        }
+        int endQuery;
+        if (nextSeperator == -1 || nextIndexStart == -1) {
+            endQuery = Math.max(nextSeperator, nextIndexStart);
+        } else {
+            endQuery = Math.min(nextSeperator, nextIndexStart);
+        }
+        String nextQuery = query.substring(endQuery);
+        String key = query.substring(0, endQuery);
+        try {
+            if (nextQuery.indexOf(".") == 0) {
+                return uncompiledQuery(source.getJSONObject(key), nextQuery.substring(1), defaultObject);
+            } else if (nextQuery.indexOf("[") == 0) {
+                return uncompiledQuery(source.getJSONArray(key), nextQuery, defaultObject);
+            } else if (!nextQuery.equals("")) {
+                return defaultObject;
+            }
+            Object result = source.get(key);
+            if (result.getClass().isAssignableFrom(defaultObject.getClass())) {
+                return (U) result;
+            }
+            return defaultObject;
+        } catch (JSONException e) {
+            return defaultObject;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <U> U uncompiledQuery(JSONArray source, String query, U defaultObject) {
+        int indexStart = query.indexOf("[");
+        int indexEnd = query.indexOf("]");
+        if (indexStart == -1 || indexEnd == -1 || indexStart > indexEnd) {
+            return defaultObject;
+        }
+        String indexStr = query.substring(indexStart + 1, indexEnd);
+        int index;
+        if (indexStr.equals("first")) {
+            index = 0;
+        } else if (indexStr.equals("last")) {
+            index = -1;
+        } else {
+            index = Integer.parseInt(indexStr);
+        }
+        if (index < 0) {
+            index = source.length() + index;
+        }
+        String remainingQuery = query.substring(indexEnd + 1);
+        try {
+            if (remainingQuery.indexOf("[") == 0) {
+                return uncompiledQuery(source.getJSONArray(index), remainingQuery, defaultObject);
+            } else if (remainingQuery.indexOf(".") == 0) {
+                return uncompiledQuery(source.getJSONObject(index), remainingQuery.substring(1), defaultObject);
+            } else if (!remainingQuery.equals("")) {
+                return defaultObject;
+            }
+            Object result = source.get(index);
+            if (result.getClass().isAssignableFrom(defaultObject.getClass())) {
+                return (U) result;
+            }
+            return defaultObject;
+        } catch (JSONException e) {
+            return defaultObject;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.wordpress.android;
+
+import android.text.TextUtils;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+
+import org.wordpress.android.models.Blog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory copy of the blogs in the accounts table, so looking up the current blog - or any
+ * other blog by its local id, remote id or xml-rpc url - doesn't query SQLite and decrypt the
+ * blog's passwords each time. The blogs are loaded on first use, and WordPressDB updates the
+ * registry whenever it writes to the accounts table.
+ *
+ * Blogs are held as private snapshots and callers always get their own copy, so changes made
+ * to a returned blog have no effect here until it's saved.
+ */
+public class BlogRegistry {
+    public interface OnBlogsChangedListener {
+        // called on the thread that made the change
+        public void onBlogsChanged();
+    }
+
+    private final WordPressDB mDb;
+    private final CopyOnWriteArrayList<OnBlogsChangedListener> mListeners =
+            new CopyOnWriteArrayList<OnBlogsChangedListener>();
+
+    // null until loaded, and after the whole table has changed
+    private SparseArray<Blog> mBlogsByLocalId;
+    private final SparseIntArray mNumVisibleByRemoteId = new SparseIntArray();
+    private final HashMap<String, ArrayList<Blog>> mBlogsByUrl = new HashMap<String, ArrayList<Blog>>();
+    private final ArrayList<Integer> mVisibleLocalIds = new ArrayList<Integer>();
+
+    BlogRegistry(WordPressDB db) {
+        mDb = db;
+    }
+
+    public void addListener(OnBlogsChangedListener listener) {
+        mListeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(OnBlogsChangedListener listener) {
+        mListeners.remove(listener);
+    }
+
+    private void notifyListeners() {
+        for (OnBlogsChangedListener listener : mListeners) {
+            listener.onBlogsChanged();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (mBlogsByLocalId != null) {
+            return;
+        }
+        mBlogsByLocalId = new SparseArray<Blog>();
+        for (Blog blog : mDb.loadAllBlogsFromDb()) {
+            mBlogsByLocalId.put(blog.getLocalTableBlogId(), blog);
+        }
+        rebuildIndexes();
+    }
+
+    private void rebuildIndexes() {
+        mNumVisibleByRemoteId.clear();
+        mBlogsByUrl.clear();
+        mVisibleLocalIds.clear();
+
+        final ArrayList<Blog> visibleBlogs = new ArrayList<Blog>();
+        for (int i = 0; i < mBlogsByLocalId.size(); i++) {
+            Blog blog = mBlogsByLocalId.valueAt(i);
+            ArrayList<Blog> blogsForUrl = mBlogsByUrl.get(blog.getUrl());
+            if (blogsForUrl == null) {
+                blogsForUrl = new ArrayList<Blog>(1);
+                mBlogsByUrl.put(blog.getUrl(), blogsForUrl);
+            }
+            blogsForUrl.add(blog);
+
+            if (!blog.isHidden()) {
+                int remoteId = blog.getRemoteBlogId();
+                mNumVisibleByRemoteId.put(remoteId, mNumVisibleByRemoteId.get(remoteId) + 1);
+                // same rules as WordPressDB.getVisibleAccounts()
+                if (!TextUtils.isEmpty(blog.getPassword()) && blog.getLocalTableBlogId() > 0) {
+                    visibleBlogs.add(blog);
+                }
+            }
+        }
+
+        Collections.sort(visibleBlogs, BLOG_NAME_COMPARATOR);
+        for (Blog blog : visibleBlogs) {
+            mVisibleLocalIds.add(blog.getLocalTableBlogId());
+        }
+    }
+
+    /*
+     * same order as BlogUtils.BlogNameComparator, which sorts the account maps
+     */
+    private static final Comparator<Blog> BLOG_NAME_COMPARATOR = new Comparator<Blog>() {
+        @Override
+        public int compare(Blog blog1, Blog blog2) {
+            return getSortName(blog1).compareToIgnoreCase(getSortName(blog2));
+        }
+
+        private String getSortName(Blog blog) {
+            String blogName = blog.getBlogName();
+            if (TextUtils.isEmpty(blogName)) {
+                blogName = blog.getUrl();
+            }
+            return (blogName != null ? blogName : "");
+        }
+    };
+
+    /**
+     * Returns a copy of the blog with the passed local id, or null if there isn't one
+     */
+    public synchronized Blog getBlog(int localId) {
+        ensureLoaded();
+        Blog blog = mBlogsByLocalId.get(localId);
+        return (blog != null ? blog.copy() : null);
+    }
+
+    /**
+     * Returns true if there's a visible blog with the passed remote id
+     */
+    public synchronized boolean isDotComAccountVisible(int remoteBlogId) {
+        ensureLoaded();
+        return mNumVisibleByRemoteId.get(remoteBlogId) > 0;
+    }
+
+    /**
+     * Returns true if there's a blog with the passed remote id and xml-rpc url
+     */
+    public synchronized boolean isBlogInDatabase(int remoteBlogId, String xmlRpcUrl) {
+        return getLocalTableBlogId(remoteBlogId, xmlRpcUrl, false) != 0;
+    }
+
+    /**
+     * Returns the local id of the blog with the passed remote id and xml-rpc url, falling back
+     * to a Jetpack blog whose wp.com id is the remote id - returns 0 if there isn't one
+     */
+    public synchronized int getLocalTableBlogIdForRemoteBlogIdAndXmlRpcUrl(int remoteBlogId, String xmlRpcUrl) {
+        return getLocalTableBlogId(remoteBlogId, xmlRpcUrl, true);
+    }
+
+    private int getLocalTableBlogId(int remoteBlogId, String xmlRpcUrl, boolean matchJetpack) {
+        ensureLoaded();
+        List<Blog> blogsForUrl = mBlogsByUrl.get(xmlRpcUrl);
+        if (blogsForUrl == null) {
+            return 0;
+        }
+        for (Blog blog : blogsForUrl) {
+            if (blog.getRemoteBlogId() == remoteBlogId) {
+                return blog.getLocalTableBlogId();
+            }
+        }
+        if (matchJetpack) {
+            String remoteBlogIdStr = Integer.toString(remoteBlogId);
+            for (Blog blog : blogsForUrl) {
+                if (!blog.isDotcomFlag() && remoteBlogIdStr.equals(blog.getApi_blogid())) {
+                    return blog.getLocalTableBlogId();
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the local ids of the visible blogs, sorted by name
+     */
+    public synchronized List<Integer> getVisibleLocalIds() {
+        ensureLoaded();
+        return new ArrayList<Integer>(mVisibleLocalIds);
+    }
+
+    /*
+     * write-through from WordPressDB - the changed row is read back rather than copied from
+     * the blog that was saved, since not every field of a blog is saved
+     */
+    void onBlogChanged(int localId) {
+        synchronized (this) {
+            // nothing to update if the blogs haven't been loaded yet
+            if (mBlogsByLocalId != null) {
+                Blog blog = mDb.loadBlogFromDb(localId);
+                if (blog != null) {
+                    mBlogsByLocalId.put(localId, blog);
+                } else {
+                    mBlogsByLocalId.remove(localId);
+                }
+                rebuildIndexes();
+            }
+        }
+        notifyListeners();
+    }
+
+    void onBlogDeleted(int localId) {
+        synchronized (this) {
+            if (mBlogsByLocalId != null) {
+                mBlogsByLocalId.remove(localId);
+                rebuildIndexes();
+            }
+        }
+        notifyListeners();
+    }
+
+    /*
+     * called after a change to many rows, the blogs are reloaded when next used
+     */
+    void invalidate() {
+        synchronized (this) {
+            mBlogsByLocalId = null;
+        }
+        notifyListeners();
+    }
+}
@@ -23,6 +23,7 @@ import org.wordpress.android.analytics.AnalyticsTracker.Stat;
 import org.wordpress.android.analytics.AnalyticsTrackerMixpanel;
 import org.wordpress.android.ui.notifications.NotificationDismissBroadcastReceiver;
 import org.wordpress.android.ui.notifications.NotificationsActivity;
+import org.wordpress.android.ui.notifications.utils.NotificationAvatarLoader;
 import org.wordpress.android.ui.notifications.utils.NotificationsUtils;
 import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.util.ABTestingUtils;
@@ -30,7 +31,6 @@ import org.wordpress.android.util.ABTestingUtils.Feature;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.HelpshiftHelper;
-import org.wordpress.android.util.ImageUtils;
 import org.wordpress.android.util.PhotonUtils;
 
 import java.io.UnsupportedEncodingException;
@@ -39,6 +39,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GCMIntentService extends GCMBaseIntentService {
     public static final int PUSH_NOTIFICATION_ID = 1337;
@@ -48,6 +49,14 @@ public class GCMIntentService extends GCMBaseIntentService {
     private static long mPreviousNoteTime = 0L;
     private static final int mMaxInboxItems = 5;
 
+    // notifications posted within this long of the previous one update it without alerting again
+    private static final long BURST_WINDOW_MS = 5000;
+    private static long mPreviousNotifyTime = 0L;
+
+    // incremented each time the notification is replaced or cleared, so a late avatar can tell
+    // whether the notification it was fetched for is still showing
+    private static final AtomicInteger mNotificationSequence = new AtomicInteger();
+
     @Override
     protected String[] getSenderIds(Context context) {
         String[] senderIds = new String[1];
@@ -115,15 +124,18 @@ public class GCMIntentService extends GCMBaseIntentService {
             mActiveNotificationsMap.put(note_id, extras);
         }
 
+        // the avatar is only used if it's already cached - otherwise the notification is posted
+        // right away and updated once the avatar has been fetched
         String iconUrl = extras.getString("icon");
+        String largeIconUrl = null;
         Bitmap largeIconBitmap = null;
+        int largeIconSize = context.getResources().getDimensionPixelSize(
+                android.R.dimen.notification_large_icon_height);
         if (iconUrl != null) {
             try {
                 iconUrl = URLDecoder.decode(iconUrl, "UTF-8");
-                int largeIconSize = context.getResources().getDimensionPixelSize(
-                        android.R.dimen.notification_large_icon_height);
-                String resizedUrl = PhotonUtils.getPhotonImageUrl(iconUrl, largeIconSize, largeIconSize);
-                largeIconBitmap = ImageUtils.downloadBitmap(resizedUrl);
+                largeIconUrl = PhotonUtils.getPhotonImageUrl(iconUrl, largeIconSize, largeIconSize);
+                largeIconBitmap = NotificationAvatarLoader.getCachedAvatar(context, largeIconUrl);
             } catch (UnsupportedEncodingException e) {
                 AppLog.e(T.NOTIFS, e);
             }
@@ -136,7 +148,8 @@ public class GCMIntentService extends GCMBaseIntentService {
         vibrate = prefs.getBoolean("wp_pref_notification_vibrate", false);
         light = prefs.getBoolean("wp_pref_notification_light", false);
 
-        NotificationCompat.Builder mBuilder;
+        final NotificationCompat.Builder mBuilder;
+        boolean isWaitingForLargeIcon = false;
 
         Intent resultIntent = new Intent(this, NotificationsActivity.class);
         resultIntent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK
@@ -179,6 +192,8 @@ public class GCMIntentService extends GCMBaseIntentService {
 
             if (largeIconBitmap != null) {
                 mBuilder.setLargeIcon(largeIconBitmap);
+            } else {
+                isWaitingForLargeIcon = largeIconUrl != null;
             }
         } else {
             NotificationCompat.InboxStyle inboxStyle = new NotificationCompat.InboxStyle();
@@ -233,13 +248,36 @@ public class GCMIntentService extends GCMBaseIntentService {
             mBuilder.setLights(0xff0000ff, 1000, 5000);
         }
 
+        // coalesce bursts of notifications - the first one alerts, the rest just update it
+        if (thisTime - mPreviousNotifyTime <= BURST_WINDOW_MS) {
+            mBuilder.setOnlyAlertOnce(true);
+        }
+        mPreviousNotifyTime = thisTime;
+
         PendingIntent pendingIntent = PendingIntent.getActivity(context, 0, resultIntent,
                 PendingIntent.FLAG_CANCEL_CURRENT | PendingIntent.FLAG_UPDATE_CURRENT);
         mBuilder.setContentIntent(pendingIntent);
-        NotificationManager mNotificationManager =
+        final NotificationManager mNotificationManager =
                 (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+        final int notificationSequence = mNotificationSequence.incrementAndGet();
         mNotificationManager.notify(PUSH_NOTIFICATION_ID, mBuilder.build());
         broadcastNewNotification(context);
+
+        if (isWaitingForLargeIcon) {
+            NotificationAvatarLoader.fetchAvatar(context, largeIconUrl, largeIconSize,
+                    new NotificationAvatarLoader.AvatarListener() {
+                        @Override
+                        public void onAvatarLoaded(Bitmap avatar) {
+                            // skip the update if the notification has been replaced or dismissed since
+                            if (notificationSequence != mNotificationSequence.get()) {
+                                return;
+                            }
+                            mBuilder.setLargeIcon(avatar);
+                            mBuilder.setOnlyAlertOnce(true);
+                            mNotificationManager.notify(PUSH_NOTIFICATION_ID, mBuilder.build());
+                        }
+                    });
+        }
     }
 
     @Override
@@ -315,5 +353,6 @@ public class GCMIntentService extends GCMBaseIntentService {
 
     public static void clearNotificationsMap() {
         mActiveNotificationsMap.clear();
+        mNotificationSequence.incrementAndGet();
     }
 }
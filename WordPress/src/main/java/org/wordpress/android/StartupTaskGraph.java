@@ -0,0 +1,249 @@
+package org.wordpress.android;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.wordpress.android.util.ProfilingUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the work done when the app starts as a graph of named tasks, so only the work the first
+ * activity needs holds up its first frame. Each task declares the tasks it depends on and where
+ * it runs:
+ *
+ *   MAIN       - on the main thread in start(), in the order the tasks were added
+ *   MAIN_IDLE  - on the main thread once it's idle, which is after the first frame
+ *   BACKGROUND - on the thread pool
+ *
+ * A task starts as soon as the tasks it depends on have finished. Code that needs a deferred
+ * task to have run calls ensureComplete(), which runs it right away if it's due on the main
+ * thread and hasn't started yet, or otherwise waits for it to finish.
+ */
+public class StartupTaskGraph {
+    public enum RunOn { MAIN, MAIN_IDLE, BACKGROUND }
+
+    private enum State { WAITING, READY, RUNNING, DONE }
+
+    private static class Task {
+        final String name;
+        final RunOn runOn;
+        final Runnable runnable;
+        final String[] dependencies;
+        final List<Task> dependents = new ArrayList<Task>();
+        final CountDownLatch done = new CountDownLatch(1);
+        int numPendingDependencies;
+        State state = State.WAITING;
+        volatile Thread runningThread;
+        long elapsedMs;
+
+        Task(String name, RunOn runOn, String[] dependencies, Runnable runnable) {
+            this.name = name;
+            this.runOn = runOn;
+            this.dependencies = dependencies;
+            this.runnable = runnable;
+        }
+    }
+
+    private final Map<String, Task> mTasks = new LinkedHashMap<String, Task>();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private boolean mIsStarted;
+    private int mNumPendingTasks;
+
+    /**
+     * Adds a task - tasks must be added before start(), and after the tasks they depend on
+     */
+    public synchronized void add(String name, RunOn runOn, String[] dependencies, Runnable runnable) {
+        if (mIsStarted) {
+            throw new IllegalStateException("startup task " + name + " added after start");
+        }
+        if (mTasks.containsKey(name)) {
+            throw new IllegalArgumentException("duplicate startup task " + name);
+        }
+        Task task = new Task(name, runOn, (dependencies != null ? dependencies : new String[0]), runnable);
+        for (String dependency : task.dependencies) {
+            Task dependsOn = mTasks.get(dependency);
+            if (dependsOn == null) {
+                throw new IllegalArgumentException("startup task " + name + " depends on unknown task " + dependency);
+            }
+            if (runOn == RunOn.MAIN && dependsOn.runOn != RunOn.MAIN) {
+                throw new IllegalArgumentException("main startup task " + name + " can't depend on deferred task " + dependency);
+            }
+            dependsOn.dependents.add(task);
+        }
+        task.numPendingDependencies = task.dependencies.length;
+        mTasks.put(name, task);
+    }
+
+    /**
+     * Runs the MAIN tasks and schedules the rest - must be called on the main thread
+     */
+    public void start() {
+        List<Task> mainTasks = new ArrayList<Task>();
+        synchronized (this) {
+            mIsStarted = true;
+            mNumPendingTasks = mTasks.size();
+            for (Task task : mTasks.values()) {
+                if (task.runOn == RunOn.MAIN) {
+                    mainTasks.add(task);
+                } else if (task.numPendingDependencies == 0) {
+                    schedule(task);
+                }
+            }
+        }
+
+        // main tasks only depend on earlier main tasks, so running them in order satisfies
+        // their dependencies
+        for (Task task : mainTasks) {
+            if (claim(task)) {
+                run(task);
+                ProfilingUtils.split(task.name);
+            }
+        }
+    }
+
+    /**
+     * Makes sure the named task has finished before returning - used by code that needs a task
+     * that may still be deferred
+     */
+    public void ensureComplete(String name) {
+        Task task;
+        synchronized (this) {
+            task = mTasks.get(name);
+            if (task == null || !mIsStarted) {
+                return;
+            }
+        }
+        if (task.done.getCount() == 0 || task.runningThread == Thread.currentThread()) {
+            // done, or this is the task itself asking
+            return;
+        }
+
+        boolean isMainThread = Looper.myLooper() == Looper.getMainLooper();
+        if (isMainThread) {
+            // run deferred main-thread work rather than waiting for the main thread to be idle,
+            // which would never happen while we're waiting here
+            for (String dependency : task.dependencies) {
+                ensureComplete(dependency);
+            }
+            if (task.runOn != RunOn.BACKGROUND && claimIfDependenciesDone(task)) {
+                run(task);
+                return;
+            }
+        }
+
+        try {
+            task.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * task's dependencies are done, so hand it to whatever it runs on - caller must hold the lock
+     */
+    private void schedule(final Task task) {
+        task.state = State.READY;
+        final Runnable runner = new Runnable() {
+            @Override
+            public void run() {
+                if (claim(task)) {
+                    StartupTaskGraph.this.run(task);
+                }
+            }
+        };
+        switch (task.runOn) {
+            case BACKGROUND:
+                AsyncTask.THREAD_POOL_EXECUTOR.execute(runner);
+                break;
+            case MAIN_IDLE:
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                            @Override
+                            public boolean queueIdle() {
+                                runner.run();
+                                return false;
+                            }
+                        });
+                    }
+                });
+                break;
+            default:
+                // main tasks are run by start()
+                break;
+        }
+    }
+
+    private synchronized boolean claim(Task task) {
+        if (task.state == State.RUNNING || task.state == State.DONE) {
+            return false;
+        }
+        task.state = State.RUNNING;
+        task.runningThread = Thread.currentThread();
+        return true;
+    }
+
+    private synchronized boolean claimIfDependenciesDone(Task task) {
+        return task.numPendingDependencies == 0 && claim(task);
+    }
+
+    private void run(Task task) {
+        long start = SystemClock.elapsedRealtime();
+        long span = ProfilingUtils.beginSpan("startup task " + task.name);
+        try {
+            task.runnable.run();
+        } catch (RuntimeException e) {
+            // a failed task mustn't leave the tasks that depend on it, or anything waiting on
+            // it, waiting forever
+            AppLog.e(T.UTILS, "startup task " + task.name + " failed", e);
+        } finally {
+            ProfilingUtils.endSpan(span);
+        }
+        task.elapsedMs = SystemClock.elapsedRealtime() - start;
+        onTaskDone(task);
+    }
+
+    private void onTaskDone(Task task) {
+        boolean isLastTask;
+        synchronized (this) {
+            task.state = State.DONE;
+            task.runningThread = null;
+            for (Task dependent : task.dependents) {
+                dependent.numPendingDependencies--;
+                if (dependent.numPendingDependencies == 0 && dependent.state == State.WAITING
+                        && dependent.runOn != RunOn.MAIN) {
+                    schedule(dependent);
+                }
+            }
+            isLastTask = (--mNumPendingTasks == 0);
+        }
+        task.done.countDown();
+
+        if (task.runOn != RunOn.MAIN) {
+            AppLog.d(T.PROFILING, "startup task " + task.name + ": " + task.elapsedMs + " ms on "
+                    + Thread.currentThread().getName());
+        }
+        if (isLastTask) {
+            logTimings();
+        }
+    }
+
+    private synchronized void logTimings() {
+        StringBuilder sb = new StringBuilder("startup tasks:");
+        for (Task task : mTasks.values()) {
+            sb.append(' ').append(task.name).append('=').append(task.elapsedMs).append("ms");
+        }
+        AppLog.d(T.PROFILING, sb.toString());
+    }
+}
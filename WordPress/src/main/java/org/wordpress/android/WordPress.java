@@ -17,6 +17,8 @@ import android.os.StrictMode;
 import android.preference.PreferenceManager;
 import android.support.v4.content.LocalBroadcastManager;
 import android.text.TextUtils;
+import android.view.View;
+import android.view.ViewTreeObserver;
 
 import com.android.volley.RequestQueue;
 import com.android.volley.VolleyLog;
@@ -28,12 +30,12 @@ import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import com.wordpress.rest.RestClient;
 
+import org.wordpress.android.StartupTaskGraph.RunOn;
 import org.wordpress.android.WordPress.SignOutAsync.SignOutCallback;
 import org.wordpress.android.analytics.AnalyticsTracker;
 import org.wordpress.android.analytics.AnalyticsTracker.Stat;
 import org.wordpress.android.analytics.AnalyticsTrackerMixpanel;
 import org.wordpress.android.datasets.ReaderDatabase;
-import org.wordpress.android.datasets.SuggestionTable;
 import org.wordpress.android.models.Blog;
 import org.wordpress.android.models.Post;
 import org.wordpress.android.networking.OAuthAuthenticator;
@@ -50,6 +52,7 @@ import org.wordpress.android.ui.stats.service.StatsService;
 import org.wordpress.android.util.ABTestingUtils;
 import org.wordpress.android.util.ABTestingUtils.Feature;
 import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.LogLevel;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.BitmapLruCache;
 import org.wordpress.android.util.DateTimeUtils;
@@ -103,6 +106,19 @@ public class WordPress extends Application {
     private static Context mContext;
     private static BitmapLruCache mBitmapCache;
 
+    public static final String STARTUP_TASK_DB = "db";
+    public static final String STARTUP_TASK_VOLLEY = "volley";
+    public static final String STARTUP_TASK_APP_LOCK = "app-lock";
+    public static final String STARTUP_TASK_ANALYTICS = "analytics";
+    public static final String STARTUP_TASK_SIMPERIUM = "simperium";
+    public static final String STARTUP_TASK_HELPSHIFT = "helpshift";
+    public static final String STARTUP_TASK_AB_TESTING = "ab-testing";
+    public static final String STARTUP_TASK_CLOUD_MESSAGING = "cloud-messaging";
+
+    private static final StartupTaskGraph sStartupTasks = new StartupTaskGraph();
+    // ended when the first activity is drawn
+    private static long sFirstFrameSpan = ProfilingUtils.NO_SPAN;
+
 
     /**
      *  Updates Options for the current blog in background.
@@ -146,65 +162,126 @@ public class WordPress extends Application {
         super.onCreate();
         mContext = this;
 
+        ProfilingUtils.setTracingEnabled(PackageUtils.isDebugBuild());
+        sFirstFrameSpan = ProfilingUtils.beginSpanForAnyThread("app start to first frame");
+        long onCreateSpan = ProfilingUtils.beginSpan("WordPress.onCreate");
         ProfilingUtils.start("WordPress.onCreate");
         // Enable log recording
         AppLog.enableRecording(true);
         if (!PackageUtils.isDebugBuild()) {
+            // the reader's debug logging is too chatty for release builds
+            AppLog.setMinLevel(T.READER, LogLevel.i);
             Crashlytics.start(this);
         }
         versionName = PackageUtils.getVersionName(this);
-        HelpshiftHelper.init(this);
-        initWpDb();
-
-        RestClientUtils.setUserAgent(getUserAgent());
-
-        configureSimperium();
-
-        // Volley networking setup
-        setupVolleyQueue();
-
-        ABTestingUtils.init();
 
-        AppLockManager.getInstance().enableDefaultAppLockIfAvailable(this);
-        if (AppLockManager.getInstance().isAppLockFeatureEnabled()) {
-            AppLockManager.getInstance().getCurrentAppLock().setDisabledActivities(
-                    new String[]{"org.wordpress.android.ui.ShareIntentReceiverActivity"});
-        }
-
-        HelpshiftHelper.init(this);
-
-        AnalyticsTracker.init();
-        AnalyticsTracker.registerTracker(new AnalyticsTrackerMixpanel());
-        AnalyticsTracker.beginSession();
-        AnalyticsTracker.track(Stat.APPLICATION_STARTED);
-
-        registerForCloudMessaging(this);
+        // only the db, networking, app lock and analytics are needed before the first activity is
+        // shown - everything else runs once the main thread is idle or in the background
+        sStartupTasks.add(STARTUP_TASK_DB, RunOn.MAIN, null, new Runnable() {
+            @Override
+            public void run() {
+                initWpDb();
+            }
+        });
+        sStartupTasks.add(STARTUP_TASK_VOLLEY, RunOn.MAIN, null, new Runnable() {
+            @Override
+            public void run() {
+                RestClientUtils.setUserAgent(getUserAgent());
+                // Volley networking setup
+                setupVolleyQueue();
+            }
+        });
+        sStartupTasks.add(STARTUP_TASK_APP_LOCK, RunOn.MAIN, null, new Runnable() {
+            @Override
+            public void run() {
+                AppLockManager.getInstance().enableDefaultAppLockIfAvailable(WordPress.this);
+                if (AppLockManager.getInstance().isAppLockFeatureEnabled()) {
+                    AppLockManager.getInstance().getCurrentAppLock().setDisabledActivities(
+                            new String[]{"org.wordpress.android.ui.ShareIntentReceiverActivity"});
+                }
+            }
+        });
+        sStartupTasks.add(STARTUP_TASK_ANALYTICS, RunOn.MAIN, new String[]{STARTUP_TASK_DB}, new Runnable() {
+            @Override
+            public void run() {
+                AnalyticsTracker.init();
+                AnalyticsTracker.registerTracker(new AnalyticsTrackerMixpanel());
+                AnalyticsTracker.beginSession();
+                AnalyticsTracker.track(Stat.APPLICATION_STARTED);
+            }
+        });
+        sStartupTasks.add(STARTUP_TASK_SIMPERIUM, RunOn.MAIN_IDLE, new String[]{STARTUP_TASK_DB}, new Runnable() {
+            @Override
+            public void run() {
+                configureSimperium();
+            }
+        });
+        sStartupTasks.add(STARTUP_TASK_HELPSHIFT, RunOn.MAIN_IDLE, null, new Runnable() {
+            @Override
+            public void run() {
+                HelpshiftHelper.init(WordPress.this);
+            }
+        });
+        sStartupTasks.add(STARTUP_TASK_AB_TESTING, RunOn.BACKGROUND, new String[]{STARTUP_TASK_VOLLEY}, new Runnable() {
+            @Override
+            public void run() {
+                ABTestingUtils.init();
+            }
+        });
+        sStartupTasks.add(STARTUP_TASK_CLOUD_MESSAGING, RunOn.BACKGROUND,
+                new String[]{STARTUP_TASK_DB, STARTUP_TASK_VOLLEY, STARTUP_TASK_ANALYTICS, STARTUP_TASK_HELPSHIFT,
+                             STARTUP_TASK_AB_TESTING}, new Runnable() {
+            @Override
+            public void run() {
+                registerForCloudMessaging(WordPress.this);
+            }
+        });
+        sStartupTasks.start();
 
         ApplicationLifecycleMonitor pnBackendMonitor = new ApplicationLifecycleMonitor();
         registerComponentCallbacks(pnBackendMonitor);
         registerActivityLifecycleCallbacks(pnBackendMonitor);
 
-        // we want to reset the suggestion table in every launch so we can get a fresh list
-        SuggestionTable.reset(wpDB.getDatabase());
+        ProfilingUtils.dump();
+        ProfilingUtils.endSpan(onCreateSpan);
+    }
+
+    /**
+     * Makes sure the named startup task has run - call before using something a deferred startup
+     * task sets up
+     */
+    public static void ensureStartupTask(String name) {
+        sStartupTasks.ensureComplete(name);
     }
 
     // Configure Simperium and start buckets if we are signed in to WP.com
     private void configureSimperium() {
         if (!TextUtils.isEmpty(getWPComAuthToken(this))) {
             AppLog.i(T.NOTIFS, "Configuring Simperium");
-            SimperiumUtils.configureSimperium(this, getWPComAuthToken(this));
+            SimperiumUtils.configureSimperiumIfNeeded(this, getWPComAuthToken(this));
         }
     }
 
     public static void setupVolleyQueue() {
+        long span = ProfilingUtils.beginSpan("setupVolleyQueue");
         requestQueue = Volley.newRequestQueue(mContext, VolleyUtils.getHTTPClientStack(mContext));
         imageLoader = new ImageLoader(requestQueue, getBitmapCache());
         VolleyLog.setTag(AppLog.TAG);
         // http://stackoverflow.com/a/17035814
         imageLoader.setBatchedResponseDelay(0);
+        ProfilingUtils.endSpan(span);
     }
 
     private void initWpDb() {
+        long span = ProfilingUtils.beginSpan("initWpDb");
+        try {
+            openWpDb();
+        } finally {
+            ProfilingUtils.endSpan(span);
+        }
+    }
+
+    private void openWpDb() {
         if (!createAndVerifyWpDb()) {
             AppLog.e(T.DB, "Invalid database, sign out user and delete database");
             SharedPreferences.Editor editor = PreferenceManager.getDefaultSharedPreferences(this).edit();
@@ -220,8 +297,24 @@ public class WordPress extends Application {
             WordPressDB.deleteDatabase(this);
             wpDB = new WordPressDB(this);
         }
+        wpDB.getBlogRegistry().addListener(sBlogsChangedListener);
     }
 
+    /*
+     * drops the current blog once it's been hidden or deleted, so getCurrentBlog() doesn't have
+     * to check its visibility each time it's called
+     */
+    private static final BlogRegistry.OnBlogsChangedListener sBlogsChangedListener =
+            new BlogRegistry.OnBlogsChangedListener() {
+        @Override
+        public void onBlogsChanged() {
+            Blog blog = currentBlog;
+            if (blog != null && !wpDB.isDotComAccountVisible(blog.getRemoteBlogId())) {
+                currentBlog = null;
+            }
+        }
+    };
+
     private boolean createAndVerifyWpDb() {
         try {
             wpDB = new WordPressDB(this);
@@ -386,14 +479,14 @@ public class WordPress extends Application {
      * select the first one.
      */
     public static Blog getCurrentBlog() {
-        if (currentBlog == null || !wpDB.isDotComAccountVisible(currentBlog.getRemoteBlogId())) {
+        if (currentBlog == null) {
             // attempt to restore the last active blog
             setCurrentBlogToLastActive();
 
             // fallback to just using the first blog
-            List<Map<String, Object>> accounts = WordPress.wpDB.getVisibleAccounts();
-            if (currentBlog == null && accounts.size() > 0) {
-                int id = Integer.valueOf(accounts.get(0).get("id").toString());
+            List<Integer> visibleIds = wpDB.getBlogRegistry().getVisibleLocalIds();
+            if (currentBlog == null && visibleIds.size() > 0) {
+                int id = visibleIds.get(0);
                 setCurrentBlog(id);
                 wpDB.updateLastBlogId(id);
             }
@@ -423,17 +516,10 @@ public class WordPress extends Application {
      * @return the current blog
      */
     public static Blog setCurrentBlogToLastActive() {
-        List<Map<String, Object>> accounts = WordPress.wpDB.getVisibleAccounts();
-
         int lastBlogId = WordPress.wpDB.getLastBlogId();
-        if (lastBlogId != -1) {
-            for (Map<String, Object> account : accounts) {
-                int id = Integer.valueOf(account.get("id").toString());
-                if (id == lastBlogId) {
-                    setCurrentBlog(id);
-                    return currentBlog;
-                }
-            }
+        if (lastBlogId != -1 && wpDB.getBlogRegistry().getVisibleLocalIds().contains(lastBlogId)) {
+            setCurrentBlog(lastBlogId);
+            return currentBlog;
         }
         // Previous active blog is hidden or deleted
         currentBlog = null;
@@ -665,6 +751,25 @@ public class WordPress extends Application {
         return mUserAgent;
     }
 
+    /*
+     * ends the app start span once the passed (first) activity is about to be drawn, then logs
+     * the spans recorded during startup
+     */
+    private static void endFirstFrameSpanWhenDrawn(Activity activity) {
+        final long span = sFirstFrameSpan;
+        sFirstFrameSpan = ProfilingUtils.NO_SPAN;
+        final View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                ProfilingUtils.endSpanFromAnyThread(span);
+                ProfilingUtils.dumpSpans();
+                return true;
+            }
+        });
+    }
+
     /**
      * Detect when the app goes to the background and come back to the foreground.
      *
@@ -791,6 +896,9 @@ public class WordPress extends Application {
 
         @Override
         public void onActivityResumed(Activity activity) {
+            if (sFirstFrameSpan != ProfilingUtils.NO_SPAN) {
+                endFirstFrameSpanWhenDrawn(activity);
+            }
             if (isInBackground) {
                 // was in background before
                 onFromBackground();
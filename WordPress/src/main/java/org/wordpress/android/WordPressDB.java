@@ -15,6 +15,8 @@ import org.apache.commons.lang.ArrayUtils;
 import org.json.JSONArray;
 import org.wordpress.android.datasets.CommentTable;
 import org.wordpress.android.datasets.SuggestionTable;
+import org.wordpress.android.datasets.UploadedMediaTable;
+import org.wordpress.android.models.AccountSummary;
 import org.wordpress.android.models.Blog;
 import org.wordpress.android.models.MediaFile;
 import org.wordpress.android.models.Post;
@@ -36,9 +38,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -51,7 +55,7 @@ import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.DESKeySpec;
 
 public class WordPressDB {
-    private static final int DATABASE_VERSION = 28;
+    private static final int DATABASE_VERSION = 30;
 
     private static final String CREATE_TABLE_SETTINGS = "create table if not exists accounts (id integer primary key autoincrement, "
             + "url text, blogName text, username text, password text, imagePlacement text, centerThumbnail boolean, fullSizeImage boolean, maxImageWidth text, maxImageWidthId integer);";
@@ -61,6 +65,10 @@ public class WordPressDB {
     private static final String DATABASE_NAME = "wordpress";
     private static final String MEDIA_TABLE = "media";
 
+    // only the columns MediaGridAdapter binds, rather than every column of every row
+    private static final String MEDIA_GRID_COLUMNS = "id as _id, mediaId, blogId, postID, fileName, title, "
+            + "date_created_gmt, mimeType, fileURL, thumbnailURL, filePath, width, height, uploadState";
+
     private static final String CREATE_TABLE_POSTS = "create table if not exists posts (id integer primary key autoincrement, blogID text, "
             + "postid text, title text default '', dateCreated date, date_created_gmt date, categories text default '', custom_fields text default '', "
             + "description text default '', link text default '', mt_allow_comments boolean, mt_allow_pings boolean, "
@@ -140,10 +148,21 @@ public class WordPressDB {
     private static final String ADD_MEDIA_UPLOAD_STATE = "alter table media add uploadState default '';";
     private static final String ADD_MEDIA_VIDEOPRESS_SHORTCODE = "alter table media add videoPressShortcode text default '';";
 
+    // index used to match synced media library items to existing rows
+    private static final String CREATE_MEDIA_BLOG_MEDIA_ID_INDEX = "create index if not exists media_blog_media_id_idx on media(blogId, mediaId);";
+
+    // backs the media grid queries, which filter on blogId and sort/filter on date_created_gmt
+    private static final String CREATE_MEDIA_BLOG_DATE_INDEX = "create index if not exists media_blog_date_idx on media(blogId, date_created_gmt);";
+
     // add hidden flag to blog settings (accounts)
     private static final String ADD_ACCOUNTS_HIDDEN_FLAG = "alter table accounts add isHidden boolean default 0;";
 
     private SQLiteDatabase db;
+    private final BlogRegistry mBlogRegistry = new BlogRegistry(this);
+
+    // cached account summaries, dropped whenever the accounts table changes
+    private List<AccountSummary> mVisibleAccountSummaries;
+    private List<AccountSummary> mVisibleDotComAccountSummaries;
 
     protected static final String PASSWORD_SECRET = BuildConfig.DB_SECRET;
     private Context context;
@@ -152,6 +171,13 @@ public class WordPressDB {
         this.context = ctx;
         db = ctx.openOrCreateDatabase(DATABASE_NAME, 0, null);
 
+        mBlogRegistry.addListener(new BlogRegistry.OnBlogsChangedListener() {
+            @Override
+            public void onBlogsChanged() {
+                clearAccountSummaries();
+            }
+        });
+
         // Create tables if they don't exist
         db.execSQL(CREATE_TABLE_SETTINGS);
         db.execSQL(CREATE_TABLE_POSTS);
@@ -161,6 +187,7 @@ public class WordPressDB {
         db.execSQL(CREATE_TABLE_THEMES);
         CommentTable.createTables(db);
         SuggestionTable.createTables(db);
+        UploadedMediaTable.createTables(db);
 
         // Update tables for new installs and app updates
         int currentVersion = db.getVersion();
@@ -253,6 +280,12 @@ public class WordPressDB {
                 // Add isUploading column to POSTS
                 db.execSQL(ADD_IS_UPLOADING);
                 currentVersion++;
+            case 28:
+                db.execSQL(CREATE_MEDIA_BLOG_MEDIA_ID_INDEX);
+                currentVersion++;
+            case 29:
+                db.execSQL(CREATE_MEDIA_BLOG_DATE_INDEX);
+                currentVersion++;
         }
         db.setVersion(DATABASE_VERSION);
     }
@@ -306,7 +339,19 @@ public class WordPressDB {
         }
         values.put("isAdmin", blog.isAdmin());
         values.put("isHidden", blog.isHidden());
-        return db.insert(SETTINGS_TABLE, null, values) > -1;
+        long localId = db.insert(SETTINGS_TABLE, null, values);
+        if (localId == -1) {
+            return false;
+        }
+        mBlogRegistry.onBlogChanged((int) localId);
+        return true;
+    }
+
+    /**
+     * Returns the in-memory registry of the blogs in the accounts table
+     */
+    public BlogRegistry getBlogRegistry() {
+        return mBlogRegistry;
     }
 
     public List<Integer> getAllAccountIDs() {
@@ -373,6 +418,64 @@ public class WordPressDB {
         return accounts;
     }
 
+    /**
+     * Returns summaries of the accounts matching the passed where clause, sorted by SQLite by name
+     * (or url for accounts without a name) - uses the same rules as getAccountsBy() but returns
+     * typed summaries. Note that NOCASE only folds ASCII, unlike BlogUtils.BlogNameComparator.
+     */
+    public List<AccountSummary> getAccountSummariesBy(String byString) {
+        String where = "password IS NOT NULL AND password != '' AND id > 0";
+        if (!TextUtils.isEmpty(byString)) {
+            where += " AND (" + byString + ")";
+        }
+        String[] fields = new String[]{"id", "blogId", "blogName", "username", "url", "homeURL", "dotcomFlag", "isHidden"};
+        String orderBy = "(CASE WHEN blogName IS NULL OR blogName = '' THEN url ELSE blogName END) COLLATE NOCASE, id";
+        Cursor c = db.query(SETTINGS_TABLE, fields, where, null, null, null, orderBy);
+        try {
+            ArrayList<AccountSummary> accounts = new ArrayList<AccountSummary>(c.getCount());
+            while (c.moveToNext()) {
+                accounts.add(new AccountSummary(
+                        c.getInt(0),
+                        c.getInt(1),
+                        c.getString(2),
+                        c.getString(3),
+                        c.getString(4),
+                        c.getString(5),
+                        c.getInt(6) != 0,
+                        c.getInt(7) != 0));
+            }
+            return accounts;
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+    }
+
+    /**
+     * Returns summaries of the visible accounts sorted by name, cached until the accounts change
+     */
+    public synchronized List<AccountSummary> getVisibleAccountSummaries() {
+        if (mVisibleAccountSummaries == null) {
+            mVisibleAccountSummaries = Collections.unmodifiableList(getAccountSummariesBy("isHidden = 0"));
+        }
+        return mVisibleAccountSummaries;
+    }
+
+    /**
+     * Returns summaries of the visible wp.com accounts sorted by name, cached until the accounts change
+     */
+    public synchronized List<AccountSummary> getVisibleDotComAccountSummaries() {
+        if (mVisibleDotComAccountSummaries == null) {
+            mVisibleDotComAccountSummaries =
+                    Collections.unmodifiableList(getAccountSummariesBy("isHidden = 0 AND dotcomFlag = 1"));
+        }
+        return mVisibleDotComAccountSummaries;
+    }
+
+    private synchronized void clearAccountSummaries() {
+        mVisibleAccountSummaries = null;
+        mVisibleDotComAccountSummaries = null;
+    }
+
     public List<Map<String, Object>> getVisibleAccounts() {
         return getAccountsBy("isHidden = 0", null);
     }
@@ -396,27 +499,25 @@ public class WordPressDB {
     public int setAllDotComAccountsVisibility(boolean visible) {
         ContentValues values = new ContentValues();
         values.put("isHidden", !visible);
-        return db.update(SETTINGS_TABLE, values, "dotcomFlag = 1", null);
+        int numUpdated = db.update(SETTINGS_TABLE, values, "dotcomFlag = 1", null);
+        mBlogRegistry.invalidate();
+        return numUpdated;
     }
 
     public int setDotComAccountsVisibility(int id, boolean visible) {
         ContentValues values = new ContentValues();
         values.put("isHidden", !visible);
-        return db.update(SETTINGS_TABLE, values, "dotcomFlag=1 AND id=" + id, null);
+        int numUpdated = db.update(SETTINGS_TABLE, values, "dotcomFlag=1 AND id=" + id, null);
+        mBlogRegistry.onBlogChanged(id);
+        return numUpdated;
     }
 
     public boolean isDotComAccountVisible(int blogId) {
-        String[] args = {Integer.toString(blogId)};
-        return SqlUtils.boolForQuery(db, "SELECT 1 FROM " + SETTINGS_TABLE +
-                                         " WHERE isHidden = 0 AND blogId=?", args);
+        return mBlogRegistry.isDotComAccountVisible(blogId);
     }
 
     public boolean isBlogInDatabase(int blogId, String xmlRpcUrl) {
-        Cursor c = db.query(SETTINGS_TABLE, new String[]{"id"}, "blogId=? AND url=?",
-                new String[]{Integer.toString(blogId), xmlRpcUrl}, null, null, null, null);
-        boolean result =  c.getCount() > 0;
-        c.close();
-        return result;
+        return mBlogRegistry.isBlogInDatabase(blogId, xmlRpcUrl);
     }
 
     public boolean isLocalBlogIdInDatabase(int localBlogId) {
@@ -461,7 +562,10 @@ public class WordPressDB {
         boolean returnValue = db.update(SETTINGS_TABLE, values, "id=" + blog.getLocalTableBlogId(),
                 null) > 0;
         if (blog.isDotcomFlag()) {
+            // updates the registry for all wp.com blogs, including this one
             returnValue = updateWPComCredentials(blog.getUsername(), blog.getPassword());
+        } else {
+            mBlogRegistry.onBlogChanged(blog.getLocalTableBlogId());
         }
 
         return (returnValue);
@@ -472,14 +576,18 @@ public class WordPressDB {
         ContentValues userPass = new ContentValues();
         userPass.put("username", username);
         userPass.put("password", encryptPassword(password));
-        return db.update(SETTINGS_TABLE, userPass, "username=\""
+        boolean result = db.update(SETTINGS_TABLE, userPass, "username=\""
                 + username + "\" AND dotcomFlag=1", null) > 0;
+        mBlogRegistry.invalidate();
+        return result;
     }
 
     public boolean deleteAccount(Context ctx, int id) {
         // TODO: should this also delete posts and other related info?
         int rowsAffected = db.delete(SETTINGS_TABLE, "id=?", new String[]{Integer.toString(id)});
         deleteQuickPressShortcutsForAccount(ctx, id);
+        UploadedMediaTable.deleteUploadedMediaForBlog(id);
+        mBlogRegistry.onBlogDeleted(id);
         return (rowsAffected > 0);
     }
 
@@ -506,70 +614,102 @@ public class WordPressDB {
      * @return a new Blog instance or null if the localId was not found
      */
     public Blog instantiateBlogByLocalId(int localId) {
-        String[] fields =
-                new String[]{"url", "blogName", "username", "password", "httpuser", "httppassword", "imagePlacement",
-                             "centerThumbnail", "fullSizeImage", "maxImageWidth", "maxImageWidthId",
-                             "blogId", "dotcomFlag", "dotcom_username", "dotcom_password", "api_key",
-                             "api_blogid", "wpVersion", "postFormats", "isScaledImage",
-                             "scaledImgWidth", "homeURL", "blog_options", "isAdmin", "isHidden"};
-        Cursor c = db.query(SETTINGS_TABLE, fields, "id=?", new String[]{Integer.toString(localId)}, null, null, null);
+        return mBlogRegistry.getBlog(localId);
+    }
 
-        Blog blog = null;
-        if (c.moveToFirst()) {
-            if (c.getString(0) != null) {
-                blog = new Blog();
-                blog.setLocalTableBlogId(localId);
-                blog.setUrl(c.getString(c.getColumnIndex("url"))); // 0
-
-                blog.setBlogName(c.getString(c.getColumnIndex("blogName"))); // 1
-                blog.setUsername(c.getString(c.getColumnIndex("username"))); // 2
-                blog.setPassword(decryptPassword(c.getString(c.getColumnIndex("password")))); // 3
-                if (c.getString(c.getColumnIndex("httpuser")) == null) {
-                    blog.setHttpuser("");
-                } else {
-                    blog.setHttpuser(c.getString(c.getColumnIndex("httpuser")));
-                }
-                if (c.getString(c.getColumnIndex("httppassword")) == null) {
-                    blog.setHttppassword("");
-                } else {
-                    blog.setHttppassword(decryptPassword(c.getString(c.getColumnIndex("httppassword"))));
-                }
-                blog.setImagePlacement(c.getString(c.getColumnIndex("imagePlacement")));
-                blog.setFeaturedImageCapable(c.getInt(c.getColumnIndex("centerThumbnail")) > 0);
-                blog.setFullSizeImage(c.getInt(c.getColumnIndex("fullSizeImage")) > 0);
-                blog.setMaxImageWidth(c.getString(c.getColumnIndex("maxImageWidth")));
-                blog.setMaxImageWidthId(c.getInt(c.getColumnIndex("maxImageWidthId")));
-                blog.setRemoteBlogId(c.getInt(c.getColumnIndex("blogId")));
-                blog.setDotcomFlag(c.getInt(c.getColumnIndex("dotcomFlag")) > 0);
-                if (c.getString(c.getColumnIndex("dotcom_username")) != null) {
-                    blog.setDotcom_username(c.getString(c.getColumnIndex("dotcom_username")));
-                }
-                if (c.getString(c.getColumnIndex("dotcom_password")) != null) {
-                    blog.setDotcom_password(decryptPassword(c.getString(c.getColumnIndex("dotcom_password"))));
-                }
-                if (c.getString(c.getColumnIndex("api_key")) != null) {
-                    blog.setApi_key(c.getString(c.getColumnIndex("api_key")));
-                }
-                if (c.getString(c.getColumnIndex("api_blogid")) != null) {
-                    blog.setApi_blogid(c.getString(c.getColumnIndex("api_blogid")));
-                }
-                if (c.getString(c.getColumnIndex("wpVersion")) != null) {
-                    blog.setWpVersion(c.getString(c.getColumnIndex("wpVersion")));
-                }
-                blog.setPostFormats(c.getString(c.getColumnIndex("postFormats")));
-                blog.setScaledImage(c.getInt(c.getColumnIndex("isScaledImage")) > 0);
-                blog.setScaledImageWidth(c.getInt(c.getColumnIndex("scaledImgWidth")));
-                blog.setHomeURL(c.getString(c.getColumnIndex("homeURL")));
-                if (c.getString(c.getColumnIndex("blog_options")) == null) {
-                    blog.setBlogOptions("{}");
-                } else {
-                    blog.setBlogOptions(c.getString(c.getColumnIndex("blog_options")));
+    private static final String[] BLOG_FIELDS =
+            new String[]{"url", "blogName", "username", "password", "httpuser", "httppassword", "imagePlacement",
+                         "centerThumbnail", "fullSizeImage", "maxImageWidth", "maxImageWidthId",
+                         "blogId", "dotcomFlag", "dotcom_username", "dotcom_password", "api_key",
+                         "api_blogid", "wpVersion", "postFormats", "isScaledImage",
+                         "scaledImgWidth", "homeURL", "blog_options", "isAdmin", "isHidden", "id"};
+
+    /*
+     * reads a blog from the accounts table - used by BlogRegistry, everything else should get
+     * blogs from the registry
+     */
+    Blog loadBlogFromDb(int localId) {
+        Cursor c = db.query(SETTINGS_TABLE, BLOG_FIELDS, "id=?", new String[]{Integer.toString(localId)}, null, null, null);
+        try {
+            return (c.moveToFirst() ? getBlogFromCursor(c) : null);
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+    }
+
+    /*
+     * reads all blogs from the accounts table in a single query - used by BlogRegistry
+     */
+    List<Blog> loadAllBlogsFromDb() {
+        List<Blog> blogs = new ArrayList<Blog>();
+        Cursor c = db.query(SETTINGS_TABLE, BLOG_FIELDS, null, null, null, null, null);
+        try {
+            while (c.moveToNext()) {
+                Blog blog = getBlogFromCursor(c);
+                if (blog != null) {
+                    blogs.add(blog);
                 }
-                blog.setAdmin(c.getInt(c.getColumnIndex("isAdmin")) > 0);
-                blog.setHidden(c.getInt(c.getColumnIndex("isHidden")) > 0);
             }
+            return blogs;
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+    }
+
+    private Blog getBlogFromCursor(Cursor c) {
+        Blog blog = null;
+        if (c.getString(0) != null) {
+            blog = new Blog();
+            blog.setLocalTableBlogId(c.getInt(c.getColumnIndex("id")));
+            blog.setUrl(c.getString(c.getColumnIndex("url"))); // 0
+
+            blog.setBlogName(c.getString(c.getColumnIndex("blogName"))); // 1
+            blog.setUsername(c.getString(c.getColumnIndex("username"))); // 2
+            blog.setPassword(decryptPassword(c.getString(c.getColumnIndex("password")))); // 3
+            if (c.getString(c.getColumnIndex("httpuser")) == null) {
+                blog.setHttpuser("");
+            } else {
+                blog.setHttpuser(c.getString(c.getColumnIndex("httpuser")));
+            }
+            if (c.getString(c.getColumnIndex("httppassword")) == null) {
+                blog.setHttppassword("");
+            } else {
+                blog.setHttppassword(decryptPassword(c.getString(c.getColumnIndex("httppassword"))));
+            }
+            blog.setImagePlacement(c.getString(c.getColumnIndex("imagePlacement")));
+            blog.setFeaturedImageCapable(c.getInt(c.getColumnIndex("centerThumbnail")) > 0);
+            blog.setFullSizeImage(c.getInt(c.getColumnIndex("fullSizeImage")) > 0);
+            blog.setMaxImageWidth(c.getString(c.getColumnIndex("maxImageWidth")));
+            blog.setMaxImageWidthId(c.getInt(c.getColumnIndex("maxImageWidthId")));
+            blog.setRemoteBlogId(c.getInt(c.getColumnIndex("blogId")));
+            blog.setDotcomFlag(c.getInt(c.getColumnIndex("dotcomFlag")) > 0);
+            if (c.getString(c.getColumnIndex("dotcom_username")) != null) {
+                blog.setDotcom_username(c.getString(c.getColumnIndex("dotcom_username")));
+            }
+            if (c.getString(c.getColumnIndex("dotcom_password")) != null) {
+                blog.setDotcom_password(decryptPassword(c.getString(c.getColumnIndex("dotcom_password"))));
+            }
+            if (c.getString(c.getColumnIndex("api_key")) != null) {
+                blog.setApi_key(c.getString(c.getColumnIndex("api_key")));
+            }
+            if (c.getString(c.getColumnIndex("api_blogid")) != null) {
+                blog.setApi_blogid(c.getString(c.getColumnIndex("api_blogid")));
+            }
+            if (c.getString(c.getColumnIndex("wpVersion")) != null) {
+                blog.setWpVersion(c.getString(c.getColumnIndex("wpVersion")));
+            }
+            blog.setPostFormats(c.getString(c.getColumnIndex("postFormats")));
+            blog.setScaledImage(c.getInt(c.getColumnIndex("isScaledImage")) > 0);
+            blog.setScaledImageWidth(c.getInt(c.getColumnIndex("scaledImgWidth")));
+            blog.setHomeURL(c.getString(c.getColumnIndex("homeURL")));
+            if (c.getString(c.getColumnIndex("blog_options")) == null) {
+                blog.setBlogOptions("{}");
+            } else {
+                blog.setBlogOptions(c.getString(c.getColumnIndex("blog_options")));
+            }
+            blog.setAdmin(c.getInt(c.getColumnIndex("isAdmin")) > 0);
+            blog.setHidden(c.getInt(c.getColumnIndex("isHidden")) > 0);
         }
-        c.close();
         return blog;
     }
 
@@ -638,12 +778,7 @@ public class WordPressDB {
     }
 
     public int getLocalTableBlogIdForRemoteBlogIdAndXmlRpcUrl(int remoteBlogId, String xmlRpcUrl) {
-        int localBlogID = SqlUtils.intForQuery(db, "SELECT id FROM accounts WHERE blogId=? AND url=?",
-                new String[]{Integer.toString(remoteBlogId), xmlRpcUrl});
-        if (localBlogID==0) {
-            localBlogID = this.getLocalTableBlogIdForJetpackRemoteID(remoteBlogId, xmlRpcUrl);
-        }
-        return localBlogID;
+        return mBlogRegistry.getLocalTableBlogIdForRemoteBlogIdAndXmlRpcUrl(remoteBlogId, xmlRpcUrl);
     }
 
     public int getRemoteBlogIdForLocalTableBlogId(int localBlogId) {
@@ -932,41 +1067,56 @@ public class WordPressDB {
     }
 
     public int updatePost(Post post) {
-        int result = 0;
-        if (post != null) {
-            ContentValues values = new ContentValues();
-            values.put("title", post.getTitle());
-            values.put("date_created_gmt", post.getDate_created_gmt());
-            values.put("description", post.getDescription());
-            values.put("mt_text_more", post.getMoreText());
-            values.put("isUploading", post.isUploading());
-            values.put("uploaded", post.isUploaded());
+        if (post == null) {
+            return 0;
+        }
+        return updatePostValues(post, getPostUpdateValues(post));
+    }
 
-            JSONArray categoriesJsonArray = post.getJSONCategories();
-            if (categoriesJsonArray != null) {
-                values.put("categories", categoriesJsonArray.toString());
-            }
+    /**
+     * Returns the columns updatePost() writes for the passed post, without touching the db
+     */
+    public ContentValues getPostUpdateValues(Post post) {
+        ContentValues values = new ContentValues();
+        values.put("title", post.getTitle());
+        values.put("date_created_gmt", post.getDate_created_gmt());
+        values.put("description", post.getDescription());
+        values.put("mt_text_more", post.getMoreText());
+        values.put("isUploading", post.isUploading());
+        values.put("uploaded", post.isUploaded());
+
+        JSONArray categoriesJsonArray = post.getJSONCategories();
+        if (categoriesJsonArray != null) {
+            values.put("categories", categoriesJsonArray.toString());
+        }
 
-            values.put("localDraft", post.isLocalDraft());
-            values.put("mediaPaths", post.getMediaPaths());
-            values.put("mt_keywords", post.getKeywords());
-            values.put("wp_password", post.getPassword());
-            values.put("post_status", post.getPostStatus());
-            values.put("isPage", post.isPage());
-            values.put("wp_post_format", post.getPostFormat());
-            values.put("isLocalChange", post.isLocalChange());
-            values.put("mt_excerpt", post.getPostExcerpt());
-            putPostLocation(post, values);
+        values.put("localDraft", post.isLocalDraft());
+        values.put("mediaPaths", post.getMediaPaths());
+        values.put("mt_keywords", post.getKeywords());
+        values.put("wp_password", post.getPassword());
+        values.put("post_status", post.getPostStatus());
+        values.put("isPage", post.isPage());
+        values.put("wp_post_format", post.getPostFormat());
+        values.put("isLocalChange", post.isLocalChange());
+        values.put("mt_excerpt", post.getPostExcerpt());
+        putPostLocation(post, values);
 
-            result = db.update(POSTS_TABLE, values, "blogID=? AND id=? AND isPage=?",
-                    new String[]{
-                        String.valueOf(post.getLocalTableBlogId()),
-                        String.valueOf(post.getLocalTablePostId()),
-                        String.valueOf(SqlUtils.boolToSql(post.isPage()))
-                    });
-        }
+        return values;
+    }
 
-        return (result);
+    /**
+     * Writes only the passed columns of the post's row
+     */
+    public int updatePostValues(Post post, ContentValues values) {
+        if (post == null || values == null || values.size() == 0) {
+            return 0;
+        }
+        return db.update(POSTS_TABLE, values, "blogID=? AND id=? AND isPage=?",
+                new String[]{
+                    String.valueOf(post.getLocalTableBlogId()),
+                    String.valueOf(post.getLocalTablePostId()),
+                    String.valueOf(SqlUtils.boolToSql(post.isPage()))
+                });
     }
 
     private void putPostLocation(Post post, ContentValues values) {
@@ -1303,7 +1453,7 @@ public class WordPressDB {
         return commentCount;
     }
 
-    public void saveMediaFile(MediaFile mf) {
+    private static ContentValues getMediaFileValues(MediaFile mf) {
         ContentValues values = new ContentValues();
         values.put("postID", mf.getPostID());
         values.put("filePath", mf.getFilePath());
@@ -1328,6 +1478,11 @@ public class WordPressDB {
             values.put("uploadState", mf.getUploadState());
         else
             values.putNull("uploadState");
+        return values;
+    }
+
+    public void saveMediaFile(MediaFile mf) {
+        ContentValues values = getMediaFileValues(mf);
 
         synchronized (this) {
             int result = 0;
@@ -1355,6 +1510,79 @@ public class WordPressDB {
 
     }
 
+    /**
+     * Applies the changes from a media library sync in a single transaction: saves the passed
+     * media files (skipping those queued for deletion) and deletes the rows for deletedMediaIds
+     **/
+    public void saveMediaFiles(String blogId, List<MediaFile> mediaFiles, Collection<String> deletedMediaIds) {
+        synchronized (this) {
+            db.beginTransaction();
+            try {
+                // look up the items queued for deletion once rather than per item
+                Set<String> markedForDelete = new HashSet<String>();
+                Cursor cursor = db.rawQuery("SELECT mediaId FROM " + MEDIA_TABLE + " WHERE blogId=? AND uploadState=?",
+                        new String[]{blogId, "delete"});
+                try {
+                    while (cursor.moveToNext()) {
+                        markedForDelete.add(cursor.getString(0));
+                    }
+                } finally {
+                    SqlUtils.closeCursor(cursor);
+                }
+
+                for (MediaFile mf : mediaFiles) {
+                    String mediaId = StringUtils.notNullStr(mf.getMediaId());
+                    if (markedForDelete.contains(mediaId)) {
+                        continue;
+                    }
+                    ContentValues values = getMediaFileValues(mf);
+                    int result = db.update(MEDIA_TABLE, values, "blogId=? AND mediaId=?",
+                            new String[]{blogId, mediaId});
+                    if (result == 0) {
+                        db.insert(MEDIA_TABLE, null, values);
+                    }
+                }
+
+                if (deletedMediaIds != null) {
+                    int localBlogId = StringUtils.stringToInt(blogId);
+                    for (String mediaId : deletedMediaIds) {
+                        db.delete(MEDIA_TABLE, "blogId=? AND mediaId=?", new String[]{blogId, mediaId});
+                        // forget the upload so the same file is uploaded again rather than
+                        // reusing the deleted item's url
+                        UploadedMediaTable.deleteUploadedMedia(localBlogId, mediaId);
+                    }
+                }
+
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+    }
+
+    /** Newest date_created_gmt of the media synced from the server for a blog, zero if none has been synced **/
+    public long getNewestMediaDateForBlog(String blogId) {
+        return SqlUtils.longForQuery(db, "SELECT MAX(date_created_gmt) FROM " + MEDIA_TABLE
+                + " WHERE blogId=? AND mediaId <> '' AND (uploadState IS NULL OR uploadState='uploaded')",
+                new String[]{blogId});
+    }
+
+    /** Ids of the media synced from the server for a blog which were created after afterDateGmt **/
+    public Set<String> getSyncedMediaIdsForBlog(String blogId, long afterDateGmt) {
+        Set<String> mediaIds = new HashSet<String>();
+        Cursor cursor = db.rawQuery("SELECT mediaId FROM " + MEDIA_TABLE
+                + " WHERE blogId=? AND mediaId <> '' AND (uploadState IS NULL OR uploadState='uploaded')"
+                + " AND date_created_gmt > ?", new String[]{blogId, Long.toString(afterDateGmt)});
+        try {
+            while (cursor.moveToNext()) {
+                mediaIds.add(cursor.getString(0));
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+        return mediaIds;
+    }
+
     /** For a given blogId, get the first media files **/
     public Cursor getFirstMediaFileForBlog(String blogId) {
         return db.rawQuery("SELECT id as _id, * FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND " +
@@ -1364,7 +1592,7 @@ public class WordPressDB {
 
     /** For a given blogId, get all the media files **/
     public Cursor getMediaFilesForBlog(String blogId) {
-        return db.rawQuery("SELECT id as _id, * FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND "
+        return db.rawQuery("SELECT " + MEDIA_GRID_COLUMNS + " FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND "
                 + "(uploadState IS NULL OR uploadState IN ('uploaded', 'queued', 'failed', 'uploading')) ORDER BY (uploadState=?) DESC, date_created_gmt DESC", new String[] { blogId, "uploading" });
     }
 
@@ -1374,7 +1602,7 @@ public class WordPressDB {
         // We'll match this.
 
         String term = searchTerm.toLowerCase(Locale.getDefault());
-        return db.rawQuery("SELECT id as _id, * FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND title LIKE ? AND (uploadState IS NULL OR uploadState ='uploaded') ORDER BY (uploadState=?) DESC, date_created_gmt DESC", new String[] { blogId, "%" + term + "%", "uploading" });
+        return db.rawQuery("SELECT " + MEDIA_GRID_COLUMNS + " FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND title LIKE ? AND (uploadState IS NULL OR uploadState ='uploaded') ORDER BY (uploadState=?) DESC, date_created_gmt DESC", new String[] { blogId, "%" + term + "%", "uploading" });
     }
 
     /** For a given blogId, get the media file with the given media_id **/
@@ -1383,15 +1611,13 @@ public class WordPressDB {
     }
 
     public int getMediaCountAll(String blogId) {
-        Cursor cursor = getMediaFilesForBlog(blogId);
-        int count = cursor.getCount();
-        cursor.close();
-        return count;
+        return SqlUtils.intForQuery(db, "SELECT COUNT(*) FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND "
+                + "(uploadState IS NULL OR uploadState IN ('uploaded', 'queued', 'failed', 'uploading'))", new String[] { blogId });
     }
 
 
     public Cursor getMediaImagesForBlog(String blogId) {
-        return db.rawQuery("SELECT id as _id, * FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND "
+        return db.rawQuery("SELECT " + MEDIA_GRID_COLUMNS + " FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND "
                 + "(uploadState IS NULL OR uploadState IN ('uploaded', 'queued', 'failed', 'uploading')) AND mimeType LIKE ? ORDER BY (uploadState=?) DESC, date_created_gmt DESC", new String[] { blogId, "image%", "uploading" });
     }
 
@@ -1412,20 +1638,22 @@ public class WordPressDB {
     }
 
     public int getMediaCountImages(String blogId) {
-        return getMediaImagesForBlog(blogId).getCount();
+        return SqlUtils.intForQuery(db, "SELECT COUNT(*) FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND "
+                + "(uploadState IS NULL OR uploadState IN ('uploaded', 'queued', 'failed', 'uploading')) AND mimeType LIKE ?", new String[] { blogId, "image%" });
     }
 
     public Cursor getMediaUnattachedForBlog(String blogId) {
-        return db.rawQuery("SELECT id as _id, * FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND " +
+        return db.rawQuery("SELECT " + MEDIA_GRID_COLUMNS + " FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND " +
                 "(uploadState IS NULL OR uploadState IN ('uploaded', 'queued', 'failed', 'uploading')) AND postId=0 ORDER BY (uploadState=?) DESC, date_created_gmt DESC", new String[] { blogId, "uploading" });
     }
 
     public int getMediaCountUnattached(String blogId) {
-        return getMediaUnattachedForBlog(blogId).getCount();
+        return SqlUtils.intForQuery(db, "SELECT COUNT(*) FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND "
+                + "(uploadState IS NULL OR uploadState IN ('uploaded', 'queued', 'failed', 'uploading')) AND postId=0", new String[] { blogId });
     }
 
     public Cursor getMediaFilesForBlog(String blogId, long startDate, long endDate) {
-        return db.rawQuery("SELECT id as _id, * FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND (uploadState IS NULL OR uploadState ='uploaded') AND (date_created_gmt >= ? AND date_created_gmt <= ?) ", new String[] { blogId , String.valueOf(startDate), String.valueOf(endDate) });
+        return db.rawQuery("SELECT " + MEDIA_GRID_COLUMNS + " FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND (uploadState IS NULL OR uploadState ='uploaded') AND (date_created_gmt >= ? AND date_created_gmt <= ?) ", new String[] { blogId , String.valueOf(startDate), String.valueOf(endDate) });
     }
 
     public Cursor getMediaFiles(String blogId, ArrayList<String> mediaIds) {
@@ -1568,14 +1796,6 @@ public class WordPressDB {
         }
     }
 
-    /** Mark media files as deleted without actually deleting them **/
-    public void setMediaFilesMarkedForDeleted(String blogId) {
-        // This is for syncing our files to the server:
-        // when we pull from the server, everything that is still 'deleted'
-        // was not downloaded from the server and can be removed via deleteFilesMarkedForDeleted()
-        updateMediaUploadState(blogId, null, "deleted");
-    }
-
     /** Delete files marked as deleted **/
     public void deleteFilesMarkedForDeleted(String blogId) {
         db.delete(MEDIA_TABLE, "blogId=? AND uploadState=?", new String[] { blogId, "deleted" });
@@ -7,6 +7,10 @@ import android.app.PendingIntent;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.Process;
 import android.preference.PreferenceManager;
 import android.text.TextUtils;
 
@@ -21,15 +25,48 @@ import org.wordpress.android.WordPress;
 import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
+import org.wordpress.android.util.DeviceUtils;
+import org.wordpress.android.util.NetworkUtils;
 import org.wordpress.android.util.PackageUtils;
 
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks events with Mixpanel. The public methods only queue a message for a background thread,
+ * which builds and aggregates the properties and hands the events to Mixpanel - Mixpanel stores
+ * them in its own database and uploads them in batches. Rather than letting Mixpanel upload on
+ * its own timer (see the FlushInterval meta-data in the manifest), we flush when the app goes to
+ * the background, or on Wi-Fi or while charging, so uploads don't compete with the app's own
+ * requests on a metered connection.
+ */
 public class AnalyticsTrackerMixpanel implements AnalyticsTracker.Tracker {
+    // everything below is only used on the tracker thread
     private MixpanelAPI mMixpanel;
     private EnumMap<AnalyticsTracker.Stat, JSONObject> mAggregatedProperties;
+    private long mLastFlushTime;
+    private boolean mIsEmailRetrievalPending;
+
+    private final Handler mHandler;
+    private final AtomicInteger mNumQueuedEvents = new AtomicInteger();
+
+    // events tracked while this many are waiting for the tracker thread are dropped
+    private static final int MAX_QUEUED_EVENTS = 500;
+    // how often we flush while on Wi-Fi or charging - going to the background always flushes
+    private static final long MIN_FLUSH_INTERVAL_MS = 5 * 60 * 1000;
+
+    private static final int MSG_INIT = 0;
+    private static final int MSG_TRACK = 1;
+    private static final int MSG_BEGIN_SESSION = 2;
+    private static final int MSG_END_SESSION = 3;
+    private static final int MSG_REFRESH_METADATA = 4;
+    private static final int MSG_CLEAR_ALL_DATA = 5;
+    private static final int MSG_REGISTER_PUSH_TOKEN = 6;
+    private static final int MSG_REGISTER_EMAIL = 7;
+
     private static final String SESSION_COUNT = "sessionCount";
     private static final String MIXPANEL_PLATFORM = "platform";
     private static final String MIXPANEL_SESSION_COUNT = "session_count";
@@ -39,8 +76,61 @@ public class AnalyticsTrackerMixpanel implements AnalyticsTracker.Tracker {
     private static final String VERSION_CODE = "version_code";
 
     public AnalyticsTrackerMixpanel() {
-        mAggregatedProperties = new EnumMap<AnalyticsTracker.Stat, JSONObject>(AnalyticsTracker.Stat.class);
-        mMixpanel = MixpanelAPI.getInstance(WordPress.getContext(), BuildConfig.MIXPANEL_TOKEN);
+        HandlerThread thread = new HandlerThread("AnalyticsTrackerMixpanel", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        mHandler = new Handler(thread.getLooper(), new Handler.Callback() {
+            @Override
+            public boolean handleMessage(Message msg) {
+                handleTrackerMessage(msg);
+                return true;
+            }
+        });
+        // getting the Mixpanel instance reads its preferences from disk
+        mHandler.sendEmptyMessage(MSG_INIT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handleTrackerMessage(Message msg) {
+        switch (msg.what) {
+            case MSG_INIT:
+                mAggregatedProperties = new EnumMap<AnalyticsTracker.Stat, JSONObject>(AnalyticsTracker.Stat.class);
+                mMixpanel = MixpanelAPI.getInstance(WordPress.getContext(), BuildConfig.MIXPANEL_TOKEN);
+                mLastFlushTime = System.currentTimeMillis();
+                break;
+            case MSG_TRACK:
+                mNumQueuedEvents.decrementAndGet();
+                AnalyticsTracker.Stat stat = AnalyticsTracker.Stat.values()[msg.arg1];
+                AnalyticsTrackerMixpanelInstructionsForStat instructions = instructionsForStat(stat);
+                if (instructions != null) {
+                    trackMixpanelDataForInstructions(instructions, (Map<String, ?>) msg.obj);
+                }
+                flushIfUnmetered();
+                break;
+            case MSG_BEGIN_SESSION:
+            case MSG_REFRESH_METADATA:
+                doRefreshMetadata();
+                break;
+            case MSG_END_SESSION:
+                mAggregatedProperties.clear();
+                flush();
+                break;
+            case MSG_CLEAR_ALL_DATA:
+                doClearAllData();
+                break;
+            case MSG_REGISTER_PUSH_TOKEN:
+                try {
+                    mMixpanel.getPeople().setPushRegistrationId((String) msg.obj);
+                } catch (OutOfMemoryError outOfMemoryError) {
+                    // ignore exception
+                }
+                break;
+            case MSG_REGISTER_EMAIL:
+                setValueForPeopleProperty("$email", msg.obj);
+                AppPrefs.setMixpanelEmailRetrievalCheck(true);
+                break;
+            default:
+                break;
+        }
     }
 
     @SuppressWarnings("deprecation")
@@ -68,13 +158,36 @@ public class AnalyticsTrackerMixpanel implements AnalyticsTracker.Tracker {
 
     @Override
     public void track(AnalyticsTracker.Stat stat, Map<String, ?> properties) {
-        AnalyticsTrackerMixpanelInstructionsForStat instructions = instructionsForStat(stat);
+        if (mNumQueuedEvents.incrementAndGet() > MAX_QUEUED_EVENTS) {
+            mNumQueuedEvents.decrementAndGet();
+            return;
+        }
+        // copy the properties since the caller may reuse the map
+        Map<String, Object> propertiesCopy = (properties != null ? new HashMap<String, Object>(properties) : null);
+        mHandler.obtainMessage(MSG_TRACK, stat.ordinal(), 0, propertiesCopy).sendToTarget();
+    }
 
-        if (instructions == null) {
+    /*
+     * flush queued events if it's been a while since the last flush and uploading them won't
+     * use a metered connection or run down the battery
+     */
+    private void flushIfUnmetered() {
+        if (System.currentTimeMillis() - mLastFlushTime < MIN_FLUSH_INTERVAL_MS) {
             return;
         }
+        Context context = WordPress.getContext();
+        if (NetworkUtils.isWiFiConnected(context) || DeviceUtils.getInstance().isCharging(context)) {
+            flush();
+        }
+    }
 
-        trackMixpanelDataForInstructions(instructions, properties);
+    private void flush() {
+        mMixpanel.flush();
+        mLastFlushTime = System.currentTimeMillis();
+        if (mIsEmailRetrievalPending) {
+            mIsEmailRetrievalPending = false;
+            retrieveAndRegisterEmailAddressIfApplicable();
+        }
     }
 
     private void retrieveAndRegisterEmailAddressIfApplicable() {
@@ -88,8 +201,7 @@ public class AnalyticsTrackerMixpanel implements AnalyticsTracker.Tracker {
                 try {
                     if (jsonObject != null && !TextUtils.isEmpty(jsonObject.getString("email"))) {
                         String email = jsonObject.getString("email");
-                        setValueForPeopleProperty("$email", email);
-                        AppPrefs.setMixpanelEmailRetrievalCheck(true);
+                        mHandler.obtainMessage(MSG_REGISTER_EMAIL, email).sendToTarget();
                     }
                 } catch (JSONException e) {
                     AppLog.e(T.UTILS, "Can't get email field from json response: " + jsonObject);
@@ -184,32 +296,36 @@ public class AnalyticsTrackerMixpanel implements AnalyticsTracker.Tracker {
 
     @Override
     public void beginSession() {
-        refreshMetadata();
+        mHandler.sendEmptyMessage(MSG_BEGIN_SESSION);
     }
 
     @Override
     public void registerPushNotificationToken(String regId) {
-        try {
-            mMixpanel.getPeople().setPushRegistrationId(regId);
-        } catch (OutOfMemoryError outOfMemoryError) {
-            // ignore exception
-        }
+        mHandler.obtainMessage(MSG_REGISTER_PUSH_TOKEN, regId).sendToTarget();
     }
 
     @Override
     public void endSession() {
-        mAggregatedProperties.clear();
-        mMixpanel.flush();
+        mHandler.sendEmptyMessage(MSG_END_SESSION);
     }
 
     @Override
     public void refreshMetadata() {
+        mHandler.sendEmptyMessage(MSG_REFRESH_METADATA);
+    }
+
+    @Override
+    public void clearAllData() {
+        mHandler.sendEmptyMessage(MSG_CLEAR_ALL_DATA);
+    }
+
+    private void doRefreshMetadata() {
         // Register super properties
         SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(WordPress.getContext());
         int sessionCount = preferences.getInt(SESSION_COUNT, 0);
         boolean connected = WordPress.hasValidWPComCredentials(WordPress.getContext());
         boolean jetpackUser = WordPress.wpDB.hasAnyJetpackBlogs();
-        int numBlogs = WordPress.wpDB.getVisibleAccounts().size();
+        int numBlogs = WordPress.wpDB.getVisibleAccountSummaries().size();
         try {
             JSONObject properties = new JSONObject();
             properties.put(MIXPANEL_PLATFORM, "Android");
@@ -239,12 +355,13 @@ public class AnalyticsTrackerMixpanel implements AnalyticsTracker.Tracker {
                 // ignore exception
             }
 
-            retrieveAndRegisterEmailAddressIfApplicable();
+            // the request for the email address waits for the next flush so it doesn't hold up
+            // the requests made when the app starts
+            mIsEmailRetrievalPending = true;
         }
     }
 
-    @Override
-    public void clearAllData() {
+    private void doClearAllData() {
         mMixpanel.clearSuperProperties();
         try {
             mMixpanel.getPeople().clearPushRegistrationId();
@@ -14,6 +14,8 @@ import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.SqlUtils;
 import org.wordpress.android.util.StringUtils;
 
+import java.util.List;
+
 /**
  * replaces the comments table used in versions prior to 2.6.1, which didn't use a primary key
  * and missed a few important fields
@@ -36,6 +38,14 @@ public class CommentTable {
                  + "    profile_image_url   TEXT,"
                  + "    PRIMARY KEY (blog_id, post_id, comment_id)"
                  + " );");
+
+        // the comment list pages through a blog's comments newest first, and moderation looks
+        // up comments by id without their post - the primary key helps with neither. these are
+        // created here rather than in a migration so they're added to existing tables, too
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_comments_blog_published ON " + COMMENTS_TABLE
+                 + " (blog_id, published, comment_id)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_comments_blog_comment_id ON " + COMMENTS_TABLE
+                 + " (blog_id, comment_id)");
     }
 
     private static void dropTables(SQLiteDatabase db) {
@@ -123,25 +133,99 @@ public class CommentTable {
         }
     }
 
+    /*
+     * comments are ordered newest first, with the comment id breaking ties between comments
+     * published at the same time, so a comment's (published, comment_id) is a stable position
+     * to page from - unlike an offset, it isn't thrown off by comments added or removed before it
+     */
+    private static final String ORDER_BY_NEWEST = " ORDER BY published DESC, comment_id DESC";
+
     /**
      * nbradbury - get all comments for a blog
      * @param localBlogId - unique id in account table for this blog
      * @return list of comments for this blog
      */
     public static CommentList getCommentsForBlog(int localBlogId) {
-        CommentList comments = new CommentList();
+        String[] args = {Integer.toString(localBlogId)};
+        return getCommentsForQuery("SELECT * FROM " + COMMENTS_TABLE + " WHERE blog_id=?" + ORDER_BY_NEWEST, args);
+    }
 
+    /**
+     * returns the newest comments for a blog
+     * @param localBlogId - unique id in account table for this blog
+     * @param limit - maximum number of comments to return
+     */
+    public static CommentList getNewestCommentsForBlog(int localBlogId, int limit) {
         String[] args = {Integer.toString(localBlogId)};
-        Cursor c = getReadableDb().rawQuery("SELECT * FROM " + COMMENTS_TABLE + " WHERE blog_id=? ORDER BY published DESC", args);
+        return getCommentsForQuery("SELECT * FROM " + COMMENTS_TABLE + " WHERE blog_id=?"
+                + ORDER_BY_NEWEST + " LIMIT " + Integer.toString(limit), args);
+    }
+
+    /**
+     * returns the comments for a blog that come after (are older than) the passed comment
+     * @param localBlogId - unique id in account table for this blog
+     * @param comment - comment to page from, usually the oldest one shown
+     * @param limit - maximum number of comments to return
+     */
+    public static CommentList getCommentsForBlogOlderThan(int localBlogId, final Comment comment, int limit) {
+        if (comment == null) {
+            return getNewestCommentsForBlog(localBlogId, limit);
+        }
+        String[] args = {Integer.toString(localBlogId),
+                         comment.getPublished(),
+                         comment.getPublished(),
+                         Long.toString(comment.commentID)};
+        return getCommentsForQuery("SELECT * FROM " + COMMENTS_TABLE + " WHERE blog_id=?"
+                + " AND (published < ? OR (published = ? AND comment_id < ?))"
+                + ORDER_BY_NEWEST + " LIMIT " + Integer.toString(limit), args);
+    }
 
+    /**
+     * returns the comments for a blog from the newest one down to and including the passed
+     * comment - used to reload the comments already shown without paging further
+     * @param localBlogId - unique id in account table for this blog
+     * @param comment - oldest comment to return
+     */
+    public static CommentList getCommentsForBlogNewerThan(int localBlogId, final Comment comment) {
+        String[] args = {Integer.toString(localBlogId),
+                         comment.getPublished(),
+                         comment.getPublished(),
+                         Long.toString(comment.commentID)};
+        return getCommentsForQuery("SELECT * FROM " + COMMENTS_TABLE + " WHERE blog_id=?"
+                + " AND (published > ? OR (published = ? AND comment_id >= ?))"
+                + ORDER_BY_NEWEST, args);
+    }
+
+    /**
+     * returns the number of comments stored for a blog
+     * @param localBlogId - unique id in account table for this blog
+     */
+    public static int getCommentCountForBlog(int localBlogId) {
+        String sql = "SELECT COUNT(*) FROM " + COMMENTS_TABLE + " WHERE blog_id=?";
+        String[] args = {Integer.toString(localBlogId)};
+        return SqlUtils.intForQuery(getReadableDb(), sql, args);
+    }
+
+    /**
+     * returns the published date of the newest comment stored for a blog, or an empty string
+     * if there aren't any
+     * @param localBlogId - unique id in account table for this blog
+     */
+    public static String getNewestCommentDate(int localBlogId) {
+        String sql = "SELECT MAX(published) FROM " + COMMENTS_TABLE + " WHERE blog_id=?";
+        String[] args = {Integer.toString(localBlogId)};
+        return StringUtils.notNullStr(SqlUtils.stringForQuery(getReadableDb(), sql, args));
+    }
+
+    private static CommentList getCommentsForQuery(String sql, String[] args) {
+        CommentList comments = new CommentList();
+        Cursor c = getReadableDb().rawQuery(sql, args);
         try {
             if (c.moveToFirst()) {
                 do {
-                    Comment comment = getCommentFromCursor(c);
-                    comments.add(comment);
+                    comments.add(getCommentFromCursor(c));
                 } while (c.moveToNext());
             }
-
             return comments;
         } finally {
             SqlUtils.closeCursor(c);
@@ -157,6 +241,21 @@ public class CommentTable {
         return getWritableDb().delete(COMMENTS_TABLE, "blog_id=?", new String[]{Integer.toString(localBlogId)});
     }
 
+    /**
+     * deletes the comments for a blog that are older than the passed comment
+     * @param localBlogId - unique id in account table for this blog
+     * @param comment - oldest comment to keep
+     * @return number of comments deleted
+     */
+    public static int deleteCommentsForBlogOlderThan(int localBlogId, final Comment comment) {
+        String[] args = {Integer.toString(localBlogId),
+                         comment.getPublished(),
+                         comment.getPublished(),
+                         Long.toString(comment.commentID)};
+        return getWritableDb().delete(COMMENTS_TABLE,
+                "blog_id=? AND (published < ? OR (published = ? AND comment_id < ?))", args);
+    }
+
     /**
      * nbradbury - saves comments for passed blog to local db, overwriting existing ones if necessary
      * @param localBlogId - unique id in account table for this blog
@@ -260,6 +359,26 @@ public class CommentTable {
         }
     }
 
+    /**
+     * restores the stored status of the passed comments to the status each comment object has -
+     * used to roll back a status change the server rejected
+     * @param localBlogId - unique id in account table for this blog
+     * @param comments - list of comments to restore
+     */
+    public static void restoreCommentsStatus(int localBlogId, final CommentList comments) {
+        if (comments == null || comments.size() == 0)
+            return;
+        getWritableDb().beginTransaction();
+        try {
+            for (Comment comment: comments) {
+                updateCommentStatus(localBlogId, comment.commentID, comment.getStatus());
+            }
+            getWritableDb().setTransactionSuccessful();
+        } finally {
+            getWritableDb().endTransaction();
+        }
+    }
+
     /**
      * nbradbury - updates the post title for the passed comment
      * @param localBlogId - unique id in account table for this blog
@@ -307,6 +426,41 @@ public class CommentTable {
         }
     }
 
+    /**
+     * deletes the comments with the passed ids in as few statements as possible
+     * @param localBlogId - unique id in account table for this blog
+     * @param commentIds - ids of comments to delete (returned by api)
+     * @return number of comments deleted
+     */
+    private static final int MAX_IDS_PER_DELETE = 500;
+    public static int deleteCommentsWithIds(int localBlogId, final List<Long> commentIds) {
+        if (commentIds == null || commentIds.size() == 0)
+            return 0;
+
+        int numDeleted = 0;
+        SQLiteDatabase db = getWritableDb();
+        db.beginTransaction();
+        try {
+            // ids are bound inline since they're numbers, but chunked to keep the statement short
+            for (int start = 0; start < commentIds.size(); start += MAX_IDS_PER_DELETE) {
+                int end = Math.min(start + MAX_IDS_PER_DELETE, commentIds.size());
+                StringBuilder sb = new StringBuilder("blog_id=? AND comment_id IN (");
+                for (int i = start; i < end; i++) {
+                    if (i > start) {
+                        sb.append(",");
+                    }
+                    sb.append(commentIds.get(i).longValue());
+                }
+                sb.append(")");
+                numDeleted += db.delete(COMMENTS_TABLE, sb.toString(), new String[]{Integer.toString(localBlogId)});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return numDeleted;
+    }
+
     /**
      * nbradbury - returns the number of unmoderated comments for a specific blog
      * @param localBlogId - unique id in account table for this blog
@@ -64,14 +64,22 @@ public class ReaderCommentTable {
         createTables(db);
     }
 
+    /*
+     * purge all but the first page of comments - comments on posts that no longer exist are
+     * deleted along with the post (see ReaderPostTable.evictPosts)
+     */
     protected static int purge(SQLiteDatabase db) {
-        // purge comments attached to posts that no longer exist
-        int numDeleted = db.delete("tbl_comments", "post_id NOT IN (SELECT DISTINCT post_id FROM tbl_posts)", null);
-
-        // purge all but the first page of comments
-        numDeleted += db.delete("tbl_comments", "page_number != 1", null);
+        // comment ids are only unique within a blog, so likes are matched on both ids
+        db.delete("tbl_comment_likes", "EXISTS (SELECT 1 FROM tbl_comments"
+                + " WHERE tbl_comments.blog_id = tbl_comment_likes.blog_id"
+                + " AND tbl_comments.comment_id = tbl_comment_likes.comment_id"
+                + " AND tbl_comments.page_number != 1)", null);
+        return db.delete("tbl_comments", "page_number != 1", null);
+    }
 
-        return numDeleted;
+    protected static void deleteCommentsForPost(SQLiteDatabase db, long blogId, long postId) {
+        String[] args = {Long.toString(blogId), Long.toString(postId)};
+        db.delete("tbl_comments", "blog_id=? AND post_id=?", args);
     }
 
     public static boolean isEmpty() {
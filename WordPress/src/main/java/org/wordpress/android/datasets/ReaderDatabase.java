@@ -3,23 +3,28 @@ package org.wordpress.android.datasets;
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Process;
+import android.os.SystemClock;
 
 import org.wordpress.android.WordPress;
+import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
+import org.wordpress.android.util.SqlUtils;
 
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * database for all reader information
  */
 public class ReaderDatabase extends SQLiteOpenHelper {
     protected static final String DB_NAME = "wpreader.db";
-    private static final int DB_VERSION = 97;
+    private static final int DB_VERSION = 100;
 
     /*
      * version history
@@ -49,6 +54,9 @@ public class ReaderDatabase extends SQLiteOpenHelper {
      *   95 - added page_number to tbl_comments (3.4)
      *   96 - removed tbl_tag_updates, added date_updated to tbl_tags (3.4)
      *   97 - added short_url to tbl_posts
+     *   98 - added update_interval to tbl_tags
+     *   99 - added tbl_post_views to ReaderPostTable
+     *  100 - added blog_id to tbl_thumbnails
      */
 
     /*
@@ -150,48 +158,125 @@ public class ReaderDatabase extends SQLiteOpenHelper {
         }
     }
 
+    /*
+     * the db is kept within these budgets by evicting the least recently viewed posts
+     */
+    private static final int  MAX_POSTS      = 1000;
+    private static final long MAX_USED_BYTES = 20 * 1024 * 1024;
+
+    /*
+     * purging is done in batches of posts, with each transaction limited to PURGE_SLICE_MS so
+     * Reader writes made while it's running don't wait long, and a pause between transactions
+     * so they get a chance to run
+     */
+    private static final int  PURGE_BATCH_SIZE = 25;
+    private static final long PURGE_SLICE_MS   = 50;
+    private static final long PURGE_YIELD_MS   = 25;
+
+    private static final AtomicBoolean mIsPurging = new AtomicBoolean(false);
+
     /*
      * purge older/unattached data - use purgeAsync() to do this in the background
      */
     private static void purge() {
         SQLiteDatabase db = getWritableDb();
-        db.beginTransaction();
-        try {
-            int numPostsDeleted = ReaderPostTable.purge(db);
+        long start = SystemClock.uptimeMillis();
+        int numPostsDeleted = 0;
+        int numSlices = 0;
+        boolean isDone = false;
 
-            // don't bother purging other data unless posts were purged
-            if (numPostsDeleted > 0) {
-                AppLog.i(T.READER, String.format("%d total posts purged", numPostsDeleted));
-
-                // purge unattached comments
-                int numCommentsDeleted = ReaderCommentTable.purge(db);
-                if (numCommentsDeleted > 0) {
-                    AppLog.i(T.READER, String.format("%d comments purged", numCommentsDeleted));
+        while (!isDone) {
+            long sliceStart = SystemClock.uptimeMillis();
+            db.beginTransactionNonExclusive();
+            try {
+                if (numSlices == 0) {
+                    // detach posts from tags that no longer exist, and remove all but the
+                    // first page of comments
+                    ReaderPostTable.purgeDeletedTags(db);
+                    int numCommentsDeleted = ReaderCommentTable.purge(db);
+                    if (numCommentsDeleted > 0) {
+                        AppLog.i(T.READER, String.format("%d comments purged", numCommentsDeleted));
+                    }
                 }
 
-                // purge unattached likes
-                int numLikesDeleted = ReaderLikeTable.purge(db);
-                if (numLikesDeleted > 0) {
-                    AppLog.i(T.READER, String.format("%d likes purged", numLikesDeleted));
-                }
+                do {
+                    // posts that aren't in any tag go first, then the least recently viewed
+                    // posts until we're within budget
+                    ReaderBlogIdPostIdList idList = ReaderPostTable.getUntaggedPostIds(db, PURGE_BATCH_SIZE);
+                    long usedBytesBefore = -1;
+                    if (idList.size() == 0 && isOverBudget(db)) {
+                        usedBytesBefore = getUsedBytes(db);
+                        idList = ReaderPostTable.getLeastRecentlyViewedPostIds(db, PURGE_BATCH_SIZE);
+                    }
+                    if (idList.size() == 0) {
+                        isDone = true;
+                    } else {
+                        ReaderPostTable.evictPosts(db, idList);
+                        numPostsDeleted += idList.size();
+                        // the used size includes tables that evicting posts doesn't shrink, so
+                        // stop once a batch frees nothing rather than evicting every post
+                        if (usedBytesBefore != -1
+                                && !hasTooManyPosts(db)
+                                && getUsedBytes(db) >= usedBytesBefore) {
+                            AppLog.w(T.READER, "reader db still over budget after evicting posts");
+                            isDone = true;
+                        }
+                    }
+                } while (!isDone && SystemClock.uptimeMillis() - sliceStart < PURGE_SLICE_MS);
 
-                // purge unattached thumbnails
-                int numThumbsPurged = ReaderThumbnailTable.purge(db);
-                if (numThumbsPurged > 0) {
-                    AppLog.i(T.READER, String.format("%d thumbnails purged", numThumbsPurged));
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            numSlices++;
+
+            if (!isDone) {
+                try {
+                    Thread.sleep(PURGE_YIELD_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 }
             }
-            db.setTransactionSuccessful();
-        } finally {
-            db.endTransaction();
         }
+
+        if (numPostsDeleted > 0) {
+            AppLog.i(T.READER, String.format("%d total posts purged in %d transactions, %d ms",
+                    numPostsDeleted, numSlices, SystemClock.uptimeMillis() - start));
+        }
+    }
+
+    /*
+     * returns true if there are more posts than MAX_POSTS or the pages in use take up more
+     * than MAX_USED_BYTES - the file itself doesn't shrink, but freed pages are reused
+     */
+    private static boolean isOverBudget(SQLiteDatabase db) {
+        return hasTooManyPosts(db) || getUsedBytes(db) > MAX_USED_BYTES;
+    }
+
+    private static boolean hasTooManyPosts(SQLiteDatabase db) {
+        return SqlUtils.getRowCount(db, "tbl_posts") > MAX_POSTS;
+    }
+
+    private static long getUsedBytes(SQLiteDatabase db) {
+        long numPages = SqlUtils.longForQuery(db, "PRAGMA page_count", null);
+        long numFreePages = SqlUtils.longForQuery(db, "PRAGMA freelist_count", null);
+        return (numPages - numFreePages) * db.getPageSize();
     }
 
     public static void purgeAsync() {
+        if (!mIsPurging.compareAndSet(false, true)) {
+            return;
+        }
         new Thread() {
             @Override
             public void run() {
-                purge();
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                try {
+                    purge();
+                } finally {
+                    mIsPurging.set(false);
+                }
             }
         }.start();
     }
@@ -40,12 +40,15 @@ public class ReaderLikeTable {
     }
 
     /*
-     * purge likes attached to posts/comments that no longer exist
+     * delete likes on the passed post and on its comments - must be called before the post's
+     * comments are deleted
      */
-    protected static int purge(SQLiteDatabase db) {
-        int numDeleted = db.delete("tbl_post_likes", "post_id NOT IN (SELECT DISTINCT post_id FROM tbl_posts)", null);
-        numDeleted += db.delete("tbl_comment_likes", "comment_id NOT IN (SELECT DISTINCT comment_id FROM tbl_comments)", null);
-        return numDeleted;
+    protected static void deleteLikesForPost(SQLiteDatabase db, long blogId, long postId) {
+        String[] args = {Long.toString(blogId), Long.toString(postId)};
+        db.delete("tbl_post_likes", "blog_id=? AND post_id=?", args);
+        db.delete("tbl_comment_likes",
+                "blog_id=?1 AND comment_id IN (SELECT comment_id FROM tbl_comments WHERE blog_id=?1 AND post_id=?2)",
+                args);
     }
 
     /*
@@ -11,9 +11,7 @@ import org.wordpress.android.WordPress;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostList;
 import org.wordpress.android.models.ReaderTag;
-import org.wordpress.android.models.ReaderTagList;
 import org.wordpress.android.models.ReaderTagType;
-import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList;
@@ -141,11 +139,19 @@ public class ReaderPostTable {
                 + "   tag_type    INTEGER DEFAULT 0,"
                 + "   PRIMARY KEY (post_id, blog_id, tag_name, tag_type)"
                 + ")");
+
+        db.execSQL("CREATE TABLE tbl_post_views ("
+                + "   post_id     INTEGER DEFAULT 0,"
+                + "   blog_id     INTEGER DEFAULT 0,"
+                + "   date_viewed INTEGER DEFAULT 0,"
+                + "   PRIMARY KEY (post_id, blog_id)"
+                + ")");
     }
 
     protected static void dropTables(SQLiteDatabase db) {
         db.execSQL("DROP TABLE IF EXISTS tbl_posts");
         db.execSQL("DROP TABLE IF EXISTS tbl_post_tags");
+        db.execSQL("DROP TABLE IF EXISTS tbl_post_views");
     }
 
     protected static void reset(SQLiteDatabase db) {
@@ -154,49 +160,81 @@ public class ReaderPostTable {
     }
 
     /*
-     * purge table of unattached/older posts - no need to wrap this in a transaction since it's
-     * only called from ReaderDatabase.purge() which already creates a transaction
+     * detach posts from tags that no longer exist - called by ReaderDatabase.purge()
      */
-    protected static int purge(SQLiteDatabase db) {
-        // delete posts in tbl_post_tags attached to tags that no longer exist
-        int numDeleted = db.delete("tbl_post_tags", "tag_name NOT IN (SELECT DISTINCT tag_name FROM tbl_tags)", null);
+    protected static int purgeDeletedTags(SQLiteDatabase db) {
+        return db.delete("tbl_post_tags", "tag_name NOT IN (SELECT DISTINCT tag_name FROM tbl_tags)", null);
+    }
 
-        // delete excess posts on a per-tag basis
-        ReaderTagList tags = ReaderTagTable.getAllTags();
-        for (ReaderTag tag: tags) {
-            numDeleted += purgePostsForTag(db, tag);
-        }
+    /*
+     * returns up to maxPosts posts which aren't in any tag (such as posts shown when previewing
+     * a blog) - these are only kept until the next purge
+     */
+    protected static ReaderBlogIdPostIdList getUntaggedPostIds(SQLiteDatabase db, int maxPosts) {
+        String sql = "SELECT blog_id, post_id FROM tbl_posts"
+                + " WHERE NOT EXISTS (SELECT 1 FROM tbl_post_tags"
+                + "   WHERE tbl_post_tags.post_id = tbl_posts.post_id"
+                + "   AND tbl_post_tags.blog_id = tbl_posts.blog_id)"
+                + " LIMIT " + Integer.toString(maxPosts);
+        return getBlogIdPostIdsForQuery(db, sql, null);
+    }
 
-        // delete posts in tbl_posts that no longer exist in tbl_post_tags
-        numDeleted += db.delete("tbl_posts", "pseudo_id NOT IN (SELECT DISTINCT pseudo_id FROM tbl_post_tags)", null);
+    /*
+     * returns up to maxPosts posts which were least recently viewed - posts which were never
+     * viewed count as viewed when they were published
+     */
+    protected static ReaderBlogIdPostIdList getLeastRecentlyViewedPostIds(SQLiteDatabase db, int maxPosts) {
+        String sql = "SELECT tbl_posts.blog_id, tbl_posts.post_id FROM tbl_posts"
+                + " LEFT JOIN tbl_post_views"
+                + "   ON tbl_post_views.post_id = tbl_posts.post_id"
+                + "   AND tbl_post_views.blog_id = tbl_posts.blog_id"
+                + " ORDER BY MAX(tbl_posts.timestamp, IFNULL(tbl_post_views.date_viewed, 0))"
+                + " LIMIT " + Integer.toString(maxPosts);
+        return getBlogIdPostIdsForQuery(db, sql, null);
+    }
 
-        return numDeleted;
+    private static ReaderBlogIdPostIdList getBlogIdPostIdsForQuery(SQLiteDatabase db, String sql, String[] args) {
+        ReaderBlogIdPostIdList idList = new ReaderBlogIdPostIdList();
+        Cursor cursor = db.rawQuery(sql, args);
+        try {
+            if (cursor.moveToFirst()) {
+                do {
+                    idList.add(new ReaderBlogIdPostId(cursor.getLong(0), cursor.getLong(1)));
+                } while (cursor.moveToNext());
+            }
+            return idList;
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
     }
 
     /*
-     * purge excess posts in the passed tag - note we only keep as many posts as are returned
-     * by a single request
+     * deletes the passed posts along with their tags, views, comments, likes & thumbnails -
+     * callers must wrap this in a transaction
      */
-    private static final int MAX_POSTS_PER_TAG = ReaderConstants.READER_MAX_POSTS_TO_REQUEST;
-    private static int purgePostsForTag(SQLiteDatabase db, ReaderTag tag) {
-        int numPosts = getNumPostsWithTag(tag);
-        if (numPosts <= MAX_POSTS_PER_TAG) {
-            return 0;
+    protected static void evictPosts(SQLiteDatabase db, ReaderBlogIdPostIdList idList) {
+        for (ReaderBlogIdPostId id: idList) {
+            String[] args = {Long.toString(id.getBlogId()), Long.toString(id.getPostId())};
+            ReaderLikeTable.deleteLikesForPost(db, id.getBlogId(), id.getPostId());
+            ReaderCommentTable.deleteCommentsForPost(db, id.getBlogId(), id.getPostId());
+            ReaderThumbnailTable.deleteThumbnailsForPost(db, id.getBlogId(), id.getPostId());
+            db.delete("tbl_post_tags", "blog_id=? AND post_id=?", args);
+            db.delete("tbl_post_views", "blog_id=? AND post_id=?", args);
+            db.delete("tbl_posts", "blog_id=? AND post_id=?", args);
         }
+    }
 
-        int numToPurge = numPosts - MAX_POSTS_PER_TAG;
-        String[] args = {tag.getTagName(), Integer.toString(tag.tagType.toInt()), Integer.toString(numToPurge)};
-        String where = "pseudo_id IN ("
-                + "  SELECT tbl_posts.pseudo_id FROM tbl_posts, tbl_post_tags"
-                + "  WHERE tbl_posts.pseudo_id = tbl_post_tags.pseudo_id"
-                + "  AND tbl_post_tags.tag_name=?1"
-                + "  AND tbl_post_tags.tag_type=?2"
-                + "  ORDER BY tbl_posts.timestamp"
-                + "  LIMIT ?3"
-                + ")";
-        int numDeleted = db.delete("tbl_post_tags", where, args);
-        AppLog.d(AppLog.T.READER, String.format("reader post table > purged %d posts in tag %s", numDeleted, tag.getTagNameForLog()));
-        return numDeleted;
+    /*
+     * records that the passed post was just viewed - posts which haven't been viewed recently
+     * are the first to be evicted when the db is over budget (see ReaderDatabase.purge)
+     */
+    public static void setPostViewed(long blogId, long postId) {
+        ContentValues values = new ContentValues();
+        values.put("blog_id", blogId);
+        values.put("post_id", postId);
+        values.put("date_viewed", System.currentTimeMillis() / 1000);
+        ReaderDatabase.getWritableDb().insertWithOnConflict("tbl_post_views", null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
     }
 
     public static int getNumPostsInBlog(long blogId) {
@@ -343,28 +381,52 @@ public class ReaderPostTable {
                 args);
     }
 
+    /*
+     * detaches posts from the passed tag, and deletes the posts that aren't in any other tag
+     * along with their comments, likes & thumbnails - returns the number of posts detached
+     */
     public static int deletePostsWithTag(final ReaderTag tag) {
         if (tag == null) {
             return 0;
         }
 
-        // first delete posts from tbl_post_tags, and if any were deleted next delete posts in tbl_posts that no longer exist in tbl_post_tags
         String[] args = {tag.getTagName(), Integer.toString(tag.tagType.toInt())};
-        int numDeleted = ReaderDatabase.getWritableDb().delete("tbl_post_tags",
-                "tag_name=? AND tag_type=?",
-                args);
+        String sql = "SELECT blog_id, post_id FROM tbl_post_tags AS this_tag"
+                + " WHERE tag_name=? AND tag_type=?"
+                + " AND NOT EXISTS (SELECT 1 FROM tbl_post_tags AS other_tag"
+                + "   WHERE other_tag.blog_id = this_tag.blog_id"
+                + "   AND other_tag.post_id = this_tag.post_id"
+                + "   AND NOT (other_tag.tag_name = this_tag.tag_name AND other_tag.tag_type = this_tag.tag_type))";
 
-        if (numDeleted > 0)
-            ReaderDatabase.getWritableDb().delete("tbl_posts",
-                    "post_id NOT IN (SELECT DISTINCT post_id FROM tbl_post_tags)",
-                    null);
-
-        return numDeleted;
+        SQLiteDatabase db = ReaderDatabase.getWritableDb();
+        db.beginTransaction();
+        try {
+            ReaderBlogIdPostIdList idList = getBlogIdPostIdsForQuery(db, sql, args);
+            int numDeleted = db.delete("tbl_post_tags", "tag_name=? AND tag_type=?", args);
+            evictPosts(db, idList);
+            db.setTransactionSuccessful();
+            return numDeleted;
+        } finally {
+            db.endTransaction();
+        }
     }
 
+    /*
+     * deletes the posts in the passed blog along with their tags, comments, likes & thumbnails
+     */
     public static int deletePostsInBlog(long blogId) {
         String[] args = {Long.toString(blogId)};
-        return ReaderDatabase.getWritableDb().delete("tbl_posts", "blog_id = ?", args);
+        SQLiteDatabase db = ReaderDatabase.getWritableDb();
+        db.beginTransaction();
+        try {
+            ReaderBlogIdPostIdList idList = getBlogIdPostIdsForQuery(db,
+                    "SELECT blog_id, post_id FROM tbl_posts WHERE blog_id=?", args);
+            evictPosts(db, idList);
+            db.setTransactionSuccessful();
+            return idList.size();
+        } finally {
+            db.endTransaction();
+        }
     }
 
     /*
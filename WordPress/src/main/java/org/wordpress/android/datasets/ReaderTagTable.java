@@ -29,6 +29,7 @@ public class ReaderTagTable {
                  + "    tag_type     INTEGER DEFAULT 0,"
                  + "    endpoint     TEXT,"
                 + " 	date_updated TEXT,"
+                 + "    update_interval INTEGER DEFAULT 0,"
                  + "    PRIMARY KEY (tag_name, tag_type)"
                  + ")");
 
@@ -64,8 +65,11 @@ public class ReaderTagTable {
         db.beginTransaction();
         try {
             try {
-                // first delete all existing tags, then insert the passed ones
-                db.execSQL("DELETE FROM tbl_tags");
+                // delete the existing tags that aren't in the passed list, then add or update the
+                // passed ones - tags in both keep their update history
+                for (ReaderTag tag : getAllTags().getDeletions(tags)) {
+                    deleteTag(tag);
+                }
                 addOrUpdateTags(tags);
                 db.setTransactionSuccessful();
             } catch (SQLException e) {
@@ -85,25 +89,40 @@ public class ReaderTagTable {
         addOrUpdateTags(tags);
     }
 
+    /*
+     * existing tags are updated rather than replaced so they keep their update history
+     * (date_updated, update_interval)
+     */
     private static void addOrUpdateTags(ReaderTagList tagList) {
         if (tagList == null || tagList.size() == 0) {
             return;
         }
-        SQLiteStatement stmt = null;
+        SQLiteStatement updateStmt = null;
+        SQLiteStatement insertStmt = null;
         try {
-            stmt = ReaderDatabase.getWritableDb().compileStatement(
-                    "INSERT OR REPLACE INTO tbl_tags (tag_name, tag_type, endpoint) VALUES (?1,?2,?3)"
+            SQLiteDatabase db = ReaderDatabase.getWritableDb();
+            updateStmt = db.compileStatement(
+                    "UPDATE tbl_tags SET endpoint=?3 WHERE tag_name=?1 AND tag_type=?2"
+            );
+            insertStmt = db.compileStatement(
+                    "INSERT OR IGNORE INTO tbl_tags (tag_name, tag_type, endpoint) VALUES (?1,?2,?3)"
             );
 
             for (ReaderTag tag: tagList) {
-                stmt.bindString(1, tag.getTagName());
-                stmt.bindLong  (2, tag.tagType.toInt());
-                stmt.bindString(3, tag.getEndpoint());
-                stmt.execute();
+                updateStmt.bindString(1, tag.getTagName());
+                updateStmt.bindLong  (2, tag.tagType.toInt());
+                updateStmt.bindString(3, tag.getEndpoint());
+                if (updateStmt.executeUpdateDelete() == 0) {
+                    insertStmt.bindString(1, tag.getTagName());
+                    insertStmt.bindLong  (2, tag.tagType.toInt());
+                    insertStmt.bindString(3, tag.getEndpoint());
+                    insertStmt.execute();
+                }
             }
 
         } finally {
-            SqlUtils.closeStatement(stmt);
+            SqlUtils.closeStatement(updateStmt);
+            SqlUtils.closeStatement(insertStmt);
         }
     }
 
@@ -220,6 +239,33 @@ public class ReaderTagTable {
         }
     }
 
+    /*
+     * returns the followed & default tags whose posts the user has viewed most often, most
+     * viewed first - used to decide which tags to prefetch for offline reading
+     */
+    public static ReaderTagList getMostViewedTags(int maxTags) {
+        String sql = "SELECT tbl_tags.*, COUNT(*) AS num_views FROM tbl_tags, tbl_post_tags, tbl_post_views"
+                   + " WHERE tbl_post_tags.tag_name = tbl_tags.tag_name"
+                   + " AND tbl_post_tags.tag_type = tbl_tags.tag_type"
+                   + " AND tbl_post_views.post_id = tbl_post_tags.post_id"
+                   + " AND tbl_post_views.blog_id = tbl_post_tags.blog_id"
+                   + " GROUP BY tbl_tags.tag_name, tbl_tags.tag_type"
+                   + " ORDER BY num_views DESC"
+                   + " LIMIT " + maxTags;
+        Cursor c = ReaderDatabase.getReadableDb().rawQuery(sql, null);
+        try {
+            ReaderTagList tagList = new ReaderTagList();
+            if (c.moveToFirst()) {
+                do {
+                    tagList.add(getTagFromCursor(c));
+                } while (c.moveToNext());
+            }
+            return tagList;
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+    }
+
     public static void deleteTag(ReaderTag tag) {
         if (tag == null) {
             return;
@@ -239,33 +285,58 @@ public class ReaderTagTable {
                 args);
     }
 
-    public static void setTagLastUpdated(ReaderTag tag) {
+    /*
+     * records that the newest posts in the passed tag were just requested - tags which didn't
+     * have any new posts have the delay before they're auto-updated again doubled (up to a max),
+     * while tags with new posts go back to the min delay
+     */
+    public static void setTagLastUpdated(ReaderTag tag, boolean hasNewPosts) {
        if (tag == null) {
             return;
         }
 
+        long interval;
+        if (hasNewPosts) {
+            interval = ReaderConstants.READER_AUTO_UPDATE_DELAY_MINUTES;
+        } else {
+            interval = Math.min(getTagUpdateInterval(tag) * 2, ReaderConstants.READER_MAX_AUTO_UPDATE_DELAY_MINUTES);
+        }
+
         String date = DateTimeUtils.javaDateToIso8601(new Date());
-        String sql = "UPDATE tbl_tags SET date_updated=?1 WHERE tag_name=?2 AND tag_type=?3";
+        String sql = "UPDATE tbl_tags SET date_updated=?1, update_interval=?2 WHERE tag_name=?3 AND tag_type=?4";
         SQLiteStatement stmt = ReaderDatabase.getWritableDb().compileStatement(sql);
         try {
             stmt.bindString(1, date);
-            stmt.bindString(2, tag.getTagName());
-            stmt.bindLong  (3, tag.tagType.toInt());
+            stmt.bindLong  (2, interval);
+            stmt.bindString(3, tag.getTagName());
+            stmt.bindLong  (4, tag.tagType.toInt());
             stmt.execute();
         } finally {
             SqlUtils.closeStatement(stmt);
         }
     }
 
+    /*
+     * returns the number of minutes to wait between auto-updates of the passed tag
+     */
+    private static long getTagUpdateInterval(ReaderTag tag) {
+        String[] args = {tag.getTagName(), Integer.toString(tag.tagType.toInt())};
+        long interval = SqlUtils.longForQuery(ReaderDatabase.getReadableDb(),
+                "SELECT update_interval FROM tbl_tags WHERE tag_name=? AND tag_type=?",
+                args);
+        return Math.max(interval, ReaderConstants.READER_AUTO_UPDATE_DELAY_MINUTES);
+    }
+
     /*
      * determine whether the passed tag should be auto-updated based on when it was last updated
+     * and how often it has new posts
      */
     public static boolean shouldAutoUpdateTag(ReaderTag tag) {
         int minutes = minutesSinceLastUpdate(tag);
         if (minutes == NEVER_UPDATED) {
             return true;
         }
-        return (minutes >= ReaderConstants.READER_AUTO_UPDATE_DELAY_MINUTES);
+        return (minutes >= getTagUpdateInterval(tag));
     }
 
     private static final int NEVER_UPDATED = -1;
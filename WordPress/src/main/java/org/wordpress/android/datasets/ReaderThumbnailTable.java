@@ -15,6 +15,7 @@ public class ReaderThumbnailTable {
         db.execSQL("CREATE TABLE tbl_thumbnails ("
                 + "	full_url	  TEXT COLLATE NOCASE PRIMARY KEY,"
                 + " thumbnail_url TEXT NOT NULL,"
+                + " blog_id       INTEGER DEFAULT 0,"
                 + " post_id       INTEGER DEFAULT 0)");
     }
 
@@ -22,22 +23,21 @@ public class ReaderThumbnailTable {
         db.execSQL("DROP TABLE IF EXISTS tbl_thumbnails");
     }
 
-    /*
-     * purge table of thumbnails attached to posts that no longer exist
-     */
-    protected static int purge(SQLiteDatabase db) {
-        return db.delete("tbl_thumbnails", "post_id NOT IN (SELECT DISTINCT post_id FROM tbl_posts)", null);
+    protected static void deleteThumbnailsForPost(SQLiteDatabase db, long blogId, long postId) {
+        db.delete("tbl_thumbnails", "blog_id=? AND post_id=?",
+                new String[]{Long.toString(blogId), Long.toString(postId)});
     }
 
-    public static void addThumbnail(long postId, String fullUrl, String thumbnailUrl) {
+    public static void addThumbnail(long blogId, long postId, String fullUrl, String thumbnailUrl) {
         if (TextUtils.isEmpty(fullUrl) || TextUtils.isEmpty(thumbnailUrl))
             return;
 
-        SQLiteStatement stmt = ReaderDatabase.getWritableDb().compileStatement("INSERT OR REPLACE INTO tbl_thumbnails (full_url, thumbnail_url, post_id) VALUES (?1,?2,?3)");
+        SQLiteStatement stmt = ReaderDatabase.getWritableDb().compileStatement("INSERT OR REPLACE INTO tbl_thumbnails (full_url, thumbnail_url, blog_id, post_id) VALUES (?1,?2,?3,?4)");
         try {
             stmt.bindString(1, fullUrl);
             stmt.bindString(2, thumbnailUrl);
-            stmt.bindLong  (3, postId);
+            stmt.bindLong  (3, blogId);
+            stmt.bindLong  (4, postId);
             stmt.execute();
         } finally {
             SqlUtils.closeStatement(stmt);
@@ -36,11 +36,24 @@ public class SuggestionTable {
         createTables(db);
     }
 
+    // the table is reset the first time it's used after each launch so we get a fresh list, rather
+    // than when the app starts
+    private static boolean sIsReset;
+
+    private static synchronized SQLiteDatabase getDb() {
+        SQLiteDatabase db = WordPress.wpDB.getDatabase();
+        if (!sIsReset) {
+            reset(db);
+            sIsReset = true;
+        }
+        return db;
+    }
+
     private static SQLiteDatabase getReadableDb() {
-        return WordPress.wpDB.getDatabase();
+        return getDb();
     }
     private static SQLiteDatabase getWritableDb() {
-        return WordPress.wpDB.getDatabase();
+        return getDb();
     }
 
     public static void insertSuggestionsForSite(final int siteId, final List<Suggestion> suggestions) {
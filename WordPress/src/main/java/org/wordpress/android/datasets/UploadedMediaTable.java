@@ -0,0 +1,101 @@
+package org.wordpress.android.datasets;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.util.SqlUtils;
+
+/**
+ * content-addressed index of media already uploaded to a blog - maps a hash of the local file
+ * (plus the size variant that was uploaded) to the remote url and media id, so the same file
+ * inserted into several posts, or retried after a partial failure, is only uploaded once
+ */
+public class UploadedMediaTable {
+    private static final String UPLOADED_MEDIA_TABLE = "uploaded_media";
+
+    // variant used when the original file was uploaded, resized uploads use "w" + width
+    public static final String VARIANT_ORIGINAL = "original";
+
+    public static void createTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + UPLOADED_MEDIA_TABLE + " ("
+                + "    blog_id          INTEGER DEFAULT 0,"
+                + "    content_hash     TEXT NOT NULL,"
+                + "    variant          TEXT NOT NULL,"
+                + "    remote_url       TEXT NOT NULL,"
+                + "    remote_media_id  TEXT,"
+                + "    PRIMARY KEY (blog_id, content_hash, variant)"
+                + " );");
+    }
+
+    private static SQLiteDatabase getReadableDb() {
+        return WordPress.wpDB.getDatabase();
+    }
+    private static SQLiteDatabase getWritableDb() {
+        return WordPress.wpDB.getDatabase();
+    }
+
+    public static class UploadedMedia {
+        public final String remoteUrl;
+        public final String remoteMediaId;
+
+        UploadedMedia(String remoteUrl, String remoteMediaId) {
+            this.remoteUrl = remoteUrl;
+            this.remoteMediaId = remoteMediaId;
+        }
+    }
+
+    public static String getVariantForWidth(int width) {
+        return "w" + width;
+    }
+
+    public static UploadedMedia getUploadedMedia(int blogId, String contentHash, String variant) {
+        if (contentHash == null || variant == null) {
+            return null;
+        }
+
+        String[] args = {Integer.toString(blogId), contentHash, variant};
+        Cursor c = getReadableDb().rawQuery("SELECT remote_url, remote_media_id FROM " + UPLOADED_MEDIA_TABLE
+                + " WHERE blog_id=? AND content_hash=? AND variant=?", args);
+        try {
+            if (!c.moveToFirst()) {
+                return null;
+            }
+            return new UploadedMedia(c.getString(0), c.getString(1));
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+    }
+
+    public static void setUploadedMedia(int blogId,
+                                        String contentHash,
+                                        String variant,
+                                        String remoteUrl,
+                                        String remoteMediaId) {
+        if (contentHash == null || variant == null || remoteUrl == null) {
+            return;
+        }
+
+        ContentValues values = new ContentValues();
+        values.put("blog_id",           blogId);
+        values.put("content_hash",      contentHash);
+        values.put("variant",           variant);
+        values.put("remote_url",        remoteUrl);
+        values.put("remote_media_id",   remoteMediaId);
+
+        getWritableDb().insertWithOnConflict(UPLOADED_MEDIA_TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /*
+     * called when a media item is deleted from the server so it's uploaded again the next time
+     */
+    public static int deleteUploadedMedia(int blogId, String remoteMediaId) {
+        return getWritableDb().delete(UPLOADED_MEDIA_TABLE, "blog_id=? AND remote_media_id=?",
+                new String[]{Integer.toString(blogId), remoteMediaId});
+    }
+
+    public static int deleteUploadedMediaForBlog(int blogId) {
+        return getWritableDb().delete(UPLOADED_MEDIA_TABLE, "blog_id=?", new String[]{Integer.toString(blogId)});
+    }
+}
@@ -0,0 +1,79 @@
+package org.wordpress.android.models;
+
+import org.wordpress.android.util.StringUtils;
+
+/**
+ * The few fields of a blog (account) that lists and pickers of the user's blogs need - returned
+ * by WordPressDB.getAccountSummariesBy() and friends in place of a map per blog
+ */
+public class AccountSummary {
+    private final int mLocalId;
+    private final int mRemoteBlogId;
+    private final String mBlogName;
+    private final String mUsername;
+    private final String mUrl;
+    private final String mHomeURL;
+    private final boolean mIsDotcom;
+    private final boolean mIsHidden;
+
+    public AccountSummary(int localId,
+                          int remoteBlogId,
+                          String blogName,
+                          String username,
+                          String url,
+                          String homeURL,
+                          boolean isDotcom,
+                          boolean isHidden) {
+        mLocalId = localId;
+        mRemoteBlogId = remoteBlogId;
+        mBlogName = StringUtils.notNullStr(blogName);
+        mUsername = StringUtils.notNullStr(username);
+        mUrl = StringUtils.notNullStr(url);
+        mHomeURL = StringUtils.notNullStr(homeURL);
+        mIsDotcom = isDotcom;
+        mIsHidden = isHidden;
+    }
+
+    public int getLocalId() {
+        return mLocalId;
+    }
+
+    public int getRemoteBlogId() {
+        return mRemoteBlogId;
+    }
+
+    public String getBlogName() {
+        return mBlogName;
+    }
+
+    public String getUsername() {
+        return mUsername;
+    }
+
+    public String getUrl() {
+        return mUrl;
+    }
+
+    public String getHomeURL() {
+        return mHomeURL;
+    }
+
+    public boolean isDotcom() {
+        return mIsDotcom;
+    }
+
+    public boolean isHidden() {
+        return mIsHidden;
+    }
+
+    /*
+     * the name to show for this blog - same as BlogUtils.getBlogNameFromAccountMap()
+     */
+    public String getDisplayName() {
+        String blogName = StringUtils.unescapeHTML(mBlogName);
+        if (blogName.trim().length() == 0) {
+            blogName = StringUtils.getHost(mUrl);
+        }
+        return blogName;
+    }
+}
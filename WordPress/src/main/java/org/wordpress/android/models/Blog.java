@@ -74,6 +74,16 @@ public class Blog {
         this.isHidden = isHidden;
     }
 
+    /*
+     * returns a copy of this blog - used by BlogRegistry so callers can't change its blogs
+     */
+    public Blog copy() {
+        return new Blog(localTableBlogId, url, homeURL, blogName, username, password, imagePlacement,
+                featuredImageCapable, fullSizeImage, scaledImage, scaledImageWidth, maxImageWidth, maxImageWidthId,
+                remoteBlogId, dotcom_username, dotcom_password, api_key, api_blogid, dotcomFlag, wpVersion,
+                httpuser, httppassword, postFormats, blogOptions, isAdmin, isHidden);
+    }
+
     public Blog(String url, String username, String password) {
         this.url = url;
         this.username = username;
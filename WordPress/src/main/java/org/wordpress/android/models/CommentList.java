@@ -66,8 +66,11 @@ public class CommentList extends ArrayList<Comment> {
         if (comments == null || comments.size() != this.size())
             return false;
 
-        for (final Comment comment: comments) {
-            int index = this.indexOfCommentId(comment.commentID);
+        for (int i = 0; i < comments.size(); i++) {
+            final Comment comment = comments.get(i);
+            // both lists are usually in the same order, so check the same position before
+            // searching the whole list
+            int index = (this.get(i).commentID == comment.commentID ? i : this.indexOfCommentId(comment.commentID));
             if (index == -1)
                 return false;
             final Comment thisComment = this.get(index);
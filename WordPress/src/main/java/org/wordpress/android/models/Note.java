@@ -21,6 +21,7 @@ import org.wordpress.android.util.JSONUtil;
 import org.wordpress.android.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.List;
@@ -41,12 +42,34 @@ public class Note extends Syncable {
     private static final String ACTION_KEY_SPAM = "spam-comment";
     private static final String ACTION_KEY_LIKE = "like-comment";
 
-    private JSONObject mActions;
     private JSONObject mNoteJSON;
+    private Digest mDigest;
 
     private final Object mSyncLock = new Object();
     private String mLocalStatus;
 
+    /*
+     * values derived from the note's JSON - the list, the indexer and the detail views all ask
+     * for these repeatedly, so they're parsed once per version of the note rather than queried
+     * on each call. Dropped whenever Simperium updates the JSON.
+     */
+    private static class Digest {
+        String id;
+        String type;
+        boolean isCommentType;
+        String title;
+        String iconUrl;
+        String noticon;
+        String commentSubject;
+        String timestamp;
+        JSONObject actions;
+        EnumSet<EnabledActions> enabledActions;
+        int siteId;
+        int postId;
+        long commentId;
+        long parentCommentId;
+    }
+
     public static enum EnabledActions {
         ACTION_REPLY,
         ACTION_APPROVE,
@@ -88,12 +111,41 @@ public class Note extends Syncable {
         return getId();
     }
 
+    private Digest getDigest() {
+        synchronized (mSyncLock) {
+            if (mDigest == null) {
+                mDigest = buildDigest();
+            }
+            return mDigest;
+        }
+    }
+
+    private Digest buildDigest() {
+        Digest digest = new Digest();
+        digest.id = String.valueOf(queryJSON("id", 0));
+        digest.type = queryJSON("type", NOTE_UNKNOWN_TYPE);
+        digest.isCommentType = (digest.type.equals(NOTE_MATCHER_TYPE) && queryJSON("meta.ids.comment", -1) != -1)
+                || digest.type.equals(NOTE_COMMENT_TYPE);
+        digest.title = queryJSON("title", "");
+        digest.iconUrl = queryJSON("icon", "");
+        digest.noticon = queryJSON("noticon", "");
+        digest.commentSubject = parseCommentSubject();
+        digest.timestamp = queryJSON("timestamp", "");
+        digest.actions = queryJSON("body[last].actions", new JSONObject());
+        digest.enabledActions = parseEnabledActions(digest.actions);
+        digest.siteId = queryJSON("meta.ids.site", 0);
+        digest.postId = queryJSON("meta.ids.post", 0);
+        digest.commentId = queryJSON("meta.ids.comment", 0);
+        digest.parentCommentId = queryJSON("meta.ids.parent_comment", 0);
+        return digest;
+    }
+
     public String getId() {
-        return String.valueOf(queryJSON("id", 0));
+        return getDigest().id;
     }
 
     private String getType() {
-        return queryJSON("type", NOTE_UNKNOWN_TYPE);
+        return getDigest().type;
     }
 
     private Boolean isType(String type) {
@@ -101,10 +153,7 @@ public class Note extends Syncable {
     }
 
     public Boolean isCommentType() {
-        synchronized (mSyncLock) {
-            return (isAutomattcherType() && JSONUtil.queryJSON(mNoteJSON, "meta.ids.comment", -1) != -1) ||
-                    isType(NOTE_COMMENT_TYPE);
-        }
+        return getDigest().isCommentType;
     }
 
     public Boolean isAutomattcherType() {
@@ -139,16 +188,20 @@ public class Note extends Syncable {
     }
 
     public String getTitle() {
-        return queryJSON("title", "");
+        return getDigest().title;
     }
 
     private String getIconURL() {
-        return queryJSON("icon", "");
+        return getDigest().iconUrl;
     }
 
     private String getCommentSubject() {
+        return getDigest().commentSubject;
+    }
+
+    private String parseCommentSubject() {
         synchronized (mSyncLock) {
-            JSONArray subjectArray = mNoteJSON.optJSONArray("subject");
+            JSONArray subjectArray = (mNoteJSON != null ? mNoteJSON.optJSONArray("subject") : null);
             if (subjectArray != null) {
                 String commentSubject = JSONUtil.queryJSON(subjectArray, "subject[1].text", "");
 
@@ -165,21 +218,50 @@ public class Note extends Syncable {
         return "";
     }
 
+    /*
+     * the times (in millis) separating the time groups, the list asks for the group of two notes
+     * on every bind so these are computed once and reused until they're a minute old
+     */
+    private static class TimeGroupBoundaries {
+        private static final long MAX_AGE_MS = DateUtils.MILLIS_PER_MINUTE;
+
+        final long expires;
+        final long monthAgo;
+        final long weekAgo;
+        final long yesterdayStart;
+        final long todayStart;
+
+        TimeGroupBoundaries(Date now) {
+            expires = now.getTime() + MAX_AGE_MS;
+            monthAgo = DateUtils.addMonths(now, -1).getTime();
+            weekAgo = DateUtils.addWeeks(now, -1).getTime();
+            // anything before yesterday is two or more days old
+            yesterdayStart = DateUtils.truncate(DateUtils.addDays(now, -1), Calendar.DATE).getTime();
+            todayStart = DateUtils.truncate(now, Calendar.DATE).getTime();
+        }
+    }
+
+    private static volatile TimeGroupBoundaries sTimeGroupBoundaries;
+
     /**
      * Compare note timestamp to now and return a time grouping
      */
     public static NoteTimeGroup getTimeGroupForTimestamp(long timestamp) {
-        Date today = new Date();
-        Date then = new Date(timestamp * 1000);
+        TimeGroupBoundaries boundaries = sTimeGroupBoundaries;
+        long now = System.currentTimeMillis();
+        if (boundaries == null || now >= boundaries.expires) {
+            boundaries = new TimeGroupBoundaries(new Date(now));
+            sTimeGroupBoundaries = boundaries;
+        }
 
-        if (then.compareTo(DateUtils.addMonths(today, -1)) < 0) {
+        long then = timestamp * 1000;
+        if (then < boundaries.monthAgo) {
             return NoteTimeGroup.GROUP_OLDER_MONTH;
-        } else if (then.compareTo(DateUtils.addWeeks(today, -1)) < 0) {
+        } else if (then < boundaries.weekAgo) {
             return NoteTimeGroup.GROUP_OLDER_WEEK;
-        } else if (then.compareTo(DateUtils.addDays(today, -2)) < 0
-                || DateUtils.isSameDay(DateUtils.addDays(today, -2), then)) {
+        } else if (then < boundaries.yesterdayStart) {
             return NoteTimeGroup.GROUP_OLDER_TWO_DAYS;
-        } else if (DateUtils.isSameDay(DateUtils.addDays(today, -1), then)) {
+        } else if (then < boundaries.todayStart) {
             return NoteTimeGroup.GROUP_YESTERDAY;
         } else {
             return NoteTimeGroup.GROUP_TODAY;
@@ -213,7 +295,7 @@ public class Note extends Syncable {
      * Get the timestamp provided by the API for the note
      */
     public long getTimestamp() {
-        return DateTimeUtils.iso8601ToTimestamp(queryJSON("timestamp", ""));
+        return DateTimeUtils.iso8601ToTimestamp(getDigest().timestamp);
     }
 
     public JSONArray getBody() {
@@ -228,21 +310,18 @@ public class Note extends Syncable {
 
     // returns character code for notification font
     private String getNoticonCharacter() {
-        return queryJSON("noticon", "");
+        return getDigest().noticon;
     }
 
     JSONObject getCommentActions() {
-        if (mActions == null) {
-            mActions = queryJSON("body[last].actions", new JSONObject());
-        }
-
-        return mActions;
+        return getDigest().actions;
     }
 
 
     private void updateJSON(JSONObject json) {
         synchronized (mSyncLock) {
             mNoteJSON = json;
+            mDigest = null;
         }
     }
 
@@ -250,8 +329,11 @@ public class Note extends Syncable {
      * returns the actions allowed on this note, assumes it's a comment notification
      */
     public EnumSet<EnabledActions> getEnabledActions() {
+        return EnumSet.copyOf(getDigest().enabledActions);
+    }
+
+    private static EnumSet<EnabledActions> parseEnabledActions(JSONObject jsonActions) {
         EnumSet<EnabledActions> actions = EnumSet.noneOf(EnabledActions.class);
-        JSONObject jsonActions = getCommentActions();
         if (jsonActions == null || jsonActions.length() == 0) {
             return actions;
         }
@@ -276,20 +358,20 @@ public class Note extends Syncable {
     }
 
     public int getSiteId() {
-        return queryJSON("meta.ids.site", 0);
+        return getDigest().siteId;
     }
 
     public int getPostId() {
-        return queryJSON("meta.ids.post", 0);
+        return getDigest().postId;
     }
 
     public long getCommentId() {
-        return queryJSON("meta.ids.comment", 0);
+        return getDigest().commentId;
     }
 
 
     public long getParentCommentId() {
-        return queryJSON("meta.ids.parent_comment", 0);
+        return getDigest().parentCommentId;
     }
 
     /**
@@ -359,7 +441,7 @@ public class Note extends Syncable {
     }
 
     public CommentStatus getCommentStatus() {
-        EnumSet<EnabledActions> enabledActions = getEnabledActions();
+        EnumSet<EnabledActions> enabledActions = getDigest().enabledActions;
 
         if (enabledActions.contains(EnabledActions.ACTION_UNAPPROVE)) {
             return CommentStatus.APPROVED;
@@ -473,6 +473,38 @@ public class ReaderPost {
                 && post.isRebloggedByCurrentUser == this.isRebloggedByCurrentUser;
     }
 
+    /*
+     * hash of the values shown when the post appears in a list, used by ReaderPostListDiff to
+     * detect posts that need to be redrawn - the text isn't included since lists load posts
+     * without it. Not cached since adapters change some of these values in place.
+     */
+    public int getContentHash() {
+        int result = 17;
+        result = 31 * result + (int) (timestamp ^ (timestamp >>> 32));
+        result = 31 * result + numLikes;
+        result = 31 * result + numReplies;
+        result = 31 * result + (isLikedByCurrentUser ? 1 : 0);
+        result = 31 * result + (isFollowedByCurrentUser ? 1 : 0);
+        result = 31 * result + (isRebloggedByCurrentUser ? 1 : 0);
+        result = 31 * result + (isCommentsOpen ? 1 : 0);
+        result = 31 * result + (isLikesEnabled ? 1 : 0);
+        result = 31 * result + hashString(title);
+        result = 31 * result + hashString(excerpt);
+        result = 31 * result + hashString(authorName);
+        result = 31 * result + hashString(blogName);
+        result = 31 * result + hashString(postAvatar);
+        result = 31 * result + hashString(primaryTag);
+        result = 31 * result + hashString(secondaryTag);
+        result = 31 * result + hashString(published);
+        result = 31 * result + hashString(featuredImage);
+        result = 31 * result + hashString(featuredVideo);
+        return result;
+    }
+
+    private static int hashString(String value) {
+        return (value != null ? value.hashCode() : 0);
+    }
+
     /****
      * the following are transient variables - not stored in the db or returned in the json - whose
      * sole purpose is to cache commonly-used values for the post that speeds up using them inside
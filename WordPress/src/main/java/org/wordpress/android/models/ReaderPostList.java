@@ -44,24 +44,6 @@ public class ReaderPostList extends ArrayList<ReaderPost> {
         return indexOfPost(post.blogId, post.postId);
     }
 
-    /*
-     * does passed list contain the same posts as this list?
-     */
-    public boolean isSameList(ReaderPostList posts) {
-        if (posts == null || posts.size() != this.size()) {
-            return false;
-        }
-
-        for (ReaderPost post: posts) {
-            int index = indexOfPost(post.blogId, post.postId);
-            if (index == -1 || !post.isSamePost(this.get(index))) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     /*
      * returns posts in this list which are in the passed blog
      */
@@ -0,0 +1,362 @@
+package org.wordpress.android.models;
+
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the differences between two lists of reader posts, as the inserts, removes, moves and changes
+ * that turn the old list into the new one - lets adapters update just the rows that changed
+ * rather than rebinding (and reloading the images in) every row. Posts are matched by pseudo_id
+ * (or blogId/postId if they don't have one), and a post that's in both lists is changed if its
+ * content hash differs.
+ *
+ * Moves are kept to a minimum by leaving the longest run of posts that are already in the new
+ * order where they are. Compute the diff off the main thread, then apply the new list to the
+ * adapter and pass the updates to dispatchUpdates() on the main thread.
+ */
+public class ReaderPostListDiff {
+
+    public interface Callback {
+        public void onInserted(int position, int count);
+        public void onRemoved(int position, int count);
+        public void onMoved(int fromPosition, int toPosition);
+        public void onChanged(int position, int count);
+    }
+
+    private enum OpType { INSERT, REMOVE, MOVE, CHANGE }
+
+    /*
+     * a single update, positions are those at the time the update is applied
+     */
+    private static class Op {
+        final OpType type;
+        int position;
+        final int toPosition;
+        int count;
+
+        Op(OpType type, int position, int toPosition, int count) {
+            this.type = type;
+            this.position = position;
+            this.toPosition = toPosition;
+            this.count = count;
+        }
+    }
+
+    private final List<Op> mOps = new ArrayList<Op>();
+
+    private ReaderPostListDiff() {
+    }
+
+    public static ReaderPostListDiff compute(ReaderPostList oldPosts, ReaderPostList newPosts) {
+        ReaderPostListDiff diff = new ReaderPostListDiff();
+        int oldSize = (oldPosts != null ? oldPosts.size() : 0);
+        int newSize = (newPosts != null ? newPosts.size() : 0);
+        if (oldSize == 0 || newSize == 0) {
+            diff.replaceAll(oldSize, newSize);
+            return diff;
+        }
+
+        String[] oldKeys = new String[oldSize];
+        Map<String, ReaderPost> oldPostsByKey = new HashMap<String, ReaderPost>(oldSize);
+        for (int i = 0; i < oldSize; i++) {
+            oldKeys[i] = getKey(oldPosts.get(i));
+            oldPostsByKey.put(oldKeys[i], oldPosts.get(i));
+        }
+        String[] newKeys = new String[newSize];
+        Map<String, Integer> newPositions = new HashMap<String, Integer>(newSize);
+        for (int i = 0; i < newSize; i++) {
+            newKeys[i] = getKey(newPosts.get(i));
+            newPositions.put(newKeys[i], i);
+        }
+
+        // posts should only appear once in a list, but if they don't there's no way to tell
+        // which copy went where
+        if (oldPostsByKey.size() != oldSize || newPositions.size() != newSize) {
+            diff.replaceAll(oldSize, newSize);
+            return diff;
+        }
+
+        // remove posts that aren't in the new list, last first so positions before them
+        // are unaffected
+        for (int i = oldSize - 1; i >= 0; i--) {
+            if (!newPositions.containsKey(oldKeys[i])) {
+                diff.addRemove(i);
+            }
+        }
+
+        // the remaining posts, in their old order
+        List<String> working = new ArrayList<String>(oldSize);
+        Map<String, Integer> workingPositions = new HashMap<String, Integer>(oldSize);
+        for (String key : oldKeys) {
+            if (newPositions.containsKey(key)) {
+                workingPositions.put(key, working.size());
+                working.add(key);
+            }
+        }
+        int workingSize = working.size();
+
+        // posts in the longest run that's already in the new order stay where they are
+        int[] positionsInNewList = new int[workingSize];
+        for (int i = 0; i < workingSize; i++) {
+            positionsInNewList[i] = newPositions.get(working.get(i));
+        }
+        boolean[] isStable = getLongestIncreasingSubsequence(positionsInNewList);
+
+        // working back from the end of the new list, each post that isn't stable is inserted or
+        // moved so it's directly before the post that follows it in the new list - later inserts
+        // and moves only place posts before earlier ones, so this leaves every post in its new
+        // place. It also means a placed post always stays in the run directly before the next
+        // stable post (or the end of the list), so every slot a post can occupy is known up front
+        // and its position is the number of occupied slots before it. Slots are ordered by the
+        // stable post they come before, then by position in the new list with the stable post
+        // itself last.
+        long slotsPerAnchor = newSize + 2L;
+        long[] oldSlotOrder = new long[workingSize];
+        long[] slotOrder = new long[workingSize + newSize];
+        int numSlots = 0;
+        for (int i = 0; i < workingSize; i++) {
+            oldSlotOrder[i] = i * slotsPerAnchor + (isStable[i] ? newSize + 1 : 0);
+            slotOrder[numSlots++] = oldSlotOrder[i];
+        }
+        int nextStable = workingSize;
+        for (int i = newSize - 1; i >= 0; i--) {
+            Integer workingPosition = workingPositions.get(newKeys[i]);
+            if (workingPosition != null && isStable[workingPosition]) {
+                nextStable = workingPosition;
+            } else {
+                slotOrder[numSlots++] = nextStable * slotsPerAnchor + 1 + i;
+            }
+        }
+        Arrays.sort(slotOrder, 0, numSlots);
+        int[] oldSlots = new int[workingSize];
+        for (int i = 0; i < workingSize; i++) {
+            oldSlots[i] = Arrays.binarySearch(slotOrder, 0, numSlots, oldSlotOrder[i]);
+        }
+
+        SlotCounter occupied = new SlotCounter(numSlots);
+        for (int i = 0; i < workingSize; i++) {
+            occupied.add(oldSlots[i], 1);
+        }
+        nextStable = workingSize;
+        for (int i = newSize - 1; i >= 0; i--) {
+            Integer workingPosition = workingPositions.get(newKeys[i]);
+            if (workingPosition != null && isStable[workingPosition]) {
+                nextStable = workingPosition;
+                continue;
+            }
+            long placedSlotOrder = nextStable * slotsPerAnchor + 1 + i;
+            int placedSlot = Arrays.binarySearch(slotOrder, 0, numSlots, placedSlotOrder);
+            if (workingPosition == null) {
+                diff.addInsert(occupied.countBefore(placedSlot));
+            } else {
+                int from = occupied.countBefore(oldSlots[workingPosition]);
+                occupied.add(oldSlots[workingPosition], -1);
+                int to = occupied.countBefore(placedSlot);
+                if (to != from) {
+                    diff.addMove(from, to);
+                }
+            }
+            occupied.add(placedSlot, 1);
+        }
+
+        // posts are now in their new positions, so changes use those
+        for (int i = 0; i < newSize; i++) {
+            ReaderPost oldPost = oldPostsByKey.get(newKeys[i]);
+            if (oldPost != null && oldPost.getContentHash() != newPosts.get(i).getContentHash()) {
+                diff.addChange(i);
+            }
+        }
+
+        return diff;
+    }
+
+    /*
+     * counts occupied slots with a Fenwick tree, so both updating a slot and counting the
+     * occupied slots before one are O(log n)
+     */
+    private static class SlotCounter {
+        private final int[] mTree;
+
+        SlotCounter(int numSlots) {
+            mTree = new int[numSlots + 1];
+        }
+
+        void add(int slot, int delta) {
+            for (int i = slot + 1; i < mTree.length; i += i & -i) {
+                mTree[i] += delta;
+            }
+        }
+
+        int countBefore(int slot) {
+            int count = 0;
+            for (int i = slot; i > 0; i -= i & -i) {
+                count += mTree[i];
+            }
+            return count;
+        }
+    }
+
+    /*
+     * posts from the read/ endpoints and the sites/ endpoints both have a pseudo_id, but older
+     * stored posts may not
+     */
+    private static String getKey(ReaderPost post) {
+        String pseudoId = post.getPseudoId();
+        if (!TextUtils.isEmpty(pseudoId)) {
+            return pseudoId;
+        }
+        return post.blogId + ":" + post.postId;
+    }
+
+    /*
+     * returns which of the passed values make up the longest strictly increasing subsequence,
+     * using patience sorting - O(n log n)
+     */
+    private static boolean[] getLongestIncreasingSubsequence(int[] values) {
+        int n = values.length;
+        boolean[] result = new boolean[n];
+        if (n == 0) {
+            return result;
+        }
+
+        // tails[k] is the index of the smallest value ending an increasing run of length k + 1
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = (low > 0 ? tails[low - 1] : -1);
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        for (int i = tails[length - 1]; i >= 0; i = previous[i]) {
+            result[i] = true;
+        }
+        return result;
+    }
+
+    private void replaceAll(int oldSize, int newSize) {
+        if (oldSize > 0) {
+            mOps.add(new Op(OpType.REMOVE, 0, 0, oldSize));
+        }
+        if (newSize > 0) {
+            mOps.add(new Op(OpType.INSERT, 0, 0, newSize));
+        }
+    }
+
+    private Op getLastOp(OpType type) {
+        if (mOps.isEmpty()) {
+            return null;
+        }
+        Op last = mOps.get(mOps.size() - 1);
+        return (last.type == type ? last : null);
+    }
+
+    /*
+     * removes are added last first, so a remove directly before the previous one extends it
+     */
+    private void addRemove(int position) {
+        Op last = getLastOp(OpType.REMOVE);
+        if (last != null && last.position == position + 1) {
+            last.position = position;
+            last.count++;
+        } else {
+            mOps.add(new Op(OpType.REMOVE, position, 0, 1));
+        }
+    }
+
+    /*
+     * inserts are added last first, so an insert at the same position as the previous one
+     * extends it
+     */
+    private void addInsert(int position) {
+        Op last = getLastOp(OpType.INSERT);
+        if (last != null && last.position == position) {
+            last.count++;
+        } else {
+            mOps.add(new Op(OpType.INSERT, position, 0, 1));
+        }
+    }
+
+    private void addMove(int fromPosition, int toPosition) {
+        mOps.add(new Op(OpType.MOVE, fromPosition, toPosition, 1));
+    }
+
+    private void addChange(int position) {
+        Op last = getLastOp(OpType.CHANGE);
+        if (last != null && last.position + last.count == position) {
+            last.count++;
+        } else {
+            mOps.add(new Op(OpType.CHANGE, position, 0, 1));
+        }
+    }
+
+    public boolean hasChanges() {
+        return !mOps.isEmpty();
+    }
+
+    /*
+     * passes the updates to the callback in the order they must be applied
+     */
+    public void dispatchUpdates(Callback callback) {
+        for (Op op : mOps) {
+            switch (op.type) {
+                case INSERT:
+                    callback.onInserted(op.position, op.count);
+                    break;
+                case REMOVE:
+                    callback.onRemoved(op.position, op.count);
+                    break;
+                case MOVE:
+                    callback.onMoved(op.position, op.toPosition);
+                    break;
+                case CHANGE:
+                    callback.onChanged(op.position, op.count);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        int numInserted = 0;
+        int numRemoved = 0;
+        int numMoved = 0;
+        int numChanged = 0;
+        for (Op op : mOps) {
+            switch (op.type) {
+                case INSERT:
+                    numInserted += op.count;
+                    break;
+                case REMOVE:
+                    numRemoved += op.count;
+                    break;
+                case MOVE:
+                    numMoved++;
+                    break;
+                case CHANGE:
+                    numChanged += op.count;
+                    break;
+            }
+        }
+        return "inserted " + numInserted + ", removed " + numRemoved
+                + ", moved " + numMoved + ", changed " + numChanged;
+    }
+}
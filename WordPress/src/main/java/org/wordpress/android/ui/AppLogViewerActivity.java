@@ -2,7 +2,9 @@ package org.wordpress.android.ui;
 
 import android.content.Context;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.support.v4.content.FileProvider;
 import android.support.v7.app.ActionBar;
 import android.support.v7.app.ActionBarActivity;
 import android.text.Html;
@@ -19,6 +21,10 @@ import org.wordpress.android.R;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.ToastUtils;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 
 /**
@@ -26,6 +32,8 @@ import java.util.ArrayList;
  */
 public class AppLogViewerActivity extends ActionBarActivity {
     private static final int ID_SHARE = 1;
+    private static final String BINARY_LOG_DIR = "logs";
+    private static final String BINARY_LOG_FILE_NAME = "wordpress-log.bin";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -109,13 +117,53 @@ public class AppLogViewerActivity extends ActionBarActivity {
         intent.setType("text/plain");
         intent.putExtra(Intent.EXTRA_TEXT, AppLog.toPlainText(this));
         intent.putExtra(Intent.EXTRA_SUBJECT, getString(R.string.app_name) + " " + getTitle());
+        // attach the compact binary export too, it keeps the timestamps the text export drops
+        Uri binaryLogUri = writeBinaryLog();
+        if (binaryLogUri != null) {
+            intent.putExtra(Intent.EXTRA_STREAM, binaryLogUri);
+            intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        }
         try {
-            startActivity(Intent.createChooser(intent, getString(R.string.reader_btn_share)));
+            Intent chooser = Intent.createChooser(intent, getString(R.string.reader_btn_share));
+            if (binaryLogUri != null) {
+                chooser.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            }
+            startActivity(chooser);
         } catch (android.content.ActivityNotFoundException ex) {
             ToastUtils.showToast(this, R.string.reader_toast_err_share_intent);
         }
     }
 
+    /*
+     * writes the binary log to the app's private cache and returns a content uri the app the log
+     * is shared with can be granted access to - the log contains account and blog details, so
+     * it's never written anywhere other apps can read. Returns null if it couldn't be written.
+     */
+    private Uri writeBinaryLog() {
+        File dir = new File(getCacheDir(), BINARY_LOG_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            return null;
+        }
+        File file = new File(dir, BINARY_LOG_FILE_NAME);
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            AppLog.writeBinary(this, out);
+            return FileProvider.getUriForFile(this, getPackageName() + ".fileprovider", file);
+        } catch (IOException e) {
+            AppLog.e(AppLog.T.UTILS, e);
+            return null;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    AppLog.e(AppLog.T.UTILS, e);
+                }
+            }
+        }
+    }
+
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         super.onCreateOptionsMenu(menu);
@@ -16,16 +16,15 @@ import android.widget.TextView;
 
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
+import org.wordpress.android.models.AccountSummary;
 import org.wordpress.android.models.Blog;
 import org.wordpress.android.ui.accounts.SignInActivity;
 import org.wordpress.android.ui.media.MediaBrowserActivity;
 import org.wordpress.android.ui.posts.EditPostActivity;
-import org.wordpress.android.util.BlogUtils;
 import org.wordpress.android.util.ToastUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * An activity to handle share intents, since there are multiple actions possible.
@@ -150,15 +149,15 @@ public class ShareIntentReceiverActivity extends ActionBarActivity implements On
     }
 
     private String[] getBlogNames() {
-        List<Map<String, Object>> accounts = WordPress.wpDB.getVisibleAccounts();
+        List<AccountSummary> accounts = WordPress.wpDB.getVisibleAccountSummaries();
         if (accounts.size() > 0) {
             final String blogNames[] = new String[accounts.size()];
             mAccountIDs = new int[accounts.size()];
             Blog blog;
             for (int i = 0; i < accounts.size(); i++) {
-                Map<String, Object> account = accounts.get(i);
-                blogNames[i] = BlogUtils.getBlogNameFromAccountMap(account);
-                mAccountIDs[i] = (Integer) account.get("id");
+                AccountSummary account = accounts.get(i);
+                blogNames[i] = account.getDisplayName();
+                mAccountIDs[i] = account.getLocalId();
                 blog = WordPress.wpDB.instantiateBlogByLocalId(mAccountIDs[i]);
                 if (blog == null) {
                     ToastUtils.showToast(this, R.string.blog_not_found, ToastUtils.Duration.SHORT);
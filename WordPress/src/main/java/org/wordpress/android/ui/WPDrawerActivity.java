@@ -34,6 +34,7 @@ import org.wordpress.android.Constants;
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.analytics.AnalyticsTracker;
+import org.wordpress.android.models.AccountSummary;
 import org.wordpress.android.models.Blog;
 import org.wordpress.android.networking.SelfSignedSSLCertsManager;
 import org.wordpress.android.ui.DrawerItems.DrawerItem;
@@ -46,7 +47,6 @@ import org.wordpress.android.ui.reader.ReaderPostListActivity;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.AuthenticationDialogUtils;
-import org.wordpress.android.util.BlogUtils;
 import org.wordpress.android.util.DeviceUtils;
 import org.wordpress.android.util.DisplayUtils;
 import org.wordpress.android.util.ListScrollPositionManager;
@@ -57,7 +57,6 @@ import org.xmlrpc.android.ApiHelper;
 import org.xmlrpc.android.ApiHelper.ErrorType;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * Base class for Activities that include a standard action bar and menu drawer.
@@ -571,16 +570,16 @@ public abstract class WPDrawerActivity extends ActionBarActivity {
      * @return array of blog names
      */
     private static String[] getBlogNames() {
-        List<Map<String, Object>> accounts = WordPress.wpDB.getVisibleAccounts();
+        List<AccountSummary> accounts = WordPress.wpDB.getVisibleAccountSummaries();
 
         int blogCount = accounts.size();
         mBlogIDs = new int[blogCount];
         String[] blogNames = new String[blogCount];
 
         for (int i = 0; i < blogCount; i++) {
-            Map<String, Object> account = accounts.get(i);
-            blogNames[i] = BlogUtils.getBlogNameFromAccountMap(account);
-            mBlogIDs[i] = Integer.valueOf(account.get("id").toString());
+            AccountSummary account = accounts.get(i);
+            blogNames[i] = account.getDisplayName();
+            mBlogIDs[i] = account.getLocalId();
         }
 
         return blogNames;
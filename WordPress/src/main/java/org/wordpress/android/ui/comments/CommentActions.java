@@ -20,9 +20,11 @@ import org.xmlpull.v1.XmlPullParserException;
 import org.xmlrpc.android.XMLRPCClientInterface;
 import org.xmlrpc.android.XMLRPCException;
 import org.xmlrpc.android.XMLRPCFactory;
+import org.xmlrpc.android.XMLRPCFault;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -403,8 +405,9 @@ public class CommentActions {
     }
 
     /**
-     * change the status of multiple comments
-     * TODO: investigate using system.multiCall to perform a single call to moderate the list
+     * change the status of multiple comments - the comments are updated in SQLite right away,
+     * then moderated on the server in a single system.multicall request, and any the server
+     * fails to moderate have their previous status restored
      */
     static void moderateComments(final int accountId,
                                  final CommentList comments,
@@ -424,7 +427,6 @@ public class CommentActions {
             return;
         }
 
-        final CommentList moderatedComments = new CommentList();
         final String newStatusStr = CommentStatus.toString(newStatus);
         final int localBlogId = blog.getLocalTableBlogId();
         final int remoteBlogId = blog.getRemoteBlogId();
@@ -433,42 +435,41 @@ public class CommentActions {
         new Thread() {
             @Override
             public void run() {
+                // optimistic update - the comments themselves keep their previous status so
+                // it can be restored for any that fail
+                CommentTable.updateCommentsStatus(localBlogId, comments, newStatusStr);
+
                 XMLRPCClientInterface client = XMLRPCFactory.instantiate(blog.getUri(), blog.getHttpuser(),
                         blog.getHttppassword());
-                for (Comment comment: comments) {
-                    Map<String, String> postHash = new HashMap<String, String>();
-                    postHash.put("status", newStatusStr);
-                    postHash.put("content", comment.getCommentText());
-                    postHash.put("author", comment.getAuthorName());
-                    postHash.put("author_url", comment.getAuthorUrl());
-                    postHash.put("author_email", comment.getAuthorEmail());
-
-                    Object[] params = {
-                            remoteBlogId,
-                            blog.getUsername(),
-                            blog.getPassword(),
-                            Long.toString(comment.commentID),
-                            postHash};
-
-                    Object result;
-                    try {
-                        result = client.call("wp.editComment", params);
-                        boolean success = (result != null && Boolean.parseBoolean(result.toString()));
-                        if (success) {
-                            comment.setStatus(newStatusStr);
-                            moderatedComments.add(comment);
-                        }
-                    } catch (XMLRPCException e) {
-                        AppLog.e(T.COMMENTS, "Error while editing comment", e);
-                    } catch (IOException e) {
-                        AppLog.e(T.COMMENTS, "Error while editing comment", e);
-                    } catch (XmlPullParserException e) {
-                        AppLog.e(T.COMMENTS, "Error while editing comment", e);
-                    }
+                final CommentList moderatedComments = callForComments(client, "wp.editComment", comments,
+                        new CommentCallParams() {
+                            @Override
+                            public Object[] getParams(Comment comment) {
+                                Map<String, String> postHash = new HashMap<String, String>();
+                                postHash.put("status", newStatusStr);
+                                postHash.put("content", comment.getCommentText());
+                                postHash.put("author", comment.getAuthorName());
+                                postHash.put("author_url", comment.getAuthorUrl());
+                                postHash.put("author_email", comment.getAuthorEmail());
+
+                                return new Object[] {
+                                        remoteBlogId,
+                                        blog.getUsername(),
+                                        blog.getPassword(),
+                                        Long.toString(comment.commentID),
+                                        postHash};
+                            }
+                        });
+
+                // roll back the comments that weren't moderated
+                if (moderatedComments.size() < comments.size()) {
+                    CommentList failedComments = (CommentList) comments.clone();
+                    failedComments.deleteComments(moderatedComments);
+                    CommentTable.restoreCommentsStatus(localBlogId, failedComments);
+                }
+                for (Comment comment: moderatedComments) {
+                    comment.setStatus(newStatusStr);
                 }
-
-                // update status in SQLite of successfully moderated comments
-                CommentTable.updateCommentsStatus(localBlogId, moderatedComments, newStatusStr);
 
                 if (actionListener != null) {
                     handler.post(new Runnable() {
@@ -482,6 +483,93 @@ public class CommentActions {
         }.start();
     }
 
+    /*
+     * moderating a list of comments sends one system.multicall request for every
+     * MAX_MULTICALL_SIZE comments rather than a request per comment
+     */
+    private static final int MAX_MULTICALL_SIZE = 100;
+
+    private static interface CommentCallParams {
+        public Object[] getParams(Comment comment);
+    }
+
+    /*
+     * calls the passed XML-RPC method for each comment and returns the comments it succeeded
+     * for - must be called from a background thread
+     */
+    private static CommentList callForComments(XMLRPCClientInterface client,
+                                               String methodName,
+                                               CommentList comments,
+                                               CommentCallParams callParams) {
+        CommentList succeeded = new CommentList();
+        for (int start = 0; start < comments.size(); start += MAX_MULTICALL_SIZE) {
+            List<Comment> batch = comments.subList(start, Math.min(start + MAX_MULTICALL_SIZE, comments.size()));
+            Object[] calls = new Object[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                Map<String, Object> call = new HashMap<String, Object>();
+                call.put("methodName", methodName);
+                call.put("params", callParams.getParams(batch.get(i)));
+                calls[i] = call;
+            }
+
+            Object[] results;
+            try {
+                results = (Object[]) client.call("system.multicall", new Object[] { calls });
+            } catch (XMLRPCFault fault) {
+                if (fault.getFaultCode() == 401 || fault.getFaultCode() == 403) {
+                    AppLog.e(T.COMMENTS, "Error while moderating comments", fault);
+                    return succeeded;
+                }
+                // the server doesn't allow multicall, so make the remaining calls one at a time
+                AppLog.w(T.COMMENTS, "system.multicall failed, moderating comments individually");
+                for (Comment comment: comments.subList(start, comments.size())) {
+                    if (callForComment(client, methodName, callParams.getParams(comment))) {
+                        succeeded.add(comment);
+                    }
+                }
+                return succeeded;
+            } catch (XMLRPCException e) {
+                AppLog.e(T.COMMENTS, "Error while moderating comments", e);
+                continue;
+            } catch (IOException e) {
+                AppLog.e(T.COMMENTS, "Error while moderating comments", e);
+                continue;
+            } catch (XmlPullParserException e) {
+                AppLog.e(T.COMMENTS, "Error while moderating comments", e);
+                continue;
+            } catch (ClassCastException e) {
+                AppLog.e(T.COMMENTS, "Unexpected system.multicall response", e);
+                continue;
+            }
+
+            // each result is either an array holding the call's return value, or a fault struct
+            for (int i = 0; i < batch.size() && i < results.length; i++) {
+                if (results[i] instanceof Object[] && ((Object[]) results[i]).length > 0
+                        && isSuccessResult(((Object[]) results[i])[0])) {
+                    succeeded.add(batch.get(i));
+                }
+            }
+        }
+        return succeeded;
+    }
+
+    private static boolean callForComment(XMLRPCClientInterface client, String methodName, Object[] params) {
+        try {
+            return isSuccessResult(client.call(methodName, params));
+        } catch (XMLRPCException e) {
+            AppLog.e(T.COMMENTS, "Error while moderating comment", e);
+        } catch (IOException e) {
+            AppLog.e(T.COMMENTS, "Error while moderating comment", e);
+        } catch (XmlPullParserException e) {
+            AppLog.e(T.COMMENTS, "Error while moderating comment", e);
+        }
+        return false;
+    }
+
+    private static boolean isSuccessResult(Object result) {
+        return (result != null && Boolean.parseBoolean(result.toString()));
+    }
+
     /**
      * delete (trash) a single comment
      */
@@ -540,7 +628,8 @@ public class CommentActions {
     }
 
     /**
-     * delete multiple comments
+     * delete multiple comments - removed from SQLite right away and restored if the server
+     * fails to delete them, see moderateComments()
      */
     private static void deleteComments(final int accountId,
                                        final CommentList comments,
@@ -553,7 +642,6 @@ public class CommentActions {
             return;
         }
 
-        final CommentList deletedComments = new CommentList();
         final int localBlogId = blog.getLocalTableBlogId();
         final int remoteBlogId = blog.getRemoteBlogId();
 
@@ -561,34 +649,29 @@ public class CommentActions {
         new Thread() {
             @Override
             public void run() {
+                CommentTable.deleteComments(localBlogId, comments);
+
                 XMLRPCClientInterface client = XMLRPCFactory.instantiate(blog.getUri(), blog.getHttpuser(),
                         blog.getHttppassword());
-
-                for (Comment comment: comments) {
-                    Object[] params = {
-                            remoteBlogId,
-                            blog.getUsername(),
-                            blog.getPassword(),
-                            comment.commentID};
-
-                    Object result;
-                    try {
-                        result = client.call("wp.deleteComment", params);
-                        boolean success = (result != null && Boolean.parseBoolean(result.toString()));
-                        if (success)
-                            deletedComments.add(comment);
-                    } catch (XMLRPCException e) {
-                        AppLog.e(T.COMMENTS, "Error while deleting comment", e);
-                    } catch (IOException e) {
-                        AppLog.e(T.COMMENTS, "Error while deleting comment", e);
-                    } catch (XmlPullParserException e) {
-                        AppLog.e(T.COMMENTS, "Error while deleting comment", e);
-                    }
+                final CommentList deletedComments = callForComments(client, "wp.deleteComment", comments,
+                        new CommentCallParams() {
+                            @Override
+                            public Object[] getParams(Comment comment) {
+                                return new Object[] {
+                                        remoteBlogId,
+                                        blog.getUsername(),
+                                        blog.getPassword(),
+                                        comment.commentID};
+                            }
+                        });
+
+                // restore the comments that weren't deleted
+                if (deletedComments.size() < comments.size()) {
+                    CommentList failedComments = (CommentList) comments.clone();
+                    failedComments.deleteComments(deletedComments);
+                    CommentTable.saveComments(localBlogId, failedComments);
                 }
 
-                // remove successfully deleted comments from SQLite
-                CommentTable.deleteComments(localBlogId, deletedComments);
-
                 if (actionListener != null) {
                     handler.post(new Runnable() {
                         @Override
@@ -58,6 +58,12 @@ class CommentAdapter extends BaseAdapter {
 
     private boolean mEnableSelection;
 
+    // comments are read from the db a page at a time as the list is scrolled, so only the
+    // comments that have been shown are held in memory
+    private static final int COMMENTS_PER_LOAD = 50;
+    private int mLocalBlogId;
+    private boolean mHasMoreLocalComments = true;
+
     CommentAdapter(Context context,
                    DataLoadedListener onDataLoadedListener,
                    OnLoadMoreListener onLoadMoreListener,
@@ -94,6 +100,7 @@ class CommentAdapter extends BaseAdapter {
     }
 
     void clear() {
+        mHasMoreLocalComments = true;
         if (mComments.size() > 0) {
             mComments.clear();
             notifyDataSetChanged();
@@ -210,6 +217,60 @@ class CommentAdapter extends BaseAdapter {
         }
     }
 
+    /*
+     * updates a single comment from the db after it has been moderated or edited - the comment
+     * is removed if it's no longer stored, and added in date order if it isn't already shown
+     */
+    void reloadComment(long commentId) {
+        Comment comment = CommentTable.getComment(mLocalBlogId, commentId);
+        int index = indexOfCommentId(commentId);
+        if (comment == null) {
+            if (index > -1) {
+                mComments.remove(index);
+                notifyDataSetChanged();
+            }
+            return;
+        }
+
+        if (index > -1) {
+            mComments.set(index, comment);
+        } else {
+            int insertAt = 0;
+            while (insertAt < mComments.size() && isNewerThan(mComments.get(insertAt), comment)) {
+                insertAt++;
+            }
+            // a comment older than the ones shown is added when the list is scrolled to it
+            if (insertAt == mComments.size() && mHasMoreLocalComments) {
+                return;
+            }
+            mComments.add(insertAt, comment);
+        }
+        preCalcTransientValues(comment);
+        notifyDataSetChanged();
+    }
+
+    /*
+     * returns true if comment1 comes before comment2 in the list - same order as CommentTable
+     */
+    private static boolean isNewerThan(Comment comment1, Comment comment2) {
+        int compare = comment1.getPublished().compareTo(comment2.getPublished());
+        if (compare == 0) {
+            return comment1.commentID > comment2.commentID;
+        }
+        return compare > 0;
+    }
+
+    /*
+     * pre-calc transient values so they're cached when used by getView()
+     */
+    private void preCalcTransientValues(Comment comment) {
+        comment.getDatePublished();
+        comment.getUnescapedCommentText();
+        comment.getUnescapedPostTitle();
+        comment.getAvatarForDisplay(mAvatarSz);
+        comment.getFormattedTitle();
+    }
+
     public View getView(final int position, View convertView, ViewGroup parent) {
         final Comment comment = mComments.get(position);
         final CommentHolder holder;
@@ -280,9 +341,15 @@ class CommentAdapter extends BaseAdapter {
             params.addRule(RelativeLayout.LEFT_OF, 0);
         }
 
-        // request to load more comments when we near the end
-        if (mOnLoadMoreListener != null && position >= getCount()-1)
-            mOnLoadMoreListener.onLoadMore();
+        // show more of the stored comments when we near the end, and request more from the
+        // server once they've all been shown
+        if (position >= getCount()-1) {
+            if (mHasMoreLocalComments) {
+                loadMoreComments();
+            } else if (mOnLoadMoreListener != null) {
+                mOnLoadMoreListener.onLoadMore();
+            }
+        }
 
         return convertView;
     }
@@ -308,13 +375,32 @@ class CommentAdapter extends BaseAdapter {
     }
 
     /*
-     * load comments using an AsyncTask
+     * load comments using an AsyncTask - reloads the comments already shown, or the first page
+     * of comments if none are shown yet (or they're for a different blog)
      */
     void loadComments() {
         if (mIsLoadTaskRunning) {
             AppLog.w(AppLog.T.COMMENTS, "load comments task already active");
         }
-        new LoadCommentsTask().executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        new LoadCommentsTask(false).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /*
+     * called after older comments have been stored, shows the next page of them
+     */
+    void showMoreComments() {
+        mHasMoreLocalComments = true;
+        loadMoreComments();
+    }
+
+    /*
+     * load the next page of stored comments using an AsyncTask
+     */
+    private void loadMoreComments() {
+        if (mIsLoadTaskRunning) {
+            return;
+        }
+        new LoadCommentsTask(true).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
     }
 
     /*
@@ -322,10 +408,23 @@ class CommentAdapter extends BaseAdapter {
      */
     private boolean mIsLoadTaskRunning = false;
     private class LoadCommentsTask extends AsyncTask<Void, Void, Boolean> {
+        private final boolean mIsLoadingMore;
+        private Comment mAnchorComment;
+        private int mTaskBlogId;
+        private boolean mHasMore;
         CommentList tmpComments;
+
+        LoadCommentsTask(boolean loadMore) {
+            mIsLoadingMore = loadMore;
+        }
         @Override
         protected void onPreExecute() {
             mIsLoadTaskRunning = true;
+            mTaskBlogId = WordPress.getCurrentLocalTableBlogId();
+            // comments are paged from (or reloaded down to) the oldest one shown
+            if (mTaskBlogId == mLocalBlogId && mComments.size() > 0) {
+                mAnchorComment = mComments.get(mComments.size() - 1);
+            }
         }
         @Override
         protected void onCancelled() {
@@ -333,24 +432,54 @@ class CommentAdapter extends BaseAdapter {
         }
         @Override
         protected Boolean doInBackground(Void... params) {
-            int localBlogId = WordPress.getCurrentLocalTableBlogId();
-            tmpComments = CommentTable.getCommentsForBlog(localBlogId);
-            if (mComments.isSameList(tmpComments))
+            if (mIsLoadingMore) {
+                tmpComments = CommentTable.getCommentsForBlogOlderThan(mTaskBlogId, mAnchorComment, COMMENTS_PER_LOAD);
+                mHasMore = (tmpComments.size() == COMMENTS_PER_LOAD);
+            } else if (mAnchorComment != null) {
+                tmpComments = CommentTable.getCommentsForBlogNewerThan(mTaskBlogId, mAnchorComment);
+                mHasMore = true;
+                if (tmpComments.size() == 0) {
+                    // everything shown has been removed, so start over from the newest
+                    tmpComments = CommentTable.getNewestCommentsForBlog(mTaskBlogId, COMMENTS_PER_LOAD);
+                    mHasMore = (tmpComments.size() == COMMENTS_PER_LOAD);
+                }
+            } else {
+                tmpComments = CommentTable.getNewestCommentsForBlog(mTaskBlogId, COMMENTS_PER_LOAD);
+                mHasMore = (tmpComments.size() == COMMENTS_PER_LOAD);
+            }
+
+            if (!mIsLoadingMore && mTaskBlogId == mLocalBlogId && mComments.isSameList(tmpComments))
                 return false;
 
-            // pre-calc transient values so they're cached when used by getView()
             for (Comment comment: tmpComments) {
-                comment.getDatePublished();
-                comment.getUnescapedCommentText();
-                comment.getUnescapedPostTitle();
-                comment.getAvatarForDisplay(mAvatarSz);
-                comment.getFormattedTitle();
+                preCalcTransientValues(comment);
             }
 
             return true;
         }
         @Override
         protected void onPostExecute(Boolean result) {
+            mIsLoadTaskRunning = false;
+
+            if (mIsLoadingMore) {
+                // skip the page if the list changed while it was loading
+                boolean isAnchorStillLast = (mComments.size() > 0 && mComments.get(mComments.size() - 1) == mAnchorComment);
+                if (mTaskBlogId != mLocalBlogId || !isAnchorStillLast) {
+                    return;
+                }
+                mHasMoreLocalComments = mHasMore;
+                if (tmpComments.size() > 0) {
+                    mComments.addAll(tmpComments);
+                    notifyDataSetChanged();
+                } else if (mOnLoadMoreListener != null) {
+                    // all stored comments are shown, so it's up to the server now
+                    mOnLoadMoreListener.onLoadMore();
+                }
+                return;
+            }
+
+            mLocalBlogId = mTaskBlogId;
+            mHasMoreLocalComments = mHasMore;
             if (result) {
                 mComments = (CommentList)(tmpComments.clone());
                 notifyDataSetChanged();
@@ -358,8 +487,6 @@ class CommentAdapter extends BaseAdapter {
 
             if (mDataLoadedListener != null)
                 mDataLoadedListener.onDataLoaded(isEmpty());
-
-            mIsLoadTaskRunning = false;
         }
     }
 }
@@ -268,7 +268,7 @@ public class CommentsActivity extends WPDrawerActivity
 
                     if (succeeded) {
                         updateMenuDrawer();
-                        getListFragment().updateComments(false);
+                        getListFragment().reloadComment(comment.commentID);
                     } else {
                         ToastUtils.showToast(CommentsActivity.this,
                                 R.string.error_moderate_comment,
@@ -299,7 +299,7 @@ public class CommentsActivity extends WPDrawerActivity
 
                                     if (!succeeded) {
                                         // show comment again upon error
-                                        getListFragment().loadComments();
+                                        getListFragment().reloadComment(comment.commentID);
                                         ToastUtils.showToast(CommentsActivity.this,
                                                 R.string.error_moderate_comment,
                                                 ToastUtils.Duration.LONG
@@ -320,7 +320,7 @@ public class CommentsActivity extends WPDrawerActivity
                         public void onUndo(Parcelable parcelable) {
                             getListFragment().setCommentIsModerating(comment.commentID, false);
                             // On undo load from the db to show the comment again
-                            getListFragment().loadComments();
+                            getListFragment().reloadComment(comment.commentID);
                         }
                     }).show();
         }
@@ -332,7 +332,11 @@ public class CommentsActivity extends WPDrawerActivity
     public void onCommentChanged(CommentActions.ChangedFrom changedFrom, CommentActions.ChangeType changeType) {
         if (changedFrom == CommentActions.ChangedFrom.COMMENT_DETAIL
                 && changeType == CommentActions.ChangeType.EDITED) {
-            reloadCommentList();
+            if (mSelectedCommentId != 0 && hasListFragment()) {
+                getListFragment().reloadComment(mSelectedCommentId);
+            } else {
+                reloadCommentList();
+            }
         }
     }
 }
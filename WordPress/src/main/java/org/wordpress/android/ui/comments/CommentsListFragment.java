@@ -21,6 +21,7 @@ import android.widget.ProgressBar;
 
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
+import org.wordpress.android.datasets.CommentTable;
 import org.wordpress.android.models.Blog;
 import org.wordpress.android.models.Comment;
 import org.wordpress.android.models.CommentList;
@@ -55,6 +56,8 @@ public class CommentsListFragment extends Fragment {
     private OnCommentSelectedListener mOnCommentSelectedListener;
 
     private static final int COMMENTS_PER_PAGE = 30;
+    // most pages a refresh will request while catching up on comments made since the last one
+    private static final int MAX_REFRESH_PAGES = 5;
 
     private ListView getListView() {
         return mListView;
@@ -252,6 +255,10 @@ public class CommentsListFragment extends Fragment {
                 if (moderatedComments.size() > 0) {
                     getCommentAdapter().clearSelectedComments();
                     getCommentAdapter().replaceComments(moderatedComments);
+                    // comments that couldn't be moderated keep their previous status
+                    if (moderatedComments.size() < updateComments.size()) {
+                        ToastUtils.showToast(getActivity(), R.string.error_moderate_comment);
+                    }
                 } else {
                     ToastUtils.showToast(getActivity(), R.string.error_moderate_comment);
                 }
@@ -298,6 +305,9 @@ public class CommentsListFragment extends Fragment {
                 if (deletedComments.size() > 0) {
                     getCommentAdapter().clearSelectedComments();
                     getCommentAdapter().deleteComments(deletedComments);
+                    if (deletedComments.size() < selectedComments.size()) {
+                        ToastUtils.showToast(getActivity(), R.string.error_moderate_comment);
+                    }
                 } else {
                     ToastUtils.showToast(getActivity(), R.string.error_moderate_comment);
                 }
@@ -351,6 +361,16 @@ public class CommentsListFragment extends Fragment {
         getCommentAdapter().loadComments();
     }
 
+    /*
+     * called from CommentsActivity when a single comment was moderated or edited, updates just
+     * that comment from SQLite rather than reloading the list
+     */
+    void reloadComment(long commentId) {
+        if (hasCommentAdapter()) {
+            getCommentAdapter().reloadComment(commentId);
+        }
+    }
+
     /*
      * get latest comments from server, or pass loadMore=true to get comments beyond the
      * existing ones
@@ -431,21 +451,42 @@ public class CommentsListFragment extends Fragment {
                 ApiHelper.removeDeletedComments(blog);
             }
 
+            int localBlogId = blog.getLocalTableBlogId();
             Map<String, Object> hPost = new HashMap<String, Object>();
-            if (mIsLoadingMore) {
-                int numExisting = getCommentAdapter().getCount();
-                hPost.put("offset", numExisting);
-                hPost.put("number", COMMENTS_PER_PAGE);
-            } else {
-                hPost.put("number", COMMENTS_PER_PAGE);
-            }
+            hPost.put("number", COMMENTS_PER_PAGE);
 
             Object[] params = { blog.getRemoteBlogId(),
                                 blog.getUsername(),
                                 blog.getPassword(),
                                 hPost };
+
+            // wp.getComments can't be asked for comments before or after a date, so pages are
+            // requested by offset - when loading more, the offset is the number of comments
+            // we already have stored (all of which have been shown by now), and when refreshing
+            // we page from the newest comment until we reach the newest one we already had
+            CommentList comments = new CommentList();
+            boolean hasReachedStoredComments = false;
             try {
-                return ApiHelper.refreshComments(blog, params);
+                if (mIsLoadingMore) {
+                    hPost.put("offset", CommentTable.getCommentCountForBlog(localBlogId));
+                    return ApiHelper.refreshComments(blog, params);
+                }
+
+                String newestDate = CommentTable.getNewestCommentDate(localBlogId);
+                for (int page = 0; page < MAX_REFRESH_PAGES && !isCancelled(); page++) {
+                    hPost.put("offset", page * COMMENTS_PER_PAGE);
+                    CommentList pageComments = ApiHelper.refreshComments(blog, params);
+                    if (pageComments == null) {
+                        break;
+                    }
+                    comments.addAll(pageComments);
+                    if (pageComments.size() < COMMENTS_PER_PAGE
+                            || newestDate.isEmpty()
+                            || hasCommentNotNewerThan(pageComments, newestDate)) {
+                        hasReachedStoredComments = true;
+                        break;
+                    }
+                }
             } catch (XMLRPCFault xmlrpcFault) {
                 mErrorType = ErrorType.UNKNOWN_ERROR;
                 if (xmlrpcFault.getFaultCode() == 401) {
@@ -454,7 +495,24 @@ public class CommentsListFragment extends Fragment {
             } catch (Exception e) {
                 mErrorType = ErrorType.UNKNOWN_ERROR;
             }
-            return null;
+
+            // if the refresh stopped before it reached the comments we already had, there's a gap
+            // between them and the new ones - drop the older ones so the stored comments stay
+            // contiguous and their count remains the server offset to load more from. Pages
+            // fetched before an error have already been stored, so they're still shown.
+            if (!hasReachedStoredComments && comments.size() > 0) {
+                CommentTable.deleteCommentsForBlogOlderThan(localBlogId, comments.get(comments.size() - 1));
+            }
+            return (comments.size() > 0 ? comments : null);
+        }
+
+        private boolean hasCommentNotNewerThan(CommentList comments, String published) {
+            for (Comment comment: comments) {
+                if (comment.getPublished().compareTo(published) <= 0) {
+                    return true;
+                }
+            }
+            return false;
         }
 
         protected void onPostExecute(CommentList comments) {
@@ -486,7 +544,12 @@ public class CommentsListFragment extends Fragment {
                 }
             }
             if (!getActivity().isFinishing() && comments != null && comments.size() > 0) {
-                getCommentAdapter().loadComments();
+                // older comments are added to the end of the list, newer ones by reloading it
+                if (mIsLoadingMore) {
+                    getCommentAdapter().showMoreComments();
+                } else {
+                    getCommentAdapter().loadComments();
+                }
             }
         }
     }
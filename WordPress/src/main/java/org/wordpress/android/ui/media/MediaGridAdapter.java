@@ -21,6 +21,7 @@ import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
+import com.android.volley.VolleyError;
 import com.android.volley.toolbox.ImageLoader;
 import com.android.volley.toolbox.NetworkImageView;
 
@@ -55,6 +56,7 @@ public class MediaGridAdapter extends CursorAdapter {
     private Context mContext;
     // Must be an ArrayList (order is important for galleries)
     private ArrayList<String> mSelectedItems;
+    private final List<ImageLoader.ImageContainer> mPrefetchRequests = new ArrayList<ImageLoader.ImageContainer>();
 
     public interface MediaGridAdapterCallback {
         public void fetchMoreData(int offset);
@@ -268,7 +270,7 @@ public class MediaGridAdapter extends CursorAdapter {
         return mCallback.isInMultiSelect();
     }
 
-    private void loadNetworkImage(Cursor cursor, NetworkImageView imageView) {
+    private String getThumbnailUrl(Cursor cursor) {
         String thumbnailURL = cursor.getString(cursor.getColumnIndex("thumbnailURL"));
 
         // Allow non-private wp.com and Jetpack blogs to use photon to get a higher res thumbnail
@@ -279,6 +281,12 @@ public class MediaGridAdapter extends CursorAdapter {
             }
         }
 
+        return thumbnailURL;
+    }
+
+    private void loadNetworkImage(Cursor cursor, NetworkImageView imageView) {
+        String thumbnailURL = getThumbnailUrl(cursor);
+
         if (thumbnailURL != null) {
             Uri uri = Uri.parse(thumbnailURL);
             String filepath = uri.getLastPathSegment();
@@ -365,6 +373,55 @@ public class MediaGridAdapter extends CursorAdapter {
         task.execute(filePath);
     }
 
+    /*
+     * requests the thumbnails of the network images in [fromPosition, fromPosition + count) so
+     * they're already cached when their cells are bound - requests from the previous call are
+     * cancelled first, which only drops our listener if a visible cell is waiting on the same url
+     */
+    void prefetchThumbnails(int fromPosition, int count) {
+        cancelThumbnailPrefetch();
+
+        Cursor cursor = getCursor();
+        if (cursor == null || cursor.isClosed() || mImageLoader == null) {
+            return;
+        }
+
+        setGridItemWidth();
+        int toPosition = Math.min(fromPosition + count, mCursorDataCount);
+        for (int position = Math.max(fromPosition, 0); position < toPosition; position++) {
+            if (!cursor.moveToPosition(position)) {
+                break;
+            }
+            String state = cursor.getString(cursor.getColumnIndex("uploadState"));
+            if (MediaUtils.isLocalFile(state)) {
+                continue;
+            }
+            String thumbnailURL = getThumbnailUrl(cursor);
+            if (thumbnailURL == null || !MediaUtils.isValidImage(Uri.parse(thumbnailURL).getLastPathSegment())) {
+                continue;
+            }
+            mPrefetchRequests.add(mImageLoader.get(thumbnailURL, mPrefetchListener, mGridItemWidth, mGridItemWidth));
+        }
+    }
+
+    void cancelThumbnailPrefetch() {
+        for (ImageLoader.ImageContainer container : mPrefetchRequests) {
+            container.cancelRequest();
+        }
+        mPrefetchRequests.clear();
+    }
+
+    // the response is only wanted for the cache, but the image loader needs a listener
+    private final ImageLoader.ImageListener mPrefetchListener = new ImageLoader.ImageListener() {
+        @Override
+        public void onResponse(ImageLoader.ImageContainer response, boolean isImmediate) {
+        }
+
+        @Override
+        public void onErrorResponse(VolleyError error) {
+        }
+    };
+
     @Override
     public View newView(Context context, Cursor cursor, ViewGroup root) {
         int itemViewType = getItemViewType(cursor.getPosition());
@@ -0,0 +1,142 @@
+package org.wordpress.android.ui.media;
+
+import android.content.AsyncTaskLoader;
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Bundle;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.ui.media.MediaGridFragment.Filter;
+
+/**
+ * Loads the cursor for the media grid off the UI thread - the query is run and the cursor
+ * window filled in the background, so binding the grid never touches the database
+ */
+class MediaGridCursorLoader extends AsyncTaskLoader<Cursor> {
+    static final String ARG_BLOG_ID = "blog_id";
+    static final String ARG_FILTER = "filter";
+    static final String ARG_SEARCH_TERM = "search_term";
+    static final String ARG_START_DATE = "start_date";
+    static final String ARG_END_DATE = "end_date";
+
+    private final String mBlogId;
+    private final Filter mFilter;
+    private final String mSearchTerm;
+    private final long mStartDate;
+    private final long mEndDate;
+
+    private Cursor mCursor;
+
+    static Bundle makeArgs(String blogId, Filter filter, String searchTerm, long startDate, long endDate) {
+        Bundle args = new Bundle();
+        args.putString(ARG_BLOG_ID, blogId);
+        args.putInt(ARG_FILTER, filter.ordinal());
+        args.putString(ARG_SEARCH_TERM, searchTerm);
+        args.putLong(ARG_START_DATE, startDate);
+        args.putLong(ARG_END_DATE, endDate);
+        return args;
+    }
+
+    MediaGridCursorLoader(Context context, Bundle args) {
+        super(context);
+        mBlogId = args.getString(ARG_BLOG_ID);
+        mFilter = Filter.getFilter(args.getInt(ARG_FILTER));
+        mSearchTerm = args.getString(ARG_SEARCH_TERM);
+        mStartDate = args.getLong(ARG_START_DATE);
+        mEndDate = args.getLong(ARG_END_DATE);
+    }
+
+    Filter getFilter() {
+        return mFilter;
+    }
+
+    boolean isSearch() {
+        return mSearchTerm != null;
+    }
+
+    @Override
+    public Cursor loadInBackground() {
+        if (mBlogId == null) {
+            return null;
+        }
+
+        Cursor cursor;
+        if (isSearch()) {
+            cursor = WordPress.wpDB.getMediaFilesForBlog(mBlogId, mSearchTerm);
+        } else {
+            switch (mFilter) {
+                case IMAGES:
+                    cursor = WordPress.wpDB.getMediaImagesForBlog(mBlogId);
+                    break;
+                case UNATTACHED:
+                    cursor = WordPress.wpDB.getMediaUnattachedForBlog(mBlogId);
+                    break;
+                case CUSTOM_DATE:
+                    cursor = WordPress.wpDB.getMediaFilesForBlog(mBlogId, mStartDate, mEndDate);
+                    break;
+                default:
+                    cursor = WordPress.wpDB.getMediaFilesForBlog(mBlogId);
+                    break;
+            }
+        }
+
+        if (cursor != null) {
+            // getCount() runs the query and fills the cursor window here rather than on first bind
+            cursor.getCount();
+        }
+        return cursor;
+    }
+
+    @Override
+    public void deliverResult(Cursor cursor) {
+        if (isReset()) {
+            if (cursor != null) {
+                cursor.close();
+            }
+            return;
+        }
+
+        Cursor oldCursor = mCursor;
+        mCursor = cursor;
+
+        if (isStarted()) {
+            super.deliverResult(cursor);
+        }
+
+        if (oldCursor != null && oldCursor != cursor && !oldCursor.isClosed()) {
+            oldCursor.close();
+        }
+    }
+
+    @Override
+    protected void onStartLoading() {
+        if (mCursor != null && !mCursor.isClosed()) {
+            deliverResult(mCursor);
+        }
+        if (takeContentChanged() || mCursor == null || mCursor.isClosed()) {
+            forceLoad();
+        }
+    }
+
+    @Override
+    protected void onStopLoading() {
+        cancelLoad();
+    }
+
+    @Override
+    public void onCanceled(Cursor cursor) {
+        if (cursor != null && !cursor.isClosed()) {
+            cursor.close();
+        }
+    }
+
+    @Override
+    protected void onReset() {
+        super.onReset();
+        onStopLoading();
+        if (mCursor != null && !mCursor.isClosed()) {
+            mCursor.close();
+        }
+        mCursor = null;
+    }
+}
@@ -4,9 +4,11 @@ import android.app.Activity;
 import android.app.AlertDialog;
 import android.app.AlertDialog.Builder;
 import android.app.Fragment;
+import android.app.LoaderManager;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
+import android.content.Loader;
 import android.database.Cursor;
 import android.os.Bundle;
 import android.support.v4.widget.SwipeRefreshLayout;
@@ -18,6 +20,8 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.View.OnClickListener;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.AbsListView.OnScrollListener;
 import android.widget.AbsListView.RecyclerListener;
 import android.widget.AdapterView;
 import android.widget.AdapterView.OnItemClickListener;
@@ -58,7 +62,10 @@ import java.util.List;
  * The grid displaying the media items.
  */
 public class MediaGridFragment extends Fragment
-        implements OnItemClickListener, MediaGridAdapterCallback, RecyclerListener {
+        implements OnItemClickListener, MediaGridAdapterCallback, RecyclerListener, OnScrollListener,
+        LoaderManager.LoaderCallbacks<Cursor> {
+    private static final int MEDIA_LOADER_ID = 0;
+
     private static final String BUNDLE_SELECTED_STATES = "BUNDLE_SELECTED_STATES";
     private static final String BUNDLE_IN_MULTI_SELECT_MODE = "BUNDLE_IN_MULTI_SELECT_MODE";
     private static final String BUNDLE_SCROLL_POSITION = "BUNDLE_SCROLL_POSITION";
@@ -100,6 +107,11 @@ public class MediaGridFragment extends Fragment
     private int mStartYear, mStartMonth, mStartDay, mEndYear, mEndMonth, mEndDay;
     private AlertDialog mDatePickerDialog;
 
+    // set by refreshMediaFromDB() so the next load fetches from the server if the grid is empty
+    private boolean mFetchIfEmpty;
+    // first position of the last thumbnail prefetch, so it's only issued again when the grid moves
+    private int mPrefetchPosition = -1;
+
     public interface MediaGridListener {
         public void onMediaItemListDownloadStart();
         public void onMediaItemListDownloaded();
@@ -148,6 +160,7 @@ public class MediaGridFragment extends Fragment
         mGridView = (GridView) view.findViewById(R.id.media_gridview);
         mGridView.setOnItemClickListener(this);
         mGridView.setRecyclerListener(this);
+        mGridView.setOnScrollListener(this);
         mGridView.setMultiChoiceModeListener(new MultiChoiceModeListener());
         mGridView.setChoiceMode(GridView.CHOICE_MODE_MULTIPLE_MODAL);
         mGridView.setAdapter(mGridAdapter);
@@ -320,11 +333,8 @@ public class MediaGridFragment extends Fragment
     }
 
     public void refreshMediaFromDB() {
+        mFetchIfEmpty = true;
         setFilter(mFilter);
-        if (mGridAdapter.getDataCount() == 0 && !mHasRetrievedAllMedia && isAdded()
-                && NetworkUtils.isNetworkAvailable(getActivity())) {
-            refreshMediaFromServer(0, true);
-        }
     }
 
     public void refreshMediaFromServer(int offset, final boolean auto) {
@@ -419,11 +429,88 @@ public class MediaGridFragment extends Fragment
         Blog blog = WordPress.getCurrentBlog();
         if (blog != null) {
             String blogId = String.valueOf(blog.getLocalTableBlogId());
-            Cursor cursor = WordPress.wpDB.getMediaFilesForBlog(blogId, searchTerm);
-            mGridAdapter.changeCursor(cursor);
+            restartLoader(MediaGridCursorLoader.makeArgs(blogId, Filter.ALL, searchTerm, 0, 0));
+        }
+    }
+
+    /*
+     * all grid cursors are loaded through the loader so the query never runs on the UI thread,
+     * the result is applied in onLoadFinished()
+     */
+    private void restartLoader(Bundle args) {
+        if (!isAdded()) {
+            return;
+        }
+        getLoaderManager().restartLoader(MEDIA_LOADER_ID, args, this);
+    }
+
+    @Override
+    public Loader<Cursor> onCreateLoader(int id, Bundle args) {
+        return new MediaGridCursorLoader(getActivity(), args);
+    }
+
+    @Override
+    public void onLoadFinished(Loader<Cursor> loader, Cursor cursor) {
+        MediaGridCursorLoader mediaLoader = (MediaGridCursorLoader) loader;
+        boolean hasItems = (cursor != null && cursor.getCount() != 0);
+        mPrefetchPosition = -1;
+
+        if (mediaLoader.isSearch()) {
+            mGridAdapter.swapCursor(cursor);
+            return;
+        }
+
+        Filter filter = mediaLoader.getFilter();
+        if (filter == Filter.CUSTOM_DATE) {
+            mGridAdapter.swapCursor(cursor);
+            if (hasItems) {
+                showDateFilterResult();
+                setEmptyViewVisible(false);
+            } else {
+                mResultView.setVisibility(View.GONE);
+                setEmptyViewVisible(true, R.string.media_empty_list_custom_date);
+            }
+            return;
+        }
+
+        // always swap, the loader closes the previous cursor once this one is delivered
+        mGridAdapter.swapCursor(cursor);
+        mResultView.setVisibility(View.GONE);
+        if (hasItems) {
+            setEmptyViewVisible(false);
+        } else {
+            setEmptyViewVisible(true, R.string.media_empty_list);
+        }
+
+        if (mFetchIfEmpty) {
+            mFetchIfEmpty = false;
+            if (!hasItems && !mHasRetrievedAllMedia && NetworkUtils.isNetworkAvailable(getActivity())) {
+                refreshMediaFromServer(0, true);
+            }
         }
     }
 
+    @Override
+    public void onLoaderReset(Loader<Cursor> loader) {
+        mGridAdapter.cancelThumbnailPrefetch();
+        mGridAdapter.swapCursor(null);
+    }
+
+    @Override
+    public void onScrollStateChanged(AbsListView view, int scrollState) {
+    }
+
+    @Override
+    public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+        // warm the cache with the screen of thumbnails after the visible one
+        int nextPosition = firstVisibleItem + visibleItemCount;
+        if (visibleItemCount == 0 || nextPosition == mPrefetchPosition) {
+            return;
+        }
+        mPrefetchPosition = nextPosition;
+        mGridAdapter.prefetchThumbnails(nextPosition, visibleItemCount);
+    }
+
     @Override
     public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
         Cursor cursor = ((MediaGridAdapter) parent.getAdapter()).getCursor();
@@ -456,25 +543,14 @@ public class MediaGridFragment extends Fragment
 
     public void setFilter(Filter filter) {
         mFilter = filter;
-        Cursor cursor = filterItems(mFilter);
-        if (filter != Filter.CUSTOM_DATE || cursor == null || cursor.getCount() == 0) {
-            mResultView.setVisibility(View.GONE);
-        }
-        if (cursor != null && cursor.getCount() != 0) {
-            mGridAdapter.swapCursor(cursor);
-            setEmptyViewVisible(false);
-        } else {
-            if (filter != Filter.CUSTOM_DATE) {
-                setEmptyViewVisible(true, R.string.media_empty_list);
-            }
-        }
+        filterItems(mFilter);
     }
 
-    Cursor setDateFilter() {
+    void setDateFilter() {
         Blog blog = WordPress.getCurrentBlog();
 
         if (blog == null)
-            return null;
+            return;
 
         String blogId = String.valueOf(blog.getLocalTableBlogId());
 
@@ -482,54 +558,50 @@ public class MediaGridFragment extends Fragment
         GregorianCalendar endDate = new GregorianCalendar(mEndYear, mEndMonth, mEndDay);
 
         long one_day = 24 * 60 * 60 * 1000;
-        Cursor cursor = WordPress.wpDB.getMediaFilesForBlog(blogId, startDate.getTimeInMillis(), endDate.getTimeInMillis() + one_day);
-        mGridAdapter.swapCursor(cursor);
+        restartLoader(MediaGridCursorLoader.makeArgs(blogId, Filter.CUSTOM_DATE, null,
+                startDate.getTimeInMillis(), endDate.getTimeInMillis() + one_day));
+    }
 
-        if (cursor != null && cursor.moveToFirst()) {
-            mResultView.setVisibility(View.VISIBLE);
-            setEmptyViewVisible(false);
-            DateFormat format = DateFormat.getDateInstance();
-            String formattedStart = format.format(startDate.getTime());
-            String formattedEnd = format.format(endDate.getTime());
-            mResultView.setText(String.format(getString(R.string.media_gallery_date_range), formattedStart,
-                    formattedEnd));
-            return cursor;
-        } else {
-            setEmptyViewVisible(true, R.string.media_empty_list_custom_date);
-        }
-        return null;
+    private void showDateFilterResult() {
+        GregorianCalendar startDate = new GregorianCalendar(mStartYear, mStartMonth, mStartDay);
+        GregorianCalendar endDate = new GregorianCalendar(mEndYear, mEndMonth, mEndDay);
+
+        mResultView.setVisibility(View.VISIBLE);
+        DateFormat format = DateFormat.getDateInstance();
+        String formattedStart = format.format(startDate.getTime());
+        String formattedEnd = format.format(endDate.getTime());
+        mResultView.setText(String.format(getString(R.string.media_gallery_date_range), formattedStart,
+                formattedEnd));
     }
 
     public void clearSelectedItems() {
         mGridAdapter.clearSelection();
     }
 
-    private Cursor filterItems(Filter filter) {
+    private void filterItems(Filter filter) {
         Blog blog = WordPress.getCurrentBlog();
 
         if (blog == null)
-            return null;
+            return;
 
         String blogId = String.valueOf(blog.getLocalTableBlogId());
 
         switch (filter) {
             case ALL:
-                return WordPress.wpDB.getMediaFilesForBlog(blogId);
             case IMAGES:
-                return WordPress.wpDB.getMediaImagesForBlog(blogId);
             case UNATTACHED:
-                return WordPress.wpDB.getMediaUnattachedForBlog(blogId);
+                restartLoader(MediaGridCursorLoader.makeArgs(blogId, filter, null, 0, 0));
+                break;
             case CUSTOM_DATE:
                 // show date picker only when the user clicks on the spinner, not when we are doing syncing
                 if (mIsDateFilterSet) {
                     mIsDateFilterSet = false;
                     showDatePicker();
                 } else {
-                    return setDateFilter();
+                    setDateFilter();
                 }
                 break;
         }
-        return null;
     }
 
     void showDatePicker() {
@@ -630,7 +702,10 @@ public class MediaGridFragment extends Fragment
         mGridView.requestFocusFromTouch();
         mGridView.setSelection(0);
         mGridAdapter.setImageLoader(MediaImageLoader.getInstance());
-        mGridAdapter.changeCursor(null);
+        mGridAdapter.cancelThumbnailPrefetch();
+        // the loader owns the cursor, so swap rather than change to avoid closing it underneath the loader
+        mGridAdapter.swapCursor(null);
+        mPrefetchPosition = -1;
         resetSpinnerAdapter();
         mHasRetrievedAllMedia = false;
     }
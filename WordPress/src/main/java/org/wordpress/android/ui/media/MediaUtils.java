@@ -34,15 +34,22 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
 
 public class MediaUtils {
+    // size of each block sampled by getMediaFileContentHash()
+    private static final int CONTENT_HASH_BLOCK_SIZE = 64 * 1024;
+
     public class RequestCode {
         public static final int ACTIVITY_REQUEST_CODE_PICTURE_LIBRARY = 1000;
         public static final int ACTIVITY_REQUEST_CODE_TAKE_PHOTO = 1100;
@@ -502,4 +509,59 @@ public class MediaUtils {
 
         return fileExtensionFromMimeType.toLowerCase();
     }
+
+    /**
+     * Returns a fast content hash of a local media file - an MD5 of the file size plus the first,
+     * middle and last blocks of the file, or of the whole file when it's smaller than three blocks.
+     * Used to recognize the same file when it's inserted into several posts. Returns null if the
+     * file can't be read.
+     */
+    public static String getMediaFileContentHash(File mediaFile) {
+        if (mediaFile == null || !mediaFile.exists()) {
+            return null;
+        }
+
+        RandomAccessFile input = null;
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            long length = mediaFile.length();
+            md.update(Long.toString(length).getBytes());
+
+            input = new RandomAccessFile(mediaFile, "r");
+            byte[] block = new byte[CONTENT_HASH_BLOCK_SIZE];
+            if (length <= CONTENT_HASH_BLOCK_SIZE * 3) {
+                int read;
+                while ((read = input.read(block)) != -1) {
+                    md.update(block, 0, read);
+                }
+            } else {
+                long[] offsets = {0, (length - CONTENT_HASH_BLOCK_SIZE) / 2, length - CONTENT_HASH_BLOCK_SIZE};
+                for (long offset : offsets) {
+                    input.seek(offset);
+                    input.readFully(block);
+                    md.update(block);
+                }
+            }
+
+            String hash = new BigInteger(1, md.digest()).toString(16);
+            while (hash.length() < 32) {
+                hash = "0" + hash;
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            AppLog.e(T.UTILS, e);
+            return null;
+        } catch (IOException e) {
+            AppLog.e(T.UTILS, "unable to hash " + mediaFile.getPath(), e);
+            return null;
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    AppLog.e(T.UTILS, e);
+                }
+            }
+        }
+    }
 }
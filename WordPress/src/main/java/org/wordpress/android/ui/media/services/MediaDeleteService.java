@@ -8,6 +8,8 @@ import android.os.Handler;
 import android.os.IBinder;
 
 import org.wordpress.android.WordPress;
+import org.wordpress.android.datasets.UploadedMediaTable;
+import org.wordpress.android.util.StringUtils;
 import org.xmlrpc.android.ApiHelper;
 
 import java.util.ArrayList;
@@ -90,6 +92,7 @@ public class MediaDeleteService extends Service {
                 // only delete them once we get an ok from the server
                 if (WordPress.getCurrentBlog() != null && mediaId != null) {
                     WordPress.wpDB.deleteMediaFile(blogId, mediaId);
+                    UploadedMediaTable.deleteUploadedMedia(StringUtils.stringToInt(blogId), mediaId);
                 }
 
                 mDeleteInProgress = false;
@@ -0,0 +1,186 @@
+package org.wordpress.android.ui.notifications;
+
+import android.support.v4.util.LruCache;
+
+import com.simperium.client.Bucket;
+
+import org.wordpress.android.models.Note;
+import org.wordpress.android.ui.notifications.blocks.CommentUserNoteBlock;
+import org.wordpress.android.ui.notifications.blocks.NoteBlock;
+import org.wordpress.android.ui.notifications.blocks.NoteBlockClickableSpan;
+import org.wordpress.android.ui.notifications.blocks.UserNoteBlock;
+import org.wordpress.android.ui.notifications.utils.SimperiumUtils;
+
+import java.util.List;
+
+/**
+ * Keeps the blocks built for recently viewed notes, with their content already built, so
+ * reopening a note doesn't build them again. An entry is dropped as soon as Simperium changes
+ * or removes its note, so the cache is only used while the notes bucket can be listened to.
+ */
+class NoteBlockCache implements Bucket.Listener<Note> {
+    private static final int MAX_CACHED_NOTES = 20;
+
+    private static NoteBlockCache sInstance;
+
+    private final LruCache<String, Entry> mEntries = new LruCache<String, Entry>(MAX_CACHED_NOTES);
+    private Bucket<Note> mNotesBucket;
+
+    static class Entry {
+        final List<NoteBlock> noteBlocks;
+        final BlockListeners listeners;
+        final boolean isBadgeView;
+        final int commentListPosition;
+        final CommentUserNoteBlock commentBlock;
+
+        Entry(List<NoteBlock> noteBlocks, BlockListeners listeners, boolean isBadgeView,
+              int commentListPosition, CommentUserNoteBlock commentBlock) {
+            this.noteBlocks = noteBlocks;
+            this.listeners = listeners;
+            this.isBadgeView = isBadgeView;
+            this.commentListPosition = commentListPosition;
+            this.commentBlock = commentBlock;
+        }
+    }
+
+    /*
+     * blocks are built with these rather than with the fragment's own listeners, so cached
+     * blocks can be handed to the next fragment that shows the note without keeping a reference
+     * to the fragment that built them
+     */
+    static class BlockListeners implements NoteBlock.OnNoteBlockTextClickListener, UserNoteBlock.OnGravatarClickedListener {
+        private NoteBlock.OnNoteBlockTextClickListener mTextClickListener;
+        private UserNoteBlock.OnGravatarClickedListener mGravatarClickedListener;
+
+        synchronized void setTargets(NoteBlock.OnNoteBlockTextClickListener textClickListener,
+                                     UserNoteBlock.OnGravatarClickedListener gravatarClickedListener) {
+            mTextClickListener = textClickListener;
+            mGravatarClickedListener = gravatarClickedListener;
+        }
+
+        /*
+         * clears the targets unless another fragment has taken them over since
+         */
+        synchronized void clearTargets(NoteBlock.OnNoteBlockTextClickListener textClickListener) {
+            if (mTextClickListener == textClickListener) {
+                mTextClickListener = null;
+                mGravatarClickedListener = null;
+            }
+        }
+
+        private synchronized NoteBlock.OnNoteBlockTextClickListener getTextClickListener() {
+            return mTextClickListener;
+        }
+
+        private synchronized UserNoteBlock.OnGravatarClickedListener getGravatarClickedListener() {
+            return mGravatarClickedListener;
+        }
+
+        @Override
+        public void onNoteBlockTextClicked(NoteBlockClickableSpan clickedSpan) {
+            NoteBlock.OnNoteBlockTextClickListener listener = getTextClickListener();
+            if (listener != null) {
+                listener.onNoteBlockTextClicked(clickedSpan);
+            }
+        }
+
+        @Override
+        public void showDetailForNoteIds() {
+            NoteBlock.OnNoteBlockTextClickListener listener = getTextClickListener();
+            if (listener != null) {
+                listener.showDetailForNoteIds();
+            }
+        }
+
+        @Override
+        public void showSitePreview(long siteId, String siteUrl) {
+            NoteBlock.OnNoteBlockTextClickListener listener = getTextClickListener();
+            if (listener != null) {
+                listener.showSitePreview(siteId, siteUrl);
+            }
+        }
+
+        @Override
+        public void onGravatarClicked(long siteId, long userId, String siteUrl) {
+            UserNoteBlock.OnGravatarClickedListener listener = getGravatarClickedListener();
+            if (listener != null) {
+                listener.onGravatarClicked(siteId, userId, siteUrl);
+            }
+        }
+    }
+
+    static synchronized NoteBlockCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new NoteBlockCache();
+        }
+        return sInstance;
+    }
+
+    Entry get(String noteId) {
+        if (!isListening() || noteId == null) {
+            return null;
+        }
+        return mEntries.get(noteId);
+    }
+
+    void put(String noteId, Entry entry) {
+        if (isListening() && noteId != null) {
+            mEntries.put(noteId, entry);
+        }
+    }
+
+    void remove(String noteId) {
+        if (noteId != null) {
+            mEntries.remove(noteId);
+        }
+    }
+
+    /*
+     * makes sure we're listening to the current notes bucket, entries can't be trusted if we
+     * aren't since we'd miss changes to their notes
+     */
+    private synchronized boolean isListening() {
+        Bucket<Note> notesBucket = SimperiumUtils.getNotesBucket();
+        if (notesBucket != mNotesBucket) {
+            if (mNotesBucket != null) {
+                mNotesBucket.removeListener(this);
+            }
+            mEntries.evictAll();
+            mNotesBucket = notesBucket;
+            if (mNotesBucket != null) {
+                mNotesBucket.addListener(this);
+            }
+        }
+        return mNotesBucket != null;
+    }
+
+    /*
+     * Simperium bucket listener
+     */
+    @Override
+    public void onBeforeUpdateObject(Bucket<Note> noteBucket, Note note) {
+        if (note != null) {
+            remove(note.getSimperiumKey());
+        }
+    }
+
+    @Override
+    public void onDeleteObject(Bucket<Note> noteBucket, Note note) {
+        if (note != null) {
+            remove(note.getSimperiumKey());
+        }
+    }
+
+    @Override
+    public void onNetworkChange(Bucket<Note> noteBucket, Bucket.ChangeType changeType, String noteId) {
+        if (changeType != Bucket.ChangeType.INDEX) {
+            remove(noteId);
+        }
+    }
+
+    @Override
+    public void onSaveObject(Bucket<Note> noteBucket, Note note) {
+        // noop - local saves only change the read or moderation status, which the fragment
+        // applies to the blocks each time they're shown
+    }
+}
@@ -54,6 +54,7 @@ public class NotificationsDetailListFragment extends ListFragment implements Not
     private CommentUserNoteBlock.OnCommentStatusChangeListener mOnCommentStatusChangeListener;
     private OnNoteChangeListener mOnNoteChangeListener;
     private NoteBlockAdapter mNoteBlockAdapter;
+    private NoteBlockCache.BlockListeners mNoteBlockListeners;
 
     public NotificationsDetailListFragment() {
     }
@@ -110,6 +111,15 @@ public class NotificationsDetailListFragment extends ListFragment implements Not
         super.onPause();
     }
 
+    @Override
+    public void onDestroy() {
+        if (mNoteBlockListeners != null) {
+            mNoteBlockListeners.clearTargets(mOnNoteBlockTextClickListener);
+        }
+
+        super.onDestroy();
+    }
+
     @Override
     public Note getNote() {
         return mNote;
@@ -190,28 +200,41 @@ public class NotificationsDetailListFragment extends ListFragment implements Not
     }
 
 
-    // Loop through the 'body' items in this note, and create blocks for each.
-    private class LoadNoteBlocksTask extends AsyncTask<Void, Boolean, List<NoteBlock>> {
-
-        private boolean mIsBadgeView;
+    // Loop through the 'body' items in this note, and create blocks for each - blocks are built
+    // with their content in the background, and kept in NoteBlockCache until the note changes
+    private class LoadNoteBlocksTask extends AsyncTask<Void, Boolean, NoteBlockCache.Entry> {
 
         @Override
-        protected List<NoteBlock> doInBackground(Void... params) {
+        protected NoteBlockCache.Entry doInBackground(Void... params) {
             if (mNote == null) return null;
 
-            JSONArray bodyArray = mNote.getBody();
+            NoteBlockCache.Entry entry = NoteBlockCache.getInstance().get(mNote.getId());
+            if (entry == null) {
+                entry = buildNoteBlocks(mNote);
+                NoteBlockCache.getInstance().put(mNote.getId(), entry);
+            }
+
+            return entry;
+        }
+
+        private NoteBlockCache.Entry buildNoteBlocks(Note note) {
+            NoteBlockCache.BlockListeners listeners = new NoteBlockCache.BlockListeners();
+            JSONArray bodyArray = note.getBody();
             final List<NoteBlock> noteList = new ArrayList<>();
+            boolean isBadgeView = false;
+            int commentListPosition = ListView.INVALID_POSITION;
+            CommentUserNoteBlock commentBlock = null;
 
             // Add the note header if one was provided
-            if (mNote.getHeader() != null) {
+            if (note.getHeader() != null) {
                 HeaderUserNoteBlock headerNoteBlock = new HeaderUserNoteBlock(
                         getActivity(),
-                        mNote.getHeader(),
-                        mOnNoteBlockTextClickListener,
-                        mOnGravatarClickedListener
+                        note.getHeader(),
+                        listeners,
+                        listeners
                 );
 
-                headerNoteBlock.setIsComment(mNote.isCommentType());
+                headerNoteBlock.setIsComment(note.isCommentType());
                 noteList.add(headerNoteBlock);
             }
 
@@ -224,10 +247,10 @@ public class NotificationsDetailListFragment extends ListFragment implements Not
                         String noteBlockTypeString = JSONUtil.queryJSON(noteObject, "type", "");
 
                         if (NoteBlockRangeType.fromString(noteBlockTypeString) == NoteBlockRangeType.USER) {
-                            if (mNote.isCommentType()) {
+                            if (note.isCommentType()) {
                                 // Set comment position so we can target it later
                                 // See refreshBlocksForCommentStatus()
-                                mCommentListPosition = i + noteList.size();
+                                commentListPosition = i + noteList.size();
 
                                 // We'll snag the next body array item for comment user blocks
                                 if (i + 1 < bodyArray.length()) {
@@ -237,42 +260,37 @@ public class NotificationsDetailListFragment extends ListFragment implements Not
                                 }
 
                                 // Add timestamp to block for display
-                                noteObject.put("timestamp", mNote.getTimestamp());
+                                noteObject.put("timestamp", note.getTimestamp());
 
-                                noteBlock = new CommentUserNoteBlock(
+                                commentBlock = new CommentUserNoteBlock(
                                         getActivity(),
                                         noteObject,
-                                        mOnNoteBlockTextClickListener,
-                                        mOnGravatarClickedListener
+                                        listeners,
+                                        listeners
                                 );
-
-                                // Set listener for comment status changes, so we can update bg and text colors
-                                CommentUserNoteBlock commentUserNoteBlock = (CommentUserNoteBlock)noteBlock;
-                                mOnCommentStatusChangeListener = commentUserNoteBlock.getOnCommentChangeListener();
-                                commentUserNoteBlock.setCommentStatus(mNote.getCommentStatus());
-                                commentUserNoteBlock.configureResources(getActivity());
+                                noteBlock = commentBlock;
                             } else {
                                 noteBlock = new UserNoteBlock(
                                         getActivity(),
                                         noteObject,
-                                        mOnNoteBlockTextClickListener,
-                                        mOnGravatarClickedListener
+                                        listeners,
+                                        listeners
                                 );
                             }
                         } else {
-                            noteBlock = new NoteBlock(noteObject, mOnNoteBlockTextClickListener);
+                            noteBlock = new NoteBlock(noteObject, listeners);
                         }
 
                         // Badge notifications apply different colors and formatting
-                        if (isAdded() && noteBlock.containsBadgeMediaType()) {
-                            mIsBadgeView = true;
-                            mBackgroundColor = getActivity().getResources().getColor(R.color.transparent);
+                        if (noteBlock.containsBadgeMediaType()) {
+                            isBadgeView = true;
                         }
 
-                        if (mIsBadgeView) {
+                        if (isBadgeView) {
                             noteBlock.setIsBadge();
                         }
 
+                        noteBlock.preloadContent();
                         noteList.add(noteBlock);
                     } catch (JSONException e) {
                         AppLog.e(AppLog.T.NOTIFS, "Invalid note data, could not parse.");
@@ -280,22 +298,34 @@ public class NotificationsDetailListFragment extends ListFragment implements Not
                 }
             }
 
-            return noteList;
+            return new NoteBlockCache.Entry(noteList, listeners, isBadgeView, commentListPosition, commentBlock);
         }
 
         @Override
-        protected void onPostExecute(List<NoteBlock> noteList) {
-            if (!isAdded() || noteList == null) return;
+        protected void onPostExecute(NoteBlockCache.Entry entry) {
+            if (!isAdded() || entry == null) return;
+
+            mNoteBlockListeners = entry.listeners;
+            mNoteBlockListeners.setTargets(mOnNoteBlockTextClickListener, mOnGravatarClickedListener);
+            mCommentListPosition = entry.commentListPosition;
+
+            if (entry.commentBlock != null) {
+                // Set listener for comment status changes, so we can update bg and text colors
+                mOnCommentStatusChangeListener = entry.commentBlock.getOnCommentChangeListener();
+                entry.commentBlock.setCommentStatus(mNote.getCommentStatus());
+                entry.commentBlock.configureResources(getActivity());
+            }
 
-            if (mIsBadgeView) {
+            if (entry.isBadgeView) {
+                mBackgroundColor = getResources().getColor(R.color.transparent);
                 mRootLayout.setGravity(Gravity.CENTER_VERTICAL);
             }
 
             if (!hasNoteBlockAdapter()) {
-                mNoteBlockAdapter = new NoteBlockAdapter(getActivity(), noteList, mBackgroundColor);
+                mNoteBlockAdapter = new NoteBlockAdapter(getActivity(), entry.noteBlocks, mBackgroundColor);
                 setListAdapter(mNoteBlockAdapter);
             } else {
-                mNoteBlockAdapter.setNoteList(noteList);
+                mNoteBlockAdapter.setNoteList(entry.noteBlocks);
             }
         }
     }
@@ -346,6 +376,9 @@ public class NotificationsDetailListFragment extends ListFragment implements Not
                 return;
             }
 
+            // Make sure the blocks are rebuilt for the changed note
+            NoteBlockCache.getInstance().remove(noteId);
+
             try {
                 mNote = noteBucket.get(noteId);
 
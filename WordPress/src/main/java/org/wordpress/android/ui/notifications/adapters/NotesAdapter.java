@@ -2,6 +2,7 @@ package org.wordpress.android.ui.notifications.adapters;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.support.v4.util.LruCache;
 import android.support.v7.widget.RecyclerView;
 import android.text.Html;
 import android.text.TextUtils;
@@ -37,6 +38,21 @@ public class NotesAdapter extends CursorRecyclerViewAdapter<NotesAdapter.NoteVie
     private final List<String> mHiddenNoteIds = new ArrayList<String>();
     private final List<String> mModeratingNoteIds = new ArrayList<String>();
 
+    // subjects are indexed as html, so the spans parsed from them are kept rather than
+    // parsing the html again each time a row is bound
+    private static final int MAX_CACHED_SUBJECTS = 100;
+    private final LruCache<String, CharSequence> mSubjectCache = new LruCache<String, CharSequence>(MAX_CACHED_SUBJECTS);
+
+    // column positions of the indexes shown in the list, looked up once per cursor
+    private int mTimestampColumn = -1;
+    private int mSubjectColumn = -1;
+    private int mSnippetColumn = -1;
+    private int mUnreadColumn = -1;
+    private int mIconUrlColumn = -1;
+    private int mNoticonColumn = -1;
+    private int mIsUnapprovedColumn = -1;
+    private int mLocalStatusColumn = -1;
+
     private Context mContext;
 
     NotificationsListFragment.OnNoteClickListener mOnNoteClickListener;
@@ -116,28 +132,57 @@ public class NotesAdapter extends CursorRecyclerViewAdapter<NotesAdapter.NoteVie
         notifyDataSetChanged();
     }
 
-    private String getStringForColumnName(Cursor cursor, String columnName) {
-        if (columnName == null || cursor == null || cursor.getColumnIndex(columnName) == -1) {
+    @Override
+    public Cursor swapCursor(Cursor newCursor) {
+        if (newCursor != null) {
+            mTimestampColumn = newCursor.getColumnIndex(Note.Schema.TIMESTAMP_INDEX);
+            mSubjectColumn = newCursor.getColumnIndex(Note.Schema.SUBJECT_INDEX);
+            mSnippetColumn = newCursor.getColumnIndex(Note.Schema.SNIPPET_INDEX);
+            mUnreadColumn = newCursor.getColumnIndex(Note.Schema.UNREAD_INDEX);
+            mIconUrlColumn = newCursor.getColumnIndex(Note.Schema.ICON_URL_INDEX);
+            mNoticonColumn = newCursor.getColumnIndex(Note.Schema.NOTICON_INDEX);
+            mIsUnapprovedColumn = newCursor.getColumnIndex(Note.Schema.IS_UNAPPROVED_INDEX);
+            mLocalStatusColumn = newCursor.getColumnIndex(Note.Schema.LOCAL_STATUS);
+        }
+        return super.swapCursor(newCursor);
+    }
+
+    private String getStringForColumn(Cursor cursor, int column) {
+        if (cursor == null || column == -1) {
             return "";
         }
 
-        return StringUtils.notNullStr(cursor.getString(cursor.getColumnIndex(columnName)));
+        return StringUtils.notNullStr(cursor.getString(column));
     }
 
-    private int getIntForColumnName(Cursor cursor, String columnName) {
-        if (columnName == null || cursor == null || cursor.getColumnIndex(columnName) == -1) {
+    private int getIntForColumn(Cursor cursor, int column) {
+        if (cursor == null || column == -1) {
             return -1;
         }
 
-        return cursor.getInt(cursor.getColumnIndex(columnName));
+        return cursor.getInt(column);
     }
 
-    private long getLongForColumnName(Cursor cursor, String columnName) {
-        if (columnName == null || cursor == null || cursor.getColumnIndex(columnName) == -1) {
+    private long getLongForColumn(Cursor cursor, int column) {
+        if (cursor == null || column == -1) {
             return -1;
         }
 
-        return cursor.getLong(cursor.getColumnIndex(columnName));
+        return cursor.getLong(column);
+    }
+
+    /*
+     * returns the spanned subject for the passed subject html, parsing it only the first time
+     */
+    private CharSequence getSubjectSpanned(String noteSubjectHtml) {
+        CharSequence noteSubjectSpanned = mSubjectCache.get(noteSubjectHtml);
+        if (noteSubjectSpanned == null) {
+            noteSubjectSpanned = Html.fromHtml(noteSubjectHtml);
+            // Trim the '\n\n' added by Html.fromHtml()
+            noteSubjectSpanned = noteSubjectSpanned.subSequence(0, TextUtils.getTrimmedLength(noteSubjectSpanned));
+            mSubjectCache.put(noteSubjectHtml, noteSubjectSpanned);
+        }
+        return noteSubjectSpanned;
     }
 
     public int getCount() {
@@ -160,12 +205,12 @@ public class NotesAdapter extends CursorRecyclerViewAdapter<NotesAdapter.NoteVie
         final Bucket.ObjectCursor<Note> objectCursor = (Bucket.ObjectCursor<Note>) cursor;
         final String noteId = objectCursor.getSimperiumKey();
 
-                // Display group header
-        Note.NoteTimeGroup timeGroup = Note.getTimeGroupForTimestamp(getLongForColumnName(objectCursor, Note.Schema.TIMESTAMP_INDEX));
+        // Display group header
+        Note.NoteTimeGroup timeGroup = Note.getTimeGroupForTimestamp(getLongForColumn(objectCursor, mTimestampColumn));
 
         Note.NoteTimeGroup previousTimeGroup = null;
         if (objectCursor.getPosition() > 0 && objectCursor.moveToPrevious()) {
-            previousTimeGroup = Note.getTimeGroupForTimestamp(getLongForColumnName(objectCursor, Note.Schema.TIMESTAMP_INDEX));
+            previousTimeGroup = Note.getTimeGroupForTimestamp(getLongForColumn(objectCursor, mTimestampColumn));
             objectCursor.moveToNext();
         }
 
@@ -195,11 +240,11 @@ public class NotesAdapter extends CursorRecyclerViewAdapter<NotesAdapter.NoteVie
         }
 
         CommentStatus commentStatus = CommentStatus.UNKNOWN;
-        if (SqlUtils.sqlToBool(getIntForColumnName(objectCursor, Note.Schema.IS_UNAPPROVED_INDEX))) {
+        if (SqlUtils.sqlToBool(getIntForColumn(objectCursor, mIsUnapprovedColumn))) {
             commentStatus = CommentStatus.UNAPPROVED;
         }
 
-        String localStatus = getStringForColumnName(objectCursor, Note.Schema.LOCAL_STATUS);
+        String localStatus = getStringForColumn(objectCursor, mLocalStatusColumn);
         if (!TextUtils.isEmpty(localStatus)) {
             commentStatus = CommentStatus.fromString(localStatus);
         }
@@ -211,13 +256,10 @@ public class NotesAdapter extends CursorRecyclerViewAdapter<NotesAdapter.NoteVie
         }
 
         // Subject is stored in db as html to preserve text formatting
-        String noteSubjectHtml = getStringForColumnName(objectCursor, Note.Schema.SUBJECT_INDEX).trim();
-        CharSequence noteSubjectSpanned = Html.fromHtml(noteSubjectHtml);
-        // Trim the '\n\n' added by Html.fromHtml()
-        noteSubjectSpanned = noteSubjectSpanned.subSequence(0, TextUtils.getTrimmedLength(noteSubjectSpanned));
-        noteViewHolder.txtLabel.setText(noteSubjectSpanned);
+        String noteSubjectHtml = getStringForColumn(objectCursor, mSubjectColumn).trim();
+        noteViewHolder.txtLabel.setText(getSubjectSpanned(noteSubjectHtml));
 
-        String noteSnippet = getStringForColumnName(objectCursor, Note.Schema.SNIPPET_INDEX);
+        String noteSnippet = getStringForColumn(objectCursor, mSnippetColumn);
         if (!TextUtils.isEmpty(noteSnippet)) {
             noteViewHolder.txtLabel.setMaxLines(2);
             noteViewHolder.txtDetail.setText(noteSnippet);
@@ -227,12 +269,12 @@ public class NotesAdapter extends CursorRecyclerViewAdapter<NotesAdapter.NoteVie
             noteViewHolder.txtDetail.setVisibility(View.GONE);
         }
 
-        String avatarUrl = PhotonUtils.fixAvatar(getStringForColumnName(objectCursor, Note.Schema.ICON_URL_INDEX), mAvatarSz);
+        String avatarUrl = PhotonUtils.fixAvatar(getStringForColumn(objectCursor, mIconUrlColumn), mAvatarSz);
         noteViewHolder.imgAvatar.setImageUrl(avatarUrl, WPNetworkImageView.ImageType.AVATAR);
 
-        boolean isUnread = SqlUtils.sqlToBool(getIntForColumnName(objectCursor, Note.Schema.UNREAD_INDEX));
+        boolean isUnread = SqlUtils.sqlToBool(getIntForColumn(objectCursor, mUnreadColumn));
 
-        String noticonCharacter = getStringForColumnName(objectCursor, Note.Schema.NOTICON_INDEX);
+        String noticonCharacter = getStringForColumn(objectCursor, mNoticonColumn);
         if (!TextUtils.isEmpty(noticonCharacter)) {
             noteViewHolder.noteIcon.setText(noticonCharacter);
             if (commentStatus == CommentStatus.UNAPPROVED) {
@@ -1,6 +1,7 @@
 package org.wordpress.android.ui.notifications.blocks;
 
 import android.content.Context;
+import android.text.Spannable;
 import android.text.TextUtils;
 import android.view.View;
 import android.widget.TextView;
@@ -26,6 +27,8 @@ public class CommentUserNoteBlock extends UserNoteBlock {
 
     private boolean mStatusChanged;
 
+    private Spannable mCommentText;
+
     public interface OnCommentStatusChangeListener {
         public void onCommentStatusChanged(CommentStatus newStatus);
     }
@@ -82,12 +85,7 @@ public class CommentUserNoteBlock extends UserNoteBlock {
             noteBlockHolder.avatarImageView.setOnTouchListener(null);
         }
 
-        noteBlockHolder.commentTextView.setText(
-                NotificationsUtils.getSpannableContentFromIndices(
-                    getNoteData().optJSONObject("comment_text"),
-                    noteBlockHolder.commentTextView,
-                    getOnNoteBlockTextClickListener())
-        );
+        noteBlockHolder.commentTextView.setText(getCommentText(noteBlockHolder.commentTextView));
 
         // Change display based on comment status and type:
         // 1. Comment replies are indented and have a 'pipe' background
@@ -189,6 +187,39 @@ public class CommentUserNoteBlock extends UserNoteBlock {
         }
     }
 
+    /*
+     * comments with media need the TextView their image spans are loaded into, so only the
+     * text of comments without media can be built ahead of time
+     */
+    private boolean hasCommentMedia() {
+        JSONObject commentText = getNoteData().optJSONObject("comment_text");
+        return commentText != null && commentText.has("media");
+    }
+
+    private synchronized Spannable getCommentText(TextView textView) {
+        if (hasCommentMedia()) {
+            return NotificationsUtils.getSpannableContentFromIndices(
+                    getNoteData().optJSONObject("comment_text"),
+                    textView,
+                    getOnNoteBlockTextClickListener());
+        }
+        if (mCommentText == null) {
+            mCommentText = NotificationsUtils.getSpannableContentFromIndices(
+                    getNoteData().optJSONObject("comment_text"),
+                    null,
+                    getOnNoteBlockTextClickListener());
+        }
+        return mCommentText;
+    }
+
+    @Override
+    public void preloadContent() {
+        super.preloadContent();
+        if (!hasCommentMedia()) {
+            getCommentText(null);
+        }
+    }
+
     public void configureResources(Context context) {
         if (context == null) return;
 
@@ -40,6 +40,7 @@ public class NoteBlock {
     private final JSONObject mNoteData;
     private final OnNoteBlockTextClickListener mOnNoteBlockTextClickListener;
     private JSONObject mMediaItem;
+    private Spannable mNoteText;
     private boolean mIsBadge;
     private boolean mHasAnimatedBadge;
     private int mBackgroundColor;
@@ -67,8 +68,22 @@ public class NoteBlock {
         return mNoteData;
     }
 
-    Spannable getNoteText() {
-        return NotificationsUtils.getSpannableContentFromIndices(mNoteData, null, mOnNoteBlockTextClickListener);
+    /*
+     * the text is built once and reused each time the block is bound, see preloadContent()
+     */
+    synchronized Spannable getNoteText() {
+        if (mNoteText == null) {
+            mNoteText = NotificationsUtils.getSpannableContentFromIndices(mNoteData, null, mOnNoteBlockTextClickListener);
+        }
+        return mNoteText;
+    }
+
+    /**
+     * Builds the block's content ahead of time - call from a background thread so binding the
+     * block doesn't have to walk its ranges and create its spans on the UI thread
+     */
+    public void preloadContent() {
+        getNoteText();
     }
 
     public String getMetaHomeTitle() {
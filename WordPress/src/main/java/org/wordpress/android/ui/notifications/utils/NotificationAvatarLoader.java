@@ -0,0 +1,218 @@
+package org.wordpress.android.ui.notifications.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.ImageLoader;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.wordpress.android.util.StringUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Loads the avatars shown as the large icon of push notifications. Avatars are looked up in the
+ * app's bitmap cache, then in a small store on disk (the same few people tend to comment on
+ * and like a user's posts), and only then fetched through the app's ImageLoader - which also
+ * means a burst of notifications from the same person results in a single request.
+ */
+public class NotificationAvatarLoader {
+    public interface AvatarListener {
+        // called on the main thread, at most once and never after the fetch has timed out
+        void onAvatarLoaded(Bitmap avatar);
+    }
+
+    private static final String AVATAR_DIR = "notification_avatars";
+    private static final String MEMORY_CACHE_KEY_PREFIX = "notification-avatar:";
+    private static final int MAX_STORED_AVATARS = 50;
+    private static final long FETCH_TIMEOUT_MS = 10000;
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    private static String getMemoryCacheKey(String url) {
+        return MEMORY_CACHE_KEY_PREFIX + url;
+    }
+
+    private static File getAvatarDir(Context context) {
+        return new File(context.getCacheDir(), AVATAR_DIR);
+    }
+
+    private static File getAvatarFile(Context context, String url) {
+        return new File(getAvatarDir(context), StringUtils.getMd5Hash(url) + ".png");
+    }
+
+    /**
+     * Returns the avatar at the passed url if it's in memory or on disk, without touching the
+     * network - call from a background thread since it may read from disk
+     */
+    public static Bitmap getCachedAvatar(Context context, String url) {
+        if (context == null || TextUtils.isEmpty(url)) {
+            return null;
+        }
+
+        Bitmap bitmap = WordPress.getBitmapCache().getBitmap(getMemoryCacheKey(url));
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        File file = getAvatarFile(context, url);
+        if (file.exists()) {
+            bitmap = BitmapFactory.decodeFile(file.getPath());
+            if (bitmap != null) {
+                WordPress.getBitmapCache().putBitmap(getMemoryCacheKey(url), bitmap);
+                // keep recently used avatars from being trimmed
+                file.setLastModified(System.currentTimeMillis());
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Fetches the avatar at the passed url through the app's ImageLoader and stores it for next
+     * time - the listener isn't called if the fetch fails or takes longer than FETCH_TIMEOUT_MS
+     */
+    public static void fetchAvatar(Context context, final String url, final int size, final AvatarListener listener) {
+        if (context == null || TextUtils.isEmpty(url) || WordPress.imageLoader == null) {
+            return;
+        }
+
+        final Context appContext = context.getApplicationContext();
+        // ImageLoader must be used on the main thread
+        sMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                new AvatarFetch(appContext, url, size, listener).start();
+            }
+        });
+    }
+
+    private static class AvatarFetch implements ImageLoader.ImageListener, Runnable {
+        private final Context mContext;
+        private final String mUrl;
+        private final int mSize;
+        private final AvatarListener mListener;
+        private ImageLoader.ImageContainer mContainer;
+        private boolean mIsDone;
+
+        AvatarFetch(Context context, String url, int size, AvatarListener listener) {
+            mContext = context;
+            mUrl = url;
+            mSize = size;
+            mListener = listener;
+        }
+
+        void start() {
+            sMainHandler.postDelayed(this, FETCH_TIMEOUT_MS);
+            mContainer = WordPress.imageLoader.get(mUrl, this, mSize, mSize);
+        }
+
+        /*
+         * fetch timed out
+         */
+        @Override
+        public void run() {
+            if (mIsDone) {
+                return;
+            }
+            mIsDone = true;
+            AppLog.w(T.NOTIFS, "timed out fetching notification avatar");
+            if (mContainer != null) {
+                mContainer.cancelRequest();
+            }
+        }
+
+        @Override
+        public void onResponse(ImageLoader.ImageContainer response, boolean isImmediate) {
+            final Bitmap bitmap = response.getBitmap();
+            // an immediate response without a bitmap just means the request has started
+            if (mIsDone || bitmap == null) {
+                return;
+            }
+            mIsDone = true;
+            sMainHandler.removeCallbacks(this);
+
+            WordPress.getBitmapCache().putBitmap(getMemoryCacheKey(mUrl), bitmap);
+            AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    storeAvatar(mContext, mUrl, bitmap);
+                }
+            });
+
+            if (mListener != null) {
+                mListener.onAvatarLoaded(bitmap);
+            }
+        }
+
+        @Override
+        public void onErrorResponse(VolleyError error) {
+            if (mIsDone) {
+                return;
+            }
+            mIsDone = true;
+            sMainHandler.removeCallbacks(this);
+            AppLog.w(T.NOTIFS, "unable to fetch notification avatar");
+        }
+    }
+
+    private static void storeAvatar(Context context, String url, Bitmap bitmap) {
+        File dir = getAvatarDir(context);
+        if (!dir.exists() && !dir.mkdirs()) {
+            AppLog.w(T.NOTIFS, "unable to create notification avatar directory");
+            return;
+        }
+
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(getAvatarFile(context, url));
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            AppLog.e(T.NOTIFS, e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    AppLog.e(T.NOTIFS, e);
+                }
+            }
+        }
+
+        trimStore(dir);
+    }
+
+    /*
+     * removes the least recently used avatars once there are more than MAX_STORED_AVATARS
+     */
+    private static void trimStore(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null || files.length <= MAX_STORED_AVATARS) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long lhsModified = lhs.lastModified();
+                long rhsModified = rhs.lastModified();
+                return (lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1));
+            }
+        });
+        for (int i = 0; i < files.length - MAX_STORED_AVATARS; i++) {
+            if (!files[i].delete()) {
+                AppLog.w(T.NOTIFS, "unable to delete notification avatar " + files[i].getName());
+            }
+        }
+    }
+}
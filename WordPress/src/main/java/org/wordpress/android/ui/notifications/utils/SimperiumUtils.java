@@ -15,6 +15,7 @@ import com.simperium.client.BucketObject;
 import com.simperium.client.User;
 
 import org.wordpress.android.BuildConfig;
+import org.wordpress.android.WordPress;
 import org.wordpress.android.models.Note;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.StringUtils;
@@ -26,15 +27,38 @@ public class SimperiumUtils {
     private static Bucket<Note> mNotesBucket;
     private static Bucket<BucketObject> mMetaBucket;
 
+    /*
+     * Simperium is configured once the main thread is idle after launch, make sure that's happened
+     */
+    private static void ensureConfigured() {
+        WordPress.ensureStartupTask(WordPress.STARTUP_TASK_SIMPERIUM);
+    }
+
     public static Bucket<Note> getNotesBucket() {
+        ensureConfigured();
         return mNotesBucket;
     }
 
     public static Bucket<BucketObject> getMetaBucket() {
+        ensureConfigured();
         return mMetaBucket;
     }
 
-    public static Simperium configureSimperium(final Context context, String token) {
+    /*
+     * used by the deferred startup task, which configures Simperium with the stored token - does
+     * nothing if a login has already configured it, since that may have used a newer token
+     */
+    public static synchronized void configureSimperiumIfNeeded(Context context, String token) {
+        if (mSimperium == null) {
+            configureSimperium(context, token);
+        }
+    }
+
+    /*
+     * synchronized since logins and the deferred startup task may configure Simperium at the
+     * same time
+     */
+    public static synchronized Simperium configureSimperium(final Context context, String token) {
         // Create a new instance of Simperium if it doesn't exist yet.
         // In any case, authorize the user.
         if (mSimperium == null) {
@@ -91,12 +115,14 @@ public class SimperiumUtils {
     }
 
     public static boolean isUserAuthorized() {
+        ensureConfigured();
         return mSimperium != null &&
                 mSimperium.getUser() != null &&
                 mSimperium.getUser().getStatus() == User.Status.AUTHORIZED;
     }
 
     public static boolean isUserNotAuthorized() {
+        ensureConfigured();
         return mSimperium != null &&
                 mSimperium.getUser() != null &&
                 mSimperium.getUser().getStatus() == User.Status.NOT_AUTHORIZED;
@@ -113,6 +139,7 @@ public class SimperiumUtils {
     }
 
     public static void resetBucketsAndDeauthorize() {
+        ensureConfigured();
         if (mNotesBucket != null) {
             mNotesBucket.reset();
         }
@@ -3,6 +3,7 @@ package org.wordpress.android.ui.posts;
 import android.app.Fragment;
 import android.app.FragmentManager;
 import android.content.Intent;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.support.v13.app.FragmentPagerAdapter;
 import android.support.v4.view.ViewPager;
@@ -30,8 +31,6 @@ import org.wordpress.android.widgets.WPViewPager;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
 
 public class EditPostActivity extends ActionBarActivity {
     public static final String EXTRA_POSTID = "postId";
@@ -46,8 +45,7 @@ public class EditPostActivity extends ActionBarActivity {
     private static int PAGE_SETTINGS = 1;
     private static int PAGE_PREVIEW = 2;
 
-    private static final int AUTOSAVE_INTERVAL_MILLIS = 10000;
-    private Timer mAutoSaveTimer;
+    private PostDraftWriter mDraftWriter;
 
     /**
      * The {@link android.support.v4.view.PagerAdapter} that will provide
@@ -72,6 +70,7 @@ public class EditPostActivity extends ActionBarActivity {
     private EditPostPreviewFragment mEditPostPreviewFragment;
 
     private boolean mIsNewPost;
+    private RecoverDraftTask mRecoverDraftTask;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -118,6 +117,10 @@ public class EditPostActivity extends ActionBarActivity {
                 mIsNewPost = extras.getBoolean(EXTRA_IS_NEW_POST);
                 mPost = WordPress.wpDB.getPostForLocalTablePostId(localTablePostId);
                 mOriginalPost = WordPress.wpDB.getPostForLocalTablePostId(localTablePostId);
+                // pick up edits that were journaled but never saved because the app was killed
+                if (PostDraftWriter.hasDraftToRecover(this, mPost)) {
+                    mRecoverDraftTask = new RecoverDraftTask();
+                }
             } else {
                 // A postId extra must be passed to this activity
                 showErrorAndFinish(R.string.post_not_found);
@@ -148,6 +151,24 @@ public class EditPostActivity extends ActionBarActivity {
             trackEditorCreatedPost(action, getIntent());
         }
 
+        // the editor is set up once the recovered draft has been written and reloaded
+        if (mRecoverDraftTask != null) {
+            mRecoverDraftTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        } else {
+            setupEditor();
+        }
+        ActivityId.trackLastActivity(this, ActivityId.POST_EDITOR);
+    }
+
+    private void setupEditor() {
+        mDraftWriter = new PostDraftWriter(this, mPost, new PostDraftWriter.SnapshotProvider() {
+            @Override
+            public Post takeSnapshot() {
+                updatePostObject(true);
+                return mPost;
+            }
+        });
+
         setTitle(StringUtils.unescapeHTML(WordPress.getCurrentBlog().getBlogName()));
 
         mSectionsPagerAdapter = new SectionsPagerAdapter(getFragmentManager());
@@ -178,31 +199,61 @@ public class EditPostActivity extends ActionBarActivity {
                 }
             }
         });
-        ActivityId.trackLastActivity(this, ActivityId.POST_EDITOR);
     }
 
-    class AutoSaveTask extends TimerTask {
-        public void run() {
-            savePost(true);
+    /*
+     * writes the edits journaled for the post to the db, then sets up the editor with the
+     * updated post
+     */
+    private class RecoverDraftTask extends AsyncTask<Void, Void, Post> {
+        @Override
+        protected Post doInBackground(Void... params) {
+            if (PostDraftWriter.recoverDraft(EditPostActivity.this, mPost)) {
+                return WordPress.wpDB.getPostForLocalTablePostId(mPost.getLocalTablePostId());
+            }
+            return null;
+        }
+
+        @Override
+        protected void onPostExecute(Post recoveredPost) {
+            mRecoverDraftTask = null;
+            if (isFinishing()) {
+                return;
+            }
+            if (recoveredPost != null) {
+                mPost = recoveredPost;
+            }
+            setupEditor();
         }
     }
 
-    @Override
-    protected void onResume() {
-        super.onResume();
-        mAutoSaveTimer = new Timer();
-        mAutoSaveTimer.scheduleAtFixedRate(new AutoSaveTask(), AUTOSAVE_INTERVAL_MILLIS, AUTOSAVE_INTERVAL_MILLIS);
+    /*
+     * called by the editor fragments when the post is edited, the post is saved in the
+     * background once the edits pause
+     */
+    void onPostEdited() {
+        if (mDraftWriter != null) {
+            mDraftWriter.onPostEdited();
+        }
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        mAutoSaveTimer.cancel();
+        if (mDraftWriter != null && !isFinishing()) {
+            savePost(true);
+        }
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (mRecoverDraftTask != null) {
+            mRecoverDraftTask.cancel(false);
+        }
+        if (mDraftWriter != null) {
+            mDraftWriter.close();
+        }
         AnalyticsTracker.track(AnalyticsTracker.Stat.EDITOR_CLOSED_POST);
     }
 
@@ -210,7 +261,9 @@ public class EditPostActivity extends ActionBarActivity {
     protected void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
         // Saves both post objects so we can restore them in onCreate()
-        savePost(true);
+        if (mDraftWriter != null) {
+            savePost(true);
+        }
         outState.putSerializable(STATE_KEY_CURRENT_POST, mPost);
         outState.putSerializable(STATE_KEY_ORIGINAL_POST, mOriginalPost);
     }
@@ -297,6 +350,14 @@ public class EditPostActivity extends ActionBarActivity {
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         int itemId = item.getItemId();
+        if (mDraftWriter == null) {
+            // still recovering the draft, there's nothing to save yet
+            if (itemId == android.R.id.home) {
+                finish();
+                return true;
+            }
+            return false;
+        }
         if (itemId == R.id.menu_save_post) {
             // If the post is new and there are no changes, don't publish
             updatePostObject(false);
@@ -380,16 +441,29 @@ public class EditPostActivity extends ActionBarActivity {
         savePost(isAutosave, true);
     }
 
+    /*
+     * autosaves are written in the background, other saves wait for the write since they're
+     * followed by leaving the editor or uploading the post
+     */
     private void savePost(boolean isAutosave, boolean updatePost) {
         if (updatePost) {
             updatePostObject(isAutosave);
         }
 
-        WordPress.wpDB.updatePost(mPost);
+        if (isAutosave) {
+            mDraftWriter.save(mPost);
+        } else {
+            mDraftWriter.saveAndWait(mPost);
+        }
     }
 
     @Override
     public void onBackPressed() {
+        if (mDraftWriter == null) {
+            super.onBackPressed();
+            return;
+        }
+
         if (mViewPager.getCurrentItem() > PAGE_CONTENT) {
             mViewPager.setCurrentItem(PAGE_CONTENT);
             invalidateOptionsMenu();
@@ -410,10 +484,12 @@ public class EditPostActivity extends ActionBarActivity {
         if (mEditPostContentFragment != null && mEditPostContentFragment.hasEmptyContentFields()) {
             // new and empty post? delete it
             if (mIsNewPost) {
+                mDraftWriter.discard();
                 WordPress.wpDB.deletePost(mPost);
             }
         } else if (mOriginalPost != null && !mPost.hasChanges(mOriginalPost)) {
             // if no changes have been made to the post, set it back to the original don't save it
+            mDraftWriter.discard();
             WordPress.wpDB.updatePost(mOriginalPost);
             WordPress.currentPost = mOriginalPost;
         } else {
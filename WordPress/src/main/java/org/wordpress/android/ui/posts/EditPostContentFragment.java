@@ -82,6 +82,7 @@ import org.wordpress.android.util.DisplayUtils;
 import org.wordpress.android.util.ImageUtils;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.WPHtml;
+import org.wordpress.android.util.WPHtmlParagraphCache;
 import org.wordpress.android.widgets.MediaGalleryImageSpan;
 import org.wordpress.android.widgets.WPEditText;
 import org.wordpress.android.widgets.WPImageSpan;
@@ -132,6 +133,9 @@ public class EditPostContentFragment extends Fragment implements TextWatcher,
 
     private float mLastYPos = 0;
 
+    // html of unchanged lines, so saving a local draft only re-serializes what was edited
+    private final WPHtmlParagraphCache mHtmlCache = new WPHtmlParagraphCache();
+
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         mActivity = (EditPostActivity) getActivity();
@@ -174,6 +178,9 @@ public class EditPostContentFragment extends Fragment implements TextWatcher,
         mContentEditText.setOnSelectionChangedListener(this);
         mContentEditText.setOnTouchListener(this);
         mContentEditText.addTextChangedListener(this);
+        mContentEditText.addTextChangedListener(mHtmlCache);
+        mContentEditText.addTextChangedListener(mPostEditedWatcher);
+        mTitleEditText.addTextChangedListener(mPostEditedWatcher);
         mContentEditText.setOnEditTextImeBackListener(new WPEditText.EditTextImeBackListener() {
             @Override
             public void onImeBack(WPEditText ctrl, String text) {
@@ -539,7 +546,7 @@ public class EditPostContentFragment extends Fragment implements TextWatcher,
                     postContentEditable.removeSpan(characterStyle);
                 }
             }
-            content = WPHtml.toHtml(postContentEditable);
+            content = WPHtml.toHtml(postContentEditable, mHtmlCache);
             // replace duplicate <p> tags so there's not duplicates, trac #86
             content = content.replace("<p><p>", "<p>");
             content = content.replace("</p></p>", "</p>");
@@ -559,8 +566,10 @@ public class EditPostContentFragment extends Fragment implements TextWatcher,
                 }
             }
 
+            // media is only pushed to the server and saved on manual saves, autosaves happen whenever
+            // typing pauses and only need the content
             WPImageSpan[] imageSpans = postContentEditable.getSpans(0, postContentEditable.length(), WPImageSpan.class);
-            if (imageSpans.length != 0) {
+            if (imageSpans.length != 0 && !isAutoSave) {
                 for (WPImageSpan wpIS : imageSpans) {
                     MediaFile mediaFile = wpIS.getMediaFile();
                     if (mediaFile == null)
@@ -1467,6 +1476,22 @@ public class EditPostContentFragment extends Fragment implements TextWatcher,
         return false;
     }
 
+    // lets the activity know the post needs saving, it's saved once the edits pause
+    private final TextWatcher mPostEditedWatcher = new TextWatcher() {
+        @Override
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+
+        @Override
+        public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+        @Override
+        public void afterTextChanged(Editable s) {
+            if (mActivity != null) {
+                mActivity.onPostEdited();
+            }
+        }
+    };
+
     @Override
     public void afterTextChanged(Editable s) {
         int position = Selection.getSelectionStart(mContentEditText.getText());
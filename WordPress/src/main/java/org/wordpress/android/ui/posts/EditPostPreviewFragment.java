@@ -22,6 +22,11 @@ public class EditPostPreviewFragment extends Fragment {
     private WebView mWebView;
     private TextView mTextView;
 
+    // the last local draft preview, reused as long as the post content hasn't changed since
+    private String mPreviewSource;
+    private int mPreviewImageWidth;
+    private Spanned mPreviewSpanned;
+
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
@@ -75,12 +80,24 @@ public class EditPostPreviewFragment extends Fragment {
             String postContent = postTitle + post.getDescription() + "\n\n" + post.getMoreText();
 
             if (post.isLocalDraft()) {
+                int maxImageWidth = Math.min(mTextView.getWidth(), mTextView.getHeight());
+                synchronized (EditPostPreviewFragment.this) {
+                    if (mPreviewSpanned != null && maxImageWidth == mPreviewImageWidth
+                            && postContent.equals(mPreviewSource)) {
+                        return mPreviewSpanned;
+                    }
+                }
                 contentSpannable = WPHtml.fromHtml(
                         postContent.replaceAll("\uFFFC", ""),
                         getActivity(),
                         post,
-                        Math.min(mTextView.getWidth(), mTextView.getHeight())
+                        maxImageWidth
                 );
+                synchronized (EditPostPreviewFragment.this) {
+                    mPreviewSource = postContent;
+                    mPreviewImageWidth = maxImageWidth;
+                    mPreviewSpanned = contentSpannable;
+                }
             } else {
                 String htmlText = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?><html><head><link rel=\"stylesheet\" type=\"text/css\" href=\"webview.css\" /></head><body><div id=\"container\">%s</div></body></html>";
                 htmlText = String.format(htmlText, StringUtils.addPTags(postContent));
@@ -0,0 +1,306 @@
+package org.wordpress.android.ui.posts;
+
+import android.content.ContentValues;
+import android.content.Context;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.wordpress.android.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only journal of the changes made to a post in the editor since its row was last
+ * written to the db. The first line identifies the row contents the journal applies to, each
+ * following line is one change to one column - text columns are journaled as the edited range
+ * rather than the whole value, so appending stays cheap for long posts.
+ *
+ * The journal is compacted by writing the row and starting a new journal on top of it. If the
+ * app dies before that happens, recover() replays the journal onto the row the next time the
+ * post is opened.
+ */
+class PostDraftJournal {
+    private static final String JOURNAL_DIR = "post_drafts";
+    private static final String JOURNAL_PREFIX = "post-";
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private static final String KEY_BASE = "base";
+    private static final String KEY_COLUMN = "c";
+    private static final String KEY_VALUE = "v";
+    private static final String KEY_OFFSET = "o";
+    private static final String KEY_DELETE_COUNT = "d";
+    private static final String KEY_TEXT = "t";
+
+    private final File mFile;
+    private Writer mWriter;
+    private int mEntryCount;
+
+    PostDraftJournal(Context context, long localTablePostId) {
+        mFile = getJournalFile(context, localTablePostId);
+    }
+
+    private static File getJournalDir(Context context) {
+        return new File(context.getFilesDir(), JOURNAL_DIR);
+    }
+
+    private static File getJournalFile(Context context, long localTablePostId) {
+        File dir = getJournalDir(context);
+        if (!dir.exists() && !dir.mkdirs()) {
+            AppLog.w(T.POSTS, "unable to create post draft journal directory");
+        }
+        return new File(dir, JOURNAL_PREFIX + localTablePostId + JOURNAL_SUFFIX);
+    }
+
+    static boolean exists(Context context, long localTablePostId) {
+        return getJournalFile(context, localTablePostId).exists();
+    }
+
+    static void delete(Context context, long localTablePostId) {
+        deleteFile(getJournalFile(context, localTablePostId));
+    }
+
+    /*
+     * returns the ids of the posts that have a journal
+     */
+    static List<Long> getJournaledPostIds(Context context) {
+        List<Long> postIds = new ArrayList<Long>();
+        String[] fileNames = getJournalDir(context).list();
+        if (fileNames == null) {
+            return postIds;
+        }
+        for (String fileName : fileNames) {
+            if (fileName.startsWith(JOURNAL_PREFIX) && fileName.endsWith(JOURNAL_SUFFIX)) {
+                String id = fileName.substring(JOURNAL_PREFIX.length(), fileName.length() - JOURNAL_SUFFIX.length());
+                try {
+                    postIds.add(Long.parseLong(id));
+                } catch (NumberFormatException e) {
+                    AppLog.w(T.POSTS, "unexpected file in post draft journal directory " + fileName);
+                }
+            }
+        }
+        return postIds;
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            AppLog.w(T.POSTS, "unable to delete post draft journal " + file.getName());
+        }
+    }
+
+    int getEntryCount() {
+        return mEntryCount;
+    }
+
+    /*
+     * starts a new journal on top of the passed row contents, dropping existing entries
+     */
+    void reset(ContentValues base) throws IOException {
+        close();
+        mWriter = new OutputStreamWriter(new FileOutputStream(mFile, false), "UTF-8");
+        mEntryCount = 0;
+        try {
+            JSONObject header = new JSONObject();
+            header.put(KEY_BASE, getBaseHash(base));
+            writeLine(header);
+        } catch (JSONException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /*
+     * journals each column that differs between oldValues and newValues
+     */
+    void append(ContentValues oldValues, ContentValues newValues) throws IOException {
+        if (mWriter == null) {
+            throw new IOException("journal isn't open");
+        }
+        try {
+            for (Map.Entry<String, Object> entry : newValues.valueSet()) {
+                String column = entry.getKey();
+                Object newValue = entry.getValue();
+                Object oldValue = oldValues.get(column);
+                if (oldValues.containsKey(column) && valuesEqual(oldValue, newValue)) {
+                    continue;
+                }
+
+                JSONObject line = new JSONObject();
+                line.put(KEY_COLUMN, column);
+                if (oldValue instanceof String && newValue instanceof String) {
+                    putTextEdit(line, (String) oldValue, (String) newValue);
+                } else {
+                    line.put(KEY_VALUE, newValue == null ? JSONObject.NULL : newValue);
+                }
+                writeLine(line);
+                mEntryCount++;
+            }
+            // the entries are only worth something if they survive the app being killed
+            mWriter.flush();
+        } catch (JSONException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    void close() {
+        if (mWriter != null) {
+            try {
+                mWriter.close();
+            } catch (IOException e) {
+                AppLog.e(T.POSTS, e);
+            }
+            mWriter = null;
+        }
+    }
+
+    void delete() {
+        close();
+        mEntryCount = 0;
+        deleteFile(mFile);
+    }
+
+    private void writeLine(JSONObject line) throws IOException {
+        mWriter.write(line.toString());
+        mWriter.write('\n');
+    }
+
+    /*
+     * the edited range is whatever lies between the common prefix and common suffix
+     */
+    private static void putTextEdit(JSONObject line, String oldText, String newText) throws JSONException {
+        int maxPrefix = Math.min(oldText.length(), newText.length());
+        int prefix = 0;
+        while (prefix < maxPrefix && oldText.charAt(prefix) == newText.charAt(prefix)) {
+            prefix++;
+        }
+        int maxSuffix = maxPrefix - prefix;
+        int suffix = 0;
+        while (suffix < maxSuffix
+                && oldText.charAt(oldText.length() - 1 - suffix) == newText.charAt(newText.length() - 1 - suffix)) {
+            suffix++;
+        }
+
+        line.put(KEY_OFFSET, prefix);
+        line.put(KEY_DELETE_COUNT, oldText.length() - prefix - suffix);
+        line.put(KEY_TEXT, newText.substring(prefix, newText.length() - suffix));
+    }
+
+    private static boolean valuesEqual(Object a, Object b) {
+        return (a == null ? b == null : a.equals(b));
+    }
+
+    private static String getBaseHash(ContentValues values) {
+        List<String> columns = new ArrayList<String>();
+        for (Map.Entry<String, Object> entry : values.valueSet()) {
+            columns.add(entry.getKey());
+        }
+        Collections.sort(columns);
+
+        StringBuilder sb = new StringBuilder();
+        for (String column : columns) {
+            sb.append(column).append('=').append(values.get(column)).append('\n');
+        }
+        return StringUtils.getMd5Hash(sb.toString());
+    }
+
+    /**
+     * Replays the journal left behind for a post onto the passed row contents, returning the
+     * columns that changed or null if there's nothing to recover. The journal is ignored if it
+     * was started on top of different row contents, and replay stops at the first entry that
+     * can't be read (ie: the app was killed while it was being written). A journal that has
+     * nothing to recover is deleted.
+     */
+    static ContentValues recover(Context context, long localTablePostId, ContentValues base) {
+        File file = getJournalFile(context, localTablePostId);
+        if (!file.exists()) {
+            return null;
+        }
+
+        ContentValues values = new ContentValues(base);
+        ContentValues changed = new ContentValues();
+        BufferedReader reader = null;
+        boolean isStale = false;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+            String line = reader.readLine();
+            if (line == null || !getBaseHash(base).equals(new JSONObject(line).optString(KEY_BASE))) {
+                AppLog.w(T.POSTS, "deleting post draft journal for a different version of the post");
+                isStale = true;
+                return null;
+            }
+
+            while ((line = reader.readLine()) != null) {
+                JSONObject entry;
+                try {
+                    entry = new JSONObject(line);
+                } catch (JSONException e) {
+                    AppLog.w(T.POSTS, "post draft journal ends with an incomplete entry");
+                    break;
+                }
+
+                String column = entry.getString(KEY_COLUMN);
+                if (entry.has(KEY_OFFSET)) {
+                    String text = StringUtils.notNullStr(values.getAsString(column));
+                    int offset = entry.getInt(KEY_OFFSET);
+                    int end = offset + entry.getInt(KEY_DELETE_COUNT);
+                    if (offset < 0 || end > text.length()) {
+                        AppLog.w(T.POSTS, "post draft journal doesn't match the post, stopping replay");
+                        break;
+                    }
+                    String newText = text.substring(0, offset) + entry.getString(KEY_TEXT) + text.substring(end);
+                    values.put(column, newText);
+                    changed.put(column, newText);
+                } else {
+                    putValue(values, column, entry.get(KEY_VALUE));
+                    putValue(changed, column, entry.get(KEY_VALUE));
+                }
+            }
+        } catch (IOException e) {
+            AppLog.e(T.POSTS, e);
+        } catch (JSONException e) {
+            AppLog.e(T.POSTS, e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    AppLog.e(T.POSTS, e);
+                }
+            }
+            if (isStale) {
+                deleteFile(file);
+            }
+        }
+
+        if (changed.size() == 0) {
+            deleteFile(file);
+            return null;
+        }
+        return changed;
+    }
+
+    private static void putValue(ContentValues values, String column, Object value) {
+        if (value == null || value == JSONObject.NULL) {
+            values.putNull(column);
+        } else if (value instanceof Boolean) {
+            values.put(column, (Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long) {
+            values.put(column, ((Number) value).longValue());
+        } else if (value instanceof Number) {
+            values.put(column, ((Number) value).doubleValue());
+        } else {
+            values.put(column, value.toString());
+        }
+    }
+}
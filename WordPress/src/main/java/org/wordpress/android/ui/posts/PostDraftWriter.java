@@ -0,0 +1,303 @@
+package org.wordpress.android.ui.posts;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.models.Post;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Persists the post being edited without blocking the editor on SQLite. Edits are coalesced:
+ * a snapshot of the post is taken once typing pauses for SNAPSHOT_DELAY_MS (or at the latest
+ * SNAPSHOT_MAX_DELAY_MS after the first unsaved edit), and appended to a PostDraftJournal on a
+ * single background writer. The journal is compacted into the posts table every
+ * COMPACT_INTERVAL_MS or COMPACT_MAX_ENTRIES entries, writing only the columns that changed.
+ *
+ * All writes for a post go through the one writer thread, so they land in the order they were
+ * requested. A crash loses at most the edits made since the last snapshot.
+ */
+class PostDraftWriter {
+    interface SnapshotProvider {
+        /*
+         * called on the main thread - updates the post from the editor and returns it
+         */
+        Post takeSnapshot();
+    }
+
+    private static final long SNAPSHOT_DELAY_MS = 2000;
+    private static final long SNAPSHOT_MAX_DELAY_MS = 10000;
+    private static final long COMPACT_INTERVAL_MS = 30000;
+    private static final int COMPACT_MAX_ENTRIES = 50;
+
+    private final Post mPost;
+    private final SnapshotProvider mSnapshotProvider;
+    private final PostDraftJournal mJournal;
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    // only touched on the writer thread
+    private ContentValues mDbValues;
+    private ContentValues mJournaledValues;
+    private long mLastCompactTime;
+
+    // only touched on the main thread
+    private long mFirstPendingEditTime;
+    private boolean mIsClosed;
+
+    private final Runnable mSnapshotRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mFirstPendingEditTime = 0;
+            Post post = mSnapshotProvider.takeSnapshot();
+            if (post != null) {
+                enqueue(WordPress.wpDB.getPostUpdateValues(post), false);
+            }
+        }
+    };
+
+    // orphaned journals are swept the first time the editor is opened
+    private static boolean sHasDeletedOrphanedJournals;
+
+    /**
+     * Returns true if a journal was left behind for the post by a crash - cheap enough to call
+     * on the main thread, unlike recoverDraft()
+     */
+    static boolean hasDraftToRecover(Context context, Post post) {
+        return post != null && PostDraftJournal.exists(context, post.getLocalTablePostId());
+    }
+
+    /**
+     * Recovers any journal left behind for the post by a crash, writing it to the db - returns
+     * true if the post's row was changed, in which case the caller should reload it. Must be
+     * called off the main thread.
+     */
+    static boolean recoverDraft(Context context, Post post) {
+        if (post == null) {
+            return false;
+        }
+        ContentValues recovered = PostDraftJournal.recover(context, post.getLocalTablePostId(),
+                WordPress.wpDB.getPostUpdateValues(post));
+        if (recovered == null) {
+            return false;
+        }
+        AppLog.i(T.POSTS, "recovered unsaved changes to post " + post.getLocalTablePostId());
+        return WordPress.wpDB.updatePostValues(post, recovered) > 0;
+    }
+
+    PostDraftWriter(Context context, Post post, SnapshotProvider snapshotProvider) {
+        mPost = post;
+        mSnapshotProvider = snapshotProvider;
+        mJournal = new PostDraftJournal(context.getApplicationContext(), post.getLocalTablePostId());
+
+        final Context appContext = context.getApplicationContext();
+        final boolean deleteOrphanedJournals = !sHasDeletedOrphanedJournals;
+        sHasDeletedOrphanedJournals = true;
+
+        final ContentValues values = WordPress.wpDB.getPostUpdateValues(post);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (deleteOrphanedJournals) {
+                    deleteOrphanedJournals(appContext);
+                }
+                // the post passed in may be newer than its row (ie: restored from saved state),
+                // so changes are tracked against what's actually stored
+                Post storedPost = WordPress.wpDB.getPostForLocalTablePostId(mPost.getLocalTablePostId());
+                mDbValues = (storedPost != null ? WordPress.wpDB.getPostUpdateValues(storedPost) : values);
+                mJournaledValues = new ContentValues(mDbValues);
+                mLastCompactTime = SystemClock.elapsedRealtime();
+                resetJournal();
+            }
+        });
+    }
+
+    /**
+     * Call on the main thread whenever the post is edited - the snapshot is taken after the
+     * edits pause, so a burst of keystrokes results in a single journal entry
+     */
+    void onPostEdited() {
+        if (mIsClosed) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (mFirstPendingEditTime == 0) {
+            mFirstPendingEditTime = now;
+        }
+        long delay = Math.min(SNAPSHOT_DELAY_MS, mFirstPendingEditTime + SNAPSHOT_MAX_DELAY_MS - now);
+        mHandler.removeCallbacks(mSnapshotRunnable);
+        mHandler.postDelayed(mSnapshotRunnable, Math.max(0, delay));
+    }
+
+    /**
+     * Writes the passed post to the db in the background, after any pending writes
+     */
+    Future<?> save(Post post) {
+        mHandler.removeCallbacks(mSnapshotRunnable);
+        mFirstPendingEditTime = 0;
+        return enqueue(WordPress.wpDB.getPostUpdateValues(post), true);
+    }
+
+    /**
+     * Writes the passed post to the db and waits for it to be written - used when leaving the
+     * editor, where the rest of the app expects the post to be saved
+     */
+    void saveAndWait(Post post) {
+        waitFor(save(post));
+    }
+
+    /**
+     * Waits for pending writes, then drops the journal without compacting it - used when the
+     * post is about to be reverted or deleted
+     */
+    void discard() {
+        if (mIsClosed) {
+            return;
+        }
+        mIsClosed = true;
+        mHandler.removeCallbacks(mSnapshotRunnable);
+        mFirstPendingEditTime = 0;
+        waitFor(mExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                mJournal.delete();
+            }
+        }));
+    }
+
+    /**
+     * Finishes pending writes in the background and stops the writer, the journal is removed
+     * once everything in it has been written to the db
+     */
+    void close() {
+        mHandler.removeCallbacks(mSnapshotRunnable);
+        if (mExecutor.isShutdown()) {
+            return;
+        }
+        // a discarded journal has already been dropped
+        if (!mIsClosed) {
+            mIsClosed = true;
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (mJournal.getEntryCount() > 0) {
+                        compact();
+                    }
+                    mJournal.delete();
+                }
+            });
+        }
+        mExecutor.shutdown();
+    }
+
+    private Future<?> enqueue(final ContentValues values, final boolean compactNow) {
+        if (mIsClosed) {
+            return null;
+        }
+        return mExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mJournal.append(mJournaledValues, values);
+                    mJournaledValues = values;
+                } catch (IOException e) {
+                    // without a journal the only way to keep the edit is to write it now
+                    AppLog.e(T.POSTS, e);
+                    mJournaledValues = values;
+                    compact();
+                    return;
+                }
+
+                if (compactNow
+                        || mJournal.getEntryCount() >= COMPACT_MAX_ENTRIES
+                        || SystemClock.elapsedRealtime() - mLastCompactTime >= COMPACT_INTERVAL_MS) {
+                    compact();
+                }
+            }
+        });
+    }
+
+    /*
+     * writes the columns that changed since the last compaction and starts a new journal
+     */
+    private void compact() {
+        ContentValues changed = new ContentValues();
+        for (Map.Entry<String, Object> entry : mJournaledValues.valueSet()) {
+            String column = entry.getKey();
+            Object value = entry.getValue();
+            Object dbValue = mDbValues.get(column);
+            if (!mDbValues.containsKey(column) || (value == null ? dbValue != null : !value.equals(dbValue))) {
+                copyValue(mJournaledValues, changed, column);
+            }
+        }
+
+        if (changed.size() > 0) {
+            WordPress.wpDB.updatePostValues(mPost, changed);
+        }
+
+        mDbValues = new ContentValues(mJournaledValues);
+        mLastCompactTime = SystemClock.elapsedRealtime();
+        resetJournal();
+    }
+
+    /*
+     * journals for posts that have since been deleted will never be recovered
+     */
+    private static void deleteOrphanedJournals(Context context) {
+        for (long localTablePostId : PostDraftJournal.getJournaledPostIds(context)) {
+            if (WordPress.wpDB.getPostForLocalTablePostId(localTablePostId) == null) {
+                AppLog.i(T.POSTS, "deleting post draft journal for deleted post " + localTablePostId);
+                PostDraftJournal.delete(context, localTablePostId);
+            }
+        }
+    }
+
+    private void resetJournal() {
+        try {
+            mJournal.reset(mDbValues);
+        } catch (IOException e) {
+            AppLog.e(T.POSTS, e);
+        }
+    }
+
+    private static void copyValue(ContentValues from, ContentValues to, String column) {
+        Object value = from.get(column);
+        if (value == null) {
+            to.putNull(column);
+        } else if (value instanceof Boolean) {
+            to.put(column, (Boolean) value);
+        } else if (value instanceof Long) {
+            to.put(column, (Long) value);
+        } else if (value instanceof Integer) {
+            to.put(column, (Integer) value);
+        } else if (value instanceof Double) {
+            to.put(column, (Double) value);
+        } else {
+            to.put(column, value.toString());
+        }
+    }
+
+    private static void waitFor(Future<?> future) {
+        if (future == null) {
+            return;
+        }
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            AppLog.e(T.POSTS, e);
+        }
+    }
+}
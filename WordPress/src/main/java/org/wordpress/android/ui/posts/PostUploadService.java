@@ -28,6 +28,7 @@ import org.wordpress.android.Constants;
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.analytics.AnalyticsTracker;
+import org.wordpress.android.datasets.UploadedMediaTable;
 import org.wordpress.android.models.Blog;
 import org.wordpress.android.models.FeatureSet;
 import org.wordpress.android.models.MediaFile;
@@ -49,7 +50,6 @@ import org.xmlrpc.android.XMLRPCFactory;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
@@ -519,6 +519,7 @@ public class PostUploadService extends Service {
             String fileExtension = MimeTypeMap.getFileExtensionFromUrl(fileName).toLowerCase();
 
             int orientation = ImageUtils.getImageOrientation(mContext, path);
+            String contentHash = MediaUtils.getMediaFileContentHash(imageFile);
 
             String resizedPictureURL = null;
 
@@ -528,66 +529,67 @@ public class PostUploadService extends Service {
             boolean shouldUploadResizedVersion = false;
             // If it's not a gif and blog don't keep original size, there is a chance we need to resize
             if (!mimeType.equals("image/gif") && !mBlog.getMaxImageWidth().equals("Original Size")) {
-                //check the picture settings
+                // check the picture settings - only resize when the image is wider than the selected
+                // width, the resize never scales up
                 int pictureSettingWidth = mediaFile.getWidth();
                 BitmapFactory.Options options = new BitmapFactory.Options();
                 options.inJustDecodeBounds = true;
                 BitmapFactory.decodeFile(path, options);
-                int imageHeight = options.outHeight;
-                int imageWidth = options.outWidth;
-                int[] dimensions = {imageWidth, imageHeight};
-                if (dimensions[0] != 0 && dimensions[0] != pictureSettingWidth) {
+                boolean isSideways = (orientation == 90 || orientation == 270);
+                int imageWidth = isSideways ? options.outHeight : options.outWidth;
+                if (imageWidth != 0 && pictureSettingWidth > 0 && imageWidth > pictureSettingWidth) {
                     shouldUploadResizedVersion = true;
                 }
             }
 
             boolean shouldAddImageWidthCSS = false;
 
+            String resizedVariant = UploadedMediaTable.getVariantForWidth(mediaFile.getWidth());
+            UploadedMediaTable.UploadedMedia uploadedResized = null;
             if (shouldUploadResizedVersion) {
+                uploadedResized = UploadedMediaTable.getUploadedMedia(mBlog.getLocalTableBlogId(), contentHash,
+                        resizedVariant);
+            }
+
+            if (uploadedResized != null) {
+                // this file was already resized and uploaded to the blog, no need to do it again
+                resizedPictureURL = getPictureUrl(mediaFile, uploadedResized.remoteUrl, uploadedResized.remoteMediaId);
+            } else if (shouldUploadResizedVersion) {
                 MediaFile resizedMediaFile = new MediaFile(mediaFile);
-                // Create resized image
-                byte[] bytes = ImageUtils.createThumbnailFromUri(mContext, imageUri, resizedMediaFile.getWidth(),
-                        fileExtension, orientation);
+                // Create resized image, streamed straight to a temp file
+                File resizedImageFile;
+                try {
+                    resizedImageFile = createTempUploadFile(fileExtension);
+                } catch (IOException e) {
+                    AppLog.w(T.POSTS, "failed to create image temp file");
+                    mErrorMessage = mContext.getString(R.string.error_media_upload);
+                    return null;
+                }
+
+                boolean isResized = ImageUtils.resizeImageToFile(mContext, imageUri, resizedMediaFile.getWidth(),
+                        fileExtension, orientation, resizedImageFile);
 
-                if (bytes == null) {
+                if (!isResized) {
                     // We weren't able to resize the image, so we will upload the full size image with css to resize it
+                    resizedImageFile.delete();
                     shouldUploadResizedVersion = false;
                     shouldAddImageWidthCSS = true;
                 } else {
-                    // Save temp image
-                    String tempFilePath;
-                    File resizedImageFile;
-                    try {
-                        resizedImageFile = File.createTempFile("wp-image-", fileExtension);
-                        FileOutputStream out = new FileOutputStream(resizedImageFile);
-                        out.write(bytes);
-                        out.close();
-                        tempFilePath = resizedImageFile.getPath();
-                    } catch (IOException e) {
-                        AppLog.w(T.POSTS, "failed to create image temp file");
-                        mErrorMessage = mContext.getString(R.string.error_media_upload);
-                        return null;
-                    }
-
                     // upload resized picture
-                    if (!TextUtils.isEmpty(tempFilePath)) {
-                        resizedMediaFile.setFilePath(tempFilePath);
-                        Map<String, Object> parameters = new HashMap<String, Object>();
-
-                        parameters.put("name", fileName);
-                        parameters.put("type", mimeType);
-                        parameters.put("bits", resizedMediaFile);
-                        parameters.put("overwrite", true);
-                        resizedPictureURL = uploadImageFile(parameters, resizedMediaFile, mBlog);
-                        if (resizedPictureURL == null) {
-                            AppLog.w(T.POSTS, "failed to upload resized picture");
-                            return null;
-                        } else if (resizedImageFile.exists()) {
-                            resizedImageFile.delete();
-                        }
-                    } else {
-                        AppLog.w(T.POSTS, "failed to create resized picture");
-                        mErrorMessage = mContext.getString(R.string.out_of_memory);
+                    resizedMediaFile.setFilePath(resizedImageFile.getPath());
+                    Map<String, Object> parameters = new HashMap<String, Object>();
+
+                    parameters.put("name", fileName);
+                    parameters.put("type", mimeType);
+                    parameters.put("bits", resizedMediaFile);
+                    parameters.put("overwrite", true);
+                    resizedPictureURL = uploadImageFile(parameters, resizedMediaFile, mBlog, contentHash,
+                            resizedVariant);
+                    if (resizedImageFile.exists()) {
+                        resizedImageFile.delete();
+                    }
+                    if (resizedPictureURL == null) {
+                        AppLog.w(T.POSTS, "failed to upload resized picture");
                         return null;
                     }
                 }
@@ -602,7 +604,8 @@ public class PostUploadService extends Service {
                 parameters.put("bits", mediaFile);
                 parameters.put("overwrite", true);
 
-                fullSizeUrl = uploadImageFile(parameters, mediaFile, mBlog);
+                fullSizeUrl = uploadImageFile(parameters, mediaFile, mBlog, contentHash,
+                        UploadedMediaTable.VARIANT_ORIGINAL);
                 if (fullSizeUrl == null) {
                     mErrorMessage = mContext.getString(R.string.error_media_upload);
                     return null;
@@ -736,7 +739,16 @@ public class PostUploadService extends Service {
             AppLog.e(T.EDITOR, mErrorMessage, e);
         }
 
-        private String uploadImageFile(Map<String, Object> pictureParams, MediaFile mf, Blog blog) {
+        private String uploadImageFile(Map<String, Object> pictureParams, MediaFile mf, Blog blog,
+                                       String contentHash, String variant) {
+            // reuse the remote copy if this exact file was already uploaded to the blog, either from
+            // another post or by an earlier attempt which failed later on
+            UploadedMediaTable.UploadedMedia uploadedMedia =
+                    UploadedMediaTable.getUploadedMedia(blog.getLocalTableBlogId(), contentHash, variant);
+            if (uploadedMedia != null) {
+                AppLog.d(T.POSTS, "reusing uploaded media " + uploadedMedia.remoteUrl);
+                return getPictureUrl(mf, uploadedMedia.remoteUrl, uploadedMedia.remoteMediaId);
+            }
 
             // create temporary upload file
             File tempFile;
@@ -756,16 +768,26 @@ public class PostUploadService extends Service {
                 return null;
             }
 
-            Map<?, ?> contentHash = (HashMap<?, ?>) result;
-            String pictureURL = contentHash.get("url").toString();
+            Map<?, ?> resultMap = (HashMap<?, ?>) result;
+            String pictureURL = resultMap.get("url").toString();
+            String remoteMediaId = (resultMap.get("id") != null ? resultMap.get("id").toString() : null);
 
-            if (mf.isFeatured()) {
+            UploadedMediaTable.setUploadedMedia(blog.getLocalTableBlogId(), contentHash, variant, pictureURL,
+                    remoteMediaId);
+
+            return getPictureUrl(mf, pictureURL, remoteMediaId);
+        }
+
+        /*
+         * returns the url to insert in the post for an uploaded picture, or an empty string if it's
+         * a featured image which shouldn't appear in the post content
+         */
+        private String getPictureUrl(MediaFile mf, String pictureURL, String remoteMediaId) {
+            if (mf.isFeatured() && remoteMediaId != null) {
                 try {
-                    if (contentHash.get("id") != null) {
-                        featuredImageID = Integer.parseInt(contentHash.get("id").toString());
-                        if (!mf.isFeaturedInPost())
-                            return "";
-                    }
+                    featuredImageID = Integer.parseInt(remoteMediaId);
+                    if (!mf.isFeaturedInPost())
+                        return "";
                 } catch (NumberFormatException e) {
                     AppLog.e(T.POSTS, e);
                 }
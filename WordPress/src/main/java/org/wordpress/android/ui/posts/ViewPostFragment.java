@@ -25,14 +25,13 @@ import android.widget.TextView;
 
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
-import org.wordpress.android.datasets.SuggestionTable;
 import org.wordpress.android.models.Post;
 import org.wordpress.android.models.PostStatus;
-import org.wordpress.android.models.Suggestion;
 import org.wordpress.android.ui.WPWebViewActivity;
 import org.wordpress.android.ui.comments.CommentActions;
 import org.wordpress.android.ui.suggestion.adapters.SuggestionAdapter;
 import org.wordpress.android.ui.suggestion.service.SuggestionService;
+import org.wordpress.android.ui.suggestion.util.SuggestionIndex;
 import org.wordpress.android.ui.suggestion.util.SuggestionServiceConnectionManager;
 import org.wordpress.android.ui.suggestion.util.SuggestionUtils;
 import org.wordpress.android.util.EditTextUtils;
@@ -43,7 +42,6 @@ import org.wordpress.android.util.WPHtml;
 import org.wordpress.android.util.WPWebViewClient;
 import org.wordpress.android.widgets.SuggestionAutoCompleteText;
 
-import java.util.List;
 
 public class ViewPostFragment extends Fragment {
     /** Called when the activity is first created. */
@@ -86,8 +84,7 @@ public class ViewPostFragment extends Fragment {
             int remoteBlogId = WordPress.getCurrentRemoteBlogId();
             // check if the updated suggestions are for the current blog and update the suggestions
             if (updatedBlogId != 0 && remoteBlogId == updatedBlogId) {
-                List<Suggestion> suggestions = SuggestionTable.getSuggestionsForSite(remoteBlogId);
-                mSuggestionAdapter.setSuggestionList(suggestions);
+                mSuggestionAdapter.setSuggestionIndex(SuggestionIndex.getForSite(remoteBlogId));
             }
         }
     };
@@ -4,6 +4,8 @@ import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
 import android.text.TextUtils;
 
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.ReaderTag;
 import org.wordpress.android.models.ReaderTagType;
@@ -26,6 +28,14 @@ public class AppPrefs {
 
         // email retrieved and attached to mixpanel profile
         MIXPANEL_EMAIL_ADDRESS_RETRIEVED,
+
+        // server comment counts for each blog when comments deleted on the server were last
+        // removed locally, stored as a json object keyed by local blog id
+        DELETED_COMMENTS_CHECKED_COUNTS,
+
+        // time each blog's media library was last checked against the server's media manifest,
+        // stored as a json object keyed by local blog id
+        MEDIA_MANIFEST_CHECKED_TIMES,
     }
 
     private static SharedPreferences prefs() {
@@ -164,4 +174,60 @@ public class AppPrefs {
     public static void setMixpanelEmailRetrievalCheck(boolean b) {
         setBoolean(PrefKey.MIXPANEL_EMAIL_ADDRESS_RETRIEVED, b);
     }
+
+    /*
+     * the server's comment counts for a blog the last time comments deleted on the server
+     * were removed locally - used to skip that check when nothing has changed since
+     */
+    public static String getDeletedCommentsCheckedCounts(int localBlogId) {
+        return getDeletedCommentsCheckedCounts().optString(Integer.toString(localBlogId));
+    }
+    public static void setDeletedCommentsCheckedCounts(int localBlogId, String counts) {
+        JSONObject json = getDeletedCommentsCheckedCounts();
+        try {
+            json.put(Integer.toString(localBlogId), counts);
+        } catch (JSONException e) {
+            return;
+        }
+        setString(PrefKey.DELETED_COMMENTS_CHECKED_COUNTS, json.toString());
+    }
+    private static JSONObject getDeletedCommentsCheckedCounts() {
+        String value = getString(PrefKey.DELETED_COMMENTS_CHECKED_COUNTS);
+        if (!TextUtils.isEmpty(value)) {
+            try {
+                return new JSONObject(value);
+            } catch (JSONException e) {
+                // fall through to an empty object
+            }
+        }
+        return new JSONObject();
+    }
+
+    /*
+     * when a blog's media library was last checked against the server's manifest of media
+     * IDs - used to limit how often the whole manifest is paged through
+     */
+    public static long getMediaManifestCheckedTime(int localBlogId) {
+        return getMediaManifestCheckedTimes().optLong(Integer.toString(localBlogId));
+    }
+    public static void setMediaManifestCheckedTime(int localBlogId, long time) {
+        JSONObject json = getMediaManifestCheckedTimes();
+        try {
+            json.put(Integer.toString(localBlogId), time);
+        } catch (JSONException e) {
+            return;
+        }
+        setString(PrefKey.MEDIA_MANIFEST_CHECKED_TIMES, json.toString());
+    }
+    private static JSONObject getMediaManifestCheckedTimes() {
+        String value = getString(PrefKey.MEDIA_MANIFEST_CHECKED_TIMES);
+        if (!TextUtils.isEmpty(value)) {
+            try {
+                return new JSONObject(value);
+            } catch (JSONException e) {
+                // fall through to an empty object
+            }
+        }
+        return new JSONObject();
+    }
 }
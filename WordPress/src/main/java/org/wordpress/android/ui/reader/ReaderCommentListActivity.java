@@ -24,16 +24,15 @@ import org.wordpress.android.WordPress;
 import org.wordpress.android.analytics.AnalyticsTracker;
 import org.wordpress.android.datasets.ReaderCommentTable;
 import org.wordpress.android.datasets.ReaderPostTable;
-import org.wordpress.android.datasets.SuggestionTable;
 import org.wordpress.android.models.ReaderComment;
 import org.wordpress.android.models.ReaderPost;
-import org.wordpress.android.models.Suggestion;
 import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.actions.ReaderCommentActions;
 import org.wordpress.android.ui.reader.adapters.ReaderCommentAdapter;
 import org.wordpress.android.ui.reader.views.ReaderRecyclerView;
 import org.wordpress.android.ui.suggestion.adapters.SuggestionAdapter;
 import org.wordpress.android.ui.suggestion.service.SuggestionService;
+import org.wordpress.android.ui.suggestion.util.SuggestionIndex;
 import org.wordpress.android.ui.suggestion.util.SuggestionServiceConnectionManager;
 import org.wordpress.android.ui.suggestion.util.SuggestionUtils;
 import org.wordpress.android.util.AppLog;
@@ -46,8 +45,6 @@ import org.wordpress.android.util.WPActivityUtils;
 import org.wordpress.android.widgets.SuggestionAutoCompleteText;
 import org.wordpress.android.widgets.WPNetworkImageView;
 
-import java.util.List;
-
 import javax.annotation.Nonnull;
 
 public class ReaderCommentListActivity extends ActionBarActivity {
@@ -149,8 +146,7 @@ public class ReaderCommentListActivity extends ActionBarActivity {
             int updatedBlogId = intent.getIntExtra(SuggestionService.SUGGESTIONS_LIST_UPDATED_EXTRA, 0);
             // check if the updated suggestions are for the current blog and update the suggestions
             if (updatedBlogId != 0 && mBlogId == updatedBlogId) {
-                List<Suggestion> suggestions = SuggestionTable.getSuggestionsForSite((int)mBlogId);
-                mSuggestionAdapter.setSuggestionList(suggestions);
+                mSuggestionAdapter.setSuggestionIndex(SuggestionIndex.getForSite((int)mBlogId));
             }
         }
     };
@@ -6,6 +6,7 @@ public class ReaderConstants {
     public static final int  READER_MAX_COMMENTS_TO_REQUEST    = 20;     // max # top-level comments to request when updating comments
     public static final int  READER_MAX_USERS_TO_DISPLAY       = 500;    // max # users to show in ReaderUserListActivity
     public static final long READER_AUTO_UPDATE_DELAY_MINUTES  = 10;     // 10 minute delay between automatic updates
+    public static final long READER_MAX_AUTO_UPDATE_DELAY_MINUTES = 240; // max delay for tags which rarely have new posts
     public static final int  READER_MAX_RECOMMENDED_TO_REQUEST = 20;     // max # of recommended blogs to request
 
     public static final int MIN_FEATURED_IMAGE_WIDTH = 640;              // min width for an image to be suitable featured image
@@ -0,0 +1,156 @@
+package org.wordpress.android.ui.reader;
+
+import android.content.Context;
+import android.os.Handler;
+
+import org.wordpress.android.datasets.ReaderCommentTable;
+import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.datasets.ReaderTagTable;
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.models.ReaderTagList;
+import org.wordpress.android.ui.prefs.AppPrefs;
+import org.wordpress.android.ui.reader.actions.ReaderActions;
+import org.wordpress.android.ui.reader.actions.ReaderActions.RequestDataAction;
+import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
+import org.wordpress.android.ui.reader.actions.ReaderCommentActions;
+import org.wordpress.android.ui.reader.actions.ReaderPostActions;
+import org.wordpress.android.ui.reader.utils.ReaderOfflineCache;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.NetworkUtils;
+
+/**
+ * prefetches the newest posts in the tags the user reads most, along with their images and
+ * first page of comments, so they can be read offline - run by ReaderUpdateService, which only
+ * starts it while the device is charging on an unmetered connection. Images are skipped if the
+ * connection becomes metered while it runs. Posts & comments are stored in the reader
+ * db as usual, images in ReaderOfflineCache. Followed blogs are covered by "Blogs I Follow".
+ *
+ * Must be started on the main thread.
+ */
+public class ReaderOfflinePrefetcher {
+    private static final int MAX_TAGS = 3;
+    private static final int MAX_POSTS_PER_TAG = 10;
+    private static final long MIN_PREFETCH_INTERVAL_MS = 60 * 60 * 1000;
+
+    private static long sLastPrefetchTime;
+
+    private final Context mContext;
+    private final ReaderActions.ActionListener mListener;
+    private final Handler mHandler = new Handler();
+    private int mNumPendingTags;
+
+    private ReaderOfflinePrefetcher(Context context, ReaderActions.ActionListener listener) {
+        mContext = context.getApplicationContext();
+        mListener = listener;
+    }
+
+    public static void prefetch(Context context, ReaderActions.ActionListener listener) {
+        long now = System.currentTimeMillis();
+        if (context == null || now - sLastPrefetchTime < MIN_PREFETCH_INTERVAL_MS) {
+            if (listener != null) {
+                listener.onActionResult(true);
+            }
+            return;
+        }
+        sLastPrefetchTime = now;
+        new ReaderOfflinePrefetcher(context, listener).start();
+    }
+
+    private void start() {
+        new Thread() {
+            @Override
+            public void run() {
+                final ReaderTagList tags = getTagsToPrefetch();
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        updateTags(tags);
+                    }
+                });
+            }
+        }.start();
+    }
+
+    /*
+     * the most viewed tags, plus the one the user last viewed
+     */
+    private static ReaderTagList getTagsToPrefetch() {
+        ReaderTagList tags = ReaderTagTable.getMostViewedTags(MAX_TAGS);
+        ReaderTag currentTag = AppPrefs.getReaderTag();
+        if (currentTag != null && ReaderTagTable.tagExists(currentTag) && !containsTag(tags, currentTag)) {
+            tags.add(0, currentTag);
+        }
+        if (tags.size() == 0) {
+            tags.add(ReaderTag.getDefaultTag());
+        }
+        return tags;
+    }
+
+    private static boolean containsTag(ReaderTagList tags, ReaderTag tag) {
+        for (ReaderTag thisTag : tags) {
+            if (ReaderTag.isSameTag(thisTag, tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updateTags(ReaderTagList tags) {
+        AppLog.d(AppLog.T.READER, "reader offline prefetch > prefetching " + tags.size() + " tags");
+        mNumPendingTags = tags.size();
+        for (final ReaderTag tag : tags) {
+            ReaderPostActions.updatePostsInTag(tag, RequestDataAction.LOAD_NEWER,
+                    new ReaderActions.UpdateResultListener() {
+                        @Override
+                        public void onUpdateResult(UpdateResult result) {
+                            // prefetch whatever's stored even if the update failed
+                            prefetchPostsInTag(tag);
+                        }
+                    });
+        }
+    }
+
+    private void prefetchPostsInTag(final ReaderTag tag) {
+        new Thread() {
+            @Override
+            public void run() {
+                ReaderPostList posts = ReaderPostTable.getPostsWithTag(tag, MAX_POSTS_PER_TAG, false);
+                for (ReaderPost post : posts) {
+                    prefetchPost(post);
+                }
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        tagCompleted();
+                    }
+                });
+            }
+        }.start();
+    }
+
+    private void prefetchPost(ReaderPost post) {
+        // images in private posts require the user's auth cookie, which the webView has but the
+        // offline cache doesn't - and images aren't worth paying for if the device has since
+        // moved to a metered connection
+        if (!post.isPrivate && NetworkUtils.isUnmeteredConnection(mContext)) {
+            for (String imageUrl : ReaderPostRenderer.getImageUrls(mContext, post)) {
+                ReaderOfflineCache.prefetchImage(mContext, imageUrl);
+            }
+        }
+        if (post.numReplies > 0 && ReaderCommentTable.getNumCommentsForPost(post) == 0) {
+            ReaderCommentActions.updateCommentsForPost(post, 1, null);
+        }
+    }
+
+    private void tagCompleted() {
+        mNumPendingTags--;
+        if (mNumPendingTags == 0) {
+            AppLog.d(AppLog.T.READER, "reader offline prefetch > completed");
+            if (mListener != null) {
+                mListener.onActionResult(true);
+            }
+        }
+    }
+}
@@ -676,6 +676,9 @@ public class ReaderPostDetailFragment extends Fragment
                 return false;
             }
 
+            // posts which were viewed recently are the last to be purged
+            ReaderPostTable.setPostViewed(mBlogId, mPostId);
+
             txtTitle = (TextView) container.findViewById(R.id.text_title);
             txtBlogName = (TextView) container.findViewById(R.id.text_blog_name);
             txtFollow = (TextView) container.findViewById(R.id.text_follow);
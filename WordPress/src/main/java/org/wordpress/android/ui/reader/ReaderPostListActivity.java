@@ -329,12 +329,13 @@ public class ReaderPostListActivity extends WPDrawerActivity
     }
 
     /*
-     * start background service to get the latest followed tags and blogs
+     * start background service to get the latest followed tags and blogs, and to prefetch
+     * posts for offline reading
      */
     void updateFollowedTagsAndBlogs() {
         AppLog.d(T.READER, "reader post list > updating tags and blogs");
         ReaderUpdateService.startService(this,
-                EnumSet.of(UpdateTask.TAGS, UpdateTask.FOLLOWED_BLOGS));
+                EnumSet.of(UpdateTask.TAGS, UpdateTask.FOLLOWED_BLOGS, UpdateTask.OFFLINE_PREFETCH));
     }
 
     /*
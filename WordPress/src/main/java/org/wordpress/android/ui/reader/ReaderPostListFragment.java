@@ -53,6 +53,7 @@ import org.wordpress.android.ui.reader.actions.ReaderTagActions;
 import org.wordpress.android.ui.reader.actions.ReaderTagActions.TagAction;
 import org.wordpress.android.ui.reader.adapters.ReaderPostAdapter;
 import org.wordpress.android.ui.reader.adapters.ReaderTagSpinnerAdapter;
+import org.wordpress.android.ui.reader.services.ReaderUpdateScheduler;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.ui.reader.views.ReaderBlogInfoView;
 import org.wordpress.android.ui.reader.views.ReaderRecyclerView;
@@ -931,9 +932,20 @@ public class ReaderPostListFragment extends Fragment {
                 refreshPosts();
         }
 
+        // let the background updates know the tag the user is viewing is being updated so
+        // they wait for it
+        final boolean isCurrentTagUpdate = isCurrentTag(tag) && updateAction == RequestDataAction.LOAD_NEWER;
+        if (isCurrentTagUpdate) {
+            ReaderUpdateScheduler.beginCurrentTagUpdate();
+        }
+
         ReaderActions.UpdateResultListener resultListener = new ReaderActions.UpdateResultListener() {
             @Override
             public void onUpdateResult(ReaderActions.UpdateResult result) {
+                if (isCurrentTagUpdate) {
+                    ReaderUpdateScheduler.endCurrentTagUpdate();
+                }
+
                 if (!isAdded()) {
                     AppLog.w(T.READER, "reader post list > posts updated when fragment has no activity");
                     return;
@@ -1,6 +1,7 @@
 package org.wordpress.android.ui.reader;
 
 import android.annotation.SuppressLint;
+import android.content.Context;
 import android.net.Uri;
 import android.os.Handler;
 
@@ -19,6 +20,8 @@ import org.wordpress.android.util.PhotonUtils;
 import org.wordpress.android.util.StringUtils;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * generates and displays the HTML for post detail content - main purpose is to assign the
@@ -41,9 +44,23 @@ class ReaderPostRenderer {
     private String mRenderedHtml;
     private ImageSizeMap mAttachmentSizes;
 
+    // urls of the images in the rendered content, only collected by getImageUrls()
+    private List<String> mImageUrls;
+
     @SuppressLint("SetJavaScriptEnabled")
     ReaderPostRenderer(ReaderWebView webView, ReaderPost post) {
-        if (webView == null) {
+        this(webView != null ? webView.getContext() : null, post, webView);
+
+        // enable JavaScript in the webView if it's safe to do so, otherwise videos
+        // and other embedded content won't work
+        webView.getSettings().setJavaScriptEnabled(canEnableJavaScript());
+    }
+
+    /*
+     * renderer without a webView, used to find the images a post will show without rendering it
+     */
+    private ReaderPostRenderer(Context context, ReaderPost post, ReaderWebView webView) {
+        if (context == null) {
             throw new IllegalArgumentException("ReaderPostRenderer requires a webView");
         }
         if (post == null) {
@@ -52,14 +69,31 @@ class ReaderPostRenderer {
 
         mPost = post;
         mWeakWebView = new WeakReference<ReaderWebView>(webView);
-        mResourceVars = new ReaderResourceVars(webView.getContext());
+        mResourceVars = new ReaderResourceVars(context);
 
         mMinFullSizeWidthDp = pxToDp(mResourceVars.fullSizeImageWidthPx / 3);
         mMinMidSizeWidthDp = mMinFullSizeWidthDp / 2;
+    }
 
-        // enable JavaScript in the webView if it's safe to do so, otherwise videos
-        // and other embedded content won't work
-        webView.getSettings().setJavaScriptEnabled(canEnableJavaScript());
+    /*
+     * returns the urls of the images the passed post will show when rendered, sized exactly as
+     * they'll be requested - used by ReaderOfflinePrefetcher so it caches the same images the
+     * webView asks for. Does the same work as rendering, so don't call this on the main thread.
+     */
+    static List<String> getImageUrls(Context context, ReaderPost post) {
+        ReaderPostRenderer renderer = new ReaderPostRenderer(context, post, null);
+        renderer.mImageUrls = new ArrayList<String>();
+        renderer.mRenderBuilder = new StringBuilder(renderer.getPostContent());
+        renderer.resizeImages();
+        renderer.mRenderBuilder = null;
+        return renderer.mImageUrls;
+    }
+
+    private void addImageUrl(String imageUrl) {
+        if (mImageUrls != null && imageUrl != null && imageUrl.startsWith("http")) {
+            // the webView requests the url with html entities decoded
+            mImageUrls.add(imageUrl.replace("&#038;", "&").replace("&amp;", "&"));
+        }
     }
 
     void beginRender() {
@@ -161,6 +195,7 @@ class ReaderPostRenderer {
         } else if (hasWidth) {
             newImageTag = makeImageTag(imageUrl, origSize.width, origSize.height, "size-none");
         } else {
+            addImageUrl(imageUrl);
             newImageTag = "<img class='size-none' src='" + imageUrl + "' />";
         }
 
@@ -175,6 +210,7 @@ class ReaderPostRenderer {
 
     private String makeImageTag(final String imageUrl, int width, int height, final String imageClass) {
         String newImageUrl = ReaderUtils.getResizedImageUrl(imageUrl, width, height, mPost.isPrivate);
+        addImageUrl(newImageUrl);
         if (height > 0) {
             return new StringBuilder("<img class='").append(imageClass).append("'")
                     .append(" src='").append(newImageUrl).append("'")
@@ -250,6 +286,7 @@ class ReaderPostRenderer {
                 mResourceVars.fullSizeImageWidthPx,
                 mResourceVars.featuredImageHeightPx,
                 mPost.isPrivate);
+        addImageUrl(imageUrl);
 
         return "<img class='size-full' src='" + imageUrl + "'/>";
     }
@@ -373,7 +373,7 @@ public class ReaderReblogActivity extends ActionBarActivity {
                     final String imageUrl = mPost.getFeaturedImageForDisplay(photonWidth, photonHeight);
                     imgFeatured.setImageUrl(imageUrl, WPNetworkImageView.ImageType.PHOTO);
                 } else if (!isLandscape && mPost.hasFeaturedVideo()) {
-                    imgFeatured.setVideoUrl(mPost.postId, mPost.getFeaturedVideo());
+                    imgFeatured.setVideoUrl(mPost.blogId, mPost.postId, mPost.getFeaturedVideo());
                 } else {
                     imgFeatured.setVisibility(View.GONE);
                 }
@@ -321,11 +321,7 @@ public class ReaderPostActions {
         com.wordpress.rest.RestRequest.Listener listener = new RestRequest.Listener() {
             @Override
             public void onResponse(JSONObject jsonObject) {
-                // remember when this tag was updated if newer posts were requested
-                if (updateAction == RequestDataAction.LOAD_NEWER) {
-                    ReaderTagTable.setTagLastUpdated(tag);
-                }
-                handleUpdatePostsResponse(tag, jsonObject, resultListener);
+                handleUpdatePostsResponse(tag, updateAction, jsonObject, resultListener);
             }
         };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
@@ -366,7 +362,7 @@ public class ReaderPostActions {
         com.wordpress.rest.RestRequest.Listener listener = new RestRequest.Listener() {
             @Override
             public void onResponse(JSONObject jsonObject) {
-                handleUpdatePostsResponse(null, jsonObject, resultListener);
+                handleUpdatePostsResponse(null, updateAction, jsonObject, resultListener);
             }
         };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
@@ -386,6 +382,7 @@ public class ReaderPostActions {
      * called after requesting posts with a specific tag or in a specific blog
      */
     private static void handleUpdatePostsResponse(final ReaderTag tag,
+                                                  final RequestDataAction updateAction,
                                                   final JSONObject jsonObject,
                                                   final UpdateResultListener resultListener) {
         if (jsonObject == null) {
@@ -404,7 +401,14 @@ public class ReaderPostActions {
                 if (updateResult.isNewOrChanged()) {
                     ReaderPostTable.addOrUpdatePosts(tag, serverPosts);
                 }
-                AppLog.d(T.READER, "requested posts response = " + updateResult.toString());
+                // remember when this tag was updated and whether it had new posts if newer
+                // posts were requested - this determines when it's next auto-updated
+                if (tag != null && updateAction == RequestDataAction.LOAD_NEWER) {
+                    ReaderTagTable.setTagLastUpdated(tag, updateResult == UpdateResult.HAS_NEW);
+                }
+                if (AppLog.isLoggable(T.READER, AppLog.LogLevel.d)) {
+                    AppLog.d(T.READER, "requested posts response = " + updateResult.toString());
+                }
 
                 if (resultListener != null) {
                     handler.post(new Runnable() {
@@ -17,6 +17,7 @@ import org.wordpress.android.analytics.AnalyticsTracker;
 import org.wordpress.android.datasets.ReaderPostTable;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.models.ReaderPostListDiff;
 import org.wordpress.android.models.ReaderTag;
 import org.wordpress.android.ui.reader.ReaderActivityLauncher;
 import org.wordpress.android.ui.reader.ReaderAnim;
@@ -31,6 +32,7 @@ import org.wordpress.android.ui.reader.views.ReaderIconCountView;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.DisplayUtils;
+import org.wordpress.android.util.ProfilingUtils;
 import org.wordpress.android.util.ToastUtils;
 import org.wordpress.android.widgets.WPNetworkImageView;
 
@@ -169,7 +171,7 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<ReaderPostAdapter.Re
             holder.imgFeatured.setVisibility(View.VISIBLE);
             titleMargin = mMarginLarge;
         } else if (post.hasFeaturedVideo()) {
-            holder.imgFeatured.setVideoUrl(post.postId, post.getFeaturedVideo());
+            holder.imgFeatured.setVideoUrl(post.blogId, post.postId, post.getFeaturedVideo());
             holder.imgFeatured.setVisibility(View.VISIBLE);
             titleMargin = mMarginLarge;
         } else {
@@ -401,7 +403,7 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<ReaderPostAdapter.Re
         final ReaderPost updatedPost = ReaderPostTable.getPost(post.blogId, post.postId, true);
         if (updatedPost != null) {
             mPosts.set(index, updatedPost);
-            notifyDataSetChanged();
+            notifyItemChanged(index);
         }
     }
 
@@ -571,12 +573,54 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<ReaderPostAdapter.Re
      */
     private boolean mIsTaskRunning = false;
 
+    /*
+     * applies the updates in a ReaderPostListDiff to the RecyclerView, so only the rows that
+     * changed are rebound and rows that stay keep their views (and loaded images)
+     */
+    private final ReaderPostListDiff.Callback mDiffCallback = new ReaderPostListDiff.Callback() {
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position, count);
+        }
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position, count);
+        }
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition, toPosition);
+        }
+        @Override
+        public void onChanged(int position, int count) {
+            notifyItemRangeChanged(position, count);
+        }
+    };
+
+    /*
+     * returns true if the two lists contain the same post objects in the same order
+     */
+    private static boolean isSameInstances(ReaderPostList list1, ReaderPostList list2) {
+        if (list1.size() != list2.size()) {
+            return false;
+        }
+        for (int i = 0; i < list1.size(); i++) {
+            if (list1.get(i) != list2.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private class LoadPostsTask extends AsyncTask<Void, Void, Boolean> {
         ReaderPostList allPosts;
+        ReaderPostList existingPosts;
+        ReaderPostListDiff diff;
 
         @Override
         protected void onPreExecute() {
             mIsTaskRunning = true;
+            // the diff is computed against a copy since mPosts may change while it runs
+            existingPosts = (ReaderPostList) mPosts.clone();
         }
 
         @Override
@@ -587,21 +631,32 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<ReaderPostAdapter.Re
         @Override
         protected Boolean doInBackground(Void... params) {
             final int numExisting;
-            switch (getPostListType()) {
-                case TAG_PREVIEW:
-                case TAG_FOLLOWED:
-                    allPosts = ReaderPostTable.getPostsWithTag(mCurrentTag, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                    numExisting = ReaderPostTable.getNumPostsWithTag(mCurrentTag);
-                    break;
-                case BLOG_PREVIEW:
-                    allPosts = ReaderPostTable.getPostsInBlog(mCurrentBlogId, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                    numExisting = ReaderPostTable.getNumPostsInBlog(mCurrentBlogId);
-                    break;
-                default:
-                    return false;
+            long span = ProfilingUtils.beginSpan("ReaderPostAdapter.loadPosts query");
+            try {
+                switch (getPostListType()) {
+                    case TAG_PREVIEW:
+                    case TAG_FOLLOWED:
+                        allPosts = ReaderPostTable.getPostsWithTag(mCurrentTag, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
+                        numExisting = ReaderPostTable.getNumPostsWithTag(mCurrentTag);
+                        break;
+                    case BLOG_PREVIEW:
+                        allPosts = ReaderPostTable.getPostsInBlog(mCurrentBlogId, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
+                        numExisting = ReaderPostTable.getNumPostsInBlog(mCurrentBlogId);
+                        break;
+                    default:
+                        return false;
+                }
+            } finally {
+                ProfilingUtils.endSpan(span);
             }
 
-            if (mPosts.isSameList(allPosts)) {
+            span = ProfilingUtils.beginSpan("ReaderPostAdapter.loadPosts diff");
+            try {
+                diff = ReaderPostListDiff.compute(existingPosts, allPosts);
+            } finally {
+                ProfilingUtils.endSpan(span);
+            }
+            if (!diff.hasChanges()) {
                 return false;
             }
 
@@ -615,27 +670,15 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<ReaderPostAdapter.Re
         @Override
         protected void onPostExecute(Boolean result) {
             if (result) {
-                if (mPosts.size() == 0) {
-                    mPosts.addAll(allPosts);
-                    notifyDataSetChanged();
+                // the diff only applies if mPosts hasn't changed since it was computed
+                boolean canApplyDiff = mPosts.size() > 0 && isSameInstances(mPosts, existingPosts);
+                mPosts.clear();
+                mPosts.addAll(allPosts);
+                if (canApplyDiff) {
+                    AppLog.d(AppLog.T.READER, "reader post adapter > " + diff.toString());
+                    diff.dispatchUpdates(mDiffCallback);
                 } else {
-                    // determine new & changed posts
-                    int index;
-                    int addIndex = 0;
-                    for (ReaderPost post : allPosts) {
-                        index = mPosts.indexOfPost(post);
-                        if (index == -1) {
-                            mPosts.add(addIndex, post);
-                            notifyItemInserted(addIndex);
-                            addIndex++;
-                        } else {
-                            addIndex = index + 1;
-                            if (!post.isSamePost(mPosts.get(index))) {
-                                mPosts.set(index, post);
-                                notifyItemChanged(index);
-                            }
-                        }
-                    }
+                    notifyDataSetChanged();
                 }
             }
 
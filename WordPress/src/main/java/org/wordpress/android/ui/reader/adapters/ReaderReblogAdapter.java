@@ -11,13 +11,12 @@ import android.widget.TextView;
 
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
+import org.wordpress.android.models.AccountSummary;
 import org.wordpress.android.ui.reader.ReaderInterfaces.DataLoadedListener;
-import org.wordpress.android.util.BlogUtils;
 import org.wordpress.android.util.DisplayUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * adapter which displays list of blogs (accounts) for user to choose from when reblogging
@@ -146,19 +145,19 @@ public class ReaderReblogAdapter extends BaseAdapter {
         @Override
         protected Boolean doInBackground(Void... voids) {
             // only .com blogs support reblogging
-            List<Map<String, Object>> accounts = WordPress.wpDB.getVisibleDotComAccounts();
+            List<AccountSummary> accounts = WordPress.wpDB.getVisibleDotComAccountSummaries();
             if (accounts == null || accounts.size() == 0) {
                 return false;
             }
 
             int currentRemoteBlogId = WordPress.getCurrentRemoteBlogId();
 
-            for (Map<String, Object> curHash : accounts) {
-                int blogId = (Integer) curHash.get("blogId");
+            for (AccountSummary account : accounts) {
+                int blogId = account.getRemoteBlogId();
                 // don't add if this is the blog we're excluding (prevents reblogging to
                 // the same blog the post is from)
                 if (blogId != mExcludeBlogId) {
-                    String blogName =  BlogUtils.getBlogNameFromAccountMap(curHash);
+                    String blogName = account.getDisplayName();
                     SimpleAccountItem item = new SimpleAccountItem(blogId, blogName);
 
                     // if this is the current blog, insert it at the top so it's automatically selected
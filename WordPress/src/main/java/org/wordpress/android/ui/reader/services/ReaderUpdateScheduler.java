@@ -0,0 +1,194 @@
+package org.wordpress.android.ui.reader.services;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.wordpress.android.datasets.ReaderBlogTable;
+import org.wordpress.android.ui.reader.services.ReaderUpdateService.UpdateTask;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.DeviceUtils;
+import org.wordpress.android.util.NetworkUtils;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Decides when ReaderUpdateService's tasks run:
+ *
+ *   - updates to the tag the user is viewing come first, so the service's requests that don't
+ *     affect what's on screen wait until the current tag has been updated (or MAX_WAIT_MS)
+ *   - recommended blogs wait until the device is on an unmetered connection or charging,
+ *     unless there's nothing to show without them
+ *   - the offline prefetch, which can download a lot of images, waits until the device is on
+ *     an unmetered connection and charging
+ *
+ * Must be called on the main thread.
+ */
+public class ReaderUpdateScheduler {
+    private static final long MAX_WAIT_MS = 15 * 1000;
+
+    private static final Handler sHandler = new Handler(Looper.getMainLooper());
+
+    private static int sNumCurrentTagUpdates;
+    private static final List<Runnable> sWaitingForCurrentTag = new ArrayList<Runnable>();
+
+    private static final EnumSet<UpdateTask> sDeferredTasks = EnumSet.noneOf(UpdateTask.class);
+    private static BroadcastReceiver sWindowReceiver;
+
+    // whether any recommended blogs are stored - looked up once, then kept current by the service
+    // so scheduling doesn't query the db on the main thread each time
+    private static volatile Boolean sHasRecommendedBlogs;
+
+    private ReaderUpdateScheduler() {
+        throw new AssertionError();
+    }
+
+    /*
+     * called by the post list when it starts & finishes updating the tag the user is viewing
+     */
+    public static void beginCurrentTagUpdate() {
+        sNumCurrentTagUpdates++;
+    }
+
+    public static void endCurrentTagUpdate() {
+        if (sNumCurrentTagUpdates > 0) {
+            sNumCurrentTagUpdates--;
+        }
+        if (sNumCurrentTagUpdates == 0) {
+            runWaitingTasks();
+        }
+    }
+
+    /*
+     * runs the passed task once the current tag has been updated, or right away if it isn't
+     * being updated
+     */
+    static void runAfterCurrentTagUpdate(Runnable task) {
+        if (sNumCurrentTagUpdates == 0) {
+            task.run();
+            return;
+        }
+        AppLog.d(AppLog.T.READER, "reader update scheduler > waiting for current tag update");
+        sWaitingForCurrentTag.add(task);
+        // don't let a slow tag update hold up the others forever
+        sHandler.removeCallbacks(sRunWaitingTasks);
+        sHandler.postDelayed(sRunWaitingTasks, MAX_WAIT_MS);
+    }
+
+    private static final Runnable sRunWaitingTasks = new Runnable() {
+        @Override
+        public void run() {
+            runWaitingTasks();
+        }
+    };
+
+    private static void runWaitingTasks() {
+        sHandler.removeCallbacks(sRunWaitingTasks);
+        if (sWaitingForCurrentTag.isEmpty()) {
+            return;
+        }
+        List<Runnable> tasks = new ArrayList<Runnable>(sWaitingForCurrentTag);
+        sWaitingForCurrentTag.clear();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+
+    /*
+     * returns true if now is a good time to run the passed task
+     */
+    private static boolean canRunNow(Context context, UpdateTask task) {
+        switch (task) {
+            case RECOMMENDED_BLOGS:
+                return NetworkUtils.isUnmeteredConnection(context) || DeviceUtils.getInstance().isCharging(context);
+            case OFFLINE_PREFETCH:
+                return NetworkUtils.isUnmeteredConnection(context) && DeviceUtils.getInstance().isCharging(context);
+            default:
+                return true;
+        }
+    }
+
+    /*
+     * returns true if there's nothing to show for the passed task until it has run once
+     */
+    private static boolean hasNeverRun(UpdateTask task) {
+        switch (task) {
+            case RECOMMENDED_BLOGS:
+                if (sHasRecommendedBlogs == null) {
+                    sHasRecommendedBlogs = ReaderBlogTable.getRecommendedBlogs(1, 0).size() > 0;
+                }
+                return !sHasRecommendedBlogs;
+            default:
+                return false;
+        }
+    }
+
+    /*
+     * called by the service from any thread once it has stored the recommended blogs
+     */
+    static void setHasRecommendedBlogs(boolean hasRecommendedBlogs) {
+        sHasRecommendedBlogs = hasRecommendedBlogs;
+    }
+
+    /*
+     * removes tasks from the passed set if now isn't a good time to run them and returns the
+     * rest - removed tasks are started once the connection or power state allows them
+     */
+    static EnumSet<UpdateTask> removeDeferredTasks(Context context, EnumSet<UpdateTask> tasks) {
+        EnumSet<UpdateTask> tasksToRun = EnumSet.copyOf(tasks);
+        for (UpdateTask task : tasks) {
+            if (!canRunNow(context, task) && !hasNeverRun(task)) {
+                AppLog.d(AppLog.T.READER, "reader update scheduler > deferred " + task.toString());
+                tasksToRun.remove(task);
+                sDeferredTasks.add(task);
+            }
+        }
+        if (!sDeferredTasks.isEmpty()) {
+            registerWindowReceiver(context.getApplicationContext());
+        }
+        return tasksToRun;
+    }
+
+    private static void registerWindowReceiver(Context appContext) {
+        if (sWindowReceiver != null) {
+            return;
+        }
+        sWindowReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                EnumSet<UpdateTask> tasks = EnumSet.noneOf(UpdateTask.class);
+                for (UpdateTask task : sDeferredTasks) {
+                    if (canRunNow(context, task)) {
+                        tasks.add(task);
+                    }
+                }
+                if (tasks.isEmpty()) {
+                    return;
+                }
+                sDeferredTasks.removeAll(tasks);
+                if (sDeferredTasks.isEmpty()) {
+                    unregisterWindowReceiver(context);
+                }
+                AppLog.d(AppLog.T.READER, "reader update scheduler > starting deferred tasks");
+                ReaderUpdateService.startService(context, tasks);
+            }
+        };
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(ConnectivityManager.CONNECTIVITY_ACTION);
+        filter.addAction(Intent.ACTION_POWER_CONNECTED);
+        appContext.registerReceiver(sWindowReceiver, filter);
+    }
+
+    private static void unregisterWindowReceiver(Context context) {
+        if (sWindowReceiver != null) {
+            context.getApplicationContext().unregisterReceiver(sWindowReceiver);
+            sWindowReceiver = null;
+        }
+    }
+}
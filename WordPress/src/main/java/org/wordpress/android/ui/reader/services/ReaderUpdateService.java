@@ -22,18 +22,23 @@ import org.wordpress.android.models.ReaderTag;
 import org.wordpress.android.models.ReaderTagList;
 import org.wordpress.android.models.ReaderTagType;
 import org.wordpress.android.ui.reader.ReaderConstants;
+import org.wordpress.android.ui.reader.ReaderOfflinePrefetcher;
+import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.JSONUtil;
 
 import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ReaderUpdateService extends Service {
 
     /*
      * service which updates followed/recommended tags and blogs for the Reader, only
      * sends broadcast when changes are found (ie: no broadcast for update start/stop
-     * or for unchanged/failed)
+     * or for unchanged/failed) - requests for tasks that are already running are
+     * coalesced with them, and ReaderUpdateScheduler decides when each task starts
      */
 
     public static final String ACTION_UPDATE_COMPLETED          = "reader_update_completed";
@@ -45,10 +50,14 @@ public class ReaderUpdateService extends Service {
     public static enum UpdateTask {
         TAGS,
         FOLLOWED_BLOGS,
-        RECOMMENDED_BLOGS
+        RECOMMENDED_BLOGS,
+        OFFLINE_PREFETCH
     }
 
-    private EnumSet<UpdateTask> mCurrentTasks;
+    private final EnumSet<UpdateTask> mCurrentTasks = EnumSet.noneOf(UpdateTask.class);
+
+    // responses are handled one at a time on this thread
+    private final ExecutorService mResponseExecutor = Executors.newSingleThreadExecutor();
 
     private static final String ARG_UPDATE_TASKS = "update_tasks";
 
@@ -75,6 +84,7 @@ public class ReaderUpdateService extends Service {
     @Override
     public void onDestroy() {
         AppLog.i(AppLog.T.READER, "reader service > destroyed");
+        mResponseExecutor.shutdown();
         super.onDestroy();
     }
 
@@ -95,24 +105,50 @@ public class ReaderUpdateService extends Service {
     }
 
     private void performTasks(EnumSet<UpdateTask> tasks) {
-        mCurrentTasks = EnumSet.copyOf(tasks);
+        final EnumSet<UpdateTask> newTasks;
+        synchronized (mCurrentTasks) {
+            // skip tasks that are already running
+            EnumSet<UpdateTask> notRunning = EnumSet.copyOf(tasks);
+            notRunning.removeAll(mCurrentTasks);
+            newTasks = ReaderUpdateScheduler.removeDeferredTasks(this, notRunning);
+            if (newTasks.isEmpty()) {
+                if (mCurrentTasks.isEmpty()) {
+                    stopSelf();
+                }
+                return;
+            }
+            mCurrentTasks.addAll(newTasks);
+        }
 
         // perform in priority order - we want to update tags first since without them
-        // the Reader can't show anything
-        if (tasks.contains(UpdateTask.TAGS)) {
+        // the Reader can't show anything, and blogs can wait for the tag the user is
+        // viewing to be updated
+        if (newTasks.contains(UpdateTask.TAGS)) {
             updateTags();
         }
-        if (tasks.contains(UpdateTask.FOLLOWED_BLOGS)) {
-            updateFollowedBlogs();
-        }
-        if (tasks.contains(UpdateTask.RECOMMENDED_BLOGS)) {
-            updateRecommendedBlogs();
-        }
+        ReaderUpdateScheduler.runAfterCurrentTagUpdate(new Runnable() {
+            @Override
+            public void run() {
+                if (newTasks.contains(UpdateTask.FOLLOWED_BLOGS)) {
+                    updateFollowedBlogs();
+                }
+                if (newTasks.contains(UpdateTask.RECOMMENDED_BLOGS)) {
+                    updateRecommendedBlogs();
+                }
+                if (newTasks.contains(UpdateTask.OFFLINE_PREFETCH)) {
+                    prefetchForOffline();
+                }
+            }
+        });
     }
 
     private void taskCompleted(UpdateTask task, boolean didFail) {
-        mCurrentTasks.remove(task);
-        if (mCurrentTasks.isEmpty()) {
+        boolean allCompleted;
+        synchronized (mCurrentTasks) {
+            mCurrentTasks.remove(task);
+            allCompleted = mCurrentTasks.isEmpty();
+        }
+        if (allCompleted) {
             allTasksCompleted();
         }
     }
@@ -147,7 +183,7 @@ public class ReaderUpdateService extends Service {
     }
 
     private void handleUpdateTagsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        mResponseExecutor.execute(new Runnable() {
             @Override
             public void run() {
                 // get server topics, both default & followed
@@ -182,7 +218,7 @@ public class ReaderUpdateService extends Service {
 
                 taskCompleted(UpdateTask.TAGS, false);
             }
-        }.start();
+        });
     }
 
     /*
@@ -256,7 +292,7 @@ public class ReaderUpdateService extends Service {
         WordPress.getRestClientUtils().get("/read/following/mine?meta=site%2Cfeed", listener, errorListener);
     }
     private void handleFollowedBlogsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        mResponseExecutor.execute(new Runnable() {
             @Override
             public void run() {
                 ReaderBlogList serverBlogs = ReaderBlogList.fromJson(jsonObject);
@@ -270,7 +306,7 @@ public class ReaderUpdateService extends Service {
 
                 taskCompleted(UpdateTask.FOLLOWED_BLOGS, false);
             }
-        }.start();
+        });
     }
 
     /***
@@ -298,7 +334,7 @@ public class ReaderUpdateService extends Service {
         WordPress.getRestClientUtils().get(path, listener, errorListener);
     }
     private void handleRecommendedBlogsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        mResponseExecutor.execute(new Runnable() {
             @Override
             public void run() {
                 ReaderRecommendBlogList serverBlogs = ReaderRecommendBlogList.fromJson(jsonObject);
@@ -308,10 +344,23 @@ public class ReaderUpdateService extends Service {
                     ReaderBlogTable.setRecommendedBlogs(serverBlogs);
                     sendLocalBroadcast(new Intent().setAction(ACTION_RECOMMENDED_BLOGS_CHANGED));
                 }
+                ReaderUpdateScheduler.setHasRecommendedBlogs(serverBlogs.size() > 0);
 
                 taskCompleted(UpdateTask.RECOMMENDED_BLOGS, false);
             }
-        }.start();
+        });
     }
 
+    /***
+     * prefetch the newest posts in the most-read tags so they can be read offline
+     */
+    private void prefetchForOffline() {
+        AppLog.d(AppLog.T.READER, "reader service > prefetching for offline");
+        ReaderOfflinePrefetcher.prefetch(this, new ReaderActions.ActionListener() {
+            @Override
+            public void onActionResult(boolean succeeded) {
+                taskCompleted(UpdateTask.OFFLINE_PREFETCH, !succeeded);
+            }
+        });
+    }
 }
@@ -0,0 +1,149 @@
+package org.wordpress.android.ui.reader.utils;
+
+import android.content.Context;
+import android.text.TextUtils;
+import android.webkit.WebResourceResponse;
+
+import com.android.volley.Cache;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.DiskBasedCache;
+import com.android.volley.toolbox.HttpHeaderParser;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.VolleyUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Map;
+
+/**
+ * bounded disk cache of the images in prefetched reader posts - ReaderOfflinePrefetcher fills it
+ * while the device is on Wi-Fi or charging, and ReaderWebView serves images from it instead of
+ * requesting them, so prefetched posts can be read with their images while offline. Kept apart
+ * from the app's Volley cache so browsing the reader doesn't evict prefetched images (and vice
+ * versa), and entries are stored as fresh for MAX_AGE_MS regardless of the server's headers.
+ *
+ * Reading the cache for the first time scans its directory, so don't call getResponse() or
+ * prefetchImage() on the main thread.
+ */
+public class ReaderOfflineCache {
+    private static final String CACHE_DIR_NAME = "reader_offline";
+    private static final int MAX_CACHE_BYTES = 50 * 1024 * 1024;
+    private static final long MAX_AGE_MS = 7 * 24 * 60 * 60 * 1000L;
+    private static final int NUM_NETWORK_THREADS = 2;
+    private static final String DEFAULT_MIME_TYPE = "image/jpeg";
+
+    private static DiskBasedCache sCache;
+    private static RequestQueue sRequestQueue;
+
+    private ReaderOfflineCache() {
+        throw new AssertionError();
+    }
+
+    private static synchronized DiskBasedCache getCache(Context context) {
+        if (sCache == null) {
+            File cacheDir = new File(context.getApplicationContext().getCacheDir(), CACHE_DIR_NAME);
+            sCache = new DiskBasedCache(cacheDir, MAX_CACHE_BYTES);
+            sCache.initialize();
+        }
+        return sCache;
+    }
+
+    private static synchronized RequestQueue getRequestQueue(Context context) {
+        if (sRequestQueue == null) {
+            Context appContext = context.getApplicationContext();
+            sRequestQueue = new RequestQueue(getCache(appContext),
+                    new BasicNetwork(VolleyUtils.getHTTPClientStack(appContext)),
+                    NUM_NETWORK_THREADS);
+            sRequestQueue.start();
+        }
+        return sRequestQueue;
+    }
+
+    /*
+     * downloads the passed image into the cache unless it's already there
+     */
+    public static void prefetchImage(Context context, String imageUrl) {
+        if (context == null || TextUtils.isEmpty(imageUrl)) {
+            return;
+        }
+        Cache.Entry entry = getCache(context).get(imageUrl);
+        if (entry != null && !entry.isExpired()) {
+            return;
+        }
+        getRequestQueue(context).add(new OfflineImageRequest(imageUrl));
+    }
+
+    /*
+     * returns the cached copy of the passed url for the webView to use, or null if it isn't
+     * cached - called on the webView's network thread
+     */
+    public static WebResourceResponse getResponse(Context context, String url) {
+        if (context == null || url == null || !url.startsWith("http")) {
+            return null;
+        }
+        Cache.Entry entry = getCache(context).get(url);
+        if (entry == null || entry.data == null || entry.isExpired()) {
+            return null;
+        }
+        return new WebResourceResponse(getMimeType(entry), null, new ByteArrayInputStream(entry.data));
+    }
+
+    private static String getMimeType(Cache.Entry entry) {
+        String contentType = null;
+        if (entry.responseHeaders != null) {
+            // header names aren't normalized, so match them ignoring case
+            for (Map.Entry<String, String> header : entry.responseHeaders.entrySet()) {
+                if ("Content-Type".equalsIgnoreCase(header.getKey())) {
+                    contentType = header.getValue();
+                    break;
+                }
+            }
+        }
+        if (TextUtils.isEmpty(contentType)) {
+            return DEFAULT_MIME_TYPE;
+        }
+        // strip parameters such as charset
+        int semicolon = contentType.indexOf(';');
+        return (semicolon > 0 ? contentType.substring(0, semicolon) : contentType).trim();
+    }
+
+    /*
+     * request whose response is only stored in the cache, as fresh for MAX_AGE_MS
+     */
+    private static class OfflineImageRequest extends Request<byte[]> {
+        OfflineImageRequest(String url) {
+            super(Method.GET, url, null);
+            setShouldCache(true);
+        }
+
+        @Override
+        public Priority getPriority() {
+            return Priority.LOW;
+        }
+
+        @Override
+        protected Response<byte[]> parseNetworkResponse(NetworkResponse response) {
+            Cache.Entry entry = HttpHeaderParser.parseCacheHeaders(response);
+            long expires = System.currentTimeMillis() + MAX_AGE_MS;
+            entry.ttl = expires;
+            entry.softTtl = expires;
+            return Response.success(response.data, entry);
+        }
+
+        @Override
+        protected void deliverResponse(byte[] response) {
+            // nop - the response is only needed in the cache
+        }
+
+        @Override
+        public void deliverError(VolleyError error) {
+            AppLog.d(AppLog.T.READER, "reader offline cache > failed to prefetch " + getUrl());
+        }
+    }
+}
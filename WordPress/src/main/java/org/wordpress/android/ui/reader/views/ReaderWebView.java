@@ -9,10 +9,12 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.webkit.CookieManager;
 import android.webkit.WebChromeClient;
+import android.webkit.WebResourceResponse;
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
 
 import org.wordpress.android.WordPress;
+import org.wordpress.android.ui.reader.utils.ReaderOfflineCache;
 import org.wordpress.android.util.AppLog;
 
 /*
@@ -188,6 +190,19 @@ public class ReaderWebView extends WebView {
                 return false;
             }
         }
+
+        /*
+         * serve images from the offline cache when they've been prefetched - called on the
+         * webView's network thread, returning null loads the url as usual
+         */
+        @Override
+        public WebResourceResponse shouldInterceptRequest(WebView view, String url) {
+            WebResourceResponse response = ReaderOfflineCache.getResponse(view.getContext(), url);
+            if (response != null) {
+                return response;
+            }
+            return super.shouldInterceptRequest(view, url);
+        }
     }
 
     private static class ReaderWebChromeClient extends WebChromeClient {
@@ -12,6 +12,7 @@ import android.widget.LinearLayout;
 
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
+import org.wordpress.android.models.AccountSummary;
 import org.wordpress.android.ui.reader.ReaderActivityLauncher;
 import org.wordpress.android.ui.stats.models.FollowDataModel;
 import org.wordpress.android.ui.stats.models.FollowerModel;
@@ -29,7 +30,6 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -81,10 +81,10 @@ public class StatsFollowersFragment extends StatsAbstractListFragment {
             public void run() {
                 // Read all the dotcomBlog blogs and get the list of home URLs.
                 // This will be used later to check if the user is a member of followers blog marked as private.
-                List <Map<String, Object>> dotComUserBlogs = WordPress.wpDB.getAccountsBy("dotcomFlag=1", new String[]{"homeURL"});
-                for (Map<String, Object> blog : dotComUserBlogs) {
-                    if (blog != null && blog.get("homeURL") != null) {
-                        String normURL = normalizeAndRemoveScheme(blog.get("homeURL").toString());
+                List<AccountSummary> dotComUserBlogs = WordPress.wpDB.getAccountSummariesBy("dotcomFlag=1");
+                for (AccountSummary blog : dotComUserBlogs) {
+                    if (!TextUtils.isEmpty(blog.getHomeURL())) {
+                        String normURL = normalizeAndRemoveScheme(blog.getHomeURL());
                         dotComUserBlogsURL.add(normURL);
                     }
                 }
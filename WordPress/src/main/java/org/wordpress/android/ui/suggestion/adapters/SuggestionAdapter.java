@@ -11,17 +11,17 @@ import android.widget.TextView;
 
 import org.wordpress.android.R;
 import org.wordpress.android.models.Suggestion;
+import org.wordpress.android.ui.suggestion.util.SuggestionIndex;
 import org.wordpress.android.util.PhotonUtils;
 import org.wordpress.android.widgets.WPNetworkImageView;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class SuggestionAdapter extends BaseAdapter implements Filterable {
     private final LayoutInflater mInflater;
     private Filter mSuggestionFilter;
     private List<Suggestion> mSuggestionList;
-    private List<Suggestion> mOrigSuggestionList;
+    private SuggestionIndex mSuggestionIndex;
     private int mAvatarSz;
 
     public SuggestionAdapter(Context context) {
@@ -30,7 +30,11 @@ public class SuggestionAdapter extends BaseAdapter implements Filterable {
     }
 
     public void setSuggestionList(List<Suggestion> suggestionList) {
-        mOrigSuggestionList = suggestionList;
+        mSuggestionIndex = new SuggestionIndex(suggestionList);
+    }
+
+    public void setSuggestionIndex(SuggestionIndex suggestionIndex) {
+        mSuggestionIndex = suggestionIndex;
     }
 
     @Override
@@ -103,26 +107,15 @@ public class SuggestionAdapter extends BaseAdapter implements Filterable {
         @Override
         protected FilterResults performFiltering(CharSequence constraint) {
             FilterResults results = new FilterResults();
+            // read once since the index may be replaced on the main thread while filtering
+            SuggestionIndex suggestionIndex = mSuggestionIndex;
 
-            if (mOrigSuggestionList == null) {
+            if (suggestionIndex == null) {
                 results.values = null;
                 results.count = 0;
             }
-            else if (constraint == null || constraint.length() == 0) {
-                results.values = mOrigSuggestionList;
-                results.count = mOrigSuggestionList.size();
-            }
             else {
-                List<Suggestion> nSuggestionList = new ArrayList<Suggestion>();
-
-                for (Suggestion suggestion : mOrigSuggestionList) {
-                    String lowerCaseConstraint = constraint.toString().toLowerCase();
-                    if (suggestion.getUserLogin().toLowerCase().startsWith(lowerCaseConstraint)
-                            || suggestion.getDisplayName().toLowerCase().startsWith(lowerCaseConstraint)
-                            || suggestion.getDisplayName().toLowerCase().contains(" " + lowerCaseConstraint))
-                        nSuggestionList.add(suggestion);
-                }
-
+                List<Suggestion> nSuggestionList = suggestionIndex.query(constraint);
                 results.values = nSuggestionList;
                 results.count = nSuggestionList.size();
             }
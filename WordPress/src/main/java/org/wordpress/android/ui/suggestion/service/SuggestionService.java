@@ -15,6 +15,7 @@ import org.json.JSONObject;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.datasets.SuggestionTable;
 import org.wordpress.android.models.Suggestion;
+import org.wordpress.android.ui.suggestion.util.SuggestionIndex;
 import org.wordpress.android.util.AppLog;
 
 import java.util.ArrayList;
@@ -87,6 +88,9 @@ public class SuggestionService extends Service {
                 List<Suggestion> suggestions = Suggestion.suggestionListFromJSON(jsonSuggestions, remoteBlogId);
                 if (suggestions != null) {
                     SuggestionTable.insertSuggestionsForSite(remoteBlogId, suggestions);
+                    // build the index now so it's ready when clients are told about the update - it's built
+                    // from what was stored so it's the same as SuggestionIndex.getForSite() would build
+                    SuggestionIndex.rebuildForSite(remoteBlogId, SuggestionTable.getSuggestionsForSite(remoteBlogId));
 
                     LocalBroadcastManager lbm = LocalBroadcastManager.getInstance(WordPress.getContext());
                     Intent intent = new Intent(SuggestionService.ACTION_SUGGESTIONS_LIST_UPDATED);
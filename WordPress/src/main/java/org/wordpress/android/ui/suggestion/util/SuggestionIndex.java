@@ -0,0 +1,148 @@
+package org.wordpress.android.ui.suggestion.util;
+
+import android.support.v4.util.LruCache;
+
+import org.wordpress.android.datasets.SuggestionTable;
+import org.wordpress.android.models.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Prefix index of a site's @-mention suggestions, so filtering them as the user types doesn't
+ * lowercase and scan every user's login and display name on each keystroke. The lowercased
+ * login, display name and each part of the display name following a space are sorted once
+ * when the index is built, and a query is a binary search for the first key starting with the
+ * typed text followed by a walk over the keys that do.
+ *
+ * Indexes are immutable and cached per site - SuggestionService rebuilds a site's index when
+ * it refreshes the site's suggestions.
+ */
+public class SuggestionIndex {
+    private static final int MAX_CACHED_SITES = 5;
+    private static final LruCache<Integer, SuggestionIndex> sIndexes =
+            new LruCache<Integer, SuggestionIndex>(MAX_CACHED_SITES);
+
+    private final Suggestion[] mSuggestions;
+    // sorted keys, and the position in mSuggestions of the suggestion each key belongs to
+    private final String[] mKeys;
+    private final int[] mKeyOwners;
+    // marks suggestions already matched by the current query, so a suggestion matched by
+    // several of its keys is only returned once - stamped with mQueryCount to avoid clearing it
+    private final int[] mMatchedInQuery;
+    private int mQueryCount;
+
+    private static class Key implements Comparable<Key> {
+        final String text;
+        final int owner;
+
+        Key(String text, int owner) {
+            this.text = text;
+            this.owner = owner;
+        }
+
+        @Override
+        public int compareTo(Key another) {
+            return text.compareTo(another.text);
+        }
+    }
+
+    /**
+     * Returns the index for a site's stored suggestions, building it if it isn't cached
+     */
+    public static SuggestionIndex getForSite(int siteId) {
+        SuggestionIndex index = sIndexes.get(siteId);
+        if (index == null) {
+            index = new SuggestionIndex(SuggestionTable.getSuggestionsForSite(siteId));
+            sIndexes.put(siteId, index);
+        }
+        return index;
+    }
+
+    /**
+     * Builds and caches the index for a site's suggestions after they've been refreshed
+     */
+    public static SuggestionIndex rebuildForSite(int siteId, List<Suggestion> suggestions) {
+        SuggestionIndex index = new SuggestionIndex(suggestions);
+        sIndexes.put(siteId, index);
+        return index;
+    }
+
+    public SuggestionIndex(List<Suggestion> suggestions) {
+        if (suggestions == null) {
+            suggestions = Collections.emptyList();
+        }
+        mSuggestions = suggestions.toArray(new Suggestion[suggestions.size()]);
+        mMatchedInQuery = new int[mSuggestions.length];
+
+        ArrayList<Key> keys = new ArrayList<Key>(mSuggestions.length * 3);
+        for (int i = 0; i < mSuggestions.length; i++) {
+            keys.add(new Key(mSuggestions[i].getUserLogin().toLowerCase(), i));
+            // matches the display name itself and any part of it that follows a space
+            String displayName = mSuggestions[i].getDisplayName().toLowerCase();
+            keys.add(new Key(displayName, i));
+            for (int space = displayName.indexOf(' '); space != -1; space = displayName.indexOf(' ', space + 1)) {
+                keys.add(new Key(displayName.substring(space + 1), i));
+            }
+        }
+        Collections.sort(keys);
+
+        mKeys = new String[keys.size()];
+        mKeyOwners = new int[keys.size()];
+        for (int i = 0; i < mKeys.length; i++) {
+            mKeys[i] = keys.get(i).text;
+            mKeyOwners[i] = keys.get(i).owner;
+        }
+    }
+
+    public boolean isEmpty() {
+        return mSuggestions.length == 0;
+    }
+
+    public List<Suggestion> getSuggestions() {
+        return Arrays.asList(mSuggestions);
+    }
+
+    /**
+     * Returns the suggestions whose login or display name starts with the passed text, or whose
+     * display name contains it after a space, in the order the suggestions were indexed
+     */
+    public synchronized List<Suggestion> query(CharSequence constraint) {
+        if (constraint == null || constraint.length() == 0) {
+            return getSuggestions();
+        }
+        String prefix = constraint.toString().toLowerCase();
+
+        // keys starting with the prefix are contiguous and start at its insertion point
+        int start = Arrays.binarySearch(mKeys, prefix);
+        if (start < 0) {
+            start = -(start + 1);
+        }
+
+        mQueryCount++;
+        int[] matches = null;
+        int numMatches = 0;
+        for (int i = start; i < mKeys.length && mKeys[i].startsWith(prefix); i++) {
+            int owner = mKeyOwners[i];
+            if (mMatchedInQuery[owner] != mQueryCount) {
+                mMatchedInQuery[owner] = mQueryCount;
+                if (matches == null) {
+                    matches = new int[Math.min(mSuggestions.length, mKeys.length - start)];
+                }
+                matches[numMatches++] = owner;
+            }
+        }
+        if (numMatches == 0) {
+            return Collections.emptyList();
+        }
+
+        Arrays.sort(matches, 0, numMatches);
+        ArrayList<Suggestion> results = new ArrayList<Suggestion>(numMatches);
+        for (int i = 0; i < numMatches; i++) {
+            results.add(mSuggestions[matches[i]]);
+        }
+        return results;
+    }
+}
@@ -3,13 +3,9 @@ package org.wordpress.android.ui.suggestion.util;
 import android.content.Context;
 
 import org.wordpress.android.WordPress;
-import org.wordpress.android.datasets.SuggestionTable;
 import org.wordpress.android.models.Blog;
-import org.wordpress.android.models.Suggestion;
 import org.wordpress.android.ui.suggestion.adapters.SuggestionAdapter;
 
-import java.util.List;
-
 public class SuggestionUtils {
 
     public static SuggestionAdapter setupSuggestions(final int remoteBlogId, Context context, SuggestionServiceConnectionManager serviceConnectionManager) {
@@ -26,12 +22,12 @@ public class SuggestionUtils {
 
         SuggestionAdapter suggestionAdapter = new SuggestionAdapter(context);
 
-        List<Suggestion> suggestions = SuggestionTable.getSuggestionsForSite(remoteBlogId);
+        SuggestionIndex suggestionIndex = SuggestionIndex.getForSite(remoteBlogId);
         // if the suggestions are not stored yet, we want to trigger an update for it
-        if (suggestions.isEmpty()) {
+        if (suggestionIndex.isEmpty()) {
             serviceConnectionManager.bindToService();
         }
-        suggestionAdapter.setSuggestionList(suggestions);
+        suggestionAdapter.setSuggestionIndex(suggestionIndex);
         return suggestionAdapter;
     }
 }
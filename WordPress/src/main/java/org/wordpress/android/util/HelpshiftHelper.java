@@ -80,11 +80,19 @@ public class HelpshiftHelper {
                 BuildConfig.HELPSHIFT_API_ID, config);
     }
 
+    /*
+     * Helpshift is installed once the main thread is idle after launch, make sure that's happened
+     */
+    private static void ensureInstalled() {
+        WordPress.ensureStartupTask(WordPress.STARTUP_TASK_HELPSHIFT);
+    }
+
     /**
      * Show conversation activity
      * Automatically add default metadata to this conversation
      */
     public void showConversation(Activity activity) {
+        ensureInstalled();
         AnalyticsTracker.track(Stat.SUPPORT_OPENED_HELPSHIFT_SCREEN);
         HashMap config = getHelpshiftConfig(activity);
         Helpshift.showConversation(activity, config);
@@ -95,6 +103,7 @@ public class HelpshiftHelper {
      * Automatically add default metadata to this conversation (users can start a conversation from FAQ screen).
      */
     public void showFAQ(Activity activity) {
+        ensureInstalled();
         AnalyticsTracker.track(Stat.SUPPORT_OPENED_HELPSHIFT_SCREEN);
         HashMap config = getHelpshiftConfig(activity);
         Helpshift.showFAQs(activity, config);
@@ -107,6 +116,7 @@ public class HelpshiftHelper {
      */
     public void registerDeviceToken(Context context, String regId) {
         if (!TextUtils.isEmpty(regId)) {
+            ensureInstalled();
             Helpshift.registerDeviceToken(context, regId);
         }
     }
@@ -119,6 +129,7 @@ public class HelpshiftHelper {
      * Handle push notification
      */
     public void handlePush(Context context, Intent intent) {
+        ensureInstalled();
         Helpshift.handlePush(context, intent);
     }
 
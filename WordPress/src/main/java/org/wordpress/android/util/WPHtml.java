@@ -163,12 +163,20 @@ public class WPHtml {
      * Returns an HTML representation of the provided Spanned text.
      */
     public static String toHtml(Spanned text) {
+        return toHtml(text, null);
+    }
+
+    /**
+     * Returns an HTML representation of the provided Spanned text, reusing the html of lines
+     * which haven't changed since they were cached (use null if you don't want this).
+     */
+    public static String toHtml(Spanned text, WPHtmlParagraphCache cache) {
         StringBuilder out = new StringBuilder();
-        withinHtml(out, text);
+        withinHtml(out, text, cache);
         return out.toString();
     }
 
-    private static void withinHtml(StringBuilder out, Spanned text) {
+    private static void withinHtml(StringBuilder out, Spanned text, WPHtmlParagraphCache cache) {
         int len = text.length();
 
         int next;
@@ -197,7 +205,7 @@ public class WPHtml {
                 out.append("<div " + elements + ">");
             }*/
 
-            withinDiv(out, text, i, next);
+            withinDiv(out, text, i, next, cache);
 
             /*if (needDiv) {
                 out.append("</div>");
@@ -207,7 +215,7 @@ public class WPHtml {
 
     @SuppressWarnings("unused")
     private static void withinDiv(StringBuilder out, Spanned text, int start,
-            int end) {
+            int end, WPHtmlParagraphCache cache) {
         int next;
         for (int i = start; i < end; i = next) {
             next = text.nextSpanTransition(i, end, QuoteSpan.class);
@@ -217,7 +225,7 @@ public class WPHtml {
                 out.append("<blockquote>");
             }
 
-            withinBlockquote(out, text, i, next);
+            withinBlockquote(out, text, i, next, cache);
 
             for (QuoteSpan quote : quotes) {
                 out.append("</blockquote>\n");
@@ -226,7 +234,7 @@ public class WPHtml {
     }
 
     private static void withinBlockquote(StringBuilder out, Spanned text,
-            int start, int end) {
+            int start, int end, WPHtmlParagraphCache cache) {
         out.append("<p>");
 
         int next;
@@ -243,7 +251,20 @@ public class WPHtml {
                 next++;
             }
 
-            withinParagraph(out, text, i, next - nl, nl, next == end);
+            boolean last = (next == end);
+            if (cache == null) {
+                withinParagraph(out, text, i, next - nl, nl, last);
+                continue;
+            }
+
+            String html = cache.get(text, i, next, last);
+            if (html == null) {
+                StringBuilder paragraph = new StringBuilder();
+                withinParagraph(paragraph, text, i, next - nl, nl, last);
+                html = paragraph.toString();
+                cache.put(text, i, next, last, html);
+            }
+            out.append(html);
         }
 
         out.append("</p>\n");
@@ -0,0 +1,208 @@
+package org.wordpress.android.util;
+
+import android.text.Editable;
+import android.text.NoCopySpan;
+import android.text.SpanWatcher;
+import android.text.Spannable;
+import android.text.Spanned;
+import android.text.TextUtils;
+import android.text.TextWatcher;
+import android.text.style.AbsoluteSizeSpan;
+import android.text.style.AlignmentSpan;
+import android.text.style.ForegroundColorSpan;
+import android.text.style.ImageSpan;
+import android.text.style.QuoteSpan;
+import android.text.style.StrikethroughSpan;
+import android.text.style.StyleSpan;
+import android.text.style.SubscriptSpan;
+import android.text.style.SuperscriptSpan;
+import android.text.style.TypefaceSpan;
+import android.text.style.URLSpan;
+
+import org.wordpress.android.widgets.WPUnderlineSpan;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Caches the HTML WPHtml.toHtml() generates for each line of an editor's content, so saving a
+ * long post only re-serializes the lines that were edited since the last save. Attach it to the
+ * EditText with addTextChangedListener() - text changes and style span changes mark the lines
+ * they touch as dirty, and cached lines after an edit are shifted to their new offsets.
+ *
+ * Lines containing image or gallery spans are never cached since their HTML depends on the
+ * MediaFile/MediaGallery behind the span, which can change without the text changing.
+ */
+public class WPHtmlParagraphCache implements TextWatcher, SpanWatcher, NoCopySpan {
+    private static class Block {
+        int start;
+        int end;
+        final boolean last;
+        final String text;
+        final String html;
+
+        Block(int start, int end, boolean last, String text, String html) {
+            this.start = start;
+            this.end = end;
+            this.last = last;
+            this.text = text;
+            this.html = html;
+        }
+    }
+
+    // cached lines ordered by start offset
+    private final List<Block> mBlocks = new ArrayList<Block>();
+
+    // span changes reported while the text is changing, in post-change offsets
+    private final List<int[]> mPendingDirtyRanges = new ArrayList<int[]>();
+    private boolean mIsTextChanging;
+
+    /*
+     * returns the cached html for the line at [start, end), or null if it isn't cached or the
+     * text has changed underneath it
+     */
+    synchronized String get(Spanned text, int start, int end, boolean last) {
+        for (Block block : mBlocks) {
+            if (block.start > start) {
+                break;
+            }
+            if (block.start == start) {
+                if (block.end == end && block.last == last && block.text.length() == end - start
+                        && TextUtils.regionMatches(text, start, block.text, 0, end - start)) {
+                    return block.html;
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    synchronized void put(Spanned text, int start, int end, boolean last, String html) {
+        if (text.getSpans(start, end, ImageSpan.class).length > 0) {
+            return;
+        }
+
+        Block block = new Block(start, end, last, text.subSequence(start, end).toString(), html);
+        int index = 0;
+        while (index < mBlocks.size() && mBlocks.get(index).start < start) {
+            index++;
+        }
+        if (index < mBlocks.size() && mBlocks.get(index).start == start) {
+            mBlocks.set(index, block);
+        } else {
+            mBlocks.add(index, block);
+        }
+    }
+
+    public synchronized void clear() {
+        mBlocks.clear();
+        mPendingDirtyRanges.clear();
+    }
+
+    /*
+     * drops every cached line touching [start, end]
+     */
+    private void invalidate(int start, int end) {
+        Iterator<Block> iterator = mBlocks.iterator();
+        while (iterator.hasNext()) {
+            Block block = iterator.next();
+            if (block.start <= end && block.end >= start) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /*
+     * TextWatcher
+     */
+    @Override
+    public synchronized void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        mIsTextChanging = true;
+    }
+
+    @Override
+    public synchronized void onTextChanged(CharSequence s, int start, int before, int count) {
+        invalidate(start, start + before);
+        int delta = count - before;
+        if (delta != 0) {
+            for (Block block : mBlocks) {
+                if (block.start > start + before) {
+                    block.start += delta;
+                    block.end += delta;
+                }
+            }
+        }
+
+        for (int[] range : mPendingDirtyRanges) {
+            invalidate(range[0], range[1]);
+        }
+        mPendingDirtyRanges.clear();
+        mIsTextChanging = false;
+
+        // setText() replaces the editable, so make sure we're watching the spans of the current one
+        if (s instanceof Spannable) {
+            Spannable spannable = (Spannable) s;
+            if (spannable.getSpanStart(this) < 0) {
+                spannable.setSpan(this, 0, spannable.length(), Spanned.SPAN_INCLUSIVE_INCLUSIVE);
+            }
+        }
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+    }
+
+    /*
+     * SpanWatcher - only spans WPHtml serializes affect the cache, so selection, composing and
+     * spell check spans don't invalidate it (ImageSpan covers WPImageSpan and MediaGalleryImageSpan)
+     */
+    private static boolean isStyleSpan(Object what) {
+        return what instanceof StyleSpan
+                || what instanceof WPUnderlineSpan
+                || what instanceof StrikethroughSpan
+                || what instanceof URLSpan
+                || what instanceof ImageSpan
+                || what instanceof QuoteSpan
+                || what instanceof AlignmentSpan
+                || what instanceof TypefaceSpan
+                || what instanceof SuperscriptSpan
+                || what instanceof SubscriptSpan
+                || what instanceof AbsoluteSizeSpan
+                || what instanceof ForegroundColorSpan;
+    }
+
+    private void onSpanRangeChanged(int start, int end) {
+        if (mIsTextChanging) {
+            mPendingDirtyRanges.add(new int[]{start, end});
+        } else {
+            invalidate(start, end);
+        }
+    }
+
+    @Override
+    public synchronized void onSpanAdded(Spannable text, Object what, int start, int end) {
+        if (isStyleSpan(what)) {
+            onSpanRangeChanged(start, end);
+        }
+    }
+
+    @Override
+    public synchronized void onSpanRemoved(Spannable text, Object what, int start, int end) {
+        if (isStyleSpan(what)) {
+            onSpanRangeChanged(start, end);
+        }
+    }
+
+    @Override
+    public synchronized void onSpanChanged(Spannable text, Object what, int ostart, int oend, int nstart, int nend) {
+        if (!isStyleSpan(what)) {
+            return;
+        }
+        // spans after an edit are moved along with their text, which onTextChanged() already handles
+        if (mIsTextChanging && nstart - ostart == nend - oend) {
+            return;
+        }
+        onSpanRangeChanged(Math.min(ostart, nstart), Math.max(oend, nend));
+    }
+}
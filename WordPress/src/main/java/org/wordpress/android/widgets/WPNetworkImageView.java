@@ -86,7 +86,7 @@ public class WPNetworkImageView extends ImageView {
     /*
      * retrieves and displays the thumbnail for the passed video
      */
-    public void setVideoUrl(final long postId, final String videoUrl) {
+    public void setVideoUrl(final long blogId, final long postId, final String videoUrl) {
         mImageType = ImageType.VIDEO;
 
         if (TextUtils.isEmpty(videoUrl)) {
@@ -109,7 +109,7 @@ public class WPNetworkImageView extends ImageView {
                 @Override
                 public void onResponse(boolean successful, String thumbnailUrl) {
                     if (successful) {
-                        ReaderThumbnailTable.addThumbnail(postId, videoUrl, thumbnailUrl);
+                        ReaderThumbnailTable.addThumbnail(blogId, postId, videoUrl, thumbnailUrl);
                         setImageUrl(thumbnailUrl, ImageType.VIDEO);
                     }
                 }
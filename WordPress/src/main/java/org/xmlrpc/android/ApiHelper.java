@@ -11,6 +11,8 @@ import com.android.volley.toolbox.RequestFuture;
 import com.android.volley.toolbox.StringRequest;
 import com.google.gson.Gson;
 
+import org.json.JSONArray;
+import org.json.JSONObject;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.datasets.CommentTable;
 import org.wordpress.android.models.Blog;
@@ -21,6 +23,7 @@ import org.wordpress.android.models.FeatureSet;
 import org.wordpress.android.models.MediaFile;
 import org.wordpress.android.ui.media.MediaGridFragment.Filter;
 import org.wordpress.android.ui.posts.PostsListFragment;
+import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.DateTimeUtils;
@@ -38,6 +41,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -300,6 +304,8 @@ public class ApiHelper {
         }
     }
 
+    private static final int TRASHED_COMMENTS_PER_PAGE = 100;
+
     /**
      * request deleted comments for passed blog and remove them from local db
      * @param blog  blog to check
@@ -315,30 +321,51 @@ public class ApiHelper {
                 blog.getHttpuser(),
                 blog.getHttppassword());
 
+        // the blog's comment counts change whenever a comment is trashed or deleted, so
+        // there's nothing to remove if they (and the newest comment) are the same as the
+        // last time we checked
+        int localBlogId = blog.getLocalTableBlogId();
+        String commentCounts = getCommentCounts(client, blog);
+        if (commentCounts != null && commentCounts.equals(AppPrefs.getDeletedCommentsCheckedCounts(localBlogId))) {
+            return 0;
+        }
+
         Map<String, Object> hPost = new HashMap<String, Object>();
         hPost.put("status", "trash");
+        hPost.put("number", TRASHED_COMMENTS_PER_PAGE);
 
         Object[] params = { blog.getRemoteBlogId(),
                 blog.getUsername(),
                 blog.getPassword(),
                 hPost };
 
+        // wp.getComments returns 10 comments unless told otherwise, so page through the trash
         int numDeleted = 0;
         try {
-            Object[] result = (Object[]) client.call("wp.getComments", params);
-            if (result == null || result.length == 0) {
-                return 0;
-            }
-            Map<?, ?> contentHash;
-            for (Object aComment : result) {
-                contentHash = (Map<?, ?>) aComment;
-                long commentId = Long.parseLong(contentHash.get("comment_id").toString());
-                if (CommentTable.deleteComment(blog.getLocalTableBlogId(), commentId))
-                    numDeleted++;
+            int offset = 0;
+            while (true) {
+                hPost.put("offset", offset);
+                Object[] result = (Object[]) client.call("wp.getComments", params);
+                if (result == null || result.length == 0) {
+                    break;
+                }
+                List<Long> trashedIds = new ArrayList<Long>(result.length);
+                for (Object aComment : result) {
+                    Map<?, ?> contentHash = (Map<?, ?>) aComment;
+                    trashedIds.add(Long.parseLong(contentHash.get("comment_id").toString()));
+                }
+                numDeleted += CommentTable.deleteCommentsWithIds(localBlogId, trashedIds);
+                if (result.length < TRASHED_COMMENTS_PER_PAGE) {
+                    break;
+                }
+                offset += result.length;
             }
             if (numDeleted > 0) {
                 AppLog.d(T.COMMENTS, String.format("removed %d deleted comments", numDeleted));
             }
+            if (commentCounts != null) {
+                AppPrefs.setDeletedCommentsCheckedCounts(localBlogId, commentCounts);
+            }
         } catch (XMLRPCException e) {
             AppLog.e(T.COMMENTS, e);
         } catch (IOException e) {
@@ -350,6 +377,49 @@ public class ApiHelper {
         return numDeleted;
     }
 
+    /*
+     * returns the blog's comment counts (approved, awaiting moderation, spam and total) and the
+     * id of its newest comment as a single string for comparison, or null if they couldn't be
+     * retrieved - the id catches a comment being trashed while another one is added, which
+     * leaves the counts the same
+     */
+    private static String getCommentCounts(XMLRPCClientInterface client, Blog blog) {
+        Object[] params = { blog.getRemoteBlogId(),
+                blog.getUsername(),
+                blog.getPassword() };
+        Map<String, Object> hPost = new HashMap<String, Object>();
+        hPost.put("number", 1);
+        Object[] newestParams = { blog.getRemoteBlogId(),
+                blog.getUsername(),
+                blog.getPassword(),
+                hPost };
+        try {
+            Map<?, ?> result = (Map<?, ?>) client.call("wp.getCommentCount", params);
+            if (result == null) {
+                return null;
+            }
+            Object[] newest = (Object[]) client.call("wp.getComments", newestParams);
+            String newestId = "";
+            if (newest != null && newest.length > 0) {
+                newestId = MapUtils.getMapStr((Map<?, ?>) newest[0], "comment_id");
+            }
+            return MapUtils.getMapStr(result, "approved")
+                    + "/" + MapUtils.getMapStr(result, "awaiting_moderation")
+                    + "/" + MapUtils.getMapStr(result, "spam")
+                    + "/" + MapUtils.getMapStr(result, "total_comments")
+                    + "/" + newestId;
+        } catch (XMLRPCException e) {
+            AppLog.e(T.COMMENTS, e);
+        } catch (IOException e) {
+            AppLog.e(T.COMMENTS, e);
+        } catch (XmlPullParserException e) {
+            AppLog.e(T.COMMENTS, e);
+        } catch (ClassCastException e) {
+            AppLog.e(T.COMMENTS, e);
+        }
+        return null;
+    }
+
     public static CommentList refreshComments(Blog blog, Object[] commentParams)
             throws XMLRPCException, IOException, XmlPullParserException {
         if (blog == null) {
@@ -579,11 +649,22 @@ public class ApiHelper {
         }
     }
 
+    /**
+     * Syncs the media library. A sync at offset zero of the whole library, when the blog already
+     * has synced media, is incremental: it pages through the library (newest first) only until it
+     * reaches media we already have, deletes local items in the fetched date range which weren't
+     * returned, and for wp.com/Jetpack blogs checks a REST manifest of media IDs for deletions of
+     * older items. Changes are applied in a single transaction.
+     */
     public static class SyncMediaLibraryTask extends HelperAsyncTask<java.util.List<?>, Void, Integer> {
         public interface Callback extends GenericErrorCallback {
             public void onSuccess(int results);
         }
 
+        private static final int MEDIA_PAGE_SIZE = 50;
+        private static final int MANIFEST_PAGE_SIZE = 100;
+        private static final long MANIFEST_CHECK_INTERVAL_MS = 24 * 60 * 60 * 1000L;
+
         private Callback mCallback;
         private int mOffset;
         private Filter mFilter;
@@ -607,9 +688,79 @@ public class ApiHelper {
             String blogId = String.valueOf(blog.getLocalTableBlogId());
             XMLRPCClientInterface client = XMLRPCFactory.instantiate(blog.getUri(), blog.getHttpuser(),
                     blog.getHttppassword());
+
+            // only a refresh of the whole library can detect deletions, and it only needs to fetch
+            // what's newer than the media we already have
+            long newestDate = 0;
+            if (mOffset == 0 && mFilter == Filter.ALL) {
+                newestDate = WordPress.wpDB.getNewestMediaDateForBlog(blogId);
+            }
+            boolean isIncremental = (newestDate > 0);
+
+            List<MediaFile> mediaFiles = new ArrayList<MediaFile>();
+            Set<String> fetchedIds = new HashSet<String>();
+            int firstPageCount = -1;
+            int offset = mOffset;
+            long oldestFetchedDate = Long.MAX_VALUE;
+            boolean reachedKnownMedia = false;
+            boolean reachedEnd = false;
+
+            while (true) {
+                Object[] results = getMediaLibraryPage(client, blog, offset);
+                if (results == null) {
+                    return 0;
+                }
+                if (firstPageCount < 0) {
+                    firstPageCount = results.length;
+                }
+
+                for (Object result : results) {
+                    MediaFile mediaFile = new MediaFile(blogId, (Map<?, ?>) result);
+                    mediaFiles.add(mediaFile);
+                    fetchedIds.add(mediaFile.getMediaId());
+                    oldestFetchedDate = Math.min(oldestFetchedDate, mediaFile.getDateCreatedGMT());
+                    if (mediaFile.getDateCreatedGMT() <= newestDate) {
+                        reachedKnownMedia = true;
+                    }
+                }
+                reachedEnd = (results.length < MEDIA_PAGE_SIZE);
+
+                // a paged sync fetches a single page, an incremental one keeps going until it
+                // reaches media we already have
+                if (!isIncremental || reachedKnownMedia || reachedEnd) {
+                    break;
+                }
+                offset += results.length;
+            }
+
+            Set<String> deletedIds = new HashSet<String>();
+            if (isIncremental) {
+                // every item created within the fetched range was returned, so local items in that
+                // range which weren't have been deleted on the server - the oldest date itself is
+                // left out, since other items created in the same second may be on the next page
+                long rangeStart = (reachedEnd ? -1 : oldestFetchedDate);
+                if (rangeStart < Long.MAX_VALUE) {
+                    deletedIds.addAll(WordPress.wpDB.getSyncedMediaIdsForBlog(blogId, rangeStart));
+                    deletedIds.removeAll(fetchedIds);
+                }
+
+                if (!reachedEnd) {
+                    Set<String> expectedIds = WordPress.wpDB.getSyncedMediaIdsForBlog(blogId, -1);
+                    expectedIds.addAll(fetchedIds);
+                    expectedIds.removeAll(deletedIds);
+                    deletedIds.addAll(getDeletedIdsFromManifest(blog, expectedIds));
+                }
+            }
+
+            WordPress.wpDB.saveMediaFiles(blogId, mediaFiles, deletedIds);
+            WordPress.wpDB.deleteFilesMarkedForDeleted(blogId);
+            return firstPageCount;
+        }
+
+        private Object[] getMediaLibraryPage(XMLRPCClientInterface client, Blog blog, int offset) {
             Map<String, Object> filter = new HashMap<String, Object>();
-            filter.put("number", 50);
-            filter.put("offset", mOffset);
+            filter.put("number", MEDIA_PAGE_SIZE);
+            filter.put("offset", offset);
 
             if (mFilter == Filter.IMAGES) {
                 filter.put("mime_type","image/*");
@@ -625,41 +776,103 @@ public class ApiHelper {
                 results = (Object[]) client.call("wp.getMediaLibrary", apiParams);
             } catch (ClassCastException cce) {
                 setError(ErrorType.INVALID_RESULT, cce.getMessage(), cce);
-                return 0;
+                return null;
             } catch (XMLRPCException e) {
                 prepareErrorMessage(e);
-                return 0;
+                return null;
             } catch (IOException e) {
                 prepareErrorMessage(e);
-                return 0;
+                return null;
             } catch (XmlPullParserException e) {
                 prepareErrorMessage(e);
-                return 0;
-            }
-
-            if (blogId == null) {
-                setError(ErrorType.INVALID_CURRENT_BLOG, "Invalid blogId");
-                return 0;
+                return null;
             }
 
             if (results == null) {
                 setError(ErrorType.INVALID_RESULT, "Invalid blogId");
-                return 0;
+                return null;
             }
 
-            Map<?, ?> resultMap;
-            // results returned, so mark everything existing to deleted
-            // since offset is 0, we are doing a full refresh
-            if (mOffset == 0) {
-                WordPress.wpDB.setMediaFilesMarkedForDeleted(blogId);
+            return results;
+        }
+
+        /*
+         * a library that's only partly synced never matches the manifest's count, so the whole
+         * manifest would be paged through on every refresh - do that at most once per interval
+         */
+        private static boolean isManifestCheckDue(Blog blog) {
+            long lastChecked = AppPrefs.getMediaManifestCheckedTime(blog.getLocalTableBlogId());
+            return System.currentTimeMillis() - lastChecked >= MANIFEST_CHECK_INTERVAL_MS;
+        }
+
+        /*
+         * wp.com and Jetpack blogs can list just the IDs of their media through the REST API - if the
+         * number of remote items doesn't match what we expect to have, page through the IDs to find
+         * which older items were deleted (see isManifestCheckDue). Returns an empty set when the
+         * check isn't possible.
+         */
+        private Set<String> getDeletedIdsFromManifest(Blog blog, Set<String> expectedIds) {
+            Set<String> deletedIds = new HashSet<String>();
+            String siteId = blog.getDotComBlogId();
+            if (!(blog.isDotcomFlag() || blog.isJetpackPowered()) || siteId == null) {
+                return deletedIds;
             }
-            for (Object result : results) {
-                resultMap = (Map<?, ?>) result;
-                MediaFile mediaFile = new MediaFile(blogId, resultMap);
-                WordPress.wpDB.saveMediaFile(mediaFile);
+
+            String path = String.format("sites/%s/media", siteId);
+            Set<String> remoteIds = new HashSet<String>();
+            try {
+                int page = 1;
+                while (true) {
+                    Map<String, String> manifestParams = new HashMap<String, String>();
+                    manifestParams.put("fields", "ID");
+                    manifestParams.put("number", Integer.toString(MANIFEST_PAGE_SIZE));
+                    manifestParams.put("page", Integer.toString(page));
+                    JSONObject response = WordPress.getRestClientUtilsV1_1().getSynchronous(path, manifestParams, null);
+                    if (response == null) {
+                        return deletedIds;
+                    }
+                    if (page == 1 && response.optInt("found", -1) == expectedIds.size()) {
+                        // counts match, nothing older was deleted
+                        return deletedIds;
+                    }
+                    if (page == 1 && !isManifestCheckDue(blog)) {
+                        // counts differ, but the manifest was paged through recently
+                        return deletedIds;
+                    }
+
+                    JSONArray media = response.optJSONArray("media");
+                    if (media == null || media.length() == 0) {
+                        break;
+                    }
+                    for (int i = 0; i < media.length(); i++) {
+                        JSONObject item = media.optJSONObject(i);
+                        if (item != null) {
+                            remoteIds.add(item.optString("ID"));
+                        }
+                    }
+                    if (media.length() < MANIFEST_PAGE_SIZE) {
+                        break;
+                    }
+                    page++;
+                }
+            } catch (InterruptedException e) {
+                AppLog.e(T.API, e);
+                return deletedIds;
+            } catch (ExecutionException e) {
+                AppLog.e(T.API, e);
+                return deletedIds;
+            } catch (TimeoutException e) {
+                AppLog.e(T.API, e);
+                return deletedIds;
             }
-            WordPress.wpDB.deleteFilesMarkedForDeleted(blogId);
-            return results.length;
+            AppPrefs.setMediaManifestCheckedTime(blog.getLocalTableBlogId(), System.currentTimeMillis());
+
+            for (String mediaId : expectedIds) {
+                if (!remoteIds.contains(mediaId)) {
+                    deletedIds.add(mediaId);
+                }
+            }
+            return deletedIds;
         }
 
         private void prepareErrorMessage(Exception e) {
@@ -130,9 +130,11 @@ public class TrustUserSSLCertsSocketFactory extends SSLSocketFactory {
             }
         }
 
-        AppLog.i(T.API, "Established " + session.getProtocol()
-                + " connection with " + session.getPeerHost()
-                + " using " + session.getCipherSuite());
+        if (AppLog.isLoggable(T.API, AppLog.LogLevel.i)) {
+            AppLog.i(T.API, "Established " + session.getProtocol()
+                    + " connection with " + session.getPeerHost()
+                    + " using " + session.getCipherSuite());
+        }
 
         return ssl;
     }
@@ -6,9 +6,19 @@ import android.util.AttributeSet;
 import android.widget.EditText;
 
 public class PersistentEditText extends EditText {
+    // saves are coalesced until typing pauses for this long
+    private static final long SAVE_DELAY_MS = 500;
+
     private PersistentEditTextHelper mPersistentEditTextHelper;
     private Boolean mEnabled;
 
+    private final Runnable mSaveRunnable = new Runnable() {
+        @Override
+        public void run() {
+            save();
+        }
+    };
+
     public PersistentEditText(Context context) {
         super(context, null);
         mPersistentEditTextHelper = new PersistentEditTextHelper(context);
@@ -46,12 +56,14 @@ public class PersistentEditText extends EditText {
         if (text.length() == 0 && lengthBefore == 0) {
             return;
         }
-        save();
+        removeCallbacks(mSaveRunnable);
+        postDelayed(mSaveRunnable, SAVE_DELAY_MS);
     }
 
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        removeCallbacks(mSaveRunnable);
         save();
     }
 
@@ -4,7 +4,18 @@ import android.content.Context;
 import android.view.View;
 import android.widget.EditText;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class PersistentEditTextHelper {
+    // all writes go through a single background writer so they never block typing, and land
+    // in the order they were made
+    private static final ExecutorService sWriter = Executors.newSingleThreadExecutor();
+    // values queued on the writer but not yet written, so loads don't see stale text
+    private static final Map<String, String> sPendingWrites = new HashMap<String, String>();
+
     private String mUniqueId;
     private PersistentEditTextDatabase mPersistentEditTextDatabase;
 
@@ -33,7 +44,14 @@ public class PersistentEditTextHelper {
     }
 
     public void loadString(EditText editText) {
-        String text = mPersistentEditTextDatabase.get(getViewPathId(editText) + mUniqueId, "");
+        String key = getViewPathId(editText) + mUniqueId;
+        String text;
+        synchronized (sPendingWrites) {
+            text = sPendingWrites.get(key);
+        }
+        if (text == null) {
+            text = mPersistentEditTextDatabase.get(key, "");
+        }
         if (!text.isEmpty()) {
             editText.setText(text);
             editText.setSelection(text.length());
@@ -44,11 +62,44 @@ public class PersistentEditTextHelper {
         if (editText.getText() == null) {
             return;
         }
-        mPersistentEditTextDatabase.put(getViewPathId(editText) + mUniqueId, editText.getText().toString());
+        final String key = getViewPathId(editText) + mUniqueId;
+        final String value = editText.getText().toString();
+        synchronized (sPendingWrites) {
+            if (value.equals(sPendingWrites.get(key))) {
+                return;
+            }
+            sPendingWrites.put(key, value);
+        }
+        sWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (sPendingWrites) {
+                    // a newer value for the same key is already queued, let that one write
+                    if (!value.equals(sPendingWrites.get(key))) {
+                        return;
+                    }
+                }
+                mPersistentEditTextDatabase.put(key, value);
+                synchronized (sPendingWrites) {
+                    if (value.equals(sPendingWrites.get(key))) {
+                        sPendingWrites.remove(key);
+                    }
+                }
+            }
+        });
     }
 
     public void clearSavedText(View view, String uniqueId) {
-        mPersistentEditTextDatabase.remove(getViewPathId(view) + uniqueId);
+        final String key = getViewPathId(view) + uniqueId;
+        synchronized (sPendingWrites) {
+            sPendingWrites.remove(key);
+        }
+        sWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                mPersistentEditTextDatabase.remove(key);
+            }
+        });
     }
 
     protected static String getViewPathId(View view) {
@@ -4,23 +4,36 @@ import android.content.Context;
 import android.text.TextUtils;
 import android.util.Log;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * simple wrapper for Android log calls, enables recording & displaying log
  */
 public class AppLog {
     // T for Tag
-    public enum T {READER, EDITOR, MEDIA, NUX, API, STATS, UTILS, NOTIFS, DB, POSTS, COMMENTS, THEMES, TESTS, PROFILING, SIMPERIUM, SUGGESTION}
+    public enum T {READER, EDITOR, MEDIA, NUX, API, STATS, UTILS, NOTIFS, DB, POSTS, COMMENTS, THEMES, TESTS, PROFILING, SIMPERIUM, SUGGESTION;
+        // the tag passed to android.util.Log, built once rather than on every call
+        private final String mLogTag = TAG + "-" + name();
+    }
     public static final String TAG = "WordPress";
     public static final int HEADER_LINE_COUNT = 2;
 
     private static boolean mEnableRecording = false;
 
+    // lowest level logged for each tag, indexed by T.ordinal() - everything is logged by default
+    private static final LogLevel[] sMinLevels = new LogLevel[T.values().length];
+    static {
+        Arrays.fill(sMinLevels, LogLevel.v);
+    }
+
     private AppLog() {
         throw new AssertionError();
     }
@@ -32,45 +45,79 @@ public class AppLog {
         mEnableRecording = enable;
     }
 
+    /*
+     * entries below the passed level aren't logged or recorded for the passed tag
+     */
+    public static void setMinLevel(T tag, LogLevel level) {
+        sMinLevels[tag.ordinal()] = level;
+    }
+
+    /*
+     * returns true if entries at the passed level are logged for the passed tag - check this
+     * before building an expensive message in a hot loop
+     */
+    public static boolean isLoggable(T tag, LogLevel level) {
+        return level.ordinal() >= sMinLevels[tag.ordinal()].ordinal();
+    }
+
     public static void v(T tag, String message) {
-        Log.v(TAG + "-" + tag.toString(), message);
-        addEntry(tag, LogLevel.v, message);
+        if (!isLoggable(tag, LogLevel.v)) {
+            return;
+        }
+        Log.v(tag.mLogTag, message);
+        addEntry(tag, LogLevel.v, message, null);
     }
 
     public static void d(T tag, String message) {
-        Log.d(TAG + "-" + tag.toString(), message);
-        addEntry(tag, LogLevel.d, message);
+        if (!isLoggable(tag, LogLevel.d)) {
+            return;
+        }
+        Log.d(tag.mLogTag, message);
+        addEntry(tag, LogLevel.d, message, null);
     }
 
     public static void i(T tag, String message) {
-        Log.i(TAG + "-" + tag.toString(), message);
-        addEntry(tag, LogLevel.i, message);
+        if (!isLoggable(tag, LogLevel.i)) {
+            return;
+        }
+        Log.i(tag.mLogTag, message);
+        addEntry(tag, LogLevel.i, message, null);
     }
 
     public static void w(T tag, String message) {
-        Log.w(TAG + "-" + tag.toString(), message);
-        addEntry(tag, LogLevel.w, message);
+        if (!isLoggable(tag, LogLevel.w)) {
+            return;
+        }
+        Log.w(tag.mLogTag, message);
+        addEntry(tag, LogLevel.w, message, null);
     }
 
     public static void e(T tag, String message) {
-        Log.e(TAG + "-" + tag.toString(), message);
-        addEntry(tag, LogLevel.e, message);
+        if (!isLoggable(tag, LogLevel.e)) {
+            return;
+        }
+        Log.e(tag.mLogTag, message);
+        addEntry(tag, LogLevel.e, message, null);
     }
 
     public static void e(T tag, String message, Throwable tr) {
-        Log.e(TAG + "-" + tag.toString(), message, tr);
-        addEntry(tag, LogLevel.e, message + " - exception: " + tr.getMessage());
-        addEntry(tag, LogLevel.e, "StackTrace: " + getHTMLStringStackTrace(tr));
+        if (!isLoggable(tag, LogLevel.e)) {
+            return;
+        }
+        Log.e(tag.mLogTag, message, tr);
+        addEntry(tag, LogLevel.e, message, tr);
     }
 
     public static void e(T tag, Throwable tr) {
-        Log.e(TAG + "-" + tag.toString(), tr.getMessage(), tr);
-        addEntry(tag, LogLevel.e, tr.getMessage());
-        addEntry(tag, LogLevel.e, "StackTrace: " + getHTMLStringStackTrace(tr));
+        if (!isLoggable(tag, LogLevel.e)) {
+            return;
+        }
+        Log.e(tag.mLogTag, tr.getMessage(), tr);
+        addEntry(tag, LogLevel.e, null, tr);
     }
 
     public static void e(T tag, String volleyErrorMsg, int statusCode) {
-        if (TextUtils.isEmpty(volleyErrorMsg)) {
+        if (TextUtils.isEmpty(volleyErrorMsg) || !isLoggable(tag, LogLevel.e)) {
             return;
         }
         String logText;
@@ -79,15 +126,15 @@ public class AppLog {
         } else {
             logText = volleyErrorMsg + ", status " + statusCode;
         }
-        Log.e(TAG + "-" + tag.toString(), logText);
-        addEntry(tag, LogLevel.w, logText);
+        Log.e(tag.mLogTag, logText);
+        addEntry(tag, LogLevel.w, logText, null);
     }
 
     // --------------------------------------------------------------------------------------------------------
 
     private static final int MAX_ENTRIES = 99;
 
-    private enum LogLevel {
+    public enum LogLevel {
         v, d, i, w, e;
         private String toHtmlColor() {
             switch(this) {
@@ -106,12 +153,88 @@ public class AppLog {
         }
     }
 
+    /*
+     * recorded entries live in a ring buffer of preallocated entries - recording an entry claims
+     * the next slot with an atomic increment and writes the raw values to it, so threads logging
+     * at the same time don't wait on each other and nothing is formatted until the log is read.
+     * An entry's sequence number is cleared while it's being written and set once it's complete,
+     * so readers can skip entries that are being overwritten. Exceptions are recorded as their
+     * message and stack trace rather than the Throwable, which would keep whatever it references
+     * alive for as long as the entry is in the buffer.
+     */
     private static class LogEntry {
+        volatile long sequence = -1;
+        long timestamp;
         LogLevel logLevel;
-        String logText;
         T logTag;
+        String logText;
+        String exceptionMessage;
+        String stackTrace;
+    }
 
-        private String toHtml() {
+    private static final LogEntry[] sEntries = new LogEntry[MAX_ENTRIES];
+    static {
+        for (int i = 0; i < MAX_ENTRIES; i++) {
+            sEntries[i] = new LogEntry();
+        }
+    }
+    private static final AtomicLong sNextSequence = new AtomicLong();
+
+    private static void addEntry(T tag, LogLevel level, String text, Throwable throwable) {
+        // skip if recording is disabled (default)
+        if (!mEnableRecording)
+            return;
+        // format the stack trace before claiming a slot, so the slot is incomplete for as short a
+        // time as possible
+        String exceptionMessage = (throwable != null ? throwable.getMessage() : null);
+        String stackTrace = (throwable != null ? getStringStackTrace(throwable) : null);
+        long sequence = sNextSequence.getAndIncrement();
+        LogEntry entry = sEntries[(int) (sequence % MAX_ENTRIES)];
+        entry.sequence = -1;
+        entry.timestamp = System.currentTimeMillis();
+        entry.logLevel = level;
+        entry.logTag = tag;
+        entry.logText = text;
+        entry.exceptionMessage = exceptionMessage;
+        entry.stackTrace = stackTrace;
+        entry.sequence = sequence;
+    }
+
+    /*
+     * a copy of a recorded entry taken when the log is read
+     */
+    private static class LogSnapshot {
+        final long timestamp;
+        final LogLevel logLevel;
+        final T logTag;
+        final String logText;
+        final String exceptionMessage;
+        final String stackTrace;
+
+        LogSnapshot(LogEntry entry) {
+            this.timestamp = entry.timestamp;
+            this.logLevel = entry.logLevel;
+            this.logTag = entry.logTag;
+            this.logText = entry.logText;
+            this.exceptionMessage = entry.exceptionMessage;
+            this.stackTrace = entry.stackTrace;
+        }
+
+        /*
+         * the text as it used to be recorded - exceptions are followed by a separate
+         * "StackTrace:" line
+         */
+        private String getText() {
+            if (stackTrace == null) {
+                return logText;
+            }
+            if (logText == null) {
+                return exceptionMessage;
+            }
+            return logText + " - exception: " + exceptionMessage;
+        }
+
+        private String toHtml(String text) {
             StringBuilder sb = new StringBuilder()
                     .append("<font color='")
                     .append(logLevel.toHtmlColor())
@@ -121,41 +244,31 @@ public class AppLog {
                     .append("] ")
                     .append(logLevel.name())
                     .append(": ")
-                    .append(logText)
+                    .append(text)
                     .append("</font>");
             return sb.toString();
         }
     }
 
-    private static class LogEntryList extends ArrayList<LogEntry> {
-        private synchronized boolean addEntry(LogEntry entry) {
-            if (size() >= MAX_ENTRIES)
-                removeFirstEntry();
-            return add(entry);
-        }
-        private void removeFirstEntry() {
-            Iterator<LogEntry> it = iterator();
-            if (!it.hasNext())
-                return;
-            try {
-                remove(it.next());
-            } catch (NoSuchElementException e) {
-                // ignore
+    /*
+     * returns the recorded entries, oldest first
+     */
+    private static List<LogSnapshot> getSnapshots() {
+        long nextSequence = sNextSequence.get();
+        long firstSequence = Math.max(0, nextSequence - MAX_ENTRIES);
+        List<LogSnapshot> snapshots = new ArrayList<LogSnapshot>((int) (nextSequence - firstSequence));
+        for (long sequence = firstSequence; sequence < nextSequence; sequence++) {
+            LogEntry entry = sEntries[(int) (sequence % MAX_ENTRIES)];
+            if (entry.sequence != sequence) {
+                continue;
+            }
+            LogSnapshot snapshot = new LogSnapshot(entry);
+            // skip the entry if it was overwritten while we were copying it
+            if (entry.sequence == sequence) {
+                snapshots.add(snapshot);
             }
         }
-    }
-
-    private static LogEntryList mLogEntries = new LogEntryList();
-
-    private static void addEntry(T tag, LogLevel level, String text) {
-        // skip if recording is disabled (default)
-        if (!mEnableRecording)
-            return;
-        LogEntry entry = new LogEntry();
-        entry.logLevel = level;
-        entry.logText = text;
-        entry.logTag = tag;
-        mLogEntries.addEntry(entry);
+        return snapshots;
     }
 
     private static String getStringStackTrace(Throwable throwable) {
@@ -164,8 +277,8 @@ public class AppLog {
         return errors.toString();
     }
 
-    private static String getHTMLStringStackTrace(Throwable throwable) {
-        return getStringStackTrace(throwable).replace("\n", "<br/>");
+    private static String getHTMLStringStackTrace(String stackTrace) {
+        return stackTrace.replace("\n", "<br/>");
     }
 
     /*
@@ -178,9 +291,11 @@ public class AppLog {
         items.add("<strong>WordPress Android version: " + PackageUtils.getVersionName(context) + "</strong>");
         items.add("<strong>Android device name: " + DeviceUtils.getInstance().getDeviceName(context) + "</strong>");
 
-        Iterator<LogEntry> it = mLogEntries.iterator();
-        while (it.hasNext()) {
-            items.add(it.next().toHtml());
+        for (LogSnapshot snapshot : getSnapshots()) {
+            items.add(snapshot.toHtml(snapshot.getText()));
+            if (snapshot.stackTrace != null) {
+                items.add(snapshot.toHtml("StackTrace: " + getHTMLStringStackTrace(snapshot.stackTrace)));
+            }
         }
         return items;
     }
@@ -196,14 +311,66 @@ public class AppLog {
         sb.append("WordPress Android version: " + PackageUtils.getVersionName(context)).append("\n")
           .append("Android device name: " + DeviceUtils.getInstance().getDeviceName(context)).append("\n\n");
 
-        Iterator<LogEntry> it = mLogEntries.iterator();
         int lineNum = 1;
-        while (it.hasNext()) {
-              sb.append(String.format("%02d - ", lineNum))
-              .append(it.next().logText)
+        for (LogSnapshot snapshot : getSnapshots()) {
+            sb.append(String.format("%02d - ", lineNum))
+              .append(snapshot.getText())
               .append("\n");
             lineNum++;
+            if (snapshot.stackTrace != null) {
+                sb.append(String.format("%02d - ", lineNum))
+                  .append("StackTrace: ")
+                  .append(getHTMLStringStackTrace(snapshot.stackTrace))
+                  .append("\n");
+                lineNum++;
+            }
         }
         return sb.toString();
     }
+
+    /*
+     * binary export for bug reports - much smaller than the text export since levels and tags are
+     * single bytes and timestamps are eight. The format is:
+     *
+     *   int     BINARY_MAGIC
+     *   byte    BINARY_VERSION
+     *   UTF     app version
+     *   int     number of entries, then for each entry:
+     *     long    timestamp (ms since epoch)
+     *     byte    level ordinal
+     *     byte    tag ordinal
+     *     UTF     text ("" if none)
+     *     boolean has stack trace, followed by the stack trace as UTF if true
+     */
+    public static final int BINARY_MAGIC = 0x57504c47; // "WPLG"
+    public static final byte BINARY_VERSION = 1;
+    // DataOutputStream.writeUTF() is limited to 64K bytes
+    private static final int MAX_BINARY_TEXT_LENGTH = 16 * 1024;
+
+    public static void writeBinary(Context context, OutputStream out) throws IOException {
+        List<LogSnapshot> snapshots = getSnapshots();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(BINARY_MAGIC);
+        data.writeByte(BINARY_VERSION);
+        data.writeUTF(StringUtils.notNullStr(PackageUtils.getVersionName(context)));
+        data.writeInt(snapshots.size());
+        for (LogSnapshot snapshot : snapshots) {
+            data.writeLong(snapshot.timestamp);
+            data.writeByte(snapshot.logLevel.ordinal());
+            data.writeByte(snapshot.logTag.ordinal());
+            data.writeUTF(truncateForBinary(snapshot.getText()));
+            data.writeBoolean(snapshot.stackTrace != null);
+            if (snapshot.stackTrace != null) {
+                data.writeUTF(truncateForBinary(snapshot.stackTrace));
+            }
+        }
+        data.flush();
+    }
+
+    private static String truncateForBinary(String text) {
+        if (text == null) {
+            return "";
+        }
+        return (text.length() > MAX_BINARY_TEXT_LENGTH ? text.substring(0, MAX_BINARY_TEXT_LENGTH) : text);
+    }
 }
@@ -1,7 +1,10 @@
 package org.wordpress.android.util;
 
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.pm.PackageManager;
+import android.os.BatteryManager;
 import android.os.Build;
 
 import org.wordpress.android.util.AppLog.T;
@@ -49,6 +52,15 @@ public class DeviceUtils {
         return pm.hasSystemFeature("android.hardware.camera.any");
     }
 
+    /**
+     * Returns true if the device is plugged in - ACTION_BATTERY_CHANGED is sticky, so this
+     * returns its last broadcast without registering a receiver
+     */
+    public boolean isCharging(Context context) {
+        Intent batteryStatus = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        return batteryStatus != null && batteryStatus.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+    }
+
     public String getDeviceName(Context context) {
         String manufacturer = Build.MANUFACTURER;
         String undecodedModel = Build.MODEL;
@@ -5,6 +5,7 @@ import android.content.Context;
 import android.database.Cursor;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Matrix;
@@ -26,14 +27,23 @@ import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.DefaultHttpClient;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.ref.WeakReference;
 
 public class ImageUtils {
+    // quality used when re-encoding resized images for upload
+    private static final int UPLOAD_JPEG_QUALITY = 90;
+
+    // max number of decoded pixels held at once when decoding large images in bands (~4MB at ARGB_8888)
+    private static final int MAX_DECODE_BAND_PIXELS = 1024 * 1024;
+
     public static int[] getImageSize(Uri uri, Context context){
         String path = null;
         BitmapFactory.Options options = new BitmapFactory.Options();
@@ -345,21 +355,9 @@ public class ImageUtils {
                 return null;
             }
         } else {
-            // Create resized bitmap
+            // Create resized bitmap, scaled to the target size on its longest side
             int rotation = getImageOrientation(context, filePath);
-            byte[] bytes = createThumbnailFromUri(context, curUri, targetWidth, null, rotation);
-
-            if (bytes != null && bytes.length > 0) {
-                try {
-                    Bitmap resizedBitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-                    if (resizedBitmap != null) {
-                        return getScaledBitmapAtLongestSide(resizedBitmap, targetWidth);
-                    }
-                } catch (OutOfMemoryError e) {
-                    AppLog.e(AppLog.T.UTILS, "OutOfMemoryError Error in setting image: " + e);
-                    return null;
-                }
-            }
+            return decodeScaledBitmap(getFilePathFromUri(context, curUri), targetWidth, targetWidth, rotation);
         }
 
         return null;
@@ -402,112 +400,235 @@ public class ImageUtils {
         if (context == null || imageUri == null || maxWidth <= 0)
             return null;
 
-        String filePath = null;
-        if (imageUri.toString().contains("content:")) {
-            String[] projection = new String[] { MediaStore.Images.Media.DATA };
-            Cursor cur = context.getContentResolver().query(imageUri, projection, null, null, null);
-            if (cur != null) {
-                if (cur.moveToFirst()) {
-                    int dataColumn = cur.getColumnIndex(MediaStore.Images.Media.DATA);
-                    filePath = cur.getString(dataColumn);
+        String filePath = getFilePathFromUri(context, imageUri);
+        Bitmap bmpResized = decodeScaledBitmap(filePath, maxWidth, 0, rotation);
+        if (bmpResized == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        bmpResized.compress(getCompressFormat(fileExtension), 100, stream);
+        bmpResized.recycle();
+
+        return stream.toByteArray();
+    }
+
+    /**
+     * Resizes the image to maxWidth and writes the re-encoded result straight to outFile, so the
+     * caller never holds the encoded bytes in memory. Returns false if the image couldn't be
+     * decoded or written.
+     */
+    public static boolean resizeImageToFile(Context context,
+                                            Uri imageUri,
+                                            int maxWidth,
+                                            String fileExtension,
+                                            int rotation,
+                                            File outFile) {
+        if (context == null || imageUri == null || maxWidth <= 0 || outFile == null)
+            return false;
+
+        String filePath = getFilePathFromUri(context, imageUri);
+        Bitmap bmpResized = decodeScaledBitmap(filePath, maxWidth, 0, rotation);
+        if (bmpResized == null) {
+            return false;
+        }
+
+        OutputStream out = null;
+        try {
+            out = new BufferedOutputStream(new FileOutputStream(outFile));
+            return bmpResized.compress(getCompressFormat(fileExtension), UPLOAD_JPEG_QUALITY, out);
+        } catch (IOException e) {
+            AppLog.e(AppLog.T.UTILS, "failed to write resized image", e);
+            return false;
+        } finally {
+            bmpResized.recycle();
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    AppLog.e(AppLog.T.UTILS, e);
                 }
-                cur.close();
             }
         }
+    }
 
+    /**
+     * Decodes the image at filePath so it fits within maxWidth x maxHeight after being rotated
+     * (pass zero for an unbounded dimension). The image is never scaled up. Scaling and rotation
+     * are applied in a single draw into the destination bitmap, and large sources are decoded in
+     * horizontal bands through BitmapRegionDecoder, so at most the destination bitmap and one band
+     * are in memory at a time.
+     */
+    public static Bitmap decodeScaledBitmap(String filePath, int maxWidth, int maxHeight, int rotation) {
         if (TextUtils.isEmpty(filePath)) {
-            //access the file directly
-            filePath = imageUri.toString().replace("content://media", "");
-            filePath = filePath.replace("file://", "");
+            return null;
         }
 
-        // get just the image bounds
         BitmapFactory.Options optBounds = new BitmapFactory.Options();
         optBounds.inJustDecodeBounds = true;
-
-        try {
-            BitmapFactory.decodeFile(filePath, optBounds);
-        } catch (OutOfMemoryError e) {
-            AppLog.e(AppLog.T.UTILS, "OutOfMemoryError Error in setting image: " + e);
+        BitmapFactory.decodeFile(filePath, optBounds);
+        int srcWidth = optBounds.outWidth;
+        int srcHeight = optBounds.outHeight;
+        if (srcWidth <= 0 || srcHeight <= 0) {
             return null;
         }
 
-        // determine correct scale value (should be power of 2)
-        // http://stackoverflow.com/questions/477572/android-strange-out-of-memory-issue/3549021#3549021
-        int scale = 1;
-        if (maxWidth > 0 && optBounds.outWidth > maxWidth) {
-            double d = Math.pow(2, (int) Math.round(Math.log(maxWidth / (double) optBounds.outWidth) / Math.log(0.5)));
-            scale = (int) d;
+        rotation = ((rotation % 360) + 360) % 360;
+        boolean isSideways = (rotation == 90 || rotation == 270);
+        int orientedWidth = isSideways ? srcHeight : srcWidth;
+        int orientedHeight = isSideways ? srcWidth : srcHeight;
+
+        float scale = 1f;
+        if (maxWidth > 0 && orientedWidth > maxWidth) {
+            scale = (float) maxWidth / orientedWidth;
+        }
+        if (maxHeight > 0 && orientedHeight * scale > maxHeight) {
+            scale = (float) maxHeight / orientedHeight;
+        }
+        int dstWidth = Math.max(1, Math.round(orientedWidth * scale));
+        int dstHeight = Math.max(1, Math.round(orientedHeight * scale));
+
+        // largest power of two which keeps the decoded source at least as big as the target, so
+        // the final filtered draw only ever shrinks
+        int sampleSize = 1;
+        while (sampleSize * 2 <= 1f / scale) {
+            sampleSize *= 2;
         }
 
-        BitmapFactory.Options optActual = new BitmapFactory.Options();
-        optActual.inSampleSize = scale;
+        // maps full-resolution source pixels to destination pixels
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        matrix.postRotate(rotation);
+        RectF mappedBounds = new RectF(0, 0, srcWidth, srcHeight);
+        matrix.mapRect(mappedBounds);
+        matrix.postTranslate(-mappedBounds.left, -mappedBounds.top);
 
-        // Get the roughly resized bitmap
-        final Bitmap bmpResized;
+        Bitmap bmpDest = null;
         try {
-            bmpResized = BitmapFactory.decodeFile(filePath, optActual);
+            bmpDest = Bitmap.createBitmap(dstWidth, dstHeight, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bmpDest);
+            Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.DITHER_FLAG);
+
+            long sampledPixels = (long) (srcWidth / sampleSize) * (srcHeight / sampleSize);
+            boolean drawn = false;
+            if (sampledPixels > MAX_DECODE_BAND_PIXELS) {
+                drawn = drawInBands(filePath, srcWidth, srcHeight, sampleSize, matrix, canvas, paint);
+            }
+            if (!drawn) {
+                BitmapFactory.Options optActual = new BitmapFactory.Options();
+                optActual.inSampleSize = sampleSize;
+                Bitmap bmpSampled = BitmapFactory.decodeFile(filePath, optActual);
+                if (bmpSampled == null) {
+                    bmpDest.recycle();
+                    return null;
+                }
+                canvas.drawBitmap(bmpSampled, getSampledMatrix(matrix, 0, srcWidth, bmpSampled), paint);
+                bmpSampled.recycle();
+            }
+            return bmpDest;
         } catch (OutOfMemoryError e) {
             AppLog.e(AppLog.T.UTILS, "OutOfMemoryError Error in setting image: " + e);
+            if (bmpDest != null) {
+                bmpDest.recycle();
+            }
             return null;
         }
+    }
 
-        if (bmpResized == null) {
-            return null;
+    /*
+     * draws the source image onto the canvas one horizontal band at a time, returns false if the
+     * format isn't supported by BitmapRegionDecoder so the caller can fall back to a full decode
+     */
+    private static boolean drawInBands(String filePath,
+                                       int srcWidth,
+                                       int srcHeight,
+                                       int sampleSize,
+                                       Matrix matrix,
+                                       Canvas canvas,
+                                       Paint paint) {
+        BitmapRegionDecoder decoder;
+        try {
+            decoder = BitmapRegionDecoder.newInstance(filePath, false);
+        } catch (IOException e) {
+            AppLog.w(AppLog.T.UTILS, "region decoding not supported for " + filePath);
+            return false;
         }
 
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-
-        // Now calculate exact scale in order to resize accurately
-        float percentage = (float) maxWidth / bmpResized.getWidth();
-        float proportionateHeight = bmpResized.getHeight() * percentage;
-        int finalHeight = (int) Math.rint(proportionateHeight);
-
-        float scaleWidth = ((float) maxWidth) / bmpResized.getWidth();
-        float scaleHeight = ((float) finalHeight) / bmpResized.getHeight();
-
-        float scaleBy = Math.min(scaleWidth, scaleHeight);
-
-        // Resize the bitmap to exact size
-        Matrix matrix = new Matrix();
-        matrix.postScale(scaleBy, scaleBy);
+        try {
+            BitmapFactory.Options optBand = new BitmapFactory.Options();
+            optBand.inSampleSize = sampleSize;
+            int bandHeight = Math.max(1, MAX_DECODE_BAND_PIXELS / Math.max(1, srcWidth / sampleSize)) * sampleSize;
+
+            Rect region = new Rect();
+            RectF clip = new RectF();
+            for (int top = 0; top < srcHeight; top += bandHeight) {
+                int bottom = Math.min(srcHeight, top + bandHeight);
+                // overlap neighbouring bands slightly so filtering doesn't leave seams, then clip
+                // the draw to the band's own area
+                int decodeTop = Math.max(0, top - sampleSize);
+                int decodeBottom = Math.min(srcHeight, bottom + sampleSize);
+                region.set(0, decodeTop, srcWidth, decodeBottom);
+
+                Bitmap bmpBand = decoder.decodeRegion(region, optBand);
+                if (bmpBand == null) {
+                    return false;
+                }
 
-        // apply rotation
-        if (rotation != 0) {
-            matrix.setRotate(rotation);
+                clip.set(0, top, srcWidth, bottom);
+                matrix.mapRect(clip);
+                canvas.save();
+                canvas.clipRect(clip);
+                canvas.drawBitmap(bmpBand, getSampledMatrix(matrix, decodeTop, srcWidth, bmpBand), paint);
+                canvas.restore();
+                bmpBand.recycle();
+            }
+            return true;
+        } finally {
+            decoder.recycle();
         }
+    }
+
+    /*
+     * returns a matrix which draws a sampled bitmap decoded from source row "top" in the same
+     * place the full-resolution pixels would be drawn by the passed matrix
+     */
+    private static Matrix getSampledMatrix(Matrix matrix, int top, int srcWidth, Bitmap bmpSampled) {
+        float sampleScale = (float) srcWidth / bmpSampled.getWidth();
+        Matrix sampledMatrix = new Matrix(matrix);
+        sampledMatrix.preTranslate(0, top);
+        sampledMatrix.preScale(sampleScale, sampleScale);
+        return sampledMatrix;
+    }
 
-        Bitmap.CompressFormat fmt;
+    private static Bitmap.CompressFormat getCompressFormat(String fileExtension) {
         if (fileExtension != null && fileExtension.equalsIgnoreCase("png")) {
-            fmt = Bitmap.CompressFormat.PNG;
+            return Bitmap.CompressFormat.PNG;
         } else {
-            fmt = Bitmap.CompressFormat.JPEG;
+            return Bitmap.CompressFormat.JPEG;
         }
+    }
 
-        final Bitmap bmpRotated;
-        try {
-            bmpRotated = Bitmap.createBitmap(bmpResized, 0, 0, bmpResized.getWidth(), bmpResized.getHeight(), matrix,
-                    true);
-        } catch (OutOfMemoryError e) {
-            AppLog.e(AppLog.T.UTILS, "OutOfMemoryError Error in setting image: " + e);
-            return null;
-        } catch (NullPointerException e) {
-            // See: https://github.com/wordpress-mobile/WordPress-Android/issues/1844
-            AppLog.e(AppLog.T.UTILS, "Bitmap.createBitmap has thrown a NPE internally. This should never happen: " + e);
-            return null;
+    private static String getFilePathFromUri(Context context, Uri imageUri) {
+        String filePath = null;
+        if (imageUri.toString().contains("content:")) {
+            String[] projection = new String[] { MediaStore.Images.Media.DATA };
+            Cursor cur = context.getContentResolver().query(imageUri, projection, null, null, null);
+            if (cur != null) {
+                if (cur.moveToFirst()) {
+                    int dataColumn = cur.getColumnIndex(MediaStore.Images.Media.DATA);
+                    filePath = cur.getString(dataColumn);
+                }
+                cur.close();
+            }
         }
 
-        if (bmpRotated == null) {
-            // Fix an issue where bmpRotated is null even if the documentation doesn't say Bitmap.createBitmap can return null.
-            // See: https://github.com/wordpress-mobile/WordPress-Android/issues/1848
-            return null;
+        if (TextUtils.isEmpty(filePath)) {
+            //access the file directly
+            filePath = imageUri.toString().replace("content://media", "");
+            filePath = filePath.replace("file://", "");
         }
 
-        bmpRotated.compress(fmt, 100, stream);
-        bmpResized.recycle();
-        bmpRotated.recycle();
-
-        return stream.toByteArray();
+        return filePath;
     }
 
     public static Bitmap getCircularBitmap(final Bitmap bitmap) {
@@ -0,0 +1,248 @@
+package org.wordpress.android.util;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A JSONUtil.queryJSON() path (e.g. "body[last].actions" or "[0].ranges[0].url") parsed into
+ * its steps once, so it can be evaluated repeatedly without re-tokenizing the path string.
+ * Evaluating a compiled query walks the JSON directly and doesn't allocate.
+ *
+ * Compiled queries are cached by path string - use compile() to get one, or hold on to the
+ * result in a static field when the same path is evaluated on a hot path.
+ */
+public class JSONQuery {
+    private static final char QUERY_SEPARATOR = '.';
+    private static final char QUERY_ARRAY_INDEX_START = '[';
+    private static final char QUERY_ARRAY_INDEX_END = ']';
+    private static final String QUERY_ARRAY_FIRST = "first";
+    private static final String QUERY_ARRAY_LAST = "last";
+
+    // paths are almost always literals, but make sure a caller building them on the fly can't
+    // grow the cache without bound
+    private static final int MAX_CACHED_QUERIES = 512;
+    private static final ConcurrentHashMap<String, JSONQuery> sQueries = new ConcurrentHashMap<String, JSONQuery>();
+
+    /*
+     * a compiled path is a list of steps, each either a key into an object or an index into an
+     * array - index steps store the index since "first"/"last"/negative indexes are resolved
+     * against the array when evaluated
+     */
+    private static class Path {
+        final String[] keys;
+        final int[] indexes;
+        final boolean valid;
+
+        Path(String[] keys, int[] indexes, boolean valid) {
+            this.keys = keys;
+            this.indexes = indexes;
+            this.valid = valid;
+        }
+
+        int getStepCount() {
+            return keys.length;
+        }
+
+        boolean isIndexStep(int step) {
+            return keys[step] == null;
+        }
+    }
+
+    private static final Path INVALID_PATH = new Path(new String[0], new int[0], false);
+
+    private final String mQuery;
+    // the path when evaluated against an object, and against an array - queryJSON() ignores
+    // anything before the first index when the source is an array
+    private final Path mObjectPath;
+    private final Path mArrayPath;
+
+    public static JSONQuery compile(String query) {
+        JSONQuery compiled = sQueries.get(query);
+        if (compiled == null) {
+            compiled = new JSONQuery(query);
+            if (sQueries.size() < MAX_CACHED_QUERIES) {
+                sQueries.put(query, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    private JSONQuery(String query) {
+        mQuery = query;
+        mObjectPath = parseObjectPath(query);
+        int indexStart = query.indexOf(QUERY_ARRAY_INDEX_START);
+        mArrayPath = (indexStart == -1 ? INVALID_PATH : parseArrayPath(query.substring(indexStart)));
+    }
+
+    public String getQuery() {
+        return mQuery;
+    }
+
+    /*
+     * "a.b[1].c" -> key a, key b, index 1, key c - a key is everything up to the next separator
+     * or index, so a key may be empty just as with the uncompiled query
+     */
+    private static Path parseObjectPath(String query) {
+        ArrayList<String> keys = new ArrayList<String>();
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        int pos = 0;
+        while (true) {
+            int end = pos;
+            while (end < query.length()
+                    && query.charAt(end) != QUERY_SEPARATOR
+                    && query.charAt(end) != QUERY_ARRAY_INDEX_START) {
+                end++;
+            }
+            keys.add(query.substring(pos, end));
+            indexes.add(0);
+            if (end == query.length()) {
+                return toPath(keys, indexes, true);
+            }
+            if (query.charAt(end) == QUERY_SEPARATOR) {
+                pos = end + 1;
+                continue;
+            }
+            // index steps, then either the end of the query or a separator
+            pos = parseIndexes(query, end, keys, indexes);
+            if (pos == -1) {
+                return INVALID_PATH;
+            }
+            if (pos == query.length()) {
+                return toPath(keys, indexes, true);
+            }
+            if (query.charAt(pos) != QUERY_SEPARATOR) {
+                return INVALID_PATH;
+            }
+            pos++;
+        }
+    }
+
+    /*
+     * "[0].ranges[0].url" -> index 0, key ranges, index 0, key url
+     */
+    private static Path parseArrayPath(String query) {
+        ArrayList<String> keys = new ArrayList<String>();
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        int pos = parseIndexes(query, 0, keys, indexes);
+        if (pos == -1) {
+            return INVALID_PATH;
+        }
+        if (pos == query.length()) {
+            return toPath(keys, indexes, true);
+        }
+        if (query.charAt(pos) != QUERY_SEPARATOR) {
+            AppLog.w(T.UTILS, String.format("Incorrect query for next object %s", query.substring(pos)));
+            return INVALID_PATH;
+        }
+        Path rest = parseObjectPath(query.substring(pos + 1));
+        if (!rest.valid) {
+            return INVALID_PATH;
+        }
+        for (int i = 0; i < rest.getStepCount(); i++) {
+            keys.add(rest.keys[i]);
+            indexes.add(rest.indexes[i]);
+        }
+        return toPath(keys, indexes, true);
+    }
+
+    /*
+     * parses consecutive "[index]" steps starting at pos, returns the position after the last
+     * one or -1 if they're malformed
+     */
+    private static int parseIndexes(String query, int pos, List<String> keys, List<Integer> indexes) {
+        while (pos < query.length() && query.charAt(pos) == QUERY_ARRAY_INDEX_START) {
+            int indexEnd = query.indexOf(QUERY_ARRAY_INDEX_END, pos);
+            if (indexEnd == -1) {
+                return -1;
+            }
+            String indexStr = query.substring(pos + 1, indexEnd);
+            int index;
+            if (indexStr.equals(QUERY_ARRAY_FIRST)) {
+                index = 0;
+            } else if (indexStr.equals(QUERY_ARRAY_LAST)) {
+                index = -1;
+            } else {
+                try {
+                    index = Integer.parseInt(indexStr);
+                } catch (NumberFormatException e) {
+                    AppLog.w(T.UTILS, "Invalid array index in query " + query);
+                    return -1;
+                }
+            }
+            keys.add(null);
+            indexes.add(index);
+            pos = indexEnd + 1;
+        }
+        return pos;
+    }
+
+    private static Path toPath(List<String> keys, List<Integer> indexes, boolean valid) {
+        String[] keyArray = keys.toArray(new String[keys.size()]);
+        int[] indexArray = new int[indexes.size()];
+        for (int i = 0; i < indexArray.length; i++) {
+            indexArray[i] = indexes.get(i);
+        }
+        return new Path(keyArray, indexArray, valid);
+    }
+
+    /**
+     * Returns the value at this path in the passed object, or defaultObject if there's no value
+     * there or it isn't the same type as defaultObject
+     */
+    public <U> U query(JSONObject source, U defaultObject) {
+        return evaluate(source, mObjectPath, defaultObject);
+    }
+
+    /**
+     * Returns the value at this path in the passed array, or defaultObject if there's no value
+     * there or it isn't the same type as defaultObject
+     */
+    public <U> U query(JSONArray source, U defaultObject) {
+        return evaluate(source, mArrayPath, defaultObject);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <U> U evaluate(Object source, Path path, U defaultObject) {
+        if (!path.valid || source == null) {
+            return defaultObject;
+        }
+
+        Object current = source;
+        int lastStep = path.getStepCount() - 1;
+        for (int step = 0; step <= lastStep; step++) {
+            if (path.isIndexStep(step)) {
+                if (!(current instanceof JSONArray)) {
+                    return defaultObject;
+                }
+                JSONArray array = (JSONArray) current;
+                int index = path.indexes[step];
+                if (index < 0) {
+                    index = array.length() + index;
+                }
+                current = array.opt(index);
+            } else {
+                if (!(current instanceof JSONObject)) {
+                    return defaultObject;
+                }
+                current = ((JSONObject) current).opt(path.keys[step]);
+            }
+            if (current == null) {
+                return defaultObject;
+            }
+        }
+
+        if (current.getClass().isAssignableFrom(defaultObject.getClass())) {
+            return (U) current;
+        }
+        if (path.isIndexStep(lastStep)) {
+            AppLog.w(T.UTILS, String.format("The returned object type %s is not assignable to the type %s. Using default!",
+                    current.getClass(), defaultObject.getClass()));
+        }
+        return defaultObject;
+    }
+}
@@ -9,77 +9,24 @@ import org.wordpress.android.util.AppLog.T;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JSONUtil {
-    private static String QUERY_SEPERATOR=".";
-    private static String QUERY_ARRAY_INDEX_START="[";
-    private static String QUERY_ARRAY_INDEX_END="]";
-    private static String QUERY_ARRAY_FIRST="first";
-    private static String QUERY_ARRAY_LAST="last";
-
     private static final String JSON_NULL_STR = "null";
 
     private static final String TAG="JSONUtil";
+
+    // getJSONChild() paths split into their names
+    private static final int MAX_CACHED_CHILD_QUERIES = 256;
+    private static final ConcurrentHashMap<String, String[]> sChildQueries = new ConcurrentHashMap<String, String[]>();
+
     /**
      * Given a JSONObject and a key path (e.g property.child) and a default it will
-     * traverse the object graph and pull out the desired property
+     * traverse the object graph and pull out the desired property - the path is compiled
+     * once and cached, see JSONQuery
      */
     public static <U> U queryJSON(JSONObject source, String query, U defaultObject) {
-        int nextSeperator = query.indexOf(QUERY_SEPERATOR);
-        int nextIndexStart = query.indexOf(QUERY_ARRAY_INDEX_START);
-        if (nextSeperator == -1 && nextIndexStart == -1) {
-            // last item let's get it
-            try {
-                if (!source.has(query)) {
-                    return defaultObject;
-                }
-                Object result = source.get(query);
-                if (result.getClass().isAssignableFrom(defaultObject.getClass())) {
-                    return (U) result;
-                } else {
-                    return defaultObject;
-                }
-            } catch (java.lang.ClassCastException e) {
-                AppLog.e(T.UTILS, "Unable to cast the object to " + defaultObject.getClass().getName(), e);
-                return defaultObject;
-            } catch (JSONException e) {
-                AppLog.e(T.UTILS, "Unable to get the Key from the input object. Key:" + query, e);
-                return defaultObject;
-            }
-        }
-        int endQuery;
-        if (nextSeperator == -1 || nextIndexStart == -1) {
-            endQuery = Math.max(nextSeperator, nextIndexStart);
-        } else {
-            endQuery = Math.min(nextSeperator, nextIndexStart);
-        }
-        String nextQuery = query.substring(endQuery);
-        String key = query.substring(0, endQuery);
-        try {
-            if (source == null) {
-                return defaultObject;
-            }
-            if (nextQuery.indexOf(QUERY_SEPERATOR) == 0) {
-                return queryJSON(source.getJSONObject(key), nextQuery.substring(1), defaultObject);
-            } else if (nextQuery.indexOf(QUERY_ARRAY_INDEX_START) == 0) {
-                return queryJSON(source.getJSONArray(key), nextQuery, defaultObject);
-            } else if (!nextQuery.equals("")) {
-                return defaultObject;
-            }
-            Object result = source.get(key);
-            if (result.getClass().isAssignableFrom(defaultObject.getClass())) {
-                return (U) result;
-            } else {
-                AppLog.w(T.UTILS, String.format("The returned object type %s is not assignable to the type %s. Using default!",
-                        result.getClass(),defaultObject.getClass()));
-                return defaultObject;
-            }
-        } catch (java.lang.ClassCastException e) {
-            AppLog.e(T.UTILS, "Unable to cast the object to " + defaultObject.getClass().getName(), e);
-            return defaultObject;
-        } catch (JSONException e) {
-            return defaultObject;
-        }
+        return JSONQuery.compile(query).query(source, defaultObject);
     }
 
     /**
@@ -90,51 +37,7 @@ public class JSONUtil {
      * the list as well as "last" and "first" as more explicit references to "0" and "-1"
      */
     public static <U> U queryJSON(JSONArray source, String query, U defaultObject){
-        // query must start with [ have an index and then have ]
-        int indexStart = query.indexOf(QUERY_ARRAY_INDEX_START);
-        int indexEnd = query.indexOf(QUERY_ARRAY_INDEX_END);
-        if (indexStart == -1 || indexEnd == -1 || indexStart > indexEnd) {
-            return defaultObject;
-        }
-        // get "index" from "[index]"
-        String indexStr = query.substring(indexStart + 1, indexEnd);
-        int index;
-        if (indexStr.equals(QUERY_ARRAY_FIRST)) {
-            index = 0;
-        } else if (indexStr.equals(QUERY_ARRAY_LAST)) {
-            index = -1;
-        } else {
-            index = Integer.parseInt(indexStr);
-        }
-        if (index < 0) {
-            index = source.length() + index;
-        }
-        // copy remaining query
-        String remainingQuery = query.substring(indexEnd + 1);
-        try {
-            if (remainingQuery.indexOf(QUERY_ARRAY_INDEX_START) == 0) {
-                return queryJSON(source.getJSONArray(index), remainingQuery, defaultObject);
-            } else if (remainingQuery.indexOf(QUERY_SEPERATOR) == 0) {
-                return queryJSON(source.getJSONObject(index), remainingQuery.substring(1), defaultObject);
-            } else if (!remainingQuery.equals("")) {
-                // TODO throw an exception since the query isn't valid?
-                AppLog.w(T.UTILS, String.format("Incorrect query for next object %s", remainingQuery));
-                return defaultObject;
-            }
-            Object result = source.get(index);
-            if (result.getClass().isAssignableFrom(defaultObject.getClass())) {
-                return (U) result;
-            } else {
-                AppLog.w(T.UTILS, String.format("The returned object type %s is not assignable to the type %s. Using default!",
-                        result.getClass(),defaultObject.getClass()));
-                return defaultObject;
-            }
-        } catch (java.lang.ClassCastException e) {
-            AppLog.e(T.UTILS, "Unable to cast the object to "+defaultObject.getClass().getName(), e);
-            return defaultObject;
-        } catch (JSONException e) {
-            return defaultObject;
-        }
+        return JSONQuery.compile(query).query(source, defaultObject);
     }
 
     /**
@@ -219,7 +122,13 @@ public class JSONUtil {
     public static JSONObject getJSONChild(final JSONObject jsonParent, final String query) {
         if (jsonParent == null || TextUtils.isEmpty(query))
             return null;
-        String[] names = query.split("/");
+        String[] names = sChildQueries.get(query);
+        if (names == null) {
+            names = query.split("/");
+            if (sChildQueries.size() < MAX_CACHED_CHILD_QUERIES) {
+                sChildQueries.put(query, names);
+            }
+        }
         JSONObject jsonChild = null;
         for (int i = 0; i < names.length; i++) {
             if (jsonChild == null) {
@@ -57,6 +57,22 @@ public class NetworkUtils {
         return (getActiveNetworkType(context) == ConnectivityManager.TYPE_WIFI);
     }
 
+    /**
+     * returns true if there's an active connection the user isn't charged for by the byte -
+     * prior to JellyBean only WiFi is treated as unmetered
+     */
+    @TargetApi(VERSION_CODES.JELLY_BEAN)
+    public static boolean isUnmeteredConnection(Context context) {
+        if (!isNetworkAvailable(context)) {
+            return false;
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return isWiFiConnected(context);
+        }
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        return !cm.isActiveNetworkMetered();
+    }
+
     /**
      * returns true if airplane mode has been enabled
      */
@@ -5,9 +5,22 @@ import android.os.SystemClock;
 import org.wordpress.android.util.AppLog.T;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * forked from android.util.TimingLogger to use AppLog instead of Log + new static interface.
+ *
+ * Also records trace spans - named, nested sections of work on any thread:
+ *
+ *   long span = ProfilingUtils.beginSpan("WordPressDB.open");
+ *   ...
+ *   ProfilingUtils.endSpan(span);
+ *
+ * Spans are written to a fixed-size ring buffer, so the most recent MAX_SPANS are kept and
+ * recording a span never allocates. Recording is off until setTracingEnabled(true), and
+ * beginSpan() returns NO_SPAN straight away while it's off.
  */
 public class ProfilingUtils {
     private static ProfilingUtils sInstance;
@@ -16,15 +29,15 @@ public class ProfilingUtils {
     private ArrayList<Long> mSplits;
     private ArrayList<String> mSplitLabels;
 
-    public static void start(String label) {
+    public static synchronized void start(String label) {
         getInstance().reset(label);
     }
 
-    public static void split(String splitLabel) {
+    public static synchronized void split(String splitLabel) {
         getInstance().addSplit(splitLabel);
     }
 
-    public static void dump() {
+    public static synchronized void dump() {
         getInstance().dumpToLog();
     }
 
@@ -73,5 +86,204 @@ public class ProfilingUtils {
         }
         AppLog.d(T.PROFILING, mLabel + ": end, " + (now - first) + " ms");
     }
-}
 
+    /*
+     * trace spans
+     */
+    public static final long NO_SPAN = -1;
+    private static final int MAX_SPANS = 512;
+
+    private static volatile boolean sIsTracingEnabled;
+    private static final AtomicLong sNextSpan = new AtomicLong();
+
+    // the ring buffer - a span's slot is its id modulo MAX_SPANS, and sSpanIds tells whether a
+    // slot still holds the span that was begun there
+    private static final long[] sSpanIds = new long[MAX_SPANS];
+    private static final String[] sSpanNames = new String[MAX_SPANS];
+    private static final long[] sSpanThreadIds = new long[MAX_SPANS];
+    private static final String[] sSpanThreadNames = new String[MAX_SPANS];
+    private static final int[] sSpanDepths = new int[MAX_SPANS];
+    private static final long[] sSpanStartNanos = new long[MAX_SPANS];
+    private static final long[] sSpanEndNanos = new long[MAX_SPANS];
+
+    // how deeply spans are nested on each thread
+    private static final ThreadLocal<int[]> sDepth = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    public static class Span {
+        public final String name;
+        public final long threadId;
+        public final String threadName;
+        public final int depth;
+        public final long startNanos;
+        public final long durationNanos; // -1 if the span hasn't ended
+
+        Span(String name, long threadId, String threadName, int depth, long startNanos, long durationNanos) {
+            this.name = name;
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.depth = depth;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public boolean hasEnded() {
+            return durationNanos >= 0;
+        }
+    }
+
+    public static void setTracingEnabled(boolean enabled) {
+        sIsTracingEnabled = enabled;
+    }
+
+    public static boolean isTracingEnabled() {
+        return sIsTracingEnabled;
+    }
+
+    /**
+     * Begins a span on the current thread and returns its id, which must be passed to endSpan()
+     * on the same thread - spans begun while another span on the thread is open are nested in it
+     */
+    public static long beginSpan(String name) {
+        return beginSpan(name, true);
+    }
+
+    /**
+     * Begins a span that will be ended on another thread with endSpanFromAnyThread() - it's
+     * shown at the current thread's nesting depth, but later spans on the thread aren't nested
+     * in it
+     */
+    public static long beginSpanForAnyThread(String name) {
+        return beginSpan(name, false);
+    }
+
+    private static long beginSpan(String name, boolean isNested) {
+        if (!sIsTracingEnabled) {
+            return NO_SPAN;
+        }
+        long spanId = sNextSpan.getAndIncrement();
+        int slot = (int) (spanId % MAX_SPANS);
+        int[] depth = sDepth.get();
+        Thread thread = Thread.currentThread();
+        synchronized (sSpanIds) {
+            sSpanIds[slot] = spanId;
+            sSpanNames[slot] = name;
+            sSpanThreadIds[slot] = thread.getId();
+            sSpanThreadNames[slot] = thread.getName();
+            sSpanDepths[slot] = depth[0];
+            sSpanEndNanos[slot] = 0;
+            sSpanStartNanos[slot] = System.nanoTime();
+        }
+        if (isNested) {
+            depth[0]++;
+        }
+        return spanId;
+    }
+
+    public static void endSpan(long spanId) {
+        if (spanId == NO_SPAN) {
+            return;
+        }
+        long now = System.nanoTime();
+        int[] depth = sDepth.get();
+        if (depth[0] > 0) {
+            depth[0]--;
+        }
+        int slot = (int) (spanId % MAX_SPANS);
+        synchronized (sSpanIds) {
+            // the slot may have been reused by a newer span if this one ran for a long time
+            if (sSpanIds[slot] == spanId) {
+                sSpanEndNanos[slot] = now;
+            }
+        }
+    }
+
+    /**
+     * Ends a span begun with beginSpanForAnyThread(), such as one begun when the app starts and
+     * ended when its first activity is drawn - doesn't change the nesting of spans on any thread
+     */
+    public static void endSpanFromAnyThread(long spanId) {
+        if (spanId == NO_SPAN) {
+            return;
+        }
+        long now = System.nanoTime();
+        int slot = (int) (spanId % MAX_SPANS);
+        synchronized (sSpanIds) {
+            if (sSpanIds[slot] == spanId) {
+                sSpanEndNanos[slot] = now;
+            }
+        }
+    }
+
+    /**
+     * Returns the spans in the ring buffer, oldest first
+     */
+    public static List<Span> getSpans() {
+        List<Span> spans = new ArrayList<Span>();
+        synchronized (sSpanIds) {
+            long nextSpan = sNextSpan.get();
+            long firstSpan = Math.max(0, nextSpan - MAX_SPANS);
+            for (long spanId = firstSpan; spanId < nextSpan; spanId++) {
+                int slot = (int) (spanId % MAX_SPANS);
+                // skip spans that have begun but not been written yet
+                if (sSpanIds[slot] != spanId || sSpanNames[slot] == null) {
+                    continue;
+                }
+                long endNanos = sSpanEndNanos[slot];
+                long durationNanos = (endNanos != 0 ? endNanos - sSpanStartNanos[slot] : -1);
+                spans.add(new Span(sSpanNames[slot], sSpanThreadIds[slot], sSpanThreadNames[slot],
+                        sSpanDepths[slot], sSpanStartNanos[slot], durationNanos));
+            }
+        }
+        return spans;
+    }
+
+    /**
+     * Returns the spans in the ring buffer as text, one span per line with its start relative to
+     * the first span, indented by how deeply it's nested
+     */
+    public static String exportSpans() {
+        List<Span> spans = getSpans();
+        StringBuilder sb = new StringBuilder();
+        if (spans.size() == 0) {
+            return "";
+        }
+        long firstNanos = spans.get(0).startNanos;
+        for (Span span : spans) {
+            sb.append(String.format(Locale.US, "%8.2f ms  [%s]  ", (span.startNanos - firstNanos) / 1000000f,
+                    span.threadName));
+            for (int i = 0; i < span.depth; i++) {
+                sb.append("  ");
+            }
+            sb.append(span.name);
+            if (span.hasEnded()) {
+                sb.append(String.format(Locale.US, " %.2f ms", span.durationNanos / 1000000f));
+            } else {
+                sb.append(" (not ended)");
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static void dumpSpans() {
+        for (String line : exportSpans().split("\n")) {
+            if (line.length() > 0) {
+                AppLog.d(T.PROFILING, line);
+            }
+        }
+    }
+
+    public static void clearSpans() {
+        synchronized (sSpanIds) {
+            for (int i = 0; i < MAX_SPANS; i++) {
+                sSpanIds[i] = -1;
+                sSpanNames[i] = null;
+            }
+        }
+    }
+}